@@ -0,0 +1,160 @@
+package benchmark;
+
+import common.dto.DTOCard;
+import common.dto.DTOClient;
+import common.dto.DTOStackSummary;
+import common.dto.message.GameUpdateType;
+import common.dto.message.MessageObject;
+import common.dto.message.MessageType;
+import common.simon.action.CardAction;
+import common.simon.action.GameAction;
+import common.simon.codec.WireCodec;
+import common.utilities.constants.GameCardConstants;
+import common.utilities.constants.PlayerConstants;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares the size and the encoding and decoding time of the {@link WireCodec} with Java
+ * serialization for typical messages of a round. The codec of the sender is warmed up with
+ * the player names, like it would be after the first messages of a connection.
+ * Run it with the compiled sources and the i18n resources on the classpath.
+ */
+@SuppressWarnings("ALL")
+public class CodecBenchmark {
+  private static final int WARM_UP_ITERATIONS = 20000;
+  private static final int ITERATIONS = 100000;
+
+  public static void main(String[] args) throws Exception {
+    final Map<String, Object> samples = createSamples();
+    final WireCodec encoder = new WireCodec();
+    final WireCodec decoder = new WireCodec();
+    /* fill the name dictionaries */
+    for (Object sample : samples.values()) {
+      if(sample instanceof MessageObject) {
+        decoder.decodeMessage(encoder.encodeMessage((MessageObject) sample));
+        encoder.commitNames();
+      }
+    }
+
+    System.out.println(String.format("%-20s %10s %10s %12s %12s %12s %12s", "sample",
+        "java [B]", "codec [B]", "java enc ns", "codec enc ns", "java dec ns", "codec dec ns"));
+    for (Map.Entry<String, Object> entry : samples.entrySet()) {
+      final Object sample = entry.getValue();
+      final byte[] serialized = serialize(sample);
+      final byte[] encoded = encode(encoder, sample);
+
+      measureJava(sample, WARM_UP_ITERATIONS);
+      measureCodec(encoder, decoder, sample, WARM_UP_ITERATIONS);
+      final long[] javaTimes = measureJava(sample, ITERATIONS);
+      final long[] codecTimes = measureCodec(encoder, decoder, sample, ITERATIONS);
+      System.out.println(String.format("%-20s %10d %10d %12d %12d %12d %12d", entry.getKey(),
+          serialized.length, encoded.length, javaTimes[0], codecTimes[0], javaTimes[1],
+          codecTimes[1]));
+    }
+  }
+
+  private static Map<String, Object> createSamples() {
+    final List<DTOClient> players = new ArrayList<DTOClient>();
+    final String[] names = {"Alice", "Bob", "Carol", "Dave"};
+    for (int index = 0; index < names.length; index++) {
+      final DTOClient client = new DTOClient(names[index]);
+      client.cardCount = 6;
+      client.playerType = PlayerConstants.PlayerType.values()[index];
+      players.add(client);
+    }
+
+    final List<DTOCard> hand = cards(6, 0);
+    final List<List<DTOCard>> inGameCards = new ArrayList<List<DTOCard>>();
+    inGameCards.add(cards(3, 10));
+    inGameCards.add(cards(2, 20));
+    final List<Boolean> roundInfo = new ArrayList<Boolean>();
+    roundInfo.add(true);
+    roundInfo.add(false);
+    roundInfo.add(false);
+    final DTOStackSummary summary = new DTOStackSummary();
+    summary.cardCount = 24;
+    summary.trumpCard = cards(1, 40).get(0);
+
+    final List<MessageObject> frame = new ArrayList<MessageObject>();
+    frame.add(new MessageObject(GameUpdateType.CLIENT_CARDS, hand));
+    frame.add(new MessageObject(MessageType.OWN_CLIENT_INFO, players.get(0)));
+    frame.add(new MessageObject(GameUpdateType.PLAYERS_UPDATE, players));
+    frame.add(new MessageObject(GameUpdateType.STACK_SUMMARY, summary));
+    frame.add(new MessageObject(GameUpdateType.NEXT_ROUND_INFO, roundInfo));
+
+    final Map<String, Object> samples = new LinkedHashMap<String, Object>();
+    samples.put("CLIENT_CARDS", new MessageObject(GameUpdateType.CLIENT_CARDS, hand));
+    samples.put("IN_GAME_CARDS", new MessageObject(GameUpdateType.IN_GAME_CARDS, inGameCards));
+    samples.put("PLAYERS_UPDATE", new MessageObject(GameUpdateType.PLAYERS_UPDATE, players));
+    samples.put("NEXT_ROUND_INFO", new MessageObject(GameUpdateType.NEXT_ROUND_INFO, roundInfo));
+    samples.put("STACK_SUMMARY", new MessageObject(GameUpdateType.STACK_SUMMARY, summary));
+    samples.put("ROUND_FRAME", new MessageObject(GameUpdateType.ROUND_FRAME, frame));
+    samples.put("CardAction", new CardAction(CardAction.CardActionType.DEFENSE,
+        cards(1, 10), cards(1, 20), players.get(2), GameAction.ActionType.CARD_ACTION));
+    return samples;
+  }
+
+  private static List<DTOCard> cards(int count, int firstIndex) {
+    final GameCardConstants.CardColour[] colours = GameCardConstants.CardColour.values();
+    final GameCardConstants.CardValue[] values = GameCardConstants.CardValue.values();
+    final List<DTOCard> cards = new ArrayList<DTOCard>(count);
+    for (int index = firstIndex; index < firstIndex + count; index++) {
+      final DTOCard card = new DTOCard();
+      card.cardColour = colours[index / values.length];
+      card.cardValue = values[index % values.length];
+      cards.add(card);
+    }
+    return cards;
+  }
+
+  /* Returns the average encoding and decoding time in nanoseconds */
+  private static long[] measureJava(Object sample, int iterations) throws Exception {
+    long encoding = 0L;
+    long decoding = 0L;
+    for (int index = 0; index < iterations; index++) {
+      long start = System.nanoTime();
+      final byte[] data = serialize(sample);
+      encoding += System.nanoTime() - start;
+      start = System.nanoTime();
+      new ObjectInputStream(new ByteArrayInputStream(data)).readObject();
+      decoding += System.nanoTime() - start;
+    }
+    return new long[]{encoding / iterations, decoding / iterations};
+  }
+
+  private static long[] measureCodec(WireCodec encoder, WireCodec decoder, Object sample,
+                                     int iterations) throws Exception {
+    long encoding = 0L;
+    long decoding = 0L;
+    for (int index = 0; index < iterations; index++) {
+      long start = System.nanoTime();
+      final byte[] data = encode(encoder, sample);
+      encoding += System.nanoTime() - start;
+      start = System.nanoTime();
+      if(sample instanceof MessageObject)
+        decoder.decodeMessage(data);
+      else WireCodec.decodeAction(data);
+      decoding += System.nanoTime() - start;
+    }
+    return new long[]{encoding / iterations, decoding / iterations};
+  }
+
+  private static byte[] serialize(Object object) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final ObjectOutputStream out = new ObjectOutputStream(bytes);
+    out.writeObject(object);
+    out.close();
+    return bytes.toByteArray();
+  }
+
+  private static byte[] encode(WireCodec encoder, Object sample) throws Exception {
+    if(sample instanceof MessageObject)
+      return encoder.encodeMessage((MessageObject) sample);
+    else return WireCodec.encodeAction((GameAction) sample);
+  }
+}
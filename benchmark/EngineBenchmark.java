@@ -0,0 +1,320 @@
+package benchmark;
+
+import common.dto.DTOCard;
+import common.dto.DTOCardStack;
+import common.dto.DTOClient;
+import common.game.GameCard;
+import common.game.GameCardStack;
+import common.game.GameProcess;
+import common.simon.action.CardAction;
+import common.simon.action.FinishAction;
+import common.simon.action.GameAction;
+import common.utilities.Converter;
+import common.utilities.constants.GameCardConstants;
+import common.utilities.constants.PlayerConstants;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures the time and the allocated bytes per operation of the game engine, i.e. the
+ * classes {@link GameProcess}, {@link common.game.rules.RuleChecker},
+ * {@link GameCardStack} and {@link Converter}. The allocated bytes are read from the
+ * thread allocation counter of the JVM, so they correspond to the normalised allocation
+ * rate of a gc profiler.
+ * The clock and the allocation counter are too coarse for a single run, so every case
+ * prepares the states of a batch of {@link #BATCH_SIZE} runs, the whole batch is measured
+ * and the time and the allocated bytes of the batch are divided by its size. Preparing
+ * the states will not be measured.
+ * If the path of a baseline file is passed as argument, the difference to the baseline
+ * will be printed as well. The checked in baseline is benchmark/engine-baseline.txt.
+ * Run it with the compiled sources and the i18n resources on the classpath.
+ */
+@SuppressWarnings("ALL")
+public class EngineBenchmark {
+  private static final int WARM_UP_ROUNDS = 3;
+  private static final int BATCHES = 1000;
+  private static final int BATCH_SIZE = 100;
+  private static final int CARDS_PER_COLOUR = 9;
+
+  private static final Integer FIRST_ID = 1;
+  private static final Integer SECOND_ID = 2;
+
+  private static final PlayerConstants.PlayerType FIRST_ATTACKER =
+      PlayerConstants.PlayerType.FIRST_ATTACKER;
+  private static final PlayerConstants.PlayerType DEFENDER =
+      PlayerConstants.PlayerType.DEFENDER;
+
+  private static final com.sun.management.ThreadMXBean THREAD_BEAN =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  public static void main(String[] args) throws Exception {
+    final Map<String, long[]> baseline = args.length > 0 ?
+        readBaseline(args[0]) : new HashMap<String, long[]>();
+    final List<Case> cases = createCases();
+    final Case emptyCase = new Case("overhead") {
+      void run(int index) {}
+    };
+
+    /* warm up all cases first, so that the compiled code does not change while measuring */
+    for (int round = 0; round < WARM_UP_ROUNDS; round++) {
+      measure(emptyCase);
+      for (Case benchmarkCase : cases)
+        measure(benchmarkCase);
+    }
+
+    final long[] overhead = measure(emptyCase);
+    System.out.println(String.format("%-28s %10s %10s %12s %12s", "case", "ns/op", "B/op",
+        "base ns/op", "base B/op"));
+    for (Case benchmarkCase : cases) {
+      final long[] result = measure(benchmarkCase);
+      final long nanos = Math.max(0L, result[0] - overhead[0]);
+      final long bytes = Math.max(0L, result[1] - overhead[1]);
+      final long[] base = baseline.get(benchmarkCase.name);
+      System.out.println(String.format("%-28s %10d %10d %12s %12s", benchmarkCase.name,
+          nanos, bytes, base != null ? difference(nanos, base[0]) : "-",
+          base != null ? difference(bytes, base[1]) : "-"));
+    }
+  }
+
+  private static List<Case> createCases() {
+    final List<Case> cases = new ArrayList<Case>();
+    cases.add(new Case("initialiseNewGame") {
+      final GameProcess<Integer>[] processes = newProcesses();
+      void prepare(int index) {
+        processes[index].stopProcess();
+      }
+      void run(int index) {
+        processes[index].initialiseNewGame(CARDS_PER_COLOUR);
+      }
+    });
+    cases.add(new GameCase("validateAction.attack") {
+      GameAction prepareGame(GameProcess<Integer> process) {
+        return attackAction(process);
+      }
+    });
+    cases.add(new GameCase("validateAction.defense") {
+      GameAction prepareGame(GameProcess<Integer> process) throws Exception {
+        GameAction action;
+        do {
+          startGame(process);
+          process.validateAction(attackAction(process), idOf(process, FIRST_ATTACKER));
+          action = defenseAction(process);
+        } while(action == null);
+        return action;
+      }
+    });
+    cases.add(new GameCase("validateAction.finish") {
+      GameAction prepareGame(GameProcess<Integer> process) throws Exception {
+        process.validateAction(attackAction(process), idOf(process, FIRST_ATTACKER));
+        return finishAction(DEFENDER, FinishAction.FinishType.TAKE_CARDS);
+      }
+    });
+    cases.add(new GameCase("tryAction.ruleBroken") {
+      GameAction prepareGame(GameProcess<Integer> process) throws Exception {
+        process.validateAction(attackAction(process), idOf(process, FIRST_ATTACKER));
+        return finishAction(DEFENDER, FinishAction.FinishType.GO_TO_NEXT_ROUND);
+      }
+      void run(int index) {
+        processes[index].tryAction(actions[index],
+            idOf(processes[index], actions[index].getExecutor().playerType));
+      }
+    });
+    cases.add(new GameCase("goToNextRound") {
+      GameAction prepareGame(GameProcess<Integer> process) throws Exception {
+        process.validateAction(attackAction(process), idOf(process, FIRST_ATTACKER));
+        process.validateAction(finishAction(DEFENDER,
+            FinishAction.FinishType.TAKE_CARDS), idOf(process, DEFENDER));
+        process.validateAction(finishAction(FIRST_ATTACKER,
+            FinishAction.FinishType.GO_TO_NEXT_ROUND), idOf(process, FIRST_ATTACKER));
+        return null;
+      }
+      void run(int index) {
+        processes[index].goToNextRound();
+      }
+    });
+
+    final GameCardStack stack = new GameCardStack();
+    stack.initialiseStack(CARDS_PER_COLOUR);
+    final List<GameCard> hand = new ArrayList<GameCard>();
+    for (int index = 0; index < 6; index++)
+      hand.add(stack.drawCard());
+    final List<DTOCard> dtoHand = Converter.toDTO(hand);
+    final DTOCardStack dtoStack = Converter.toDTO(stack);
+    cases.add(new Case("Converter.toDTO.hand") {
+      void run(int index) {
+        Converter.toDTO(hand);
+      }
+    });
+    cases.add(new Case("Converter.fromDTO.hand") {
+      void run(int index) {
+        Converter.fromDTO(dtoHand);
+      }
+    });
+    cases.add(new Case("Converter.toDTO.stack") {
+      void run(int index) {
+        Converter.toDTO(stack);
+      }
+    });
+    cases.add(new Case("Converter.fromDTO.stack") {
+      void run(int index) {
+        Converter.fromDTO(dtoStack);
+      }
+    });
+    return cases;
+  }
+
+  /* Returns the average time in nanoseconds and the average allocated bytes of a run */
+  private static long[] measure(Case benchmarkCase) throws Exception {
+    final long threadID = Thread.currentThread().getId();
+    long nanos = 0L;
+    long bytes = 0L;
+    for (int batch = 0; batch < BATCHES; batch++) {
+      for (int index = 0; index < BATCH_SIZE; index++)
+        benchmarkCase.prepare(index);
+      final long startBytes = THREAD_BEAN.getThreadAllocatedBytes(threadID);
+      final long start = System.nanoTime();
+      for (int index = 0; index < BATCH_SIZE; index++)
+        benchmarkCase.run(index);
+      nanos += System.nanoTime() - start;
+      bytes += THREAD_BEAN.getThreadAllocatedBytes(threadID) - startBytes;
+    }
+    final long runs = (long) BATCHES * BATCH_SIZE;
+    return new long[]{nanos / runs, bytes / runs};
+  }
+
+  private static String difference(long value, long base) {
+    if(base == 0L)
+      return value == 0L ? "0%" : "+inf";
+    return String.format("%+d%%", (value - base) * 100L / base);
+  }
+
+  /* Reads lines of the form "case ns/op B/op", lines starting with # will be ignored */
+  private static Map<String, long[]> readBaseline(String path) throws IOException {
+    final Map<String, long[]> baseline = new HashMap<String, long[]>();
+    final BufferedReader reader = new BufferedReader(new FileReader(path));
+    try {
+      String line;
+      while((line = reader.readLine()) != null) {
+        line = line.trim();
+        if(line.isEmpty() || line.startsWith("#"))
+          continue;
+        final String[] columns = line.split("\\s+");
+        baseline.put(columns[0],
+            new long[]{Long.parseLong(columns[1]), Long.parseLong(columns[2])});
+      }
+    } finally {
+      reader.close();
+    }
+    return baseline;
+  }
+
+  private static GameProcess<Integer> newProcess() {
+    final GameProcess<Integer> process = new GameProcess<Integer>();
+    process.setPlayer(FIRST_ID);
+    process.setPlayer(SECOND_ID);
+    return process;
+  }
+
+  private static GameProcess<Integer>[] newProcesses() {
+    final GameProcess<Integer>[] processes = new GameProcess[BATCH_SIZE];
+    for (int index = 0; index < BATCH_SIZE; index++)
+      processes[index] = newProcess();
+    return processes;
+  }
+
+  private static void startGame(GameProcess<Integer> process) {
+    process.stopProcess();
+    process.initialiseNewGame(CARDS_PER_COLOUR);
+  }
+
+  private static Integer idOf(GameProcess<Integer> process, PlayerConstants.PlayerType type) {
+    return type.equals(process.getPlayerType(FIRST_ID)) ? FIRST_ID : SECOND_ID;
+  }
+
+  private static DTOClient executor(PlayerConstants.PlayerType type) {
+    final DTOClient client = new DTOClient(type.name());
+    client.playerType = type;
+    return client;
+  }
+
+  /* The first attacker attacks with his first card */
+  private static GameAction attackAction(GameProcess<Integer> process) {
+    final List<DTOCard> cards = new ArrayList<DTOCard>();
+    cards.add(process.getPlayerCards(idOf(process, FIRST_ATTACKER)).get(0));
+    return new CardAction(CardAction.CardActionType.ATTACK, cards, new ArrayList<DTOCard>(),
+        executor(FIRST_ATTACKER), GameAction.ActionType.CARD_ACTION);
+  }
+
+  /* The defender beats the attack card or null, if he has no card to beat it */
+  private static GameAction defenseAction(GameProcess<Integer> process) {
+    final GameCard attackerCard = process.getAttackCards().get(0);
+    final GameCardConstants.CardColour trumpColour =
+        process.getStack().getTrumpCard().getCardColour();
+    for (DTOCard dtoCard : process.getPlayerCards(idOf(process, DEFENDER))) {
+      final GameCard card = Converter.fromDTO(dtoCard);
+      final boolean higher = card.getCardColour().equals(attackerCard.getCardColour()) &&
+          card.getCardValue().compareTo(attackerCard.getCardValue()) > 0;
+      final boolean trumps = card.getCardColour().equals(trumpColour) &&
+          !attackerCard.getCardColour().equals(trumpColour);
+      if(higher || trumps) {
+        final List<DTOCard> attackCards = new ArrayList<DTOCard>();
+        final List<DTOCard> defenderCards = new ArrayList<DTOCard>();
+        attackCards.add(Converter.toDTO(attackerCard));
+        defenderCards.add(dtoCard);
+        return new CardAction(CardAction.CardActionType.DEFENSE, attackCards, defenderCards,
+            executor(DEFENDER), GameAction.ActionType.CARD_ACTION);
+      }
+    }
+    return null;
+  }
+
+  private static GameAction finishAction(PlayerConstants.PlayerType type,
+                                         FinishAction.FinishType finishType) {
+    return new FinishAction(finishType, executor(type), GameAction.ActionType.ROUND_REQUEST);
+  }
+
+  /* Inner Classes */
+
+  private static abstract class Case {
+    final String name;
+
+    Case(String name) {
+      this.name = name;
+    }
+
+    /* prepares the state of a run of the next batch, it will not be measured */
+    void prepare(int index) throws Exception {}
+
+    abstract void run(int index) throws Exception;
+  }
+
+  /* Validates the prepared action of a started game of two players */
+  private static abstract class GameCase extends Case {
+    final GameProcess<Integer>[] processes = newProcesses();
+    final GameAction[] actions = new GameAction[BATCH_SIZE];
+
+    GameCase(String name) {
+      super(name);
+    }
+
+    void prepare(int index) throws Exception {
+      startGame(processes[index]);
+      actions[index] = prepareGame(processes[index]);
+    }
+
+    /* prepares the started game and returns the action of the run */
+    abstract GameAction prepareGame(GameProcess<Integer> process) throws Exception;
+
+    void run(int index) throws Exception {
+      processes[index].validateAction(actions[index],
+          idOf(processes[index], actions[index].getExecutor().playerType));
+    }
+  }
+}
@@ -2,6 +2,7 @@ package client;
 
 import client.data.GlobalSettings;
 import client.gui.frame.ClientFrame;
+import common.resources.CardAtlas;
 import common.utilities.LoggingUtility;
 
 import javax.swing.*;
@@ -24,6 +25,8 @@ public class StartClient {
   private static final Logger LOGGER = LoggingUtility.getLogger(StartClient.class.getName());
 
   public static void main(String[] args) {
+    /* the cards are decoded while the frame is built */
+    CardAtlas.getAtlas().preload();
     init();
 
     final ClientFrame mainFrame = ClientFrame.getInstance();
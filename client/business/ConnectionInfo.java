@@ -22,6 +22,7 @@ public class ConnectionInfo {
   private String serverAddress;
   private Integer serverPort;
   private String password;
+  private String tableName;
 
   private ConnectionInfo() {
     try {
@@ -32,6 +33,7 @@ public class ConnectionInfo {
     }
     setServerPort(GameConfigurationConstants.DEFAULT_PORT);
     setPassword("");
+    setTableName(GameConfigurationConstants.DEFAULT_TABLE_NAME);
   }
 
   public static ConnectionInfo getOwnInstance() {
@@ -61,6 +63,16 @@ public class ConnectionInfo {
     this.password = password;
   }
 
+  public String getTableName() {
+    return tableName;
+  }
+
+  public void setTableName(String tableName) {
+    if(tableName == null || tableName.trim().isEmpty())
+      tableName = GameConfigurationConstants.DEFAULT_TABLE_NAME;
+    this.tableName = tableName.trim();
+  }
+
   public Integer getServerPort() {
     return serverPort;
   }
@@ -0,0 +1,16 @@
+package client.business.client;
+
+/**
+ * Receives the verdict of an action that was sent asynchronously by the {@link GameClient}.
+ * The callback is invoked on the action thread of the client, not on the event dispatch
+ * thread, so changes of the GUI have to be passed to
+ * {@link javax.swing.SwingUtilities#invokeLater(Runnable)}.
+ */
+public interface ActionCallback {
+  /**
+   * Called when the server or the rule check of the client decided about the action.
+   * @param accepted True, if the action was accepted, false, if it was rejected or could
+   *                 not be sent.
+   */
+  void actionDone(boolean accepted);
+}
@@ -4,12 +4,15 @@ import common.dto.DTOCard;
 import common.dto.DTOClient;
 import common.dto.message.MessageObject;
 import common.dto.message.MessageType;
+import common.game.rules.RuleVerdict;
 import common.i18n.I18nSupport;
 import common.simon.Callable;
 import common.simon.ServerInterface;
 import common.simon.action.CardAction;
 import common.simon.action.FinishAction;
 import common.simon.action.GameAction;
+import common.simon.codec.WireCodec;
+import common.simon.codec.WireCodecException;
 import common.utilities.LoggingUtility;
 import common.utilities.constants.GameConfigurationConstants;
 import common.utilities.constants.PlayerConstants;
@@ -24,6 +27,10 @@ import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Observable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Logger;
 
 import static common.i18n.BundleStrings.USER_MESSAGES;
@@ -39,11 +46,23 @@ public class GameClient extends Observable implements ClosedListener {
   private static final Logger LOGGER =
       LoggingUtility.getLogger(GameClient.class.getName());
 
-  private boolean connected;
+  private volatile boolean connected;
 
   private ServerMessageReceiver messageReceiver;
   private Lookup nameLookup;
   private ServerInterface server;
+  private WireCodec codec;
+  private int codecVersion;
+  /** Token of the last session, it resumes the session after a dropped connection. */
+  private volatile String resumeToken;
+  /** The client name and server address the resume token belongs to. */
+  private String resumeTarget;
+  private boolean resumed;
+  private final TableMirror tableMirror;
+  /** Hands the server messages in order to the observers on the event dispatch thread. */
+  private final InboundQueue inboundQueue;
+  /** Sends the asynchronous actions one after another in the order of the calls. */
+  private final ExecutorService actionExecutor;
 
   /* Constructors */
   public static GameClient getClient() {
@@ -55,6 +74,16 @@ public class GameClient extends Observable implements ClosedListener {
 
   private GameClient() {
     this.connected = false;
+    this.codecVersion = WireCodec.NO_CODEC;
+    this.tableMirror = new TableMirror();
+    this.inboundQueue = new InboundQueue(this);
+    this.actionExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+      public Thread newThread(Runnable runnable) {
+        final Thread thread = new Thread(runnable, "GameClient-Actions"); //NON-NLS
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
     messageReceiver = new ServerMessageReceiver();
     Simon.setDefaultKeepAliveInterval(5);
     Simon.setDefaultKeepAliveTimeout(5);
@@ -62,8 +91,18 @@ public class GameClient extends Observable implements ClosedListener {
 
   /* Methods */
 
+  /**
+   * Receives a message of the server. The mirrored table is updated at once, the observers
+   * get the message later on the event dispatch thread, see {@link InboundQueue}.
+   * @param object The message.
+   */
   public synchronized void receiveServerMessage(MessageObject object) {
-    setChangedAndNotify(object);
+    if(MessageType.RESUME_TOKEN.equals(object.getType())) {
+      resumeToken = (String) object.getSendingObject();
+      return;
+    }
+    tableMirror.update(object);
+    inboundQueue.offer(object);
   }
 
   public void setChangedAndNotify(MessageObject object) {
@@ -72,7 +111,23 @@ public class GameClient extends Observable implements ClosedListener {
   }
 
   /**
-   * Connects the GameClient to the server.
+   * Decodes a message that the server sent with the negotiated codec. The messages have
+   * to be decoded in the order they were received.
+   * @param data Encoded message.
+   * @return The message or null, if it could not be decoded.
+   */
+  MessageObject decodeServerMessage(byte[] data) {
+    try {
+      return codec.decodeMessage(data);
+    } catch (WireCodecException e) {
+      LOGGER.severe("Could not decode server message: "+e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Connects the GameClient to the server. If the connection to the same server dropped
+   * before, the client tries to resume its session first, see {@link #hasResumedSession()}.
    * @param serverAddress Address of the server to connect to.
    * @param serverPort Port of the server to connect to.
    * @param password Specifies the password that a server might need.
@@ -90,7 +145,20 @@ public class GameClient extends Observable implements ClosedListener {
       server = (ServerInterface) nameLookup.lookup(
           GameConfigurationConstants.REGISTRY_NAME_SERVER);
       nameLookup.addClosedListener(server, this);
-      connected = server.login(messageReceiver, dtoClient, password);
+      codec = new WireCodec();
+      final String target = dtoClient.name+"@"+serverAddress+":"+serverPort;
+      resumed = false;
+      if(resumeToken != null && target.equals(resumeTarget)) {
+        codecVersion = server.resumeSession(messageReceiver, resumeToken, WireCodec.VERSION);
+        resumed = codecVersion != WireCodec.LOGIN_REFUSED;
+      }
+      if(!resumed) {
+        resumeToken = null;
+        resumeTarget = target;
+        codecVersion = server.loginWithCodec(messageReceiver, dtoClient, password,
+            WireCodec.VERSION);
+      }
+      connected = codecVersion != WireCodec.LOGIN_REFUSED;
       LOGGER.info(LoggingUtility.STARS+" Connected to "+getSocketAddress()
           +" "+LoggingUtility.STARS);
     } catch (UnknownHostException e) {
@@ -136,6 +204,8 @@ public class GameClient extends Observable implements ClosedListener {
   public void disconnect(boolean shutdown) {
     if(connected) {
       connected = false;
+      resumeToken = null;
+      tableMirror.clear();
       if (!shutdown) {
         server.logoff(messageReceiver);
         nameLookup.release(server);
@@ -146,7 +216,9 @@ public class GameClient extends Observable implements ClosedListener {
   }
 
   /**
-   * Sends an action request to the server.
+   * Sends an action request to the server. The action is checked against the mirrored
+   * table first, an action that breaks a rule for sure is rejected without asking the
+   * server and the rule message is delivered to the observers like a message of the server.
    * @param dtoClient Client information that will be send to the server.
    *                  The player is decides the action type.
    * @param attackCards Used attack cards for this action.
@@ -155,16 +227,79 @@ public class GameClient extends Observable implements ClosedListener {
    */
   public boolean sendAction(DTOClient dtoClient, List<DTOCard> attackCards,
                             List<DTOCard> defenseCards) {
+    final CardAction action = createCardAction(dtoClient, attackCards, defenseCards);
+    final RuleVerdict verdict = tableMirror.check(action);
+    if(!verdict.isValid()) {
+      inboundQueue.offer(new MessageObject(MessageType.RULE_MESSAGE, verdict.getMessage()));
+      return false;
+    }
+    return doAction(action);
+  }
+
+  /**
+   * Sends an action request like
+   * {@link #sendAction(common.dto.DTOClient, java.util.List, java.util.List)}, but does not
+   * wait for the server. The rule check and the request are done on the action thread of
+   * the client, so the caller can apply the action optimistically and roll it back, if the
+   * callback reports a rejection. The actions are sent in the order of the calls.
+   * @param dtoClient Client information that will be send to the server.
+   * @param attackCards Used attack cards for this action.
+   * @param defenseCards Used defense cards for this action.
+   * @param callback Receives the verdict, may be null.
+   * @return The verdict of the action, the future fails never.
+   */
+  public Future<Boolean> sendActionAsync(final DTOClient dtoClient,
+                                         final List<DTOCard> attackCards,
+                                         final List<DTOCard> defenseCards,
+                                         ActionCallback callback) {
+    return submitAction(new ActionTask() {
+      public boolean send() {
+        return sendAction(dtoClient, attackCards, defenseCards);
+      }
+    }, callback);
+  }
+
+  private CardAction createCardAction(DTOClient dtoClient, List<DTOCard> attackCards,
+                                      List<DTOCard> defenseCards) {
+    final CardAction action;
     if(dtoClient.playerType.equals(PlayerConstants.PlayerType.FIRST_ATTACKER) ||
        dtoClient.playerType.equals(PlayerConstants.PlayerType.SECOND_ATTACKER)) {
-      GameAction action = new CardAction(CardAction.CardActionType.ATTACK,
+      action = new CardAction(CardAction.CardActionType.ATTACK,
           attackCards, defenseCards, dtoClient, GameAction.ActionType.CARD_ACTION);
-      return server.doAction(messageReceiver, action);
     } else {
-      GameAction action = new CardAction(CardAction.CardActionType.DEFENSE,
+      action = new CardAction(CardAction.CardActionType.DEFENSE,
           attackCards, defenseCards, dtoClient, GameAction.ActionType.CARD_ACTION);
-      return server.doAction(messageReceiver, action);
     }
+    return action;
+  }
+
+  /* Sends the action encoded if a codec was negotiated at the login */
+  private boolean doAction(GameAction action) {
+    if(codecVersion > WireCodec.NO_CODEC) {
+      try {
+        return server.doEncodedAction(messageReceiver, WireCodec.encodeAction(action));
+      } catch (WireCodecException e) {
+        LOGGER.warning("Sending action unencoded: "+e.getMessage());
+      }
+    }
+    return server.doAction(messageReceiver, action);
+  }
+
+  /* Runs the task on the action thread, a request that fails counts as rejected */
+  private Future<Boolean> submitAction(final ActionTask task, final ActionCallback callback) {
+    return actionExecutor.submit(new java.util.concurrent.Callable<Boolean>() {
+      public Boolean call() {
+        boolean accepted = false;
+        try {
+          accepted = connected && task.send();
+        } catch (RuntimeException e) {
+          LOGGER.warning("Action request failed: "+e.getMessage());
+        }
+        if(callback != null)
+          callback.actionDone(accepted);
+        return accepted;
+      }
+    });
   }
 
   /**
@@ -178,15 +313,93 @@ public class GameClient extends Observable implements ClosedListener {
     return sendAction(dtoClient, attackCards, defenseCards);
   }
 
+  /**
+   * Overloads {@link GameClient#sendActionAsync(common.dto.DTOClient, java.util.List,
+   * java.util.List, ActionCallback)}.
+   */
+  public Future<Boolean> sendActionAsync(final DTOClient dtoClient, final DTOCard attackCard,
+                                         final DTOCard defenseCard, ActionCallback callback) {
+    return submitAction(new ActionTask() {
+      public boolean send() {
+        return sendAction(dtoClient, attackCard, defenseCard);
+      }
+    }, callback);
+  }
+
   public boolean finishRound(DTOClient dtoClient, FinishAction.FinishType type) {
-    return server.doAction(messageReceiver,
-      new FinishAction(type,dtoClient, GameAction.ActionType.ROUND_REQUEST));
+    return doAction(new FinishAction(type,dtoClient, GameAction.ActionType.ROUND_REQUEST));
+  }
+
+  /**
+   * Sends a finish request like
+   * {@link #finishRound(common.dto.DTOClient, common.simon.action.FinishAction.FinishType)},
+   * but does not wait for the server, see
+   * {@link #sendActionAsync(common.dto.DTOClient, java.util.List, java.util.List, ActionCallback)}.
+   * @param dtoClient Client information that will be send to the server.
+   * @param type Type of the finish request.
+   * @param callback Receives the verdict, may be null.
+   * @return The verdict of the request.
+   */
+  public Future<Boolean> finishRoundAsync(final DTOClient dtoClient,
+                                          final FinishAction.FinishType type,
+                                          ActionCallback callback) {
+    return submitAction(new ActionTask() {
+      public boolean send() {
+        return finishRound(dtoClient, type);
+      }
+    }, callback);
+  }
+
+  /**
+   * Moves the client to the table with the specified name. The server creates the table
+   * if it does not exist.
+   * @param tableName Name of the table.
+   * @return True, if the client is seated at the table, else false.
+   */
+  public boolean joinTable(String tableName) {
+    return connected && server.joinTable(messageReceiver, tableName);
+  }
+
+  /**
+   * Returns the names of all open tables of the server.
+   * @return A list of table names or an empty list, if the client is not connected.
+   */
+  public List<String> getTableNames() {
+    if(connected)
+      return server.getTableNames();
+    else return new ArrayList<String>(0);
+  }
+
+  /**
+   * Asks the server which action it would choose for this client.
+   * @return The proposed action or null, if the client is not connected or does not
+   * have to act.
+   */
+  public GameAction getHint() {
+    if(connected)
+      return server.getHint(messageReceiver);
+    else return null;
   }
 
   public void sendChatMessage(String text) {
     server.sendChatMessage(messageReceiver, text);
   }
 
+  /**
+   * Sends a chat message on the action thread of the client.
+   * @param text Text of the message.
+   * @param callback Receives true, if the message was sent, may be null.
+   * @return True, if the message was sent, else false.
+   */
+  public Future<Boolean> sendChatMessageAsync(final String text, ActionCallback callback) {
+    return submitAction(new ActionTask() {
+      public boolean send() {
+        sendChatMessage(text);
+        return true;
+      }
+    }, callback);
+  }
+
   public void sendClientUpdate(DTOClient dtoClient) {
     if(connected)
       server.updateClient(messageReceiver, dtoClient);
@@ -200,7 +413,7 @@ public class GameClient extends Observable implements ClosedListener {
       nameLookup.release(server);
       LOGGER.info(LoggingUtility.STARS + " Lost server connection " + LoggingUtility.STARS);
       connected = false;
-      setChangedAndNotify(new MessageObject(MessageType.LOST_CONNECTION));
+      inboundQueue.offer(new MessageObject(MessageType.LOST_CONNECTION));
     }
   }
 
@@ -215,17 +428,31 @@ public class GameClient extends Observable implements ClosedListener {
   public boolean isConnected() {
     return connected;
   }
+
+  /**
+   * Returns true, if the last connection resumed the session of a dropped connection. The
+   * client sits at its old table then and the server sent the state of the game.
+   * @return True, if the session was resumed, else false.
+   */
+  public boolean hasResumedSession() {
+    return resumed;
+  }
+
+  /* Inner Classes */
+
+  private interface ActionTask {
+    boolean send();
+  }
 }
 
 @SimonRemote(value = {Callable.class})
 class ServerMessageReceiver implements Callable {
-  public void callback(final Object parameter) {
-    if(parameter instanceof MessageObject) {
-      new Thread(new Runnable() {
-        public void run() {
-          GameClient.getClient().receiveServerMessage((MessageObject) parameter);
-        }
-      }).start();
-    }
+  public void callback(Object parameter) {
+    /* encoded messages have to be decoded in the order they arrive */
+    if(parameter instanceof byte[])
+      parameter = GameClient.getClient().decodeServerMessage((byte[]) parameter);
+
+    if(parameter instanceof MessageObject)
+      GameClient.getClient().receiveServerMessage((MessageObject) parameter);
   }
 }
\ No newline at end of file
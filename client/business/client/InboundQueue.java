@@ -0,0 +1,92 @@
+package client.business.client;
+
+import common.dto.message.BroadcastType;
+import common.dto.message.GameUpdateType;
+import common.dto.message.MessageObject;
+import common.dto.message.MessageType;
+
+import javax.swing.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class queues the messages of the server in the order they arrive and hands them
+ * in batches to the event dispatch thread, so the observers of the {@link GameClient} can
+ * change the gui directly. A state message that is followed by a newer message of the same
+ * type in the same batch is left out, only the newest state will be shown.
+ */
+class InboundQueue implements Runnable {
+  /** Maximum number of messages of one batch, so the gui stays responsive. */
+  private static final int MAX_BATCH_SIZE = 64;
+
+  /** Types of messages that describe a state. A newer message of such a type makes an
+   *  older one obsolete. */
+  private static final Set<Enum<?>> SUPERSEDABLE_TYPES = new HashSet<Enum<?>>(Arrays.asList(
+      GameUpdateType.CLIENT_CARDS, GameUpdateType.IN_GAME_CARDS,
+      GameUpdateType.PLAYERS_UPDATE, GameUpdateType.STACK_SUMMARY,
+      GameUpdateType.STACK_UPDATE, BroadcastType.LOGIN_LIST, MessageType.OWN_CLIENT_INFO));
+
+  private final GameClient client;
+  private final Queue<MessageObject> messages;
+  /** True while a batch is scheduled on the event dispatch thread. */
+  private final AtomicBoolean scheduled;
+
+  /* Constructors */
+
+  InboundQueue(GameClient client) {
+    this.client = client;
+    this.messages = new ConcurrentLinkedQueue<MessageObject>();
+    this.scheduled = new AtomicBoolean(false);
+  }
+
+  /* Methods */
+
+  /**
+   * Appends a message to the queue. The method does not wait until the message is handled.
+   * @param message The message.
+   */
+  void offer(MessageObject message) {
+    messages.add(message);
+    schedule();
+  }
+
+  private void schedule() {
+    if(scheduled.compareAndSet(false, true))
+      SwingUtilities.invokeLater(this);
+  }
+
+  /**
+   * Hands the next batch of messages to the observers. Runs on the event dispatch thread.
+   */
+  public void run() {
+    final List<MessageObject> batch = new ArrayList<MessageObject>();
+    MessageObject message;
+    while (batch.size() < MAX_BATCH_SIZE && (message = messages.poll()) != null)
+      batch.add(message);
+
+    try {
+      for (int index = 0; index < batch.size(); index++) {
+        if(!isSuperseded(batch, index))
+          client.setChangedAndNotify(batch.get(index));
+      }
+    } finally {
+      scheduled.set(false);
+      /* messages that arrived while the flag was still set would wait forever */
+      if(!messages.isEmpty())
+        schedule();
+    }
+  }
+
+  private boolean isSuperseded(List<MessageObject> batch, int index) {
+    final Enum<?> type = batch.get(index).getType();
+    if(!SUPERSEDABLE_TYPES.contains(type))
+      return false;
+
+    for (int later = index + 1; later < batch.size(); later++) {
+      if(type.equals(batch.get(later).getType()))
+        return true;
+    }
+    return false;
+  }
+}
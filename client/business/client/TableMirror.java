@@ -0,0 +1,156 @@
+package client.business.client;
+
+import common.dto.DTOCard;
+import common.dto.DTOCardStack;
+import common.dto.DTOClient;
+import common.dto.DTOStackSummary;
+import common.dto.message.GameUpdateType;
+import common.dto.message.MessageObject;
+import common.game.CardSet;
+import common.game.GameCard;
+import common.game.rules.RuleChecker;
+import common.game.rules.RuleFactory;
+import common.game.rules.RuleVerdict;
+import common.simon.action.CardAction;
+import common.utilities.Converter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static common.utilities.constants.PlayerConstants.PlayerType;
+
+/**
+ * Mirrors the table of the client from the messages of the server, so that a card action
+ * can be checked with the rules before it is sent. The server stays authoritative: the
+ * mirror only rejects actions that break a rule for sure. If the mirror does not know
+ * enough about the table, e.g. the first round limit or a card that is not mirrored, the
+ * action is seen as plausible and the server decides.
+ */
+class TableMirror {
+  private final RuleChecker ruleChecker;
+  private final CardSet hand;
+  private final List<GameCard> attackCards;
+  private final List<GameCard> defenseCards;
+  private int defenderCardCount;
+  private boolean trumpKnown;
+
+  /* Constructors */
+
+  TableMirror() {
+    ruleChecker = RuleFactory.getStandardRules();
+    hand = new CardSet();
+    attackCards = new ArrayList<GameCard>();
+    defenseCards = new ArrayList<GameCard>();
+    clear();
+  }
+
+  /* Methods */
+
+  /**
+   * Updates the mirror with a message of the server. Messages that do not change the table
+   * are ignored.
+   * @param message Message of the server.
+   */
+  @SuppressWarnings("unchecked")
+  synchronized void update(MessageObject message) {
+    final Enum type = message.getType();
+    final Object object = message.getSendingObject();
+    if(GameUpdateType.GAME_CANCELED.equals(type) || GameUpdateType.GAME_FINISHED.equals(type)) {
+      clear();
+      return;
+    }
+    if(object == null)
+      return;
+
+    if(GameUpdateType.ROUND_FRAME.equals(type)) {
+      for (MessageObject frameMessage : (List<MessageObject>) object)
+        update(frameMessage);
+    } else if(GameUpdateType.CLIENT_CARDS.equals(type)) {
+      hand.clear();
+      for (DTOCard card : (List<DTOCard>) object)
+        hand.add(Converter.fromDTO(card));
+    } else if(GameUpdateType.IN_GAME_CARDS.equals(type)) {
+      setTable((List<List<DTOCard>>) object);
+    } else if(GameUpdateType.STACK_SUMMARY.equals(type)) {
+      setTrumpCard(((DTOStackSummary) object).trumpCard);
+    } else if(GameUpdateType.STACK_UPDATE.equals(type)) {
+      setTrumpCard(((DTOCardStack) object).trumpCard);
+    } else if(GameUpdateType.INITIALISE_PLAYERS.equals(type) ||
+        GameUpdateType.PLAYERS_UPDATE.equals(type)) {
+      defenderCardCount = Integer.MAX_VALUE;
+      for (DTOClient client : (List<DTOClient>) object) {
+        if(PlayerType.DEFENDER.equals(client.playerType))
+          defenderCardCount = client.cardCount;
+      }
+    } else if(GameUpdateType.NEXT_ROUND_INFO.equals(type)) {
+      if(((List<Boolean>) object).get(0)) {
+        attackCards.clear();
+        defenseCards.clear();
+      }
+    }
+  }
+
+  /**
+   * Checks the card action with the rules against the mirrored table.
+   * @param action Card action of this client.
+   * @return The verdict of the rules or {@link RuleVerdict#VALID}, if the action is
+   * plausible.
+   */
+  synchronized RuleVerdict check(CardAction action) {
+    if(!trumpKnown)
+      return RuleVerdict.VALID;
+
+    final PlayerType playerType = action.getExecutor().playerType;
+    final List<GameCard> actionAttackCards = Converter.fromDTO(action.getAttackCards());
+    if(CardAction.CardActionType.ATTACK.equals(action.getCardActionType())) {
+      if(!PlayerType.FIRST_ATTACKER.equals(playerType) &&
+          !PlayerType.SECOND_ATTACKER.equals(playerType))
+        return RuleVerdict.VALID;
+      if(!hand.containsAll(new CardSet(actionAttackCards)))
+        return RuleVerdict.VALID;
+      if(PlayerType.SECOND_ATTACKER.equals(playerType) && attackCards.isEmpty())
+        return RuleVerdict.of(RuleVerdict.Code.SECOND_ATTACKER_FIRST);
+      return ruleChecker.checkAttackCards(actionAttackCards, new CardSet(attackCards),
+          new CardSet(defenseCards), defenderCardCount, false);
+    }
+
+    if(action.getDefenderCards() == null || action.getDefenderCards().isEmpty() ||
+        actionAttackCards.isEmpty())
+      return RuleVerdict.VALID;
+    final GameCard attackerCard = actionAttackCards.get(0);
+    final GameCard defenderCard = Converter.fromDTO(action.getDefenderCards().get(0));
+    final int index = attackCards.indexOf(attackerCard);
+    if(!PlayerType.DEFENDER.equals(playerType) || index < 0 ||
+        defenseCards.get(index) != null || !hand.contains(defenderCard))
+      return RuleVerdict.VALID;
+    return ruleChecker.checkDefenseCards(defenderCard, attackerCard);
+  }
+
+  private void setTable(List<List<DTOCard>> cards) {
+    attackCards.clear();
+    defenseCards.clear();
+    if(cards.size() != 2)
+      return;
+
+    for (DTOCard card : cards.get(0))
+      attackCards.add(Converter.fromDTO(card));
+    for (DTOCard card : cards.get(1))
+      defenseCards.add(Converter.fromDTO(card));
+    while(defenseCards.size() < attackCards.size())
+      defenseCards.add(null);
+  }
+
+  private void setTrumpCard(DTOCard trumpCard) {
+    trumpKnown = trumpCard != null;
+    if(trumpKnown)
+      ruleChecker.setTrumpColour(trumpCard.cardColour);
+  }
+
+  synchronized void clear() {
+    hand.clear();
+    attackCards.clear();
+    defenseCards.clear();
+    defenderCardCount = Integer.MAX_VALUE;
+    trumpKnown = false;
+  }
+}
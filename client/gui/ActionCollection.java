@@ -6,21 +6,32 @@ import client.business.client.GameClient;
 import client.business.client.GameClientException;
 import client.gui.frame.ClientFrame;
 import client.gui.frame.ConnectionDialog;
+import client.gui.frame.ReplayDialog;
 import client.gui.frame.SettingsDialog;
 import client.gui.frame.chat.ChatFrame;
+import common.dto.DTOCard;
+import common.game.replay.ReplayFormat;
 import common.i18n.I18nSupport;
 import common.resources.ResourceGetter;
+import common.simon.action.CardAction;
+import common.simon.action.FinishAction;
+import common.simon.action.GameAction;
 import common.utilities.LoggingUtility;
+import common.utilities.constants.GameConfigurationConstants;
 import common.utilities.gui.WidgetCreator;
 
 import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.logging.Logger;
 
-import static common.i18n.BundleStrings.GUI_ACTION;
-import static common.i18n.BundleStrings.USER_MESSAGES;
+import static common.i18n.BundleStrings.*;
 
 /**
  * User: Timm Herrmann
@@ -37,6 +48,8 @@ public class ActionCollection {
   public static final Action CONNECTION_DIALOG_STATISTIC = new OpenConnectionDialog(false);
   public static final Action CONNECT = new ConnectionAction(true);
   public static final Action DISCONNECT = new ConnectionAction(false);
+  public static final Action OPEN_REPLAY = new OpenReplayAction();
+  public static final Action SHOW_HINT = new ShowHintAction();
 
   private static class OpenConnectionDialog extends AbstractAction {
     boolean editable;
@@ -97,7 +110,12 @@ public class ActionCollection {
       try {
         if(gameClient.reconnect(connection.getServerAddress(), connection.getServerPort(),
             Client.getOwnInstance().toDTO(), connection.getPassword())) {
-          final String message = I18nSupport.getValue(USER_MESSAGES, "status.connected");
+          final boolean resumed = gameClient.hasResumedSession();
+          if(!resumed &&
+              !GameConfigurationConstants.DEFAULT_TABLE_NAME.equals(connection.getTableName()))
+            gameClient.joinTable(connection.getTableName());
+          final String message = I18nSupport.getValue(USER_MESSAGES,
+              resumed ? "status.session.resumed" : "status.connected");
           mainFrame.addChatMessage(message,true);
           mainFrame.updateGUIStatus(message, true, "[" + gameClient.getSocketAddress() + "]");
         }
@@ -137,4 +155,101 @@ public class ActionCollection {
       frame.setVisible(!frame.isVisible());
     }
   }
+
+  private static class ShowHintAction extends AbstractAction {
+    private static final Logger LOGGER =
+        LoggingUtility.getLogger(ShowHintAction.class.getName());
+
+    private ShowHintAction() {
+      WidgetCreator.initialiseAction(this, null, null, KeyEvent.VK_H, null,
+          I18nSupport.getValue(GUI_ACTION, "name.hint"),
+          I18nSupport.getValue(GUI_ACTION, "tooltip.hint"), null);
+      setEnabled(false);
+    }
+
+    public void actionPerformed(ActionEvent e) {
+      setEnabled(false);
+      /* the server searches for a while, the gui must not wait for it */
+      new SwingWorker<GameAction, Void>() {
+        protected GameAction doInBackground() {
+          return GameClient.getClient().getHint();
+        }
+
+        protected void done() {
+          setEnabled(GameClient.getClient().isConnected());
+          try {
+            ClientFrame.getInstance().addChatMessage(describe(get()), true);
+          } catch (InterruptedException ex) {
+            LOGGER.info("Hint request interrupted");
+          } catch (ExecutionException ex) {
+            LOGGER.info("Could not get a hint: "+ex.getCause());
+          }
+        }
+      }.execute();
+    }
+
+    private String describe(GameAction hint) {
+      if(hint instanceof CardAction) {
+        final CardAction action = (CardAction) hint;
+        if(CardAction.CardActionType.ATTACK.equals(action.getCardActionType()))
+          return I18nSupport.getValue(USER_MESSAGES, "hint.attack.with.0",
+              getCardNames(action.getAttackCards()));
+        else return I18nSupport.getValue(USER_MESSAGES, "hint.defend.with.0",
+            getCardNames(action.getDefenderCards()));
+      } else if(hint instanceof FinishAction) {
+        final FinishAction.FinishType type = ((FinishAction) hint).getFinishType();
+        if(FinishAction.FinishType.GO_TO_NEXT_ROUND.equals(type))
+          return I18nSupport.getValue(USER_MESSAGES, "hint.finish.round");
+        else if(FinishAction.FinishType.TAKE_CARDS.equals(type))
+          return I18nSupport.getValue(USER_MESSAGES, "hint.take.cards");
+        else return I18nSupport.getValue(USER_MESSAGES, "hint.wait");
+      } else return I18nSupport.getValue(USER_MESSAGES, "hint.none");
+    }
+
+    private String getCardNames(List<DTOCard> cards) {
+      final StringBuilder names = new StringBuilder();
+      for (DTOCard card : cards) {
+        if(card == null)
+          continue;
+        if(names.length() > 0)
+          names.append(", ");
+        names.append(card.getColourAndValue());
+      }
+      return names.toString();
+    }
+  }
+
+  private static class OpenReplayAction extends AbstractAction {
+    private static final Logger LOGGER =
+        LoggingUtility.getLogger(OpenReplayAction.class.getName());
+
+    private OpenReplayAction() {
+      WidgetCreator.initialiseAction(this, null, null, KeyEvent.VK_R, null,
+          "", I18nSupport.getValue(GUI_ACTION, "tooltip.open.replay"),
+          ResourceGetter.getToolbarIcon("toolbar.play"));
+    }
+
+    public void actionPerformed(ActionEvent e) {
+      final ClientFrame mainFrame = ClientFrame.getInstance();
+      /* the messages of the server would change the widgets of the replay */
+      if(GameClient.getClient().isConnected()) {
+        mainFrame.showErrorPopup(I18nSupport.getValue(GUI_COMPONENT, "text.replay.connected"));
+        return;
+      }
+
+      final JFileChooser chooser =
+          new JFileChooser(new File(System.getProperty("user.dir"), "replays")); //NON-NLS
+      chooser.setFileFilter(new FileNameExtensionFilter(I18nSupport.getValue(GUI_TITLE, "replay"),
+          ReplayFormat.FILE_EXTENSION.substring(1)));
+      if(chooser.showOpenDialog(mainFrame) != JFileChooser.APPROVE_OPTION)
+        return;
+
+      try {
+        new ReplayDialog(ReplayFormat.read(chooser.getSelectedFile())).setVisible(true);
+      } catch (IOException ex) {
+        LOGGER.info("Could not read replay: "+ex.getMessage());
+        mainFrame.showErrorPopup(I18nSupport.getValue(GUI_COMPONENT, "text.replay.not.readable"));
+      }
+    }
+  }
 }
@@ -1,7 +1,7 @@
 package client.gui.frame;
 
 import client.gui.widget.card.CardStackWidget;
-import common.dto.DTOCardStack;
+import common.dto.DTOStackSummary;
 
 import javax.swing.*;
 import java.awt.*;
@@ -29,7 +29,7 @@ public class CardStackPanel extends JPanel {
    * @param stack Parameter values for the shown stack.
    */
   @SuppressWarnings("UnusedDeclaration")
-  private void setStack(DTOCardStack stack) {
+  private void setStack(DTOStackSummary stack) {
     setStack(stack, null);
   }
 
@@ -39,7 +39,7 @@ public class CardStackPanel extends JPanel {
    * @param constraints Constraints that can be passed, if the currently set LayoutManager
    *                    provides one.
    */
-  private void setStack(DTOCardStack stack, Object constraints) {
+  private void setStack(DTOStackSummary stack, Object constraints) {
     remove(cardStack);
 
     cardStack.setCardStack(stack);
@@ -50,7 +50,7 @@ public class CardStackPanel extends JPanel {
       add(cardStack, constraints);
   }
 
-  public void updateStack(DTOCardStack stack) {
+  public void updateStack(DTOStackSummary stack) {
     cardStack.setCardStack(stack);
     validate();
     repaint();
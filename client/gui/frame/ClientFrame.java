@@ -9,8 +9,10 @@ import client.gui.frame.chat.ChatFrame;
 import client.gui.frame.playerTypePanel.PlayerTypePanel;
 import common.dto.DTOCard;
 import common.dto.DTOCardStack;
+import common.dto.DTOStackSummary;
 import common.dto.DTOClient;
 import common.dto.message.*;
+import common.game.GameCard;
 import common.i18n.I18nSupport;
 import common.resources.ResourceGetter;
 import common.utilities.Converter;
@@ -225,6 +227,27 @@ public class ClientFrame extends JFrame implements Observer {
     centrePanel.setStatus(mainText);
   }
 
+  /**
+   * Shows a state of a replay in the game widgets, see {@link ReplayDialog}.
+   * @param viewer The player from whose view the game is shown, one of {@code players}.
+   * @param players All players of the game with their card count and player type.
+   * @param handCards Hand cards of the viewer.
+   * @param attackCards Attack cards on the table.
+   * @param defenseCards Defense cards on the table, null for every card that is not beaten.
+   * @param stack Summary of the stack.
+   */
+  public void showReplay(DTOClient viewer, List<DTOClient> players, List<GameCard> handCards,
+                         List<GameCard> attackCards, List<GameCard> defenseCards,
+                         DTOStackSummary stack) {
+    final List<DTOClient> opponents = new ArrayList<DTOClient>(players);
+    opponents.remove(viewer);
+    centrePanel.setPlayerType(viewer.playerType);
+    centrePanel.updateStack(stack);
+    centrePanel.setCards(attackCards, defenseCards, handCards);
+    centrePanel.updateOpponents(opponents, false);
+    centrePanel.updateClients(players);
+  }
+
   /* Getter and Setter */
   /* Inner Classes */
 
@@ -286,8 +309,12 @@ public class ClientFrame extends JFrame implements Observer {
         centrePanel.updateOpponents(filterOpponents((List<DTOClient>) object.getSendingObject()),
             false);
         setStatus("");
+      } else if(GameUpdateType.ROUND_FRAME.equals(object.getType())) {
+        handleRoundFrame((List<MessageObject>) object.getSendingObject());
+      } else if(GameUpdateType.STACK_SUMMARY.equals(object.getType())) {
+        centrePanel.updateStack((DTOStackSummary) object.getSendingObject());
       } else if(GameUpdateType.STACK_UPDATE.equals(object.getType())) {
-        centrePanel.updateStack((DTOCardStack) object.getSendingObject());
+        centrePanel.updateStack(Converter.toSummaryDTO((DTOCardStack) object.getSendingObject()));
       } else if(GameUpdateType.IN_GAME_CARDS.equals(object.getType())) {
         final List<List<DTOCard>> cards = (List<List<DTOCard>>) object.getSendingObject();
         final List<DTOCard> attackerCards = new ArrayList<DTOCard>();
@@ -315,6 +342,20 @@ public class ClientFrame extends JFrame implements Observer {
       }
     }
 
+    /**
+     * Applies all messages of a round frame in one pass. The messages of the
+     * {@link GameClient} arrive on the event dispatch thread, so following messages can not
+     * overtake the messages of the frame.
+     * @param frame Messages of the round transition.
+     */
+    private void handleRoundFrame(List<MessageObject> frame) {
+      if(frame == null)
+        return;
+
+      for (MessageObject message : frame)
+        handleUpdate(message);
+    }
+
     private List<DTOClient> filterOpponents(List<DTOClient> clientList) {
       if(clientList == null)
         return null;
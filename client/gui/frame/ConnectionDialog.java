@@ -40,6 +40,7 @@ public class ConnectionDialog extends AbstractDefaultDialog {
   private JTextField passwordField;
   private TwoStateComponent<JComboBox<String>,JLabel,String> serverAddressField;
   private TwoStateComponent<JTextField,JLabel,String> serverPortField;
+  private TwoStateComponent<JTextField,JLabel,String> tableNameField;
   private TwoStateComponent<JTextField,JLabel,String> nameField;
   private TwoStateComponent<JCheckBox,JLabel,Boolean> spectatorField;
 
@@ -55,7 +56,8 @@ public class ConnectionDialog extends AbstractDefaultDialog {
 
     dialogContent.setLayout(new BoxLayout(dialogContent, BoxLayout.PAGE_AXIS));
     dialogContent.add(createMainPanel(I18nSupport.getValue(GUI_TITLE, "server"),
-        getServerAddressPanel(), getServerPortPanel(), getPasswordPanel()));
+        getServerAddressPanel(), getServerPortPanel(), getPasswordPanel(),
+        getTableNamePanel()));
     dialogContent.add(createMainPanel(I18nSupport.getValue(GUI_TITLE, "client.settings"),
         getClientNamePanel(), getSpectatorPanel()));
 
@@ -91,6 +93,7 @@ public class ConnectionDialog extends AbstractDefaultDialog {
     nameField.getFirstComponent().addCaretListener(dcListener);
     serverAddressField.getFirstComponent().addActionListener(dcListener);
     serverPortField.getFirstComponent().addCaretListener(dcListener);
+    tableNameField.getFirstComponent().addCaretListener(dcListener);
     spectatorField.getFirstComponent().addActionListener(dcListener);
     if(editable)
       passwordField.addCaretListener(dcListener);
@@ -124,6 +127,7 @@ public class ConnectionDialog extends AbstractDefaultDialog {
     connectionInfo.setServerAddress(serverAddressField.getValue());
     connectionInfo.setServerPort(Integer.parseInt(serverPortField.getValue()));
     connectionInfo.setPassword(passwordField.getText());
+    connectionInfo.setTableName(tableNameField.getValue());
 
     /* save client info */
     final Client client = Client.getOwnInstance();
@@ -139,6 +143,7 @@ public class ConnectionDialog extends AbstractDefaultDialog {
     serverAddressField.setValue(connectionInfo.getServerAddress());
     serverPortField.setValue(connectionInfo.getServerPort().toString());
     if(editable) passwordField.setText(connectionInfo.getPassword());
+    tableNameField.setValue(connectionInfo.getTableName());
     nameField.setValue(client.getName());
     spectatorField.setValue(client.getSpectating());
     change();
@@ -168,6 +173,7 @@ public class ConnectionDialog extends AbstractDefaultDialog {
     return !serverAddressField.getValue().equals(connectionInfo.getServerAddress())
         || !serverPortField.getValue().equals(connectionInfo.getServerPort().toString())
         || !passwordField.getText().equals(connectionInfo.getPassword())
+        || !tableNameField.getValue().equals(connectionInfo.getTableName())
         || !nameField.getValue().equals(client.getName())
         || !spectatorField.getValue().equals(client.getSpectating());
   }
@@ -231,6 +237,17 @@ public class ConnectionDialog extends AbstractDefaultDialog {
         serverPortField.getComponent(editable));
   }
 
+  private JPanel getTableNamePanel() {
+    final JTextField field = new JTextField();
+    field.setToolTipText(I18nSupport.getValue(GUI_COMPONENT, "tooltip.table"));
+    final JLabel valueLabel = new JLabel("");
+    final ValueAccessor<String> accessor = createTextLabelAccessor(field, valueLabel);
+    tableNameField = new TwoStateComponent<JTextField,JLabel,String>(field, valueLabel, accessor);
+
+    return createHorizontalPanel(I18nSupport.getValue(GUI_COMPONENT, "text.table"),
+        tableNameField.getComponent(editable));
+  }
+
   private JPanel getServerAddressPanel() {
     final Vector<String> comboBoxContent = new Vector<String>();
     final JComboBox<String> combobox = WidgetCreator.makeComboBox(
@@ -67,9 +67,16 @@ public class DurakToolBar extends JToolBar {
     add(new JButton(ActionCollection.OPEN_SETUP_DIALOG));
     addSeparator();
     add(new JButton(ActionCollection.OPEN_CHAT_DIALOG));
+    addSeparator();
+    add(new JButton(ActionCollection.OPEN_REPLAY));
+    addSeparator();
+    add(new JButton(ActionCollection.SHOW_HINT));
   }
 
   public void setConnection(boolean connected) {
+    /* the messages of the server would mix with the replay */
+    ActionCollection.OPEN_REPLAY.setEnabled(!connected);
+    ActionCollection.SHOW_HINT.setEnabled(connected);
     if(connected) {
       connectionMenuItem.setAction(ActionCollection.CONNECTION_DIALOG_STATISTIC);
       connectionButton.setAction(ActionCollection.DISCONNECT);
@@ -0,0 +1,246 @@
+package client.gui.frame;
+
+import client.gui.ActionCollection;
+import common.dto.DTOClient;
+import common.game.GameProcess;
+import common.game.replay.GameRecord;
+import common.game.replay.ReplayEngine;
+import common.game.rules.RuleException;
+import common.i18n.I18nSupport;
+import common.utilities.Converter;
+import common.utilities.LoggingUtility;
+import common.utilities.gui.WidgetCreator;
+
+import javax.swing.*;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Vector;
+import java.util.logging.Logger;
+
+import static common.i18n.BundleStrings.GUI_COMPONENT;
+import static common.i18n.BundleStrings.GUI_TITLE;
+
+/**
+ * This dialog plays a {@link GameRecord} in the game widgets of the {@link ClientFrame}.
+ * The actions can be done step by step, played one after another or the slider jumps to
+ * any action, see {@link ReplayEngine#seek(int)}. The game is shown from the view of the
+ * selected seat. The dialog is not opened while the client is connected, see
+ * {@link ActionCollection#OPEN_REPLAY}, and the client can not connect while it is open.
+ */
+public class ReplayDialog extends JDialog {
+  private static final Logger LOGGER = LoggingUtility.getLogger(ReplayDialog.class.getName());
+
+  private static final String ACTION_COMMAND_FIRST = "first"; //NON-NLS
+  private static final String ACTION_COMMAND_BACK = "back"; //NON-NLS
+  private static final String ACTION_COMMAND_PLAY = "play"; //NON-NLS
+  private static final String ACTION_COMMAND_STEP = "step"; //NON-NLS
+  private static final String ACTION_COMMAND_LAST = "last"; //NON-NLS
+
+  /** Milliseconds between two actions while the replay is played. */
+  private static final int PLAY_DELAY = 700;
+
+  private final ReplayEngine engine;
+  private final Timer playTimer;
+
+  private JComboBox<String> seatBox;
+  private JSlider positionSlider;
+  private JLabel positionLabel;
+  private JButton playButton;
+  /** True while the slider is set by the dialog, so that the change is not a jump. */
+  private boolean updatingSlider;
+
+  /* Constructors */
+
+  public ReplayDialog(GameRecord record) {
+    super(ClientFrame.getInstance());
+    engine = new ReplayEngine();
+    engine.load(record);
+    playTimer = new Timer(PLAY_DELAY, new ActionListener() {
+      public void actionPerformed(ActionEvent e) {
+        if(!step())
+          setPlaying(false);
+      }
+    });
+
+    initComponents();
+    setTitle(I18nSupport.getValue(GUI_TITLE, "replay"));
+    setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+    addWindowListener(new WindowAdapter() {
+      /* the client must not connect while the replay uses the game widgets */
+      public void windowOpened(WindowEvent e) {
+        ActionCollection.CONNECT.setEnabled(false);
+      }
+
+      public void windowClosed(WindowEvent e) {
+        playTimer.stop();
+        ClientFrame.getInstance().resetAll(true, false);
+        ActionCollection.CONNECT.setEnabled(true);
+      }
+    });
+    pack();
+    setLocationRelativeTo(getOwner());
+    showPosition();
+  }
+
+  /* Methods */
+
+  private void initComponents() {
+    final JPanel seatPanel = new JPanel(new FlowLayout(FlowLayout.LEADING));
+    seatPanel.add(new JLabel(I18nSupport.getValue(GUI_COMPONENT, "text.replay.seat")));
+    seatPanel.add(getSeatBox());
+    seatPanel.add(getPositionLabel());
+
+    final ButtonListener listener = new ButtonListener();
+    final JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+    buttonPanel.add(WidgetCreator.makeButton(null,
+        I18nSupport.getValue(GUI_COMPONENT, "text.replay.first"), null,
+        ACTION_COMMAND_FIRST, listener));
+    buttonPanel.add(WidgetCreator.makeButton(null,
+        I18nSupport.getValue(GUI_COMPONENT, "text.replay.back"), null,
+        ACTION_COMMAND_BACK, listener));
+    playButton = WidgetCreator.makeButton(null,
+        I18nSupport.getValue(GUI_COMPONENT, "text.replay.play"), null,
+        ACTION_COMMAND_PLAY, listener);
+    buttonPanel.add(playButton);
+    buttonPanel.add(WidgetCreator.makeButton(null,
+        I18nSupport.getValue(GUI_COMPONENT, "text.replay.step"), null,
+        ACTION_COMMAND_STEP, listener));
+    buttonPanel.add(WidgetCreator.makeButton(null,
+        I18nSupport.getValue(GUI_COMPONENT, "text.replay.last"), null,
+        ACTION_COMMAND_LAST, listener));
+
+    getContentPane().setLayout(new BorderLayout());
+    getContentPane().add(seatPanel, BorderLayout.PAGE_START);
+    getContentPane().add(getPositionSlider(), BorderLayout.CENTER);
+    getContentPane().add(buttonPanel, BorderLayout.PAGE_END);
+  }
+
+  /* Does the next action and returns false, if there was none */
+  private boolean step() {
+    boolean stepped = false;
+    try {
+      stepped = engine.step();
+    } catch (RuleException e) {
+      showBrokenReplay();
+    }
+    showPosition();
+    return stepped;
+  }
+
+  private void seek(int position) {
+    try {
+      engine.seek(position);
+    } catch (RuleException e) {
+      showBrokenReplay();
+    }
+    showPosition();
+  }
+
+  private void showBrokenReplay() {
+    setPlaying(false);
+    LOGGER.info("Replay breaks off at action "+(engine.getPosition()+1));
+    ClientFrame.getInstance().showErrorPopup(I18nSupport.getValue(GUI_COMPONENT,
+        "text.replay.broken.0", engine.getPosition()+1));
+  }
+
+  private void setPlaying(boolean playing) {
+    if(playing)
+      playTimer.start();
+    else playTimer.stop();
+    playButton.setText(I18nSupport.getValue(GUI_COMPONENT,
+        playing ? "text.replay.pause" : "text.replay.play"));
+  }
+
+  /* Shows the game at the position of the engine from the view of the selected seat */
+  private void showPosition() {
+    updatingSlider = true;
+    positionSlider.setMaximum(engine.getLength());
+    positionSlider.setValue(engine.getPosition());
+    updatingSlider = false;
+    positionLabel.setText(I18nSupport.getValue(GUI_COMPONENT, "text.replay.action.0.of.1",
+        engine.getPosition(), engine.getLength()));
+
+    final GameProcess<Integer> process = engine.getProcess();
+    final List<String> names = engine.getRecord().getPlayerNames();
+    final List<DTOClient> players = new ArrayList<DTOClient>(names.size());
+    for (int seat = 0; seat < names.size(); seat++) {
+      final DTOClient player = new DTOClient(names.get(seat));
+      player.cardCount = process.getHandCards(seat).size();
+      player.playerType = process.getPlayerType(seat);
+      players.add(player);
+    }
+
+    final int seat = Math.max(0, seatBox.getSelectedIndex());
+    ClientFrame.getInstance().showReplay(players.get(seat), players,
+        process.getHandCards(seat).toList(), process.getAttackCards(),
+        process.getDefenseCards(), Converter.toSummaryDTO(process.getStack()));
+  }
+
+  /* Getter and Setter */
+
+  private JComboBox<String> getSeatBox() {
+    if(seatBox != null)
+      return seatBox;
+
+    seatBox = new JComboBox<String>(new Vector<String>(engine.getRecord().getPlayerNames()));
+    seatBox.setToolTipText(I18nSupport.getValue(GUI_COMPONENT, "tooltip.replay.seat"));
+    seatBox.addActionListener(new ActionListener() {
+      public void actionPerformed(ActionEvent e) {
+        showPosition();
+      }
+    });
+    return seatBox;
+  }
+
+  private JLabel getPositionLabel() {
+    if(positionLabel != null)
+      return positionLabel;
+
+    positionLabel = new JLabel();
+    return positionLabel;
+  }
+
+  private JSlider getPositionSlider() {
+    if(positionSlider != null)
+      return positionSlider;
+
+    positionSlider = new JSlider(0, engine.getLength(), 0);
+    positionSlider.setToolTipText(I18nSupport.getValue(GUI_COMPONENT, "tooltip.replay.position"));
+    positionSlider.addChangeListener(new ChangeListener() {
+      public void stateChanged(ChangeEvent e) {
+        if(!updatingSlider)
+          seek(positionSlider.getValue());
+      }
+    });
+    return positionSlider;
+  }
+
+  /* Inner Classes */
+
+  private class ButtonListener implements ActionListener {
+    public void actionPerformed(ActionEvent e) {
+      final String command = e.getActionCommand();
+      if(ACTION_COMMAND_PLAY.equals(command)) {
+        setPlaying(!playTimer.isRunning());
+        return;
+      }
+
+      setPlaying(false);
+      if(ACTION_COMMAND_FIRST.equals(command))
+        seek(0);
+      else if(ACTION_COMMAND_BACK.equals(command))
+        seek(engine.getPosition() - 1);
+      else if(ACTION_COMMAND_STEP.equals(command))
+        step();
+      else if(ACTION_COMMAND_LAST.equals(command))
+        seek(engine.getLength());
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package client.gui.frame.chat;
 
+import client.business.client.ActionCallback;
 import client.business.client.GameClient;
 import common.i18n.I18nSupport;
 import common.utilities.gui.FramePosition;
@@ -140,12 +141,7 @@ public class ChatFrame extends JDialog {
   private class ButtonListener implements ActionListener {
     public void actionPerformed(ActionEvent e) {
       if(e.getActionCommand().equals(ACTION_COMMAND_SEND)) {
-        new Thread(new Runnable() {
-          public void run() {
-            String text = chatWriteArea.getText();
-            chatMessageHandler.sendChatMessage(text);
-          }
-        }).start();
+        chatMessageHandler.sendChatMessage(chatWriteArea.getText());
       }
     }
   }
@@ -174,12 +170,24 @@ public class ChatFrame extends JDialog {
       scrollPaneRead.getVerticalScrollBar().setValue(chatFrame.getScrollPaneRead().getVerticalScrollBar().getMaximum());
     }
 
-    public void sendChatMessage(String text) {
+    /* The text is removed at once and put back, if it could not be sent */
+    public void sendChatMessage(final String text) {
       if (!text.isEmpty()) {
         final GameClient client = GameClient.getClient();
         if(client.isConnected()) {
-          client.sendChatMessage(text);
           chatWriteArea.setText("");
+          client.sendChatMessageAsync(text, new ActionCallback() {
+            public void actionDone(boolean accepted) {
+              if(!accepted) {
+                SwingUtilities.invokeLater(new Runnable() {
+                  public void run() {
+                    if(chatWriteArea.getText().isEmpty())
+                      chatWriteArea.setText(text);
+                  }
+                });
+              }
+            }
+          });
         } else {
           JOptionPane.showMessageDialog(chatFrame,
               I18nSupport.getValue(GUI_COMPONENT, "text.error.chat.message.not.send"),
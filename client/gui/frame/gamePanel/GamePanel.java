@@ -239,6 +239,9 @@ class ClientWidgetHolder {
   }
 
   public boolean add(GameCardWidget widget) {
+    /* a card that was put back after the hand was updated already is not doubled */
+    if(clientCards.contains(widget.getCardInfo()))
+      return false;
     parent.add(widget);
     widgets.add(widget);
     return clientCards.add(widget.getCardInfo());
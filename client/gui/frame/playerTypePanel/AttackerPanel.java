@@ -1,6 +1,7 @@
 package client.gui.frame.playerTypePanel;
 
 import client.business.Client;
+import client.business.client.ActionCallback;
 import client.business.client.GameClient;
 import common.i18n.I18nSupport;
 import common.simon.action.FinishAction;
@@ -60,12 +61,24 @@ public class AttackerPanel extends AbstractDurakGamePanel {
         I18nSupport.getValue(GUI_COMPONENT, "tooltip.finish.round"), null,
         new ActionListener() {
           public void actionPerformed(ActionEvent e) {
-            if (GameClient.getClient().finishRound(Client.getOwnInstance().toDTO(),
-                FinishAction.FinishType.GO_TO_NEXT_ROUND)) {
-              /* The player is not allowed to do a card move */
-              getGameProcessContainer().setListenerType(PlayerConstants.PlayerType.DEFAULT);
-              alreadyPressed = true;
-            }
+            /* The player is not allowed to do a card move, until the server rejects */
+            getGameProcessContainer().setListenerType(PlayerConstants.PlayerType.DEFAULT);
+            alreadyPressed = true;
+            roundDoneButton.setEnabled(false);
+            GameClient.getClient().finishRoundAsync(Client.getOwnInstance().toDTO(),
+                FinishAction.FinishType.GO_TO_NEXT_ROUND, new ActionCallback() {
+              public void actionDone(boolean accepted) {
+                if(!accepted) {
+                  SwingUtilities.invokeLater(new Runnable() {
+                    public void run() {
+                      alreadyPressed = false;
+                      setPlayerType(firstAttacker);
+                      roundDoneButton.setEnabled(getGameProcessContainer().hasInGameCards());
+                    }
+                  });
+                }
+              }
+            });
           }
         });
     enableGameButtons(false, false);
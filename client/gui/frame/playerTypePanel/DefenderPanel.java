@@ -55,8 +55,8 @@ public class DefenderPanel extends AbstractDurakGamePanel {
         I18nSupport.getValue(GUI_COMPONENT, "tooltip.take.cards"), null,
         new ActionListener() {
           public void actionPerformed(ActionEvent e) {
-            GameClient.getClient().finishRound(Client.getOwnInstance().toDTO(),
-                FinishAction.FinishType.TAKE_CARDS);
+            GameClient.getClient().finishRoundAsync(Client.getOwnInstance().toDTO(),
+                FinishAction.FinishType.TAKE_CARDS, null);
           }
         });
     roundDoneButton = WidgetCreator.makeButton(null,
@@ -64,8 +64,8 @@ public class DefenderPanel extends AbstractDurakGamePanel {
         I18nSupport.getValue(GUI_COMPONENT, "tooltip.finish.round"), null,
         new ActionListener() {
           public void actionPerformed(ActionEvent e) {
-            GameClient.getClient().finishRound(Client.getOwnInstance().toDTO(),
-                FinishAction.FinishType.GO_TO_NEXT_ROUND);
+            GameClient.getClient().finishRoundAsync(Client.getOwnInstance().toDTO(),
+                FinishAction.FinishType.GO_TO_NEXT_ROUND, null);
           }
         });
     enableGameButtons(false, false);
@@ -2,7 +2,7 @@ package client.gui.frame.playerTypePanel;
 
 import client.gui.frame.*;
 import client.gui.frame.gamePanel.GamePanel;
-import common.dto.DTOCardStack;
+import common.dto.DTOStackSummary;
 import common.dto.DTOClient;
 import common.game.GameCard;
 import common.i18n.BundleStrings;
@@ -37,7 +37,7 @@ public class PlayerTypePanel extends JPanel {
   private List<GameCard> handCards;
   private List<GameCard> attackCards;
   private List<GameCard> defenseCards;
-  private DTOCardStack cardStack;
+  private DTOStackSummary cardStack;
   private List<DTOClient> opponents;
 
   /* Constructors */
@@ -49,7 +49,7 @@ public class PlayerTypePanel extends JPanel {
     handCards = new ArrayList<GameCard>();
     attackCards = new ArrayList<GameCard>(6);
     defenseCards = new ArrayList<GameCard>(6);
-    cardStack = new DTOCardStack();
+    cardStack = new DTOStackSummary();
     opponents = new ArrayList<DTOClient>();
 
     initGamePanels();
@@ -173,10 +173,10 @@ public class PlayerTypePanel extends JPanel {
     setCards(attackerCards, defenderCards, null);
   }
 
-  public void updateStack(DTOCardStack cardStack) {
-    if (cardStack == null || cardStack.trumpCard == null || cardStack.cardStack == null)
+  public void updateStack(DTOStackSummary cardStack) {
+    if (cardStack == null || cardStack.trumpCard == null)
       statusBar.setStackStatus(null, 0);
-    else statusBar.setStackStatus(cardStack.trumpCard.cardColour, cardStack.cardStack.size());
+    else statusBar.setStackStatus(cardStack.trumpCard.cardColour, cardStack.cardCount);
     if (cardStack != null && !this.cardStack.equals(cardStack))
       this.cardStack = cardStack;
     panelMap.get(currentType).getCardStackContainer().updateStack(this.cardStack);
@@ -216,7 +216,7 @@ public class PlayerTypePanel extends JPanel {
       opponents.clear();
     if(clearStack) {
       cardStack.trumpCard = null;
-      cardStack.cardStack.clear();
+      cardStack.cardCount = 0;
     }
   }
 
@@ -1,6 +1,7 @@
 package client.gui.widget.card;
 
 import client.business.Client;
+import client.business.client.ActionCallback;
 import client.business.client.GameClient;
 import client.gui.frame.gamePanel.CardContainer;
 import client.gui.frame.gamePanel.CurtainWidget;
@@ -85,8 +86,8 @@ public class AttackCardMoveListener extends CardMoveListener {
   public void mouseReleased(MouseEvent e) {
     final GameCardWidget widget = (GameCardWidget) e.getComponent();
     if(dragged) {
-      if(moveIsValid(widget)) {
-        removeClientCards(widget);
+      if(isWidgetInArea(widget, attackArea)) {
+        sendAttack(widget);
       } else {
         setWidgetToLastPlace(widget);
       }
@@ -119,30 +120,42 @@ public class AttackCardMoveListener extends CardMoveListener {
       currentWidget.getParent().repaint();
   }
 
+  private void restoreClientCards(List<GameCardWidget> widgets) {
+    for (GameCardWidget widget : widgets)
+      cardContainer.addCard(widget);
+    if(!widgets.isEmpty() && widgets.get(0).getParent() != null)
+      widgets.get(0).getParent().repaint();
+  }
+
   /**
+   * Removes the cards of the attack from the hand and sends the attack without waiting
+   * for the server. The cards are put back into the hand, if the attack is rejected.
    * @param widget Main widget of this attack move.
-   * @param currentPanel Current panel the widget stands over.
-   * @return Returns an empty string if the move is valid. If the reason is clear, when
-   * the move is not valid, the string has a content. If the reason is not clear, the string
-   * is null.
    */
-  private boolean moveIsValid(GameCardWidget widget) {
-    boolean result;
-    if(!isWidgetInArea(widget, attackArea))
-      return false;
-
+  private void sendAttack(GameCardWidget widget) {
     if(!pointedWidgets.widgets.contains(widget))
       pointedWidgets.widgets.add(widget);
 
-    final List<DTOCard> cards = new ArrayList<DTOCard>(pointedWidgets.widgets.size());
-    for (GameCardWidget cardWidget : pointedWidgets.widgets) {
+    final List<GameCardWidget> attackWidgets =
+        new ArrayList<GameCardWidget>(pointedWidgets.widgets);
+    final List<DTOCard> cards = new ArrayList<DTOCard>(attackWidgets.size());
+    for (GameCardWidget cardWidget : attackWidgets) {
       cards.add(Converter.toDTO(cardWidget.getCardInfo()));
     }
 
+    removeClientCards(widget);
     final DTOClient dtoClient = Client.getOwnInstance().toDTO();
-    result = GameClient.getClient().sendAction(dtoClient, cards, null);
-
-    return result;
+    GameClient.getClient().sendActionAsync(dtoClient, cards, null, new ActionCallback() {
+      public void actionDone(boolean accepted) {
+        if(!accepted) {
+          SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+              restoreClientCards(attackWidgets);
+            }
+          });
+        }
+      }
+    });
   }
 
   public void componentMoved(ComponentEvent e) {
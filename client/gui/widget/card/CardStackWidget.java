@@ -2,12 +2,14 @@ package client.gui.widget.card;
 
 import client.gui.frame.ClientGUIConstants;
 import common.dto.DTOCard;
-import common.dto.DTOCardStack;
+import common.dto.DTOStackSummary;
 import common.resources.ResourceGetter;
+import common.utilities.gui.Compute;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
 
 /**
  * User: Timm Herrmann
@@ -25,10 +27,14 @@ public class CardStackWidget extends JComponent {
 
   private ImageIcon cardBack;
   private ImageIcon trumpCard;
+  private DTOCard trumpInfo;
   private int cardCount;
   private AffineTransform cardBackTransform;
   private AffineTransform trumpCardTransform;
   private int orientation;
+  /** The painted stack, it is painted again when the size, the card count or a card changes. */
+  private BufferedImage stackLayer;
+  private boolean stackLayerValid;
 
   /* Constructors */
   /**
@@ -95,20 +101,37 @@ public class CardStackWidget extends JComponent {
   }
 
   public void paint(Graphics g) {
-    Graphics2D g2D = (Graphics2D) g;
     final int width = getWidth();
     final int height = getHeight();
+    if(cardCount <= 0 || width <= 0 || height <= 0)
+      return;
+
+    if(!stackLayerValid || stackLayer == null || stackLayer.getWidth() != width
+        || stackLayer.getHeight() != height) {
+      paintStackLayer(width, height);
+    }
+    g.drawImage(stackLayer, 0, 0, this);
+  }
+
+  private void paintStackLayer(int width, int height) {
+    stackLayer = Compute.getLayer(this, stackLayer, width, height);
+
+    final Graphics2D g2D = Compute.clearLayer(stackLayer);
+    paintStack(g2D, width, height);
+    g2D.dispose();
+    stackLayerValid = true;
+  }
+
+  private void paintStack(Graphics2D g2D, int width, int height) {
     final int cardHeight = computeCardHeight(width, height);
     final int cardWidth = (int) (cardHeight*RATIO_WIDTH_TO_HEIGHT);
     final Point backPoint = getBackPoint(width, height, cardWidth, cardHeight);
 
     calculateTrumpCardTransform(trumpCard, backPoint, width, height, cardWidth, cardHeight);
-    if(cardCount > 0) {
-      g2D.drawImage(trumpCard.getImage(), trumpCardTransform, this);
-      for(int i = 0; i < cardCount-1; i++) {
-        calculateCardBackTransform(backPoint, width, height, cardWidth, cardHeight, i);
-        g2D.drawImage(cardBack.getImage(), cardBackTransform, this);
-      }
+    g2D.drawImage(trumpCard.getImage(), trumpCardTransform, this);
+    for(int i = 0; i < cardCount-1; i++) {
+      calculateCardBackTransform(backPoint, width, height, cardWidth, cardHeight, i);
+      g2D.drawImage(cardBack.getImage(), cardBackTransform, this);
     }
   }
 
@@ -131,18 +154,26 @@ public class CardStackWidget extends JComponent {
     return (int) (cardHeight*RATIO_WIDTH_TO_HEIGHT);
   }
 
+  private boolean isSameCard(DTOCard first, DTOCard second) {
+    if(first == null || second == null)
+      return first == second;
+    return first.cardColour == second.cardColour && first.cardValue == second.cardValue;
+  }
+
   /* Getter and Setter */
 
   /**
-   * Gets the information from the card stack and sets the trump card and the size.
-   * @param dtoStack Cards stack.
+   * Gets the information from the stack summary and sets the trump card and the size.
+   * @param dtoStack Summary of the cards stack.
    */
-  public void setCardStack(DTOCardStack dtoStack) {
+  public void setCardStack(DTOStackSummary dtoStack) {
     setTrumpCard(dtoStack.trumpCard);
-    setCardCount(dtoStack.cardStack.size());
+    setCardCount(dtoStack.cardCount);
   }
 
   public void setCardCount(int cardCount) {
+    if(this.cardCount != cardCount)
+      stackLayerValid = false;
     this.cardCount = cardCount;
   }
 
@@ -151,6 +182,11 @@ public class CardStackWidget extends JComponent {
   }
 
   public void setTrumpCard(DTOCard trump) {
+    if(trumpCard != null && isSameCard(trump, trumpInfo))
+      return;
+
+    trumpInfo = trump;
+    stackLayerValid = false;
     if(trump != null)
       trumpCard = ResourceGetter.getCardImage(trump.cardColour, trump.cardValue);
     else
@@ -158,6 +194,7 @@ public class CardStackWidget extends JComponent {
   }
 
   public void setCardBack(ImageIcon cardBack) {
+    stackLayerValid = false;
     this.cardBack = cardBack;
   }
 }
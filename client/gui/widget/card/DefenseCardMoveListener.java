@@ -1,9 +1,11 @@
 package client.gui.widget.card;
 
 import client.business.Client;
+import client.business.client.ActionCallback;
 import client.business.client.GameClient;
 import client.gui.frame.gamePanel.CardContainer;
 import client.gui.frame.gamePanel.CombatCardPanel;
+import common.dto.DTOCard;
 import common.dto.DTOClient;
 import common.utilities.Converter;
 import common.utilities.LoggingUtility;
@@ -69,8 +71,8 @@ public class DefenseCardMoveListener extends CardMoveListener {
 
   public void mouseReleased(MouseEvent e) {
     final GameCardWidget widget = (GameCardWidget) e.getComponent();
-    if(moveIsValid(widget)) {
-      removeClientCard(widget);
+    if(currentCurtain != null) {
+      sendDefense(widget);
     } else {
       setWidgetToLastPlace(widget);
     }
@@ -85,20 +87,29 @@ public class DefenseCardMoveListener extends CardMoveListener {
   }
 
   /**
-   * Compares the move with the current curtain panel. If the curtain panel is null, the method
-   * returns false.
+   * Removes the defense card from the hand and sends the defense against the card of the
+   * current curtain panel without waiting for the server. The card is put back into the
+   * hand, if the defense is rejected.
    * @param defenseCard Widget of this defense move.
-   * @return Returns true, if the move is valid or the current panel is null, else false.
    */
-  private boolean moveIsValid(GameCardWidget defenseCard) {
-    if(currentCurtain == null)
-      return false;
-
+  private void sendDefense(final GameCardWidget defenseCard) {
     final Client client = Client.getOwnInstance();
     final DTOClient dtoClient = client.toDTO();
-    return GameClient.getClient().sendAction(dtoClient,
-        Converter.toDTO(currentCurtain.getAttackerCard().getCardInfo()),
-        Converter.toDTO(defenseCard.getCardInfo()));
+    final DTOCard attackerCard = Converter.toDTO(currentCurtain.getAttackerCard().getCardInfo());
+    removeClientCard(defenseCard);
+    GameClient.getClient().sendActionAsync(dtoClient, attackerCard,
+        Converter.toDTO(defenseCard.getCardInfo()), new ActionCallback() {
+      public void actionDone(boolean accepted) {
+        if(!accepted) {
+          SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+              if(cardContainer.addCard(defenseCard) && defenseCard.getParent() != null)
+                defenseCard.getParent().repaint();
+            }
+          });
+        }
+      }
+    });
   }
 
   public void componentMoved(ComponentEvent e) {
@@ -9,6 +9,7 @@ import common.utilities.Converter;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.image.BufferedImage;
 
 /**
  * User: Timm Herrmann
@@ -20,7 +21,8 @@ import java.awt.*;
 public class GameCardWidget extends JComponent implements CurtainWidget {
   public static final float WIDTH_TO_HEIGHT = 0.69f;
 
-  private Image cardImage;
+  /** Image of the card in the size of the widget, taken from the card atlas. */
+  private BufferedImage cardImage;
   private GameCard cardInfo;
   private boolean paintCurtain;
   private CardMoveListener cardMoveListener;
@@ -60,7 +62,15 @@ public class GameCardWidget extends JComponent implements CurtainWidget {
 
   private void drawCard(Graphics2D g2D, Dimension cardDim) {
     setSize(cardDim);
-    g2D.drawImage(cardImage, 0, 0, cardDim.width, cardDim.height, this);
+    if(cardInfo == null || cardDim.width <= 0 || cardDim.height <= 0)
+      return;
+
+    if(cardImage == null || cardImage.getWidth() != cardDim.width
+        || cardImage.getHeight() != cardDim.height) {
+      cardImage = ResourceGetter.getCardImage(cardInfo.getCardColour(),
+          cardInfo.getCardValue(), cardDim.width, cardDim.height);
+    }
+    g2D.drawImage(cardImage, 0, 0, this);
   }
 
   private void paintCurtain(Graphics2D g2D, Dimension cardDim) {
@@ -92,15 +102,11 @@ public class GameCardWidget extends JComponent implements CurtainWidget {
 
   public void setCard(GameCard card) {
     this.cardInfo = card;
+    cardImage = null;
     if(card != null) {
       setToolTipText(cardInfo.getColourAndValue());
-      cardImage = ResourceGetter.getCardImage(cardInfo.getCardColour(),
-          cardInfo.getCardValue()).getImage();
       repaint();
-    } else {
-      setToolTipText(null);
-      cardImage = null;
-    }
+    } else setToolTipText(null);
   }
 
   public GameCard getCardInfo() {
@@ -5,10 +5,13 @@ import common.i18n.BundleStrings;
 import common.i18n.I18nSupport;
 import common.resources.ResourceGetter;
 import common.utilities.constants.PlayerConstants;
+import common.utilities.gui.Compute;
 
 import javax.swing.*;
 import java.awt.*;
-import java.awt.geom.Rectangle2D;
+import java.awt.font.GlyphVector;
+import java.awt.image.BufferedImage;
+import java.util.Map;
 
 /**
  * User: Timm Herrmann
@@ -26,6 +29,19 @@ public class OpponentHandWidget extends JComponent {
 
   private DTOClient opponent;
 
+  /** The card back scaled to {@link #CARD_WIDTH} and {@link #CARD_HEIGHT}. */
+  private BufferedImage cardBackTile;
+  /** The laid out name of the opponent, null if the name changed. */
+  private GlyphVector nameGlyphs;
+  private int nameWidth;
+  /** The painted hand, status and name. It is painted again when the size changes or when
+   *  the card count, the player type or the name of the opponent changes. */
+  private BufferedImage strip;
+  private boolean stripValid;
+  private int stripCardCount;
+  private PlayerConstants.PlayerType stripPlayerType;
+  private String stripName;
+
   public OpponentHandWidget(Font nameFont, ImageIcon cardBack, DTOClient opponent) {
     this.nameFont = nameFont;
     this.cardBack = cardBack;
@@ -34,34 +50,69 @@ public class OpponentHandWidget extends JComponent {
   }
 
   public void paint(Graphics g) {
-    Graphics2D g2D = (Graphics2D) g;
+    final int width = getWidth();
+    final int height = getHeight();
+    if(opponent == null || width <= 0 || height <= 0)
+      return;
+
+    if(!stripValid || strip == null || strip.getWidth() != width
+        || strip.getHeight() != height) {
+      paintStrip(width, height);
+    }
+    g.drawImage(strip, 0, 0, this);
+  }
+
+  private void paintStrip(int width, int height) {
+    strip = Compute.getLayer(this, strip, width, height);
 
-    drawCards(g2D);
-    drawStatus(g2D);
-    drawName(g2D);
+    final Graphics2D g2D = Compute.clearLayer(strip);
+    final Object desktopHints =
+        Toolkit.getDefaultToolkit().getDesktopProperty("awt.font.desktophints"); //NON-NLS
+    if(desktopHints instanceof Map)
+      g2D.addRenderingHints((Map<?, ?>) desktopHints);
+
+    drawCards(g2D, width, height);
+    drawStatus(g2D, width);
+    drawName(g2D, width, height);
+    g2D.dispose();
+    stripValid = true;
   }
 
-  private void drawCards(Graphics2D g2D) {
+  private void drawCards(Graphics2D g2D, int width, int height) {
+    if(opponent.cardCount <= 0)
+      return;
+
     final int drawWidth = (int) ((opponent.cardCount - 1) * CARD_WIDTH * LEFT_BORDER_DISTANCE) + CARD_WIDTH;
-    final int xDrawOffset = getWidth() / 2 - drawWidth / 2;
+    final int xDrawOffset = width / 2 - drawWidth / 2;
+    final BufferedImage tile = getCardBackTile();
 
     for (int i = 0; i < opponent.cardCount; i++)
-      g2D.drawImage(cardBack.getImage(), (int) (i * CARD_WIDTH * LEFT_BORDER_DISTANCE) + xDrawOffset,
-          getHeight() / 2 - CARD_HEIGHT / 2, CARD_WIDTH, CARD_HEIGHT, this);
+      g2D.drawImage(tile, (int) (i * CARD_WIDTH * LEFT_BORDER_DISTANCE) + xDrawOffset,
+          height / 2 - CARD_HEIGHT / 2, this);
   }
 
-  private void drawName(Graphics2D g2D) {
-    final Rectangle2D stringRect = nameFont.getStringBounds(opponent.name, g2D.getFontRenderContext());
-    g2D.setFont(nameFont);
+  private void drawName(Graphics2D g2D, int width, int height) {
+    if(nameGlyphs == null) {
+      nameGlyphs = nameFont.createGlyphVector(g2D.getFontRenderContext(), opponent.name);
+      nameWidth = (int) Math.abs(nameGlyphs.getLogicalBounds().getWidth());
+    }
     g2D.setColor(Color.BLACK);
-    g2D.drawString(opponent.name,
-        getWidth() / 2 - (int) Math.abs(stringRect.getWidth())/2,
-        getHeight() / 2);
+    g2D.drawGlyphVector(nameGlyphs, width / 2 - nameWidth / 2, height / 2);
   }
 
-  private void drawStatus(Graphics2D g2D) {
+  private BufferedImage getCardBackTile() {
+    if(cardBackTile == null) {
+      cardBackTile = new BufferedImage(CARD_WIDTH, CARD_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+      final Graphics2D g2D = cardBackTile.createGraphics();
+      g2D.drawImage(cardBack.getImage(), 0, 0, CARD_WIDTH, CARD_HEIGHT, null);
+      g2D.dispose();
+    }
+    return cardBackTile;
+  }
+
+  private void drawStatus(Graphics2D g2D, int width) {
     if (statusIcon != null) {
-      final int xOffset = getWidth()/2-statusIcon.getIconWidth()/2;
+      final int xOffset = width/2-statusIcon.getIconWidth()/2;
       g2D.drawImage(statusIcon.getImage(), xOffset, 0, this);
     }
   }
@@ -82,6 +133,7 @@ public class OpponentHandWidget extends JComponent {
       icon = ResourceGetter.getPlayerTypeIcon(opponent.playerType, height);
       string = opponent.playerType.getDescription();
       this.opponent = opponent;
+      invalidateStrip(opponent);
     } else {
       icon = null;
       string = null;
@@ -89,6 +141,19 @@ public class OpponentHandWidget extends JComponent {
     setStatusIcon(icon, string);
   }
 
+  /* The strip is painted again, if something changed that it shows */
+  private void invalidateStrip(DTOClient opponent) {
+    if(!opponent.name.equals(stripName))
+      nameGlyphs = null;
+    if(opponent.cardCount != stripCardCount || !opponent.playerType.equals(stripPlayerType)
+        || !opponent.name.equals(stripName)) {
+      stripValid = false;
+      stripCardCount = opponent.cardCount;
+      stripPlayerType = opponent.playerType;
+      stripName = opponent.name;
+    }
+  }
+
   private void setStatusIcon(ImageIcon statusIcon, String statusDescription) {
     this.statusIcon = statusIcon;
     final String tooltipText;
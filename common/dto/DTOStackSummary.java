@@ -0,0 +1,29 @@
+package common.dto;
+
+import java.io.Serializable;
+
+/**
+ * Summary of the card stack that is sent to the clients. The clients do not need to know
+ * the order of the remaining cards, it is enough to know how many cards are left and which
+ * card is the trump card.
+ */
+public class DTOStackSummary implements Serializable {
+  public int cardCount;
+  public DTOCard trumpCard;
+
+  /* Constructors */
+  public DTOStackSummary() {
+    cardCount = 0;
+    trumpCard = null;
+  }
+
+  /* Methods */
+
+  @SuppressWarnings("ALL")
+  public String toString() {
+    return "DTOStackSummary = {" +
+        "cardCount=" + cardCount +
+        ", trumpCard=" + trumpCard +
+        '}';
+  }
+}
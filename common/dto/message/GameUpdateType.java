@@ -22,8 +22,14 @@ public enum GameUpdateType {
                              first object: server switched to the next round (true) or not (false)
                              second object: defender took cards (true) or not (false)
                              third object: all attackers finished the round (true) or not (false) */
+  ROUND_FRAME,            /* Sending object: List<MessageObject>
+                             All messages of one round transition for one client,
+                             they have to be applied in the order of the list */
   PLAYERS_UPDATE,         /* Sending object: List<ClientInfo>
                              Updated list of clients that are in the game */
+  STACK_SUMMARY,          /* Sending object: DTOStackSummary
+                             Number of remaining cards and the trump card */
   STACK_UPDATE,           /* Sending object: DTOCardStack
-                             Information about the current card stack */
+                             Information about the current card stack,
+                             replaced by STACK_SUMMARY */
 }
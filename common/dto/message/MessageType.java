@@ -11,5 +11,6 @@ public enum MessageType {
   LOST_CONNECTION,
   OWN_CLIENT_INFO,
   RULE_MESSAGE,
-  STATUS_MESSAGE
+  STATUS_MESSAGE,
+  RESUME_TOKEN
 }
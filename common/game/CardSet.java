@@ -0,0 +1,226 @@
+package common.game;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static common.utilities.constants.GameCardConstants.CardColour;
+import static common.utilities.constants.GameCardConstants.CardValue;
+
+/**
+ * A set of game cards that is stored as a 64 bit mask. The bit of a card is its index
+ * {@code colour * 13 + value}, see {@link GameCard#getIndex()}. Hence
+ * the cards of one colour lie in a block of 13 bits and the lowest bit of a block is the
+ * lowest card of the colour. Adding, removing and looking up a card does not iterate and
+ * does not allocate any objects.
+ */
+public final class CardSet implements Iterable<GameCard> {
+  public static final int VALUE_COUNT = CardValue.values().length;
+  public static final int COLOUR_COUNT = CardColour.values().length;
+
+  private static final int COLOUR_BITS = (1 << VALUE_COUNT) - 1;
+
+  private long mask;
+
+  /* Constructors */
+
+  public CardSet() {
+    mask = 0L;
+  }
+
+  public CardSet(long mask) {
+    this.mask = mask;
+  }
+
+  public CardSet(Collection<GameCard> cards) {
+    this();
+    if(cards != null) {
+      for (GameCard card : cards)
+        add(card);
+    }
+  }
+
+  /* Methods */
+
+  /**
+   * Returns the bit of the value within the 13 bits of a colour, see
+   * {@link #getColourMask(CardColour)} and {@link #getValueMask()}.
+   * @param value Card value.
+   * @return Bit of the value.
+   */
+  public static int valueBit(CardValue value) {
+    return 1 << value.ordinal();
+  }
+
+  /**
+   * Returns the mask of all cards of every colour that have one of the values.
+   * @param valueMask Mask of the values, see {@link #valueBit(CardValue)}.
+   * @return Mask of the cards, see {@link #getMask()}.
+   */
+  public static long getCardsOfValues(int valueMask) {
+    long cards = 0L;
+    for (int colour = 0; colour < COLOUR_COUNT; colour++)
+      cards |= (long) valueMask << (colour * VALUE_COUNT);
+    return cards;
+  }
+
+  private static long bit(GameCard card) {
+    return 1L << card.getIndex();
+  }
+
+  /**
+   * Adds the card to the set.
+   * @param card Card to add, null will be ignored.
+   * @return True, if the card was not in the set, else false.
+   */
+  public boolean add(GameCard card) {
+    if(card == null)
+      return false;
+
+    final long old = mask;
+    mask |= bit(card);
+    return old != mask;
+  }
+
+  public void addAll(CardSet cards) {
+    mask |= cards.mask;
+  }
+
+  /**
+   * Removes the card from the set.
+   * @param card Card to remove, null will be ignored.
+   * @return True, if the card was in the set, else false.
+   */
+  public boolean remove(GameCard card) {
+    if(card == null)
+      return false;
+
+    final long old = mask;
+    mask &= ~bit(card);
+    return old != mask;
+  }
+
+  public boolean contains(GameCard card) {
+    return card != null && (mask & bit(card)) != 0L;
+  }
+
+  public boolean containsAll(CardSet cards) {
+    return (cards.mask & ~mask) == 0L;
+  }
+
+  /**
+   * Returns true, if the set contains a card of the specified value of any colour.
+   * @param value Card value.
+   * @return True, if such a card exists, else false.
+   */
+  public boolean containsValue(CardValue value) {
+    return value != null && (getValueMask() & valueBit(value)) != 0;
+  }
+
+  /**
+   * Returns the values of the cards of the specified colour as 13 bit mask.
+   * @param colour Card colour.
+   * @return Mask of the values, see {@link #valueBit(CardValue)}.
+   */
+  public int getColourMask(CardColour colour) {
+    return (int) (mask >>> (colour.ordinal() * VALUE_COUNT)) & COLOUR_BITS;
+  }
+
+  /**
+   * Returns the values of all cards regardless of their colour as 13 bit mask.
+   * @return Mask of the values, see {@link #valueBit(CardValue)}.
+   */
+  public int getValueMask() {
+    long values = mask;
+    int valueMask = 0;
+    for (int colour = 0; colour < COLOUR_COUNT; colour++) {
+      valueMask |= (int) values & COLOUR_BITS;
+      values >>>= VALUE_COUNT;
+    }
+    return valueMask;
+  }
+
+  /**
+   * Returns the card with the lowest value of the specified colour.
+   * @param colour Card colour.
+   * @return The lowest card or null, if the set contains no card of this colour.
+   */
+  public GameCard getLowestCard(CardColour colour) {
+    final int colourMask = getColourMask(colour);
+    if(colourMask == 0)
+      return null;
+
+    return GameCard.byIndex(
+        colour.ordinal() * VALUE_COUNT + Integer.numberOfTrailingZeros(colourMask));
+  }
+
+  public int size() {
+    return Long.bitCount(mask);
+  }
+
+  public boolean isEmpty() {
+    return mask == 0L;
+  }
+
+  public void clear() {
+    mask = 0L;
+  }
+
+  public List<GameCard> toList() {
+    final List<GameCard> cards = new ArrayList<GameCard>(size());
+    for (GameCard card : this)
+      cards.add(card);
+    return cards;
+  }
+
+  /**
+   * Iterates the cards ordered by colour and value.
+   * @return Iterator of the cards.
+   */
+  public Iterator<GameCard> iterator() {
+    return new Iterator<GameCard>() {
+      private long remaining = mask;
+
+      public boolean hasNext() {
+        return remaining != 0L;
+      }
+
+      public GameCard next() {
+        if(remaining == 0L)
+          throw new NoSuchElementException();
+
+        final int index = Long.numberOfTrailingZeros(remaining);
+        remaining &= remaining - 1L;
+        return GameCard.byIndex(index);
+      }
+
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof CardSet)) return false;
+
+    return mask == ((CardSet) o).mask;
+  }
+
+  public int hashCode() {
+    return (int) (mask ^ (mask >>> 32));
+  }
+
+  @SuppressWarnings("ALL")
+  public String toString() {
+    return "CardSet = {mask=" + Long.toBinaryString(mask) + ", size=" + size() + '}';
+  }
+
+  /* Getter and Setter */
+
+  public long getMask() {
+    return mask;
+  }
+}
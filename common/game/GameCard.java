@@ -8,18 +8,55 @@ import static common.utilities.constants.GameCardConstants.CardValue;
  * Date: 04.10.12
  * Time: 16:26
  *
- * This class is immutable.
+ * This class is immutable. There is exactly one instance for every card, it can be
+ * obtained by {@link #of(CardValue, CardColour)} or {@link #byIndex(int)}. Hence cards can
+ * be compared by reference or by their index.
  */
 public class GameCard {
-  private CardValue cardValue;
-  private CardColour cardColour;
+  public static final int CARD_COUNT = CardValue.values().length * CardColour.values().length;
 
-  public GameCard(CardValue value, CardColour colour) {
+  private static final GameCard[] CARDS = new GameCard[CARD_COUNT];
+
+  static {
+    for (CardColour colour : CardColour.values()) {
+      for (CardValue value : CardValue.values()) {
+        final GameCard card = new GameCard(value, colour);
+        CARDS[card.index] = card;
+      }
+    }
+  }
+
+  private final CardValue cardValue;
+  private final CardColour cardColour;
+  private final int index;
+
+  private GameCard(CardValue value, CardColour colour) {
     cardValue = value;
     cardColour = colour;
+    index = colour.ordinal() * CardValue.values().length + value.ordinal();
   }
 
   /* Methods */
+
+  /**
+   * Returns the card with the specified value and colour.
+   * @param value Value of the card.
+   * @param colour Colour of the card.
+   * @return The only instance of this card.
+   */
+  public static GameCard of(CardValue value, CardColour colour) {
+    return CARDS[colour.ordinal() * CardValue.values().length + value.ordinal()];
+  }
+
+  /**
+   * Returns the card with the specified index, see {@link #getIndex()}.
+   * @param index Index of the card.
+   * @return The only instance of this card.
+   */
+  public static GameCard byIndex(int index) {
+    return CARDS[index];
+  }
+
   @SuppressWarnings("ALL")
   public String toString() {
     return "GameCard = {" +
@@ -32,15 +69,11 @@ public class GameCard {
     if (this == o) return true;
     if (!(o instanceof GameCard)) return false;
 
-    GameCard gameCard = (GameCard) o;
-
-    return cardColour == gameCard.cardColour && cardValue == gameCard.cardValue;
+    return index == ((GameCard) o).index;
   }
 
   public int hashCode() {
-    int result = cardValue.hashCode();
-    result = 31 * result + cardColour.hashCode();
-    return result;
+    return index;
   }
 
   /**
@@ -71,6 +104,15 @@ public class GameCard {
 
   /* Getter and Setter */
 
+  /**
+   * Returns the index of this card. The index is {@code colour * 13 + value}, where the
+   * colours and values are ordered like their enums.
+   * @return Index between 0 and {@link #CARD_COUNT} exclusive.
+   */
+  public int getIndex() {
+    return index;
+  }
+
   public CardValue getCardValue() {
     return cardValue;
   }
@@ -18,11 +18,13 @@ public class GameCardStack extends Observable {
   private Integer stackSize;
 
   private Deque<GameCard> cardStack;
+  private Random random;
   private GameCard trumpCard;
 
   public GameCardStack() {
     cardStack = new ArrayDeque<GameCard>();
     trumpCard = null;
+    random = new Random();
   }
 
   /**
@@ -34,19 +36,44 @@ public class GameCardStack extends Observable {
    * @param cardColourNumber Number of cards for each colour.
    */
   public void initialiseStack(Integer cardColourNumber) {
+    initialiseStack(cardColourNumber, new Random());
+  }
+
+  /**
+   * Initialises a stack like {@link #initialiseStack(Integer)}, but shuffles it with the
+   * specified random generator. A seeded generator therefore always results in the same
+   * stack. The generator will also be used to reshuffle the stack.
+   * @param cardColourNumber Number of cards for each colour.
+   * @param random Random generator to shuffle the stack.
+   */
+  public void initialiseStack(Integer cardColourNumber, Random random) {
     final List<GameCard> cardList;
 
+    this.random = random;
+
     stackSize = returnStackSize(cardColourNumber);
 
     cardList = getSortedStack(stackSize/CardColour.values().length);
 
-    Collections.shuffle(cardList);
+    Collections.shuffle(cardList, random);
     for (GameCard gameCard : cardList) {
       cardStack.add(gameCard);
     }
     trumpCard = cardStack.getLast();
   }
 
+  /**
+   * Initialises a stack with the specified cards. The cards will be drawn in the order of
+   * the list and the last card is the trump card.
+   * @param cards Cards of the stack.
+   */
+  public void initialiseStack(List<GameCard> cards) {
+    stackSize = cards.size();
+    cardStack.clear();
+    cardStack.addAll(cards);
+    trumpCard = cardStack.getLast();
+  }
+
   /**
    * Initialises a new shuffled stack with the number that was used for all card colours
    * at the initialising of the stack.
@@ -55,7 +82,7 @@ public class GameCardStack extends Observable {
     final List<GameCard> cardList;
 
     cardList = getSortedStack(stackSize/CardColour.values().length);
-    Collections.shuffle(cardList);
+    Collections.shuffle(cardList, random);
     for (GameCard gameCard : cardList) {
       cardStack.add(gameCard);
     }
@@ -83,7 +110,7 @@ public class GameCardStack extends Observable {
 
     for (CardColour cardColour : CardColour.values()) {
       for (CardValue cardValue : values) {
-        list.add(new GameCard(cardValue, cardColour));
+        list.add(GameCard.of(cardValue, cardColour));
       }
     }
 
@@ -0,0 +1,78 @@
+package common.game;
+
+/**
+ * The state of a game at the start of a round, when no card lies on the table and no
+ * player is ready for the next round. Together with the stack of the game it is enough to
+ * continue the game at this round, see {@link GameProcess#restoreCheckpoint(GameCheckpoint,
+ * java.util.List)}. The hands are stored as masks of a {@link CardSet} and the seats are
+ * ordered like the players of the process.
+ */
+public final class GameCheckpoint {
+  private final int stackSize;
+  private final long discardedCards;
+  private final int firstAttackerSeat;
+  private final boolean initialAttack;
+  private final long[] hands;
+  private final long[] knownCards;
+  private final boolean[] finished;
+
+  /* Constructors */
+
+  /**
+   * Creates a checkpoint.
+   * @param stackSize Number of cards that are left on the stack.
+   * @param discardedCards Mask of the cards that left the game.
+   * @param firstAttackerSeat Seat of the first attacker of the round.
+   * @param initialAttack True, if the round is the first round of the game.
+   * @param hands Mask of the hand of every seat.
+   * @param knownCards Mask of the cards of every hand that the other players have seen.
+   * @param finished For every seat true, if the player has no cards left and finished.
+   */
+  public GameCheckpoint(int stackSize, long discardedCards, int firstAttackerSeat,
+                        boolean initialAttack, long[] hands, long[] knownCards,
+                        boolean[] finished) {
+    if(hands.length != knownCards.length || hands.length != finished.length)
+      throw new IllegalArgumentException("Every seat needs a hand, known cards and a flag!");
+    this.stackSize = stackSize;
+    this.discardedCards = discardedCards;
+    this.firstAttackerSeat = firstAttackerSeat;
+    this.initialAttack = initialAttack;
+    this.hands = hands.clone();
+    this.knownCards = knownCards.clone();
+    this.finished = finished.clone();
+  }
+
+  /* Getter and Setter */
+
+  public int getStackSize() {
+    return stackSize;
+  }
+
+  public long getDiscardedCards() {
+    return discardedCards;
+  }
+
+  public int getFirstAttackerSeat() {
+    return firstAttackerSeat;
+  }
+
+  public boolean isInitialAttack() {
+    return initialAttack;
+  }
+
+  public int getSeatCount() {
+    return hands.length;
+  }
+
+  public long getHand(int seat) {
+    return hands[seat];
+  }
+
+  public long getKnownCards(int seat) {
+    return knownCards[seat];
+  }
+
+  public boolean isFinished(int seat) {
+    return finished[seat];
+  }
+}
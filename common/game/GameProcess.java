@@ -1,9 +1,11 @@
 package common.game;
 
 import common.dto.DTOCard;
+import common.game.rules.LegalMoves;
 import common.game.rules.RuleChecker;
 import common.game.rules.RuleException;
 import common.game.rules.RuleFactory;
+import common.game.rules.RuleVerdict;
 import common.i18n.BundleStrings;
 import common.i18n.I18nSupport;
 import common.simon.action.CardAction;
@@ -18,6 +20,7 @@ import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 /**
  * User: Timm Herrmann
@@ -32,12 +35,18 @@ public class GameProcess<ID> {
    * This object lists pairs of cards where the first card of a pair is
    * the attacker card and the second card is the defender card.
    */
-  private final ElementPairHolder<GameCard> pairCardHolder;
+  private final ElementPairHolder pairCardHolder;
 
   private final ListMap<ID,Player> playerHolder;
   private Player currentLoser;
 
   private GameCardStack stack;
+  /** The cards of the stack before they were distributed, the last card is the trump. */
+  private final List<GameCard> deck;
+  /** All cards of the game, i.e. the cards of the stack before they were distributed. */
+  private final CardSet deckCards;
+  /** Cards that were beaten and left the game. */
+  private final CardSet discardedCards;
   private boolean gameInProcess;
   /** Indicates whether the game will be initialised for a new constellation of players or not. */
   private boolean initialiseNew;
@@ -49,8 +58,11 @@ public class GameProcess<ID> {
   /* Constructors */
 
   public GameProcess() {
-    pairCardHolder = new ElementPairHolder<GameCard>();
+    pairCardHolder = new ElementPairHolder();
     playerHolder = new ListMap<ID, Player>();
+    deck = new ArrayList<GameCard>();
+    deckCards = new CardSet();
+    discardedCards = new CardSet();
     reInitialise();
   }
 
@@ -89,12 +101,55 @@ public class GameProcess<ID> {
    * @param cardsPerColour Number of cards per colour for this game.
    */
   public void initialiseNewGame(Integer cardsPerColour) {
+    initialiseNewGame(cardsPerColour, new Random());
+  }
+
+  /**
+   * Initialises a game like {@link #initialiseNewGame(Integer)}, but shuffles the stack with
+   * the specified random generator. Games with equally seeded generators and the same
+   * actions will therefore have the same course.
+   * @param cardsPerColour Number of cards per colour for this game.
+   * @param random Random generator to shuffle the stack.
+   */
+  public void initialiseNewGame(Integer cardsPerColour, Random random) {
+    initialiseNewGame(cardsPerColour, random, null);
+  }
+
+  /**
+   * Initialises a game like {@link #initialiseNewGame(Integer, Random)}, but the specified
+   * player will be the first attacker. A game can so be rebuilt exactly, although the
+   * loser of the game before is not known, see {@link #getFirstAttackerID()}.
+   * @param cardsPerColour Number of cards per colour for this game.
+   * @param random Random generator to shuffle the stack.
+   * @param firstAttackerID Identifier of the first attacker or null, if the first attacker
+   *                        should be determined by the rules.
+   */
+  public void initialiseNewGame(Integer cardsPerColour, Random random, ID firstAttackerID) {
+    final GameCardStack shuffledStack = new GameCardStack();
+    shuffledStack.initialiseStack(cardsPerColour, random);
+    initialiseNewGame(shuffledStack, firstAttackerID);
+  }
+
+  /**
+   * Initialises a game with a stack of the specified cards. The cards are drawn in the
+   * order of the list and the last card is the trump card, see {@link #getDeck()}.
+   * @param deck Cards of the stack.
+   * @param firstAttackerID Identifier of the first attacker or null, if the first attacker
+   *                        should be determined by the rules.
+   */
+  public void initialiseNewGame(List<GameCard> deck, ID firstAttackerID) {
+    final GameCardStack orderedStack = new GameCardStack();
+    orderedStack.initialiseStack(deck);
+    initialiseNewGame(orderedStack, firstAttackerID);
+  }
+
+  private void initialiseNewGame(GameCardStack newStack, ID firstAttackerID) {
     assert playerHolder.size() > 1;
 
     ruleChecker = RuleFactory.getStandardRules();
     initPlayers();
-    distributeCards(cardsPerColour);
-    determineInitialPlayers();
+    distributeCards(newStack);
+    determineInitialPlayers(firstAttackerID != null ? playerHolder.get(firstAttackerID) : null);
     gameInProcess = true;
     initialiseNew = false;
     currentLoser = null;
@@ -104,11 +159,13 @@ public class GameProcess<ID> {
   /**
    * Determines the first and second attackers and the defender.
    */
-  private void determineInitialPlayers() {
+  private void determineInitialPlayers(Player firstAttacker) {
     ruleChecker.setTrumpColour(stack.getTrumpCard().getCardColour());
 
     final Player starter;
-    if(!initialiseNew && (currentLoser != null))
+    if(firstAttacker != null)
+      starter = firstAttacker;
+    else if(!initialiseNew && (currentLoser != null))
       starter = currentLoser.getRightPlayer();
     else starter = ruleChecker.determineStartPlayer(playerHolder.getList());
 
@@ -116,19 +173,26 @@ public class GameProcess<ID> {
   }
 
   /**
-   * This method initialises a new game. It sets up a new shuffled stack of the surpassed
-   * number of cards per colour and distributes
+   * This method initialises a new game. It takes the surpassed stack and distributes
    * {@link GameConfigurationConstants#INITIAL_CARD_COUNT} cards
    * to each player in the game.
    */
-  private void distributeCards(Integer cardsPerColour) {
-    stack = new GameCardStack();
-    stack.initialiseStack(cardsPerColour);
+  private void distributeCards(GameCardStack newStack) {
+    setStack(newStack);
     for(int i = 0; i< GameConfigurationConstants.INITIAL_CARD_COUNT; i++)
       for (Player player : playerHolder.getList())
         player.pickUpCard(stack.drawCard());
   }
 
+  private void setStack(GameCardStack newStack) {
+    stack = newStack;
+    deck.clear();
+    deck.addAll(stack.getCardStack());
+    deckCards.clear();
+    deckCards.addAll(new CardSet(stack.getCardStack()));
+    discardedCards.clear();
+  }
+
   /** Initialises the players and sets their neighbours. */
   private void initPlayers() {
     for (int index = 0; index < playerHolder.size(); index++) {
@@ -169,14 +233,14 @@ public class GameProcess<ID> {
     final Player defender = ruleChecker.getDefender();
     final Player nextFirstAttacker;
     if(roundState.defenderTookCards()) {
-      final List<List<GameCard>> pairs = pairCardHolder.getElementPairs();
-      for (List<GameCard> pair : pairs) {
-        for (GameCard card : pair) {
-          defender.pickUpCard(card);
-        }
-      }
+      defender.pickUpCards(pairCardHolder.getFirstCards());
+      defender.pickUpCards(pairCardHolder.getSecondCards());
       nextFirstAttacker = defender.getLeftPlayer();
-    } else nextFirstAttacker = defender;
+    } else {
+      discardedCards.addAll(pairCardHolder.getFirstCards());
+      discardedCards.addAll(pairCardHolder.getSecondCards());
+      nextFirstAttacker = defender;
+    }
 
     prepareForNextRound();
     nextRoundOrFinish(nextFirstAttacker);
@@ -189,12 +253,17 @@ public class GameProcess<ID> {
       currentLoser.setType(PlayerConstants.PlayerType.LOSER);
       currentLoser.emptyHand();
       gameInProcess = false;
-    } else ruleChecker.setActivePlayers(firstAttacker);
+    } else {
+      ruleChecker.setActivePlayers(firstAttacker);
+      /* if only two players are left, there is no second attacker to wait for */
+      roundState.setJustTwoPlayer(ruleChecker.getSecondAttacker() == null);
+    }
   }
 
   /**
    * Validates a surpassed action with the current settings of the RuleChecker
    * object. The method will assert if the game is not in process.
+   * This method is a wrapper of {@link #tryAction(GameAction, Object)}.
    * @param action Action to validate.
    * @param playerID Identifier for the player that does the action.
    * @return Returns true, if the next round can be started, else false.
@@ -205,68 +274,89 @@ public class GameProcess<ID> {
    */
   public boolean validateAction(GameAction action, ID playerID)
       throws RuleException, IllegalArgumentException {
+    final RuleVerdict verdict = tryAction(action, playerID);
+    if(!verdict.isValid())
+      throw new RuleException(verdict);
+
+    return roundState.readyForNextRound();
+  }
+
+  /**
+   * Validates a surpassed action with the current settings of the RuleChecker object and
+   * does it, if it is valid. No exception will be thrown and no message will be formatted
+   * if a rule was broken. The method will assert if the game is not in process.
+   * @param action Action to validate.
+   * @param playerID Identifier for the player that does the action.
+   * @return The verdict of the action. Whether the next round can be started afterwards
+   * can be asked by {@link #readyForNextRound()}.
+   * @throws IllegalArgumentException If {@code action} is not instanceof
+   * {@link common.simon.action.CardAction} or {@link common.simon.action.FinishAction}
+   */
+  public RuleVerdict tryAction(GameAction action, ID playerID)
+      throws IllegalArgumentException {
     assert gameInProcess;
 
+    RuleVerdict verdict = RuleVerdict.VALID;
     cardsChanged = false;
     if(action instanceof CardAction) {
       final CardAction cardAction = (CardAction) action;
       if(cardAction.getCardActionType().equals(CardAction.CardActionType.ATTACK)) {
-        validateAttack(playerID, (CardAction) action);
-        cardsChanged = true;
+        verdict = tryAttack(playerID, (CardAction) action);
+        cardsChanged = verdict.isValid();
       } else if(cardAction.getCardActionType().equals(CardAction.CardActionType.DEFENSE)) {
-        validateDefense(playerID, (CardAction) action);
-        cardsChanged = true;
+        verdict = tryDefense(playerID, (CardAction) action);
+        cardsChanged = verdict.isValid();
       }
     } else if(action instanceof FinishAction) {
-      validateFinish(action);
+      verdict = tryFinish((FinishAction) action);
     } else throw new IllegalArgumentException("GameAction must be either " +
         "instance of "+CardAction.class.getName()+" or "+FinishAction.class.getName());
 
-    return roundState.readyForNextRound();
+    return verdict;
   }
 
-  private void validateFinish(GameAction action) throws RuleException {
-    final FinishAction finishAction;
-
-    if(action instanceof FinishAction) {
-      finishAction = (FinishAction) action;
-      if(FinishAction.FinishType.GO_TO_NEXT_ROUND.equals(finishAction.getFinishType())) {
-        setPlayerNextRound(action.getExecutor().playerType, false);
-      } else if(FinishAction.FinishType.TAKE_CARDS.equals(finishAction.getFinishType())) {
-        setPlayerNextRound(action.getExecutor().playerType, true);
-      }
+  private RuleVerdict tryFinish(FinishAction action) {
+    if(FinishAction.FinishType.GO_TO_NEXT_ROUND.equals(action.getFinishType())) {
+      return setPlayerNextRound(action.getExecutor().playerType, false);
+    } else if(FinishAction.FinishType.TAKE_CARDS.equals(action.getFinishType())) {
+      return setPlayerNextRound(action.getExecutor().playerType, true);
     }
+    return RuleVerdict.VALID;
   }
 
-  private void validateDefense(ID playerID, CardAction action) throws RuleException {
+  private RuleVerdict tryDefense(ID playerID, CardAction action) {
     final GameCard defenderCard = Converter.fromDTO(action.getDefenderCards().get(0));
     final GameCard attackerCard = Converter.fromDTO(action.getAttackCards().get(0));
-    ruleChecker.doDefenseMove(playerHolder.get(playerID),
-        pairCardHolder.getFirstElements().isEmpty(),
+    final RuleVerdict verdict = ruleChecker.tryDefenseMove(playerHolder.get(playerID),
+        pairCardHolder.getFirstCards().isEmpty(),
         defenderCard, attackerCard);
-    pairCardHolder.joinElements(attackerCard, defenderCard);
+    if(verdict.isValid())
+      pairCardHolder.joinElements(attackerCard, defenderCard);
+    return verdict;
   }
 
-  private void validateAttack(ID playerID, CardAction action)
-      throws RuleException {
+  private RuleVerdict tryAttack(ID playerID, CardAction action) {
     List<GameCard> cards = Converter.fromDTO(action.getAttackCards());
-    ruleChecker.doAttackMove(playerHolder.get(playerID), cards,
-        pairCardHolder.getFirstElements(), pairCardHolder.getSecondElements());
+    final RuleVerdict verdict = ruleChecker.tryAttackMove(playerHolder.get(playerID), cards,
+        pairCardHolder.getFirstCards(), pairCardHolder.getSecondCards());
 
-    for (GameCard card : cards)
-      pairCardHolder.addPair(card, null);
+    if(verdict.isValid()) {
+      for (GameCard card : cards)
+        pairCardHolder.addPair(card, null);
+    }
+    return verdict;
   }
 
-  private void setPlayerNextRound(PlayerConstants.PlayerType type, boolean takeCards)
-      throws RuleException {
+  private RuleVerdict setPlayerNextRound(PlayerConstants.PlayerType type, boolean takeCards) {
     if(PlayerConstants.PlayerType.DEFENDER.equals(type)) {
       if (!takeCards && !pairCardHolder.hasNoNullPairs())
-        throw new RuleException(I18nSupport.getValue(BundleStrings.USER_MESSAGES, "cards.to.beat"));
+        return RuleVerdict.of(RuleVerdict.Code.CARDS_TO_BEAT);
       roundState.setDefenderNextRound(true, takeCards);
     } else if(PlayerConstants.PlayerType.FIRST_ATTACKER.equals(type) ||
         PlayerConstants.PlayerType.SECOND_ATTACKER.equals(type)) {
       roundState.setAttackerNextRound(type);
     }
+    return RuleVerdict.VALID;
   }
 
   private void prepareForNextRound() {
@@ -307,7 +397,11 @@ public class GameProcess<ID> {
       return;
 
     while ((stack.getStackSize() > 0) && (player.getCards().size() < 6)) {
-      player.pickUpCard(stack.drawCard());
+      final GameCard card = stack.drawCard();
+      player.pickUpCard(card);
+      /* everybody has seen the trump card at the bottom of the stack */
+      if(card.equals(stack.getTrumpCard()))
+        player.revealCard(card);
     }
   }
 
@@ -343,6 +437,149 @@ public class GameProcess<ID> {
     return Converter.playerCardsToDTO(playerHolder.get(playerID));
   }
 
+  /**
+   * Returns a copy of the hand cards of the player, so the returned set can be changed
+   * without affecting the game.
+   * @param playerID Identifier of the player.
+   * @return The hand cards of the player.
+   */
+  public CardSet getHandCards(ID playerID) {
+    return new CardSet(playerHolder.get(playerID).getCards().getMask());
+  }
+
+  /**
+   * Returns what the player with the specified id can see of the game. The game has to be
+   * in process.
+   * @param playerID Identifier of the player.
+   * @return The view of the player.
+   */
+  public PlayerView getPlayerView(ID playerID) {
+    assert gameInProcess;
+
+    final List<Player> players = playerHolder.getList();
+    final Player observer = playerHolder.get(playerID);
+    final int[] handSizes = new int[players.size()];
+    final CardSet[] knownCards = new CardSet[players.size()];
+    final PlayerConstants.PlayerType[] types = new PlayerConstants.PlayerType[players.size()];
+    for (int seat = 0; seat < players.size(); seat++) {
+      final Player player = players.get(seat);
+      handSizes[seat] = player.getCards().size();
+      knownCards[seat] = new CardSet(player.getKnownCards().getMask());
+      types[seat] = player.getType();
+    }
+
+    return new PlayerView(players.indexOf(observer), new CardSet(observer.getCards().getMask()),
+        handSizes, knownCards, types, pairCardHolder.getFirstElements(),
+        pairCardHolder.getSecondElements(), stack.getTrumpCard(), stack.getStackSize(),
+        new CardSet(deckCards.getMask()), new CardSet(discardedCards.getMask()),
+        roundState.firstAttackerNextRound, roundState.secondAttackerNextRound,
+        roundState.defenderNextRound);
+  }
+
+  /**
+   * Returns the state of the game, if a round has just started. That is the case after
+   * the initialisation and after {@link #goToNextRound()}, as long as no card lies on the
+   * table and no player is ready for the next round.
+   * @return The checkpoint or null, if the round has already started or no game is running.
+   */
+  public GameCheckpoint createCheckpoint() {
+    if(!gameInProcess || !pairCardHolder.getFirstElements().isEmpty() ||
+        roundState.firstAttackerNextRound || roundState.defenderNextRound ||
+        (roundState.secondAttackerNextRound && !roundState.justTwo))
+      return null;
+
+    final List<Player> players = playerHolder.getList();
+    final long[] hands = new long[players.size()];
+    final long[] knownCards = new long[players.size()];
+    final boolean[] finished = new boolean[players.size()];
+    for (int seat = 0; seat < players.size(); seat++) {
+      final Player player = players.get(seat);
+      hands[seat] = player.getCards().getMask();
+      knownCards[seat] = player.getKnownCards().getMask();
+      finished[seat] = PlayerConstants.PlayerType.NOT_LOSER.equals(player.getType());
+    }
+    return new GameCheckpoint(stack.getStackSize(), discardedCards.getMask(),
+        players.indexOf(ruleChecker.getFirstAttacker()), ruleChecker.isInitialAttack(),
+        hands, knownCards, finished);
+  }
+
+  /**
+   * Continues a game at the round of the checkpoint. The players have to be set already
+   * in the order of the seats of the checkpoint.
+   * @param checkpoint State of the game at the start of the round.
+   * @param stackCards The stack of the game before the cards were distributed, see
+   *                   {@link #getDeck()}.
+   */
+  public void restoreCheckpoint(GameCheckpoint checkpoint, List<GameCard> stackCards) {
+    assert playerHolder.size() == checkpoint.getSeatCount();
+
+    stopProcess();
+    ruleChecker = RuleFactory.getStandardRules();
+    final GameCardStack restoredStack = new GameCardStack();
+    restoredStack.initialiseStack(stackCards);
+    setStack(restoredStack);
+    while (stack.getStackSize() > checkpoint.getStackSize())
+      stack.drawCard();
+    discardedCards.addAll(new CardSet(checkpoint.getDiscardedCards()));
+
+    final List<Player> players = playerHolder.getList();
+    final List<Player> remaining = new ArrayList<Player>(players.size());
+    for (int seat = 0; seat < players.size(); seat++) {
+      final Player player = players.get(seat);
+      player.initPlayer();
+      player.getCards().addAll(new CardSet(checkpoint.getHand(seat)));
+      player.getKnownCards().addAll(new CardSet(checkpoint.getKnownCards(seat)));
+      if(checkpoint.isFinished(seat))
+        player.setType(PlayerConstants.PlayerType.NOT_LOSER);
+      else remaining.add(player);
+    }
+    linkRemainingPlayers(players, remaining);
+
+    ruleChecker.setTrumpColour(stack.getTrumpCard().getCardColour());
+    ruleChecker.setInitialAttack(checkpoint.isInitialAttack());
+    ruleChecker.setActivePlayers(players.get(checkpoint.getFirstAttackerSeat()));
+    gameInProcess = true;
+    initialiseNew = false;
+    currentLoser = null;
+    roundState.setJustTwoPlayer(ruleChecker.getSecondAttacker() == null);
+  }
+
+  /* The players that finished point to the next players that did not finish */
+  private void linkRemainingPlayers(List<Player> players, List<Player> remaining) {
+    for (int index = 0; index < remaining.size(); index++) {
+      final Player player = remaining.get(index);
+      player.setLeftPlayer(remaining.get((index + remaining.size() - 1) % remaining.size()));
+      player.setRightPlayer(remaining.get((index + 1) % remaining.size()));
+    }
+    for (int seat = 0; seat < players.size(); seat++) {
+      final Player player = players.get(seat);
+      if(remaining.contains(player))
+        continue;
+      for (int offset = 1; offset < players.size(); offset++) {
+        final Player left = players.get((seat + players.size() - offset) % players.size());
+        if(player.getLeftPlayer() == null && remaining.contains(left))
+          player.setLeftPlayer(left);
+        final Player right = players.get((seat + offset) % players.size());
+        if(player.getRightPlayer() == null && remaining.contains(right))
+          player.setRightPlayer(right);
+      }
+    }
+  }
+
+  /**
+   * Writes all moves the player may do now into {@code moves}, see
+   * {@link RuleChecker#generateMoves(Player, CardSet, CardSet, CardSet, LegalMoves)}.
+   * The method will assert if the game is not in process.
+   * @param playerID Identifier of the player.
+   * @param moves Object to write the moves into.
+   */
+  public void generateMoves(ID playerID, LegalMoves moves) {
+    assert gameInProcess;
+
+    ruleChecker.generateMoves(playerHolder.get(playerID), pairCardHolder.getFirstCards(),
+        pairCardHolder.getSecondCards(), pairCardHolder.getUnpairedFirstCards(), moves);
+  }
+
   /**
    * This method returns a boolean value that indicates if the process is ready to go to the next
    * round.
@@ -393,6 +630,27 @@ public class GameProcess<ID> {
     return gameInProcess;
   }
 
+  /**
+   * Returns the identifiers of the players in the order of their seats, see
+   * {@link PlayerView#getSeat()}.
+   * @return A new list of the identifiers.
+   */
+  public List<ID> getPlayerIDs() {
+    return playerHolder.getKeys();
+  }
+
+  /**
+   * Returns the identifier of the player who is first attacker at the moment.
+   * @return The identifier or null, if there is no first attacker.
+   */
+  public ID getFirstAttackerID() {
+    for (ID playerID : playerHolder.getKeys()) {
+      if(PlayerConstants.PlayerType.FIRST_ATTACKER.equals(getPlayerType(playerID)))
+        return playerID;
+    }
+    return null;
+  }
+
   public PlayerConstants.PlayerType getPlayerType(ID playerID) {
     return playerHolder.get(playerID).getType();
   }
@@ -405,6 +663,15 @@ public class GameProcess<ID> {
     return pairCardHolder.getSecondElements();
   }
 
+  /**
+   * Returns the cards of the stack of the current game as they were before the cards were
+   * distributed. The first card was drawn first, the last card is the trump card.
+   * @return A new list of the cards.
+   */
+  public List<GameCard> getDeck() {
+    return new ArrayList<GameCard>(deck);
+  }
+
   public GameCardStack getStack() {
     return stack;
   }
@@ -490,68 +757,54 @@ public class GameProcess<ID> {
   }
 }
 
-class ElementPairHolder<T> {
-  private List<List<T>> elementPairs;
+/**
+ * Holds the cards on the table in pairs, where the first card of a pair is the attacker
+ * card and the second card is the defender card. The first and the second cards are
+ * additionally kept in a {@link CardSet}, so that looking up a card on the table does not
+ * iterate the pairs. The first cards without second card are kept in a set, too.
+ */
+class ElementPairHolder {
+  private final List<GameCard> firstElements;
+  private final List<GameCard> secondElements;
+  private final CardSet firstCards;
+  private final CardSet secondCards;
+  private final CardSet unpairedFirstCards;
 
   ElementPairHolder() {
-    elementPairs = new ArrayList<List<T>>();
+    firstElements = new ArrayList<GameCard>();
+    secondElements = new ArrayList<GameCard>();
+    firstCards = new CardSet();
+    secondCards = new CardSet();
+    unpairedFirstCards = new CardSet();
   }
 
-  @SuppressWarnings("UnusedDeclaration")
-  void setPairs(List<T> firstElement, List<T> secondElement) {
-    final int size;
-    if(firstElement.size() > secondElement.size())
-      size = firstElement.size();
-    else size = secondElement.size();
-
-    elementPairs = new ArrayList<List<T>>(size);
-    for (int index = 0; index < size; index++)
-      addPair(getListElement(firstElement, index), getListElement(secondElement, index));
+  void addPair(GameCard firstElement, GameCard secondElement) {
+    firstElements.add(firstElement);
+    secondElements.add(secondElement);
+    firstCards.add(firstElement);
+    secondCards.add(secondElement);
+    if(secondElement == null)
+      unpairedFirstCards.add(firstElement);
   }
 
-  private T getListElement(List<T> elements, int index) {
-    final T element;
-    if(index >= elements.size())
-      element = null;
-    else element = elements.get(index);
-    return element;
+  List<GameCard> getFirstElements() {
+    return new ArrayList<GameCard>(firstElements);
   }
 
-  void addPair(T firstElement, T secondElement) {
-    final List<T> pair = getPair(firstElement, secondElement);
-    elementPairs.add(pair);
+  List<GameCard> getSecondElements() {
+    return new ArrayList<GameCard>(secondElements);
   }
 
-  private List<T> getPair(T firstElement, T secondElement) {
-    final List<T> pair = new ArrayList<T>(2);
-    pair.add(firstElement);
-    pair.add(secondElement);
-    return pair;
-  }
-
-  List<T> getFirstElements() {
-    final List<T> firstElement = new ArrayList<T>();
-    for (List<T> pair : elementPairs) {
-      firstElement.add(pair.get(0));
-    }
-    return firstElement;
+  CardSet getFirstCards() {
+    return firstCards;
   }
 
-  List<T> getSecondElements() {
-    final List<T> secondCards = new ArrayList<T>();
-    for (List<T> pair : elementPairs) {
-      secondCards.add(pair.get(1));
-    }
+  CardSet getSecondCards() {
     return secondCards;
   }
 
-  List<List<T>> getElementPairs() {
-    return elementPairs;
-  }
-
-  @SuppressWarnings("UnusedDeclaration")
-  void setElementPairs(List<List<T>> elementPairs) {
-    this.elementPairs = elementPairs;
+  CardSet getUnpairedFirstCards() {
+    return unpairedFirstCards;
   }
 
   /**
@@ -565,51 +818,47 @@ class ElementPairHolder<T> {
    * @param firstElement First element of the join action.
    * @param secondElement Second element of the join action.
    */
-  public void joinElements(T firstElement, T secondElement) {
-    Integer firstFoundIndex = findElementIndex(0, firstElement);
-    Integer secondFoundIndex = findElementIndex(1, secondElement);
+  public void joinElements(GameCard firstElement, GameCard secondElement) {
+    final int firstFoundIndex = firstCards.contains(firstElement) ?
+        firstElements.indexOf(firstElement) : -1;
+    final int secondFoundIndex = secondCards.contains(secondElement) ?
+        secondElements.indexOf(secondElement) : -1;
 
-    setPairElement(firstFoundIndex, 1, secondElement);
-    setPairElement(secondFoundIndex, 0, firstElement);
+    setPairElement(firstFoundIndex, secondElements, secondCards, secondElement);
+    setPairElement(secondFoundIndex, firstElements, firstCards, firstElement);
 
-    if((secondFoundIndex == null) && (firstFoundIndex == null))
+    if((secondFoundIndex < 0) && (firstFoundIndex < 0))
       addPair(firstElement, secondElement);
+    else updateUnpairedFirstCards();
   }
 
-  private Integer findElementIndex(int pairIndex, T element) {
-    Integer foundIndex = null;
-    for (int index = 0; index < elementPairs.size(); index++) {
-      final List<T> pair = elementPairs.get(index);
-      final T pairElement = pair.get(pairIndex);
-      if(pairElement != null && pairElement.equals(element)) {
-        foundIndex = index;
-        index = elementPairs.size();
-      }
+  private void updateUnpairedFirstCards() {
+    unpairedFirstCards.clear();
+    for (int index = 0; index < firstElements.size(); index++) {
+      if(secondElements.get(index) == null)
+        unpairedFirstCards.add(firstElements.get(index));
     }
-
-    return foundIndex;
   }
 
-  private void setPairElement(Integer pairIndex, Integer pairElement, T element) {
-    if(pairIndex != null) {
-      final List<T> pair = elementPairs.get(pairIndex);
-      pair.set(pairElement, element);
+  private void setPairElement(int pairIndex, List<GameCard> elements, CardSet cards,
+                              GameCard element) {
+    if(pairIndex >= 0) {
+      cards.remove(elements.set(pairIndex, element));
+      cards.add(element);
     }
   }
 
   public void clear() {
-    elementPairs.clear();
+    firstElements.clear();
+    secondElements.clear();
+    firstCards.clear();
+    secondCards.clear();
+    unpairedFirstCards.clear();
   }
 
   public boolean hasNoNullPairs() {
-    for (List<T> elementPair : elementPairs) {
-      for (T element : elementPair) {
-        if(element == null)
-          return false;
-      }
-    }
-
-    return true;
+    return firstCards.size() == firstElements.size() &&
+        secondCards.size() == secondElements.size();
   }
 }
 
@@ -652,6 +901,18 @@ class ListMap<K,V> {
     return list;
   }
 
+  /* Returns the keys in the order of the values of the list */
+  public List<K> getKeys() {
+    final List<K> keys = new ArrayList<K>(list.size());
+    for (V value : list) {
+      for (Map.Entry<K,V> entry : map.entrySet()) {
+        if(entry.getValue() == value)
+          keys.add(entry.getKey());
+      }
+    }
+    return keys;
+  }
+
   public void clear() {
     list.clear();
     map.clear();
@@ -1,10 +1,5 @@
 package common.game;
 
-import common.utilities.constants.GameConfigurationConstants;
-
-import java.util.ArrayList;
-import java.util.List;
-
 import static common.utilities.constants.GameCardConstants.CardColour;
 import static common.utilities.constants.PlayerConstants.PlayerType;
 
@@ -19,7 +14,9 @@ public class Player {
   private Player leftPlayer;
   private Player rightPlayer;
 
-  private List<GameCard> cards;
+  private CardSet cards;
+  /** Cards of the hand the other players have seen, e.g. taken cards. */
+  private CardSet knownCards;
   private PlayerType type;
 
   /* Constructors */
@@ -30,30 +27,42 @@ public class Player {
   /* Methods */
 
   public void initPlayer() {
-    cards = new ArrayList<GameCard>(GameConfigurationConstants.INITIAL_CARD_COUNT);
+    cards = new CardSet();
+    knownCards = new CardSet();
     leftPlayer = null;
     rightPlayer = null;
     type = PlayerType.DEFAULT;
   }
 
   public void pickUpCard(GameCard newCard) {
-    if(newCard != null)
-      cards.add(newCard);
+    cards.add(newCard);
+  }
+
+  /**
+   * Picks up cards that lay open on the table, so they are known by the other players.
+   * @param newCards Cards to pick up.
+   */
+  public void pickUpCards(CardSet newCards) {
+    cards.addAll(newCards);
+    knownCards.addAll(newCards);
+  }
+
+  /**
+   * Marks a card of the hand as seen by the other players.
+   * @param card Card of the hand.
+   */
+  public void revealCard(GameCard card) {
+    if(cards.contains(card))
+      knownCards.add(card);
   }
 
   public void useCard(GameCard card) {
-    final GameCard found = getCard(card);
-    if(found != null)
-      cards.remove(found);
+    cards.remove(card);
+    knownCards.remove(card);
   }
 
   public GameCard getCard(GameCard card) {
-    for (GameCard gameCard : cards) {
-      if(gameCard.equals(card))
-        return gameCard;
-    }
-
-    return null;
+    return cards.contains(card) ? card : null;
   }
 
   /**
@@ -63,13 +72,9 @@ public class Player {
    * null if no card of this colour could be found.
    */
   public GameCard getSmallestValue(CardColour colour) {
-    GameCard card = null;
-    for (GameCard gameCard : cards) {
-      if(gameCard.getCardColour().equals(colour))
-        if(gameCard.hasLowerValue(card))
-          card = gameCard;
-    }
-    return card;
+    if(colour == null)
+      return null;
+    return cards.getLowestCard(colour);
   }
 
   public boolean isAlone() {
@@ -93,7 +98,7 @@ public class Player {
     this.rightPlayer = rightPlayer;
   }
 
-  public List<GameCard> getCards() {
+  public CardSet getCards() {
     return cards;
   }
 
@@ -105,7 +110,12 @@ public class Player {
     this.type = type;
   }
 
+  public CardSet getKnownCards() {
+    return knownCards;
+  }
+
   public void emptyHand() {
     cards.clear();
+    knownCards.clear();
   }
 }
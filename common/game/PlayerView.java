@@ -0,0 +1,153 @@
+package common.game;
+
+import java.util.List;
+
+import static common.utilities.constants.PlayerConstants.PlayerType;
+
+/**
+ * What a player can see of a running game: the own hand, the cards on the table, the
+ * trump card, the number of cards of every hand and the stack and the cards that are known
+ * to be on a hand or that left the game. The seats are ordered like the players of the
+ * {@link GameProcess}, the left neighbour of a seat is the seat before it.
+ * The view is a copy, it does not change with the game.
+ */
+public class PlayerView {
+  private final int seat;
+  private final CardSet hand;
+  private final int[] handSizes;
+  private final CardSet[] knownCards;
+  private final PlayerType[] types;
+  private final List<GameCard> attackCards;
+  private final List<GameCard> defenseCards;
+  private final GameCard trumpCard;
+  private final int stackSize;
+  private final CardSet deckCards;
+  private final CardSet discardedCards;
+  private final boolean firstAttackerReady;
+  private final boolean secondAttackerReady;
+  private final boolean defenderReady;
+
+  /* Constructors */
+
+  PlayerView(int seat, CardSet hand, int[] handSizes, CardSet[] knownCards,
+             PlayerType[] types, List<GameCard> attackCards, List<GameCard> defenseCards,
+             GameCard trumpCard, int stackSize, CardSet deckCards, CardSet discardedCards,
+             boolean firstAttackerReady, boolean secondAttackerReady, boolean defenderReady) {
+    this.seat = seat;
+    this.hand = hand;
+    this.handSizes = handSizes;
+    this.knownCards = knownCards;
+    this.types = types;
+    this.attackCards = attackCards;
+    this.defenseCards = defenseCards;
+    this.trumpCard = trumpCard;
+    this.stackSize = stackSize;
+    this.deckCards = deckCards;
+    this.discardedCards = discardedCards;
+    this.firstAttackerReady = firstAttackerReady;
+    this.secondAttackerReady = secondAttackerReady;
+    this.defenderReady = defenderReady;
+  }
+
+  /* Methods */
+
+  /**
+   * Returns the seat of the player with the specified type.
+   * @param type Type of the player.
+   * @return The seat or -1, if no player has this type.
+   */
+  public int findSeat(PlayerType type) {
+    for (int index = 0; index < types.length; index++) {
+      if(type.equals(types[index]))
+        return index;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the first attack card on the table that is not beaten.
+   * @return The card or null, if all cards are beaten.
+   */
+  public GameCard getUnbeatenCard() {
+    for (int index = 0; index < attackCards.size(); index++) {
+      if(defenseCards.get(index) == null)
+        return attackCards.get(index);
+    }
+    return null;
+  }
+
+  /**
+   * Returns all cards the player has not seen yet. These are the cards on the stack,
+   * except the trump card, and the unknown cards of the other hands.
+   * @return The unseen cards.
+   */
+  public CardSet getUnseenCards() {
+    final CardSet seenCards = new CardSet(hand.getMask());
+    seenCards.addAll(discardedCards);
+    seenCards.addAll(new CardSet(attackCards));
+    seenCards.addAll(new CardSet(defenseCards));
+    for (CardSet cards : knownCards)
+      seenCards.addAll(cards);
+    if(stackSize > 0)
+      seenCards.add(trumpCard);
+    return new CardSet(deckCards.getMask() & ~seenCards.getMask());
+  }
+
+  /* Getter and Setter */
+
+  public int getSeat() {
+    return seat;
+  }
+
+  public int getSeatCount() {
+    return types.length;
+  }
+
+  public CardSet getHand() {
+    return hand;
+  }
+
+  public int getHandSize(int seat) {
+    return handSizes[seat];
+  }
+
+  public CardSet getKnownCards(int seat) {
+    return knownCards[seat];
+  }
+
+  public PlayerType getType(int seat) {
+    return types[seat];
+  }
+
+  public List<GameCard> getAttackCards() {
+    return attackCards;
+  }
+
+  public List<GameCard> getDefenseCards() {
+    return defenseCards;
+  }
+
+  public GameCard getTrumpCard() {
+    return trumpCard;
+  }
+
+  public int getStackSize() {
+    return stackSize;
+  }
+
+  public CardSet getDiscardedCards() {
+    return discardedCards;
+  }
+
+  public boolean isFirstAttackerReady() {
+    return firstAttackerReady;
+  }
+
+  public boolean isSecondAttackerReady() {
+    return secondAttackerReady;
+  }
+
+  public boolean isDefenderReady() {
+    return defenderReady;
+  }
+}
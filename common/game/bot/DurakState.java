@@ -0,0 +1,448 @@
+package common.game.bot;
+
+import common.game.CardSet;
+import common.game.GameCard;
+import common.game.PlayerView;
+
+import java.util.Random;
+
+import static common.utilities.constants.PlayerConstants.PlayerType;
+
+/**
+ * A compact model of a game for searches. All cards are known, the hands are bit masks
+ * like in {@link CardSet} and the state can be copied cheaply. The actions of a round are
+ * played one after another: the defender beats the first unbeaten card or takes the
+ * cards, the first and then the second attacker add a card or pass. If both attackers
+ * passed and all cards are beaten, the round is over. A move is the index of the played
+ * card, {@link #PASS} or {@link #TAKE}.
+ * Endgame states, see {@link #isEndgame()}, have a Zobrist key that identifies them for
+ * transposition tables.
+ */
+public final class DurakState {
+  public static final int PASS = GameCard.CARD_COUNT;
+  public static final int TAKE = GameCard.CARD_COUNT + 1;
+  /** Maximum number of moves of a player in a state. */
+  public static final int MAXIMUM_MOVES = GameCard.CARD_COUNT + 2;
+
+  private static final int HAND_SIZE = 6;
+  private static final int TABLE_SIZE = 6;
+  private static final int VALUE_COUNT = CardSet.VALUE_COUNT;
+  private static final int VALUE_BITS = (1 << VALUE_COUNT) - 1;
+
+  /* Zobrist keys, a card is on the hand of the attacker or the defender or on the table */
+  private static final long[] ATTACKER_HAND_KEYS = new long[GameCard.CARD_COUNT];
+  private static final long[] DEFENDER_HAND_KEYS = new long[GameCard.CARD_COUNT];
+  private static final long[] UNBEATEN_CARD_KEYS = new long[GameCard.CARD_COUNT];
+  private static final long[] BEATEN_CARD_KEYS = new long[GameCard.CARD_COUNT];
+  private static final long LOWER_SEAT_ATTACKS_KEY;
+  private static final long ATTACKER_PASSED_KEY;
+
+  static {
+    /* the keys are always the same, so that hashes can be compared between runs */
+    final Random random = new Random(0x5EED0FD0L);
+    for (int card = 0; card < GameCard.CARD_COUNT; card++) {
+      ATTACKER_HAND_KEYS[card] = random.nextLong();
+      DEFENDER_HAND_KEYS[card] = random.nextLong();
+      UNBEATEN_CARD_KEYS[card] = random.nextLong();
+      BEATEN_CARD_KEYS[card] = random.nextLong();
+    }
+    LOWER_SEAT_ATTACKS_KEY = random.nextLong();
+    ATTACKER_PASSED_KEY = random.nextLong();
+  }
+
+  private final int seatCount;
+  private final long[] hands;
+  private final boolean[] finishedSeats;
+  /** Cards of the stack, the next card to draw is at {@link #drawIndex}. */
+  private final int[] stack;
+  private int drawIndex;
+  private final int trumpColour;
+
+  private final int[] attackCards;
+  private final int[] defenseCards;
+  private int tableCount;
+  private long tableMask;
+
+  private int firstAttacker;
+  private int secondAttacker;
+  private int defender;
+  private boolean firstAttackerPassed;
+  private boolean secondAttackerPassed;
+
+  private boolean finished;
+  private int loser;
+
+  /* Constructors */
+
+  private DurakState(int seatCount, int stackSize, int trumpColour) {
+    this.seatCount = seatCount;
+    this.hands = new long[seatCount];
+    this.finishedSeats = new boolean[seatCount];
+    this.stack = new int[stackSize];
+    this.trumpColour = trumpColour;
+    this.attackCards = new int[TABLE_SIZE];
+    this.defenseCards = new int[TABLE_SIZE];
+    this.loser = -1;
+  }
+
+  public DurakState(DurakState state) {
+    this(state.seatCount, state.stack.length, state.trumpColour);
+    System.arraycopy(state.hands, 0, hands, 0, seatCount);
+    System.arraycopy(state.finishedSeats, 0, finishedSeats, 0, seatCount);
+    System.arraycopy(state.stack, 0, stack, 0, stack.length);
+    System.arraycopy(state.attackCards, 0, attackCards, 0, TABLE_SIZE);
+    System.arraycopy(state.defenseCards, 0, defenseCards, 0, TABLE_SIZE);
+    drawIndex = state.drawIndex;
+    tableCount = state.tableCount;
+    tableMask = state.tableMask;
+    firstAttacker = state.firstAttacker;
+    secondAttacker = state.secondAttacker;
+    defender = state.defender;
+    firstAttackerPassed = state.firstAttackerPassed;
+    secondAttackerPassed = state.secondAttackerPassed;
+    finished = state.finished;
+    loser = state.loser;
+  }
+
+  /* Methods */
+
+  /**
+   * Creates a state that is consistent with everything the player of the view has seen.
+   * The cards the player has not seen are randomly distributed to the other hands and the
+   * stack. If the player of the view is the second attacker, the first attacker will be
+   * seen as passed, so that the second attacker is the player to move.
+   * @param view View of the player.
+   * @param random Random generator to distribute the unseen cards.
+   * @return A possible state of the game.
+   */
+  public static DurakState determinize(PlayerView view, Random random) {
+    final int[] unseen = toIndices(view.getUnseenCards().getMask());
+    for (int index = unseen.length - 1; index > 0; index--) {
+      final int other = random.nextInt(index + 1);
+      final int card = unseen[index];
+      unseen[index] = unseen[other];
+      unseen[other] = card;
+    }
+
+    final int seatCount = view.getSeatCount();
+    final DurakState state = new DurakState(seatCount, view.getStackSize(),
+        view.getTrumpCard().getCardColour().ordinal());
+    int unseenIndex = 0;
+    for (int seat = 0; seat < seatCount; seat++) {
+      state.finishedSeats[seat] = PlayerType.NOT_LOSER.equals(view.getType(seat));
+      if(seat == view.getSeat()) {
+        state.hands[seat] = view.getHand().getMask();
+      } else {
+        long hand = view.getKnownCards(seat).getMask();
+        int missing = view.getHandSize(seat) - Long.bitCount(hand);
+        for (; missing > 0 && unseenIndex < unseen.length; missing--)
+          hand |= 1L << unseen[unseenIndex++];
+        state.hands[seat] = hand;
+      }
+    }
+
+    /* the rest of the unseen cards are on the stack, the trump card at the bottom */
+    final int stackSize = state.stack.length;
+    for (int index = 0; index < stackSize - 1; index++)
+      state.stack[index] = unseenIndex < unseen.length ? unseen[unseenIndex++] : -1;
+    if(stackSize > 0)
+      state.stack[stackSize - 1] = view.getTrumpCard().getIndex();
+
+    for (int index = 0; index < view.getAttackCards().size(); index++) {
+      final GameCard defenseCard = view.getDefenseCards().get(index);
+      state.attackCards[index] = view.getAttackCards().get(index).getIndex();
+      state.defenseCards[index] = defenseCard != null ? defenseCard.getIndex() : -1;
+      state.tableMask |= 1L << state.attackCards[index];
+      if(defenseCard != null)
+        state.tableMask |= 1L << defenseCard.getIndex();
+      state.tableCount++;
+    }
+
+    state.firstAttacker = view.findSeat(PlayerType.FIRST_ATTACKER);
+    state.secondAttacker = view.findSeat(PlayerType.SECOND_ATTACKER);
+    state.defender = view.findSeat(PlayerType.DEFENDER);
+    state.firstAttackerPassed = view.isFirstAttackerReady() ||
+        (view.getSeat() == state.secondAttacker && !state.hasUnbeatenCard());
+    state.secondAttackerPassed = state.secondAttacker < 0 || view.isSecondAttackerReady();
+    /* the defender beat all cards and only has to confirm the end of the round */
+    if(state.tableCount > 0 && !state.hasUnbeatenCard() && state.firstAttackerPassed &&
+        state.secondAttackerPassed)
+      state.finishRound(false);
+    return state;
+  }
+
+  /**
+   * Returns the seat of the player who has to move.
+   * @return The seat or -1, if the game is finished.
+   */
+  public int getPlayerToMove() {
+    if(finished)
+      return -1;
+    if(hasUnbeatenCard())
+      return defender;
+    if(tableCount == 0 || !firstAttackerPassed)
+      return firstAttacker;
+    return secondAttacker;
+  }
+
+  /**
+   * Writes the moves of the player to move into the array.
+   * @param moves Array of at least {@link #MAXIMUM_MOVES} elements.
+   * @return The number of moves.
+   */
+  public int generateMoves(int[] moves) {
+    final int player = getPlayerToMove();
+    if(player < 0)
+      return 0;
+
+    int count = 0;
+    if(player == defender && hasUnbeatenCard()) {
+      final int attackCard = attackCards[getUnbeatenIndex()];
+      for (long cards = hands[player]; cards != 0L; cards &= cards - 1L) {
+        final int card = Long.numberOfTrailingZeros(cards);
+        if(beats(card, attackCard))
+          moves[count++] = card;
+      }
+      moves[count++] = TAKE;
+    } else if(tableCount == 0) {
+      for (long cards = hands[player]; cards != 0L; cards &= cards - 1L)
+        moves[count++] = Long.numberOfTrailingZeros(cards);
+    } else {
+      if(tableCount < TABLE_SIZE && getUnbeatenCount() < Long.bitCount(hands[defender])) {
+        final int tableValues = getValueMask(tableMask);
+        for (long cards = hands[player]; cards != 0L; cards &= cards - 1L) {
+          final int card = Long.numberOfTrailingZeros(cards);
+          if((tableValues & (1 << (card % VALUE_COUNT))) != 0)
+            moves[count++] = card;
+        }
+      }
+      moves[count++] = PASS;
+    }
+    return count;
+  }
+
+  /**
+   * Does the move of the player to move. The move has to be one of the generated moves.
+   * @param move The move.
+   */
+  public void apply(int move) {
+    final int player = getPlayerToMove();
+    if(move == TAKE) {
+      hands[defender] |= tableMask;
+      finishRound(true);
+    } else if(move == PASS) {
+      if(player == firstAttacker)
+        firstAttackerPassed = true;
+      else secondAttackerPassed = true;
+      if(firstAttackerPassed && (secondAttacker < 0 || secondAttackerPassed))
+        finishRound(false);
+    } else if(player == defender && hasUnbeatenCard()) {
+      defenseCards[getUnbeatenIndex()] = move;
+      hands[player] &= ~(1L << move);
+      tableMask |= 1L << move;
+      /* the attackers may add cards of the new value */
+      firstAttackerPassed = false;
+      secondAttackerPassed = secondAttacker < 0;
+    } else {
+      attackCards[tableCount] = move;
+      defenseCards[tableCount] = -1;
+      tableCount++;
+      hands[player] &= ~(1L << move);
+      tableMask |= 1L << move;
+    }
+  }
+
+  /**
+   * Plays random moves until the game is finished or the maximum of moves is reached.
+   * @param random Random generator to choose the moves.
+   * @param maximumMoves Maximum number of moves.
+   * @param moves Array of at least {@link #MAXIMUM_MOVES} elements to use for the moves.
+   */
+  public void playout(Random random, int maximumMoves, int[] moves) {
+    for (int step = 0; step < maximumMoves && !finished; step++) {
+      final int count = generateMoves(moves);
+      if(count == 0)
+        return;
+      apply(moves[random.nextInt(count)]);
+    }
+  }
+
+  /**
+   * Returns the outcome of the game for a player: 1 if the player did not lose, 0 if the
+   * player lost and 0.5 if the game is not finished or has no loser.
+   * @param seat Seat of the player.
+   * @return The outcome.
+   */
+  public double getReward(int seat) {
+    if(!finished || loser < 0)
+      return 0.5;
+    return loser == seat ? 0.0 : 1.0;
+  }
+
+  /**
+   * Returns true, if the stack is empty and only two players are left. From then on every
+   * card is known to both players.
+   * @return True, if the state is an endgame, else false.
+   */
+  public boolean isEndgame() {
+    if(finished || drawIndex < stack.length)
+      return false;
+
+    int remainingCount = 0;
+    for (int seat = 0; seat < seatCount; seat++) {
+      if(!finishedSeats[seat])
+        remainingCount++;
+    }
+    return remainingCount == 2;
+  }
+
+  /**
+   * Returns the Zobrist key of an endgame state. The key depends on the hands of the
+   * attacker and the defender, the cards on the table, whether they are beaten, and whether
+   * the attacker passed. The two seats are told apart by the attacker being the lower seat
+   * or not. Which pair of cards lies together is not part of the key, it does
+   * not matter for the rest of the game.
+   * @return The key.
+   */
+  public long getZobristKey() {
+    long key = firstAttacker < defender ? LOWER_SEAT_ATTACKS_KEY : 0L;
+    for (long cards = hands[firstAttacker]; cards != 0L; cards &= cards - 1L)
+      key ^= ATTACKER_HAND_KEYS[Long.numberOfTrailingZeros(cards)];
+    for (long cards = hands[defender]; cards != 0L; cards &= cards - 1L)
+      key ^= DEFENDER_HAND_KEYS[Long.numberOfTrailingZeros(cards)];
+    for (int index = 0; index < tableCount; index++) {
+      if(defenseCards[index] < 0) {
+        key ^= UNBEATEN_CARD_KEYS[attackCards[index]];
+      } else {
+        key ^= BEATEN_CARD_KEYS[attackCards[index]];
+        key ^= BEATEN_CARD_KEYS[defenseCards[index]];
+      }
+    }
+    if(firstAttackerPassed && tableCount > 0)
+      key ^= ATTACKER_PASSED_KEY;
+    return key;
+  }
+
+  private void finishRound(boolean defenderTookCards) {
+    tableCount = 0;
+    tableMask = 0L;
+
+    drawCards(firstAttacker);
+    drawCards(secondAttacker);
+    drawCards(defender);
+    updateFinishedSeat(firstAttacker);
+    updateFinishedSeat(secondAttacker);
+    updateFinishedSeat(defender);
+
+    int remaining = -1;
+    int remainingCount = 0;
+    for (int seat = 0; seat < seatCount; seat++) {
+      if(!finishedSeats[seat]) {
+        remaining = seat;
+        remainingCount++;
+      }
+    }
+    if(remainingCount <= 1) {
+      finished = true;
+      loser = remaining;
+      return;
+    }
+
+    firstAttacker = defenderTookCards ? getLeftSeat(defender) : defender;
+    if(finishedSeats[firstAttacker])
+      firstAttacker = getLeftSeat(firstAttacker);
+    defender = getLeftSeat(firstAttacker);
+    secondAttacker = getLeftSeat(defender);
+    if(secondAttacker == firstAttacker)
+      secondAttacker = -1;
+    firstAttackerPassed = false;
+    secondAttackerPassed = secondAttacker < 0;
+  }
+
+  private void drawCards(int seat) {
+    if(seat < 0)
+      return;
+
+    while(drawIndex < stack.length && Long.bitCount(hands[seat]) < HAND_SIZE) {
+      final int card = stack[drawIndex++];
+      if(card >= 0)
+        hands[seat] |= 1L << card;
+    }
+  }
+
+  private void updateFinishedSeat(int seat) {
+    if(seat >= 0 && hands[seat] == 0L && drawIndex >= stack.length)
+      finishedSeats[seat] = true;
+  }
+
+  /* The left neighbour is the seat before, finished seats will be skipped */
+  private int getLeftSeat(int seat) {
+    int left = seat;
+    do {
+      left = (left - 1 + seatCount) % seatCount;
+    } while(finishedSeats[left] && left != seat);
+    return left;
+  }
+
+  private boolean beats(int card, int attackCard) {
+    final int colour = card / VALUE_COUNT;
+    final int attackColour = attackCard / VALUE_COUNT;
+    if(colour == attackColour)
+      return card % VALUE_COUNT > attackCard % VALUE_COUNT;
+    return colour == trumpColour;
+  }
+
+  private boolean hasUnbeatenCard() {
+    return getUnbeatenIndex() >= 0;
+  }
+
+  private int getUnbeatenIndex() {
+    for (int index = 0; index < tableCount; index++) {
+      if(defenseCards[index] < 0)
+        return index;
+    }
+    return -1;
+  }
+
+  private int getUnbeatenCount() {
+    int count = 0;
+    for (int index = 0; index < tableCount; index++) {
+      if(defenseCards[index] < 0)
+        count++;
+    }
+    return count;
+  }
+
+  private static int getValueMask(long cards) {
+    int values = 0;
+    for (long remaining = cards; remaining != 0L; remaining >>>= VALUE_COUNT)
+      values |= (int) remaining & VALUE_BITS;
+    return values;
+  }
+
+  private static int[] toIndices(long cards) {
+    final int[] indices = new int[Long.bitCount(cards)];
+    int index = 0;
+    for (long remaining = cards; remaining != 0L; remaining &= remaining - 1L)
+      indices[index++] = Long.numberOfTrailingZeros(remaining);
+    return indices;
+  }
+
+  /* Getter and Setter */
+
+  public boolean isFinished() {
+    return finished;
+  }
+
+  public int getLoser() {
+    return loser;
+  }
+
+  public long getHand(int seat) {
+    return hands[seat];
+  }
+
+  public boolean isSeatFinished(int seat) {
+    return finishedSeats[seat];
+  }
+}
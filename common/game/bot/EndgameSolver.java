@@ -0,0 +1,312 @@
+package common.game.bot;
+
+import common.game.PlayerView;
+
+import java.util.Random;
+
+import static common.utilities.constants.PlayerConstants.PlayerType;
+
+/**
+ * Searches the best move of an endgame, see {@link DurakState#isEndgame()}, with alpha beta
+ * search. Since every card is known in an endgame, the search needs no determinization.
+ * The search deepens iteratively until the game is solved or the deadline is reached, so
+ * it always has a move to answer with. Positions that are reached by different move orders
+ * are stored in a transposition table with a fixed size. The table consists of buckets with
+ * two entries, a new position replaces the entry of an older search or the entry with the
+ * lower depth. The table stores the scores for the lower of the two seats, so it stays
+ * valid for searches of the other seat.
+ * A solver is not thread safe, but it can be reused for several searches.
+ */
+public class EndgameSolver {
+  /** Score of a won game, a lost game has the negative score. */
+  public static final int WIN_SCORE = 1000;
+
+  private static final int HAND_CARD_SCORE = 10;
+  private static final int MAXIMUM_DEPTH = 127;
+  /** Depth of entries that are exact, they are valid for every depth. */
+  private static final int EXACT_DEPTH = 255;
+  /** Number of nodes between two checks of the deadline. */
+  private static final int DEADLINE_CHECK_NODES = 1024;
+
+  private static final int EXACT_BOUND = 0;
+  private static final int LOWER_BOUND = 1;
+  private static final int UPPER_BOUND = 2;
+  private static final int NO_MOVE = 63;
+
+  private final long[] keys;
+  private final long[] entries;
+  private final int indexMask;
+  private int generation;
+
+  private long deadline;
+  private boolean aborted;
+  private long nodes;
+  /** Number of positions that were scored without search to the end of the game. */
+  private long horizonNodes;
+  private int rootSeat;
+  private int opponentSeat;
+  /** Factor from the scores of the table to the scores of the searching player. */
+  private int scoreSign;
+  private final int[][] moveBuffers;
+  private int rootMove;
+
+  private int bestMove;
+  private int score;
+  private int depth;
+  private boolean solved;
+
+  /* Constructors */
+
+  /**
+   * Creates a solver with a transposition table of {@code 2^tableBits} entries.
+   * @param tableBits Number of bits of the table size, one entry needs 16 bytes.
+   */
+  public EndgameSolver(int tableBits) {
+    this.keys = new long[1 << tableBits];
+    this.entries = new long[1 << tableBits];
+    this.indexMask = (1 << tableBits) - 2;
+    this.moveBuffers = new int[MAXIMUM_DEPTH + 1][DurakState.MAXIMUM_MOVES];
+  }
+
+  /* Methods */
+
+  /**
+   * Returns true, if the game of the view is an endgame and the player of the view can
+   * search it.
+   * @param view View of the player.
+   * @return True, if the view shows an endgame, else false.
+   */
+  public static boolean isApplicable(PlayerView view) {
+    if(view.getStackSize() > 0 || PlayerType.NOT_LOSER.equals(view.getType(view.getSeat())))
+      return false;
+
+    int remainingCount = 0;
+    for (int seat = 0; seat < view.getSeatCount(); seat++) {
+      if(!PlayerType.NOT_LOSER.equals(view.getType(seat)))
+        remainingCount++;
+    }
+    return remainingCount == 2;
+  }
+
+  /**
+   * Searches the endgame of the view until it is solved or the deadline is reached.
+   * @param view View of the player, see {@link #isApplicable(PlayerView)}.
+   * @param deadline Deadline of the search as {@link System#nanoTime()}.
+   * @return The best move, see {@link DurakState}.
+   */
+  public int solve(PlayerView view, long deadline) {
+    /* the unseen cards are exactly the cards of the opponent, any distribution is right */
+    return solve(DurakState.determinize(view, new Random(0L)), view.getSeat(), deadline);
+  }
+
+  /**
+   * Searches the endgame until it is solved or the deadline is reached. The first
+   * iteration will be finished in any case, so there is always a move.
+   * @param state The endgame, see {@link DurakState#isEndgame()}.
+   * @param seat Seat of the player that has to move.
+   * @param deadline Deadline of the search as {@link System#nanoTime()}.
+   * @return The best move, see {@link DurakState}.
+   */
+  public int solve(DurakState state, int seat, long deadline) {
+    assert state.isEndgame() && state.getPlayerToMove() == seat;
+
+    this.rootSeat = seat;
+    this.opponentSeat = findOpponent(state, seat);
+    this.scoreSign = seat < opponentSeat ? 1 : -1;
+    this.generation = (generation + 1) & 0xFF;
+    this.nodes = 0L;
+    this.bestMove = NO_MOVE;
+    this.solved = false;
+
+    for (int iterationDepth = 1; iterationDepth <= MAXIMUM_DEPTH && !solved; iterationDepth++) {
+      this.deadline = iterationDepth == 1 ? Long.MAX_VALUE : deadline;
+      this.aborted = false;
+      final long horizonBefore = horizonNodes;
+      final int iterationScore = search(state, iterationDepth, 0, -WIN_SCORE, WIN_SCORE);
+      if(aborted)
+        break;
+
+      score = iterationScore;
+      depth = iterationDepth;
+      bestMove = rootMove;
+      solved = horizonNodes == horizonBefore || Math.abs(score) == WIN_SCORE;
+    }
+
+    if(bestMove == NO_MOVE) {
+      final int[] moves = moveBuffers[0];
+      state.generateMoves(moves);
+      bestMove = moves[0];
+    }
+    return bestMove;
+  }
+
+  private int search(DurakState state, int remainingDepth, int ply, int alpha, int beta) {
+    if(state.isFinished()) {
+      if(state.getLoser() < 0)
+        return 0;
+      return state.getLoser() == rootSeat ? -WIN_SCORE : WIN_SCORE;
+    }
+    if(++nodes % DEADLINE_CHECK_NODES == 0L && System.nanoTime() > deadline)
+      aborted = true;
+    if(aborted)
+      return 0;
+    if(remainingDepth == 0 || ply == MAXIMUM_DEPTH) {
+      horizonNodes++;
+      return evaluate(state);
+    }
+
+    final long key = state.getZobristKey();
+    final int slot = findSlot(key);
+    int storedMove = NO_MOVE;
+    if(slot >= 0) {
+      final long entry = entries[slot];
+      storedMove = (int) (entry & 0x3F);
+      final int entryDepth = (int) (entry >>> 8) & 0xFF;
+      /* the root is always searched, its move is the result */
+      if(ply > 0 && entryDepth >= remainingDepth) {
+        final int entryScore = scoreSign * (int) (entry >> 32);
+        final int bound = convertBound((int) (entry >>> 6) & 0x3);
+        if(bound == EXACT_BOUND || (bound == LOWER_BOUND && entryScore >= beta) ||
+            (bound == UPPER_BOUND && entryScore <= alpha)) {
+          if(entryDepth != EXACT_DEPTH)
+            horizonNodes++;
+          return entryScore;
+        }
+      }
+    }
+
+    final int[] moves = moveBuffers[ply];
+    final int count = state.generateMoves(moves);
+    /* the best move of an earlier search is tried first */
+    for (int index = 1; index < count; index++) {
+      if(moves[index] == storedMove) {
+        moves[index] = moves[0];
+        moves[0] = storedMove;
+      }
+    }
+
+    final boolean maximizing = state.getPlayerToMove() == rootSeat;
+    final long horizonBefore = horizonNodes;
+    final int originalAlpha = alpha;
+    final int originalBeta = beta;
+    int best = maximizing ? -WIN_SCORE - 1 : WIN_SCORE + 1;
+    int move = NO_MOVE;
+    for (int index = 0; index < count && !aborted; index++) {
+      final DurakState child = new DurakState(state);
+      child.apply(moves[index]);
+      final int value = search(child, remainingDepth - 1, ply + 1, alpha, beta);
+      if(maximizing ? value > best : value < best) {
+        best = value;
+        move = moves[index];
+      }
+      if(maximizing)
+        alpha = Math.max(alpha, value);
+      else beta = Math.min(beta, value);
+      if(alpha >= beta)
+        break;
+    }
+    if(aborted)
+      return 0;
+    if(ply == 0)
+      rootMove = move;
+
+    final int bound;
+    if(best <= originalAlpha)
+      bound = UPPER_BOUND;
+    else if(best >= originalBeta)
+      bound = LOWER_BOUND;
+    else bound = EXACT_BOUND;
+    store(key, horizonNodes == horizonBefore ? EXACT_DEPTH : remainingDepth, best, bound,
+        move);
+    return best;
+  }
+
+  /* Scores a position by the number of hand cards, fewer cards are better */
+  private int evaluate(DurakState state) {
+    return HAND_CARD_SCORE * (Long.bitCount(state.getHand(opponentSeat))
+        - Long.bitCount(state.getHand(rootSeat)));
+  }
+
+  /* Returns the slot of the key or -1, if the key is not stored */
+  private int findSlot(long key) {
+    final int index = (int) key & indexMask;
+    if(keys[index] == key && entries[index] != 0L)
+      return index;
+    if(keys[index + 1] == key && entries[index + 1] != 0L)
+      return index + 1;
+    return -1;
+  }
+
+  private void store(long key, int entryDepth, int entryScore, int bound, int move) {
+    final int index = (int) key & indexMask;
+    int slot = findSlot(key);
+    if(slot < 0) {
+      /* an entry of an older search is replaced first, then the entry with lower depth */
+      final boolean firstOld = getGeneration(index) != generation;
+      final boolean secondOld = getGeneration(index + 1) != generation;
+      if(firstOld != secondOld)
+        slot = firstOld ? index : index + 1;
+      else slot = getDepth(index) <= getDepth(index + 1) ? index : index + 1;
+    } else if(getDepth(slot) > entryDepth && getGeneration(slot) == generation) {
+      return;
+    }
+
+    keys[slot] = key;
+    entries[slot] = ((long) (scoreSign * entryScore) << 32) | ((long) generation << 16)
+        | ((long) entryDepth << 8) | ((long) convertBound(bound) << 6) | (move & 0x3F);
+  }
+
+  /* A bound of the searching player is the opposite bound for the other seat */
+  private int convertBound(int bound) {
+    if(scoreSign > 0 || bound == EXACT_BOUND)
+      return bound;
+    return bound == LOWER_BOUND ? UPPER_BOUND : LOWER_BOUND;
+  }
+
+  private int getDepth(int slot) {
+    return (int) (entries[slot] >>> 8) & 0xFF;
+  }
+
+  private int getGeneration(int slot) {
+    return (int) (entries[slot] >>> 16) & 0xFF;
+  }
+
+  private static int findOpponent(DurakState state, int seat) {
+    for (int other = 0; ; other++) {
+      if(other != seat && !state.isSeatFinished(other))
+        return other;
+    }
+  }
+
+  /* Getter and Setter */
+
+  /**
+   * Returns the score of the last search for the searching player, between
+   * {@code -WIN_SCORE} and {@code WIN_SCORE}.
+   * @return The score.
+   */
+  public int getScore() {
+    return score;
+  }
+
+  /**
+   * Returns the depth of the last finished iteration of the last search.
+   * @return The depth in moves.
+   */
+  public int getDepth() {
+    return depth;
+  }
+
+  /**
+   * Returns true, if the last search looked at all moves until the end of the game. The
+   * score is exact in that case.
+   * @return True, if the endgame is solved, else false.
+   */
+  public boolean isSolved() {
+    return solved;
+  }
+
+  public long getNodes() {
+    return nodes;
+  }
+}
@@ -0,0 +1,308 @@
+package common.game.bot;
+
+import common.dto.DTOCard;
+import common.dto.DTOClient;
+import common.game.GameCard;
+import common.game.PlayerView;
+import common.simon.action.CardAction;
+import common.simon.action.FinishAction;
+import common.simon.action.GameAction;
+import common.utilities.Converter;
+import common.utilities.LoggingUtility;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Logger;
+
+import static common.utilities.constants.PlayerConstants.PlayerType;
+
+/**
+ * A player that chooses its actions with information set Monte Carlo tree search. Every
+ * iteration of the search distributes the cards the player has not seen randomly, see
+ * {@link DurakState#determinize(PlayerView, Random)}, and walks down a tree of moves that
+ * is shared by all these distributions. The search is split into tasks with their own
+ * trees that run on a shared fork join pool. Every task stops at the deadline of the
+ * decision and the decision does not wait for tasks that are late, so the time budget is
+ * kept strictly, no matter how busy the pool is. In an endgame every card is known and the
+ * bot searches it with the {@link EndgameSolver} instead.
+ * A bot has no state of a game, one instance can play any number of seats. Every thread
+ * that decides for the bot keeps its own solver, so the transposition table of the solver
+ * is reused by the following decisions of the thread.
+ */
+public class MonteCarloBot {
+  private static final Logger LOGGER = LoggingUtility.getLogger(MonteCarloBot.class.getName());
+
+  public static final long DEFAULT_BUDGET_MILLIS = 300L;
+
+  private static final double EXPLORATION = 0.7;
+  private static final int MAXIMUM_PLAYOUT_MOVES = 1000;
+  private static final int SOLVER_TABLE_BITS = 16;
+
+  private final ForkJoinPool pool;
+  private final long budgetNanos;
+  private final int searchTasks;
+  private final ThreadLocal<EndgameSolver> solvers;
+
+  /* Constructors */
+
+  /**
+   * Creates a bot that searches on the specified pool.
+   * @param pool Pool for the search tasks, it can be shared by several bots.
+   * @param budgetMillis Time budget of a decision in milliseconds.
+   */
+  public MonteCarloBot(ForkJoinPool pool, long budgetMillis) {
+    this.pool = pool;
+    this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    this.searchTasks = pool.getParallelism();
+    this.solvers = new ThreadLocal<EndgameSolver>() {
+      protected EndgameSolver initialValue() {
+        return new EndgameSolver(SOLVER_TABLE_BITS);
+      }
+    };
+  }
+
+  /* Methods */
+
+  /**
+   * Returns true, if the player of the view should act now. An attacker acts if the
+   * table is empty or all cards are beaten, a defender if there is a card to beat or the
+   * attackers are ready and the round only has to be confirmed.
+   * @param view View of the player.
+   * @return True, if the player has to decide, else false.
+   */
+  public static boolean isDecisionDue(PlayerView view) {
+    final int seat = view.getSeat();
+    final PlayerType type = view.getType(seat);
+    final boolean tableEmpty = view.getAttackCards().isEmpty();
+    final boolean allBeaten = view.getUnbeatenCard() == null;
+    if(PlayerType.DEFENDER.equals(type)) {
+      return !allBeaten || (!tableEmpty && !view.isDefenderReady() &&
+          view.isFirstAttackerReady() && view.isSecondAttackerReady());
+    } else if(PlayerType.FIRST_ATTACKER.equals(type)) {
+      return tableEmpty || (allBeaten && !view.isFirstAttackerReady());
+    } else if(PlayerType.SECOND_ATTACKER.equals(type)) {
+      return !tableEmpty && allBeaten && !view.isSecondAttackerReady();
+    }
+    return false;
+  }
+
+  /**
+   * Chooses the action of the player of the view. The method blocks for at most the time
+   * budget of the bot.
+   * @param view View of the player.
+   * @param executor Client of the player.
+   * @return The action.
+   */
+  public GameAction chooseAction(PlayerView view, DTOClient executor) {
+    final DTOClient client = createClient(view, executor);
+    if(PlayerType.DEFENDER.equals(client.playerType) && view.getUnbeatenCard() == null)
+      return createAction(view, DurakState.PASS, client);
+
+    return createAction(view, chooseMove(view, System.nanoTime()), client);
+  }
+
+  /**
+   * Returns an action that is always valid, if the player has to decide. The defender
+   * takes the cards or confirms the round, the first attacker plays a card on an empty
+   * table and every other attacker passes.
+   * @param view View of the player.
+   * @param executor Client of the player.
+   * @return The action.
+   */
+  public static GameAction createFallbackAction(PlayerView view, DTOClient executor) {
+    final DTOClient client = createClient(view, executor);
+    if(PlayerType.DEFENDER.equals(client.playerType)) {
+      return createAction(view,
+          view.getUnbeatenCard() == null ? DurakState.PASS : DurakState.TAKE, client);
+    }
+    if(view.getAttackCards().isEmpty() && !view.getHand().isEmpty())
+      return createAction(view, view.getHand().iterator().next().getIndex(), client);
+    return createAction(view, DurakState.PASS, client);
+  }
+
+  /**
+   * Searches the best move of the player of the view.
+   * @param view View of the player.
+   * @param seed Seed of the search.
+   * @return The move, see {@link DurakState}.
+   */
+  public int chooseMove(PlayerView view, long seed) {
+    final int[] moves = new int[DurakState.MAXIMUM_MOVES];
+    final int moveCount = DurakState.determinize(view, new Random(seed)).generateMoves(moves);
+    if(moveCount == 1)
+      return moves[0];
+
+    final long deadline = System.nanoTime() + budgetNanos;
+    if(EndgameSolver.isApplicable(view))
+      return solvers.get().solve(view, deadline);
+
+    final List<ForkJoinTask<int[]>> tasks = new ArrayList<ForkJoinTask<int[]>>(searchTasks);
+    for (int index = 0; index < searchTasks; index++)
+      tasks.add(pool.submit(new SearchTask(view, seed + index, deadline)));
+
+    final int[] visits = new int[DurakState.MAXIMUM_MOVES];
+    for (ForkJoinTask<int[]> task : tasks) {
+      try {
+        final int[] taskVisits =
+            task.get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        for (int move = 0; move < visits.length; move++)
+          visits[move] += taskVisits[move];
+      } catch (TimeoutException e) {
+        /* the task will stop by itself, its result is simply not used */
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      } catch (ExecutionException e) {
+        LOGGER.warning("Search failed: " + e.getCause());
+      }
+    }
+
+    int bestMove = moves[0];
+    for (int index = 1; index < moveCount; index++) {
+      if(visits[moves[index]] > visits[bestMove])
+        bestMove = moves[index];
+    }
+    return bestMove;
+  }
+
+  private static DTOClient createClient(PlayerView view, DTOClient executor) {
+    final DTOClient client = new DTOClient("");
+    client.setClientInfo(executor);
+    client.playerType = view.getType(view.getSeat());
+    return client;
+  }
+
+  private static GameAction createAction(PlayerView view, int move, DTOClient client) {
+    if(move == DurakState.TAKE)
+      return new FinishAction(FinishAction.FinishType.TAKE_CARDS, client,
+          GameAction.ActionType.ROUND_REQUEST);
+    if(move == DurakState.PASS)
+      return new FinishAction(FinishAction.FinishType.GO_TO_NEXT_ROUND, client,
+          GameAction.ActionType.ROUND_REQUEST);
+
+    final List<DTOCard> attackCards = new ArrayList<DTOCard>(1);
+    final List<DTOCard> defenderCards = new ArrayList<DTOCard>(1);
+    final GameCard card = GameCard.byIndex(move);
+    if(PlayerType.DEFENDER.equals(client.playerType)) {
+      attackCards.add(Converter.toDTO(view.getUnbeatenCard()));
+      defenderCards.add(Converter.toDTO(card));
+      return new CardAction(CardAction.CardActionType.DEFENSE, attackCards, defenderCards,
+          client, GameAction.ActionType.CARD_ACTION);
+    }
+    attackCards.add(Converter.toDTO(card));
+    return new CardAction(CardAction.CardActionType.ATTACK, attackCards, defenderCards,
+        client, GameAction.ActionType.CARD_ACTION);
+  }
+
+  /* Inner Classes */
+
+  /**
+   * Builds a search tree until the deadline and returns the visits of the moves of the
+   * root, indexed by the move.
+   */
+  private static class SearchTask extends RecursiveTask<int[]> {
+    private final PlayerView view;
+    private final long seed;
+    private final long deadline;
+
+    private SearchTask(PlayerView view, long seed, long deadline) {
+      this.view = view;
+      this.seed = seed;
+      this.deadline = deadline;
+    }
+
+    protected int[] compute() {
+      final Random random = new Random(seed);
+      final int[] moves = new int[DurakState.MAXIMUM_MOVES];
+      final SearchNode root = new SearchNode(null, -1, -1);
+      while(System.nanoTime() < deadline)
+        iterate(root, DurakState.determinize(view, random), random, moves);
+
+      final int[] visits = new int[DurakState.MAXIMUM_MOVES];
+      for (SearchNode child : root.children)
+        visits[child.move] = child.visits;
+      return visits;
+    }
+
+    private void iterate(SearchNode root, DurakState state, Random random, int[] moves) {
+      SearchNode node = root;
+      /* selection and expansion, only the moves of this determinization are considered */
+      while(!state.isFinished()) {
+        final int player = state.getPlayerToMove();
+        final int count = state.generateMoves(moves);
+        int untried = 0;
+        SearchNode best = null;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int index = 0; index < count; index++) {
+          final SearchNode child = node.getChild(moves[index]);
+          if(child == null) {
+            moves[untried++] = moves[index];
+          } else {
+            child.availability++;
+            final double value = child.getUpperConfidenceBound();
+            if(value > bestValue) {
+              bestValue = value;
+              best = child;
+            }
+          }
+        }
+
+        if(untried > 0) {
+          final SearchNode child = new SearchNode(node, moves[random.nextInt(untried)], player);
+          node.children.add(child);
+          state.apply(child.move);
+          node = child;
+          break;
+        }
+        state.apply(best.move);
+        node = best;
+      }
+
+      state.playout(random, MAXIMUM_PLAYOUT_MOVES, moves);
+      for (; node.parent != null; node = node.parent) {
+        node.visits++;
+        node.reward += state.getReward(node.player);
+      }
+    }
+  }
+
+  private static class SearchNode {
+    private final SearchNode parent;
+    private final int move;
+    /** Seat of the player who made the move. */
+    private final int player;
+    private final List<SearchNode> children;
+    private int visits;
+    private int availability;
+    private double reward;
+
+    private SearchNode(SearchNode parent, int move, int player) {
+      this.parent = parent;
+      this.move = move;
+      this.player = player;
+      this.children = new ArrayList<SearchNode>(4);
+      this.availability = 1;
+    }
+
+    private SearchNode getChild(int move) {
+      for (SearchNode child : children) {
+        if(child.move == move)
+          return child;
+      }
+      return null;
+    }
+
+    private double getUpperConfidenceBound() {
+      if(visits == 0)
+        return Double.POSITIVE_INFINITY;
+      return reward / visits + EXPLORATION * Math.sqrt(Math.log(availability) / visits);
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package common.game.replay;
+
+import common.game.GameCard;
+import common.game.GameCheckpoint;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Everything that happened in a game: the players in the order of their seats, the stack
+ * before the cards were distributed, the first attacker and the actions. Every now and then
+ * the record holds a {@link GameCheckpoint} at the start of a round, so that a replay can
+ * jump to any action without playing all actions before it, see {@link ReplayEngine}.
+ */
+public class GameRecord {
+  private final List<String> playerNames;
+  private final List<GameCard> deck;
+  private final int firstAttackerSeat;
+  private final List<RecordedAction> actions;
+  /** Checkpoints mapped by the number of actions that were done before them. */
+  private final TreeMap<Integer, GameCheckpoint> checkpoints;
+
+  /* Constructors */
+
+  /**
+   * Creates a record without actions.
+   * @param playerNames Names of the players in the order of their seats.
+   * @param deck The stack before the cards were distributed, the last card is the trump.
+   * @param firstAttackerSeat Seat of the first attacker of the game.
+   */
+  public GameRecord(List<String> playerNames, List<GameCard> deck, int firstAttackerSeat) {
+    this.playerNames = new ArrayList<String>(playerNames);
+    this.deck = new ArrayList<GameCard>(deck);
+    this.firstAttackerSeat = firstAttackerSeat;
+    this.actions = new ArrayList<RecordedAction>();
+    this.checkpoints = new TreeMap<Integer, GameCheckpoint>();
+  }
+
+  /* Methods */
+
+  public void addAction(RecordedAction action) {
+    actions.add(action);
+  }
+
+  /**
+   * Adds a checkpoint of the game after the actions that were added so far.
+   * @param checkpoint State at the start of the current round.
+   */
+  public void addCheckpoint(GameCheckpoint checkpoint) {
+    checkpoints.put(actions.size(), checkpoint);
+  }
+
+  void putCheckpoint(int position, GameCheckpoint checkpoint) {
+    checkpoints.put(position, checkpoint);
+  }
+
+  /**
+   * Returns the last checkpoint before the action.
+   * @param position Number of actions that are done.
+   * @return The number of actions before the checkpoint mapped to the checkpoint or null,
+   * if there is no checkpoint before the action.
+   */
+  public Map.Entry<Integer, GameCheckpoint> getCheckpointBefore(int position) {
+    return checkpoints.floorEntry(position);
+  }
+
+  /* Getter and Setter */
+
+  public List<String> getPlayerNames() {
+    return Collections.unmodifiableList(playerNames);
+  }
+
+  public List<GameCard> getDeck() {
+    return Collections.unmodifiableList(deck);
+  }
+
+  public int getFirstAttackerSeat() {
+    return firstAttackerSeat;
+  }
+
+  public List<RecordedAction> getActions() {
+    return Collections.unmodifiableList(actions);
+  }
+
+  public Map<Integer, GameCheckpoint> getCheckpoints() {
+    return Collections.unmodifiableMap(checkpoints);
+  }
+}
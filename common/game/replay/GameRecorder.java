@@ -0,0 +1,66 @@
+package common.game.replay;
+
+import common.game.GameCheckpoint;
+import common.game.GameProcess;
+import common.simon.action.GameAction;
+
+import java.util.List;
+
+/**
+ * Writes a running game into a {@link GameRecord}. The recorder has to be created when the
+ * game was initialised and gets every valid action after the process did it. At the start
+ * of a round the recorder adds a checkpoint, if enough actions were done since the last
+ * checkpoint.
+ */
+public class GameRecorder {
+  /** Minimum number of actions between two checkpoints. */
+  public static final int CHECKPOINT_INTERVAL = 16;
+
+  private final GameProcess<?> process;
+  private final GameRecord record;
+  private int lastCheckpoint;
+
+  /* Constructors */
+
+  /**
+   * Creates a recorder for the game that was just initialised.
+   * @param process Process of the game.
+   * @param playerNames Names of the players in the order of the seats of the process.
+   * @param <ID> Type of the player identifiers.
+   */
+  public <ID> GameRecorder(GameProcess<ID> process, List<String> playerNames) {
+    this.process = process;
+    this.record = new GameRecord(playerNames, process.getDeck(),
+        process.getPlayerIDs().indexOf(process.getFirstAttackerID()));
+    this.lastCheckpoint = 0;
+  }
+
+  /* Methods */
+
+  /**
+   * Records a valid action. The process must have done the action and, if the round was
+   * finished by it, gone to the next round.
+   * @param seat Seat of the player who did the action.
+   * @param action The action.
+   */
+  public void recordAction(int seat, GameAction action) {
+    final RecordedAction recordedAction = RecordedAction.of(seat, action);
+    if(recordedAction == null)
+      return;
+
+    record.addAction(recordedAction);
+    if(record.getActions().size() - lastCheckpoint >= CHECKPOINT_INTERVAL) {
+      final GameCheckpoint checkpoint = process.createCheckpoint();
+      if(checkpoint != null) {
+        record.addCheckpoint(checkpoint);
+        lastCheckpoint = record.getActions().size();
+      }
+    }
+  }
+
+  /* Getter and Setter */
+
+  public GameRecord getRecord() {
+    return record;
+  }
+}
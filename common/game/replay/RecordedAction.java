@@ -0,0 +1,143 @@
+package common.game.replay;
+
+import common.dto.DTOCard;
+import common.dto.DTOClient;
+import common.game.GameCard;
+import common.simon.action.CardAction;
+import common.simon.action.FinishAction;
+import common.simon.action.GameAction;
+import common.utilities.Converter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An action of a {@link GameRecord}. Instead of the action object only the seat of the
+ * player, the kind of the action and the indices of the cards are stored, see
+ * {@link GameCard#getIndex()}. An attack stores its attack cards, a defense stores the
+ * attacked card followed by the defending card.
+ */
+public final class RecordedAction {
+  public static final int ATTACK = 0;
+  public static final int DEFENSE = 1;
+  public static final int GO_TO_NEXT_ROUND = 2;
+  public static final int TAKE_CARDS = 3;
+
+  private final int seat;
+  private final int kind;
+  private final byte[] cards;
+
+  /* Constructors */
+
+  /**
+   * Creates an action.
+   * @param seat Seat of the player who did the action.
+   * @param kind One of {@link #ATTACK}, {@link #DEFENSE}, {@link #GO_TO_NEXT_ROUND} and
+   *             {@link #TAKE_CARDS}.
+   * @param cards Indices of the cards of the action.
+   */
+  public RecordedAction(int seat, int kind, byte[] cards) {
+    if(kind < ATTACK || kind > TAKE_CARDS)
+      throw new IllegalArgumentException("Unknown kind of action "+kind);
+    this.seat = seat;
+    this.kind = kind;
+    this.cards = cards.clone();
+  }
+
+  /* Methods */
+
+  /**
+   * Records an action that a player did.
+   * @param seat Seat of the player.
+   * @param action The action.
+   * @return The recorded action or null, if the action does not change the game.
+   */
+  public static RecordedAction of(int seat, GameAction action) {
+    if(action instanceof CardAction) {
+      final CardAction cardAction = (CardAction) action;
+      if(CardAction.CardActionType.ATTACK.equals(cardAction.getCardActionType())) {
+        return new RecordedAction(seat, ATTACK,
+            toIndices(Converter.fromDTO(cardAction.getAttackCards())));
+      } else {
+        final List<GameCard> cards = new ArrayList<GameCard>(2);
+        cards.add(Converter.fromDTO(cardAction.getAttackCards().get(0)));
+        cards.add(Converter.fromDTO(cardAction.getDefenderCards().get(0)));
+        return new RecordedAction(seat, DEFENSE, toIndices(cards));
+      }
+    } else if(action instanceof FinishAction) {
+      final FinishAction.FinishType type = ((FinishAction) action).getFinishType();
+      if(FinishAction.FinishType.GO_TO_NEXT_ROUND.equals(type))
+        return new RecordedAction(seat, GO_TO_NEXT_ROUND, new byte[0]);
+      else if(FinishAction.FinishType.TAKE_CARDS.equals(type))
+        return new RecordedAction(seat, TAKE_CARDS, new byte[0]);
+    }
+    return null;
+  }
+
+  private static byte[] toIndices(List<GameCard> cards) {
+    final byte[] indices = new byte[cards.size()];
+    for (int index = 0; index < indices.length; index++)
+      indices[index] = (byte) cards.get(index).getIndex();
+    return indices;
+  }
+
+  /**
+   * Creates the action object for the game process.
+   * @param executor The player, its player type has to be the current type of the seat.
+   * @return The action.
+   */
+  public GameAction toAction(DTOClient executor) {
+    if(kind == ATTACK) {
+      return new CardAction(CardAction.CardActionType.ATTACK, Converter.toDTO(getCards()),
+          new ArrayList<DTOCard>(), executor, GameAction.ActionType.CARD_ACTION);
+    } else if(kind == DEFENSE) {
+      final List<GameCard> pair = getCards();
+      return new CardAction(CardAction.CardActionType.DEFENSE,
+          Converter.toDTO(pair.subList(0, 1)), Converter.toDTO(pair.subList(1, 2)), executor,
+          GameAction.ActionType.CARD_ACTION);
+    } else return new FinishAction(kind == TAKE_CARDS ? FinishAction.FinishType.TAKE_CARDS :
+        FinishAction.FinishType.GO_TO_NEXT_ROUND, executor, GameAction.ActionType.ROUND_REQUEST);
+  }
+
+  public String toString() {
+    return "RecordedAction{seat="+seat+", kind="+kind+", cards="+getCards()+"}";
+  }
+
+  public boolean equals(Object o) {
+    if(this == o) return true;
+    if(!(o instanceof RecordedAction)) return false;
+
+    final RecordedAction that = (RecordedAction) o;
+    return seat == that.seat && kind == that.kind && Arrays.equals(cards, that.cards);
+  }
+
+  public int hashCode() {
+    return 31 * (31 * seat + kind) + Arrays.hashCode(cards);
+  }
+
+  /* Getter and Setter */
+
+  public int getSeat() {
+    return seat;
+  }
+
+  public int getKind() {
+    return kind;
+  }
+
+  /**
+   * Returns the cards of the action.
+   * @return A new list of the cards.
+   */
+  public List<GameCard> getCards() {
+    final List<GameCard> list = new ArrayList<GameCard>(cards.length);
+    for (byte index : cards)
+      list.add(GameCard.byIndex(index));
+    return list;
+  }
+
+  byte[] getCardIndices() {
+    return cards;
+  }
+}
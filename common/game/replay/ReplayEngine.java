@@ -0,0 +1,201 @@
+package common.game.replay;
+
+import common.dto.DTOClient;
+import common.game.GameCheckpoint;
+import common.game.GameProcess;
+import common.game.rules.RuleChecker;
+import common.game.rules.RuleException;
+import common.utilities.LoggingUtility;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Plays a {@link GameRecord} again without server, clients or gui. Every action of the
+ * record is done by {@link GameProcess#validateAction(common.simon.action.GameAction,
+ * Object)} and the rounds are finished by {@link GameProcess#goToNextRound()}, so a
+ * replay breaks off at the first action that breaks a rule. The seats of the record are
+ * the player ids of the process.
+ * The engine can jump to any action. It continues the game at the last checkpoint before
+ * the action and only plays the actions after the checkpoint.
+ */
+public class ReplayEngine {
+  private static final Logger LOGGER = LoggingUtility.getLogger(ReplayEngine.class.getName());
+
+  private static final long MEASURE_MILLIS = 3000L;
+
+  private final GameProcess<Integer> process;
+  private GameRecord record;
+  private DTOClient[] executors;
+  /** Number of actions of the record that are done. */
+  private int position;
+
+  /* Constructors */
+
+  public ReplayEngine() {
+    process = new GameProcess<Integer>();
+  }
+
+  /* Methods */
+
+  /**
+   * Replays the files and prints how many games per second were replayed.
+   * Usage: {@code ReplayEngine file|directory...}. A directory stands for all replay files
+   * in it.
+   * @param args Command line arguments.
+   * @throws IOException A file could not be read.
+   */
+  public static void main(String[] args) throws IOException {
+    RuleChecker.logWarningsOnly();
+
+    final List<GameRecord> records = new ArrayList<GameRecord>();
+    for (String arg : args)
+      readRecords(new File(arg), records);
+    if(records.isEmpty()) {
+      System.out.println("No replays found");
+      return;
+    }
+
+    final ReplayEngine engine = new ReplayEngine();
+    int broken = 0;
+    for (GameRecord record : records) {
+      try {
+        engine.replay(record);
+      } catch (RuleException e) {
+        broken++;
+      }
+    }
+
+    long games = 0L;
+    long actions = 0L;
+    final long start = System.nanoTime();
+    final long end = start + MEASURE_MILLIS * 1000000L;
+    while (System.nanoTime() < end) {
+      for (GameRecord record : records) {
+        try {
+          actions += engine.replay(record);
+        } catch (RuleException e) {
+          actions += engine.getPosition();
+        }
+        games++;
+      }
+    }
+    final double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.println(String.format("%d replays, %d broken, %.0f games/s, %.0f actions/s", //NON-NLS
+        records.size(), broken, games / seconds, actions / seconds));
+  }
+
+  private static void readRecords(File file, List<GameRecord> records) throws IOException {
+    if(file.isDirectory()) {
+      final File[] files = file.listFiles();
+      if(files != null) {
+        for (File child : files) {
+          if(child.getName().endsWith(ReplayFormat.FILE_EXTENSION))
+            readRecords(child, records);
+        }
+      }
+    } else records.add(ReplayFormat.read(file));
+  }
+
+  /**
+   * Loads a record and sets the game to its start.
+   * @param record The record.
+   */
+  public void load(GameRecord record) {
+    this.record = record;
+    process.reInitialise();
+    executors = new DTOClient[record.getPlayerNames().size()];
+    for (int seat = 0; seat < executors.length; seat++) {
+      process.setPlayer(seat);
+      executors[seat] = new DTOClient(record.getPlayerNames().get(seat));
+    }
+    restart();
+  }
+
+  private void restart() {
+    process.stopProcess();
+    process.initialiseNewGame(record.getDeck(), record.getFirstAttackerSeat());
+    position = 0;
+  }
+
+  /**
+   * Loads the record and plays all its actions.
+   * @param record The record.
+   * @return Number of actions that were played.
+   * @throws RuleException An action of the record breaks a rule.
+   */
+  public int replay(GameRecord record) throws RuleException {
+    load(record);
+    while (step());
+    return position;
+  }
+
+  /**
+   * Does the next action of the record.
+   * @return True, if an action was done, false, if the record or the game has ended.
+   * @throws RuleException The action breaks a rule, the position stays before the action.
+   */
+  public boolean step() throws RuleException {
+    if(position >= record.getActions().size() || !process.isGameInProcess())
+      return false;
+
+    final RecordedAction action = record.getActions().get(position);
+    final DTOClient executor = executors[action.getSeat()];
+    executor.playerType = process.getPlayerType(action.getSeat());
+    try {
+      if(process.validateAction(action.toAction(executor), action.getSeat()))
+        process.goToNextRound();
+    } catch (RuleException e) {
+      LOGGER.info("Action "+position+" of the replay breaks a rule: "+e.getMessage());
+      throw e;
+    }
+    position++;
+    return true;
+  }
+
+  /**
+   * Sets the game to the state after the specified number of actions. If the target lies
+   * before the current position or after a checkpoint that lies after the current
+   * position, the game continues at the checkpoint.
+   * @param target Number of actions that should be done.
+   * @throws RuleException An action before the target breaks a rule.
+   */
+  public void seek(int target) throws RuleException {
+    target = Math.max(0, Math.min(target, record.getActions().size()));
+    final Map.Entry<Integer, GameCheckpoint> checkpoint = record.getCheckpointBefore(target);
+    final int checkpointPosition = checkpoint != null ? checkpoint.getKey() : 0;
+    if(target < position || checkpointPosition > position) {
+      if(checkpoint != null) {
+        process.restoreCheckpoint(checkpoint.getValue(), record.getDeck());
+        position = checkpointPosition;
+      } else restart();
+    }
+    while (position < target && step());
+  }
+
+  /* Getter and Setter */
+
+  /**
+   * Returns the process of the replay. It must not be changed.
+   * @return The process.
+   */
+  public GameProcess<Integer> getProcess() {
+    return process;
+  }
+
+  public GameRecord getRecord() {
+    return record;
+  }
+
+  public int getPosition() {
+    return position;
+  }
+
+  public int getLength() {
+    return record.getActions().size();
+  }
+}
@@ -0,0 +1,184 @@
+package common.game.replay;
+
+import common.game.GameCard;
+import common.game.GameCheckpoint;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the replay files of {@link GameRecord} objects. A file starts with a
+ * magic number and the version of the format, followed by the names of the players, the
+ * indices of the cards of the stack and the seat of the first attacker. Each action takes
+ * one byte for the seat and the kind and one byte per card. The checkpoints are written at
+ * the end of the file, each with the number of actions before it and the hands and known
+ * cards of the seats as card masks.
+ */
+public class ReplayFormat {
+  public static final String FILE_EXTENSION = ".replay"; //NON-NLS
+
+  private static final int MAGIC = 0x44524550;
+  private static final int VERSION = 1;
+  private static final int KIND_BITS = 2;
+  private static final int KIND_MASK = (1 << KIND_BITS) - 1;
+
+  /* Constructors */
+
+  private ReplayFormat() {}
+
+  /* Methods */
+
+  public static void write(GameRecord record, File file) throws IOException {
+    final OutputStream output = new BufferedOutputStream(new FileOutputStream(file));
+    try {
+      write(record, output);
+    } finally {
+      output.close();
+    }
+  }
+
+  public static GameRecord read(File file) throws IOException {
+    final InputStream input = new BufferedInputStream(new FileInputStream(file));
+    try {
+      return read(input);
+    } finally {
+      input.close();
+    }
+  }
+
+  /**
+   * Writes the record to the stream. The stream will not be closed.
+   * @param record The record.
+   * @param stream Stream to write to.
+   * @throws IOException The stream could not be written.
+   */
+  public static void write(GameRecord record, OutputStream stream) throws IOException {
+    final DataOutputStream output = new DataOutputStream(stream);
+    output.writeInt(MAGIC);
+    output.writeByte(VERSION);
+
+    output.writeByte(record.getPlayerNames().size());
+    for (String name : record.getPlayerNames())
+      output.writeUTF(name);
+    output.writeByte(record.getDeck().size());
+    for (GameCard card : record.getDeck())
+      output.writeByte(card.getIndex());
+    output.writeByte(record.getFirstAttackerSeat());
+
+    output.writeInt(record.getActions().size());
+    for (RecordedAction action : record.getActions()) {
+      output.writeByte(action.getSeat() << KIND_BITS | action.getKind());
+      if(action.getKind() == RecordedAction.ATTACK)
+        output.writeByte(action.getCardIndices().length);
+      output.write(action.getCardIndices());
+    }
+
+    output.writeInt(record.getCheckpoints().size());
+    for (Map.Entry<Integer, GameCheckpoint> entry : record.getCheckpoints().entrySet()) {
+      final GameCheckpoint checkpoint = entry.getValue();
+      output.writeInt(entry.getKey());
+      output.writeByte(checkpoint.getStackSize());
+      output.writeLong(checkpoint.getDiscardedCards());
+      output.writeByte(checkpoint.getFirstAttackerSeat());
+      output.writeBoolean(checkpoint.isInitialAttack());
+      for (int seat = 0; seat < checkpoint.getSeatCount(); seat++) {
+        output.writeLong(checkpoint.getHand(seat));
+        output.writeLong(checkpoint.getKnownCards(seat));
+        output.writeBoolean(checkpoint.isFinished(seat));
+      }
+    }
+    output.flush();
+  }
+
+  /**
+   * Reads a record that was written by {@link #write(GameRecord, java.io.OutputStream)}.
+   * The stream will not be closed.
+   * @param stream Stream to read from.
+   * @return The record.
+   * @throws IOException The stream could not be read or does not contain a replay.
+   */
+  public static GameRecord read(InputStream stream) throws IOException {
+    final DataInputStream input = new DataInputStream(stream);
+    if(input.readInt() != MAGIC)
+      throw new IOException("Not a replay file");
+    final int version = input.readUnsignedByte();
+    if(version != VERSION)
+      throw new IOException("Unsupported replay version "+version);
+
+    final int seatCount = input.readUnsignedByte();
+    final List<String> names = new ArrayList<String>(seatCount);
+    for (int seat = 0; seat < seatCount; seat++)
+      names.add(input.readUTF());
+    final int deckSize = input.readUnsignedByte();
+    final List<GameCard> deck = new ArrayList<GameCard>(deckSize);
+    for (int index = 0; index < deckSize; index++)
+      deck.add(readCard(input));
+    final GameRecord record = new GameRecord(names, deck, readSeat(input, seatCount));
+
+    final int actionCount = input.readInt();
+    for (int index = 0; index < actionCount; index++) {
+      final int header = input.readUnsignedByte();
+      final int kind = header & KIND_MASK;
+      final int seat = header >>> KIND_BITS;
+      if(seat >= seatCount)
+        throw new IOException("Action of an unknown seat "+seat);
+      final int cardCount;
+      if(kind == RecordedAction.ATTACK)
+        cardCount = input.readUnsignedByte();
+      else if(kind == RecordedAction.DEFENSE)
+        cardCount = 2;
+      else cardCount = 0;
+      final byte[] cards = new byte[cardCount];
+      for (int card = 0; card < cardCount; card++)
+        cards[card] = (byte) readCard(input).getIndex();
+      record.addAction(new RecordedAction(seat, kind, cards));
+    }
+
+    final int checkpointCount = input.readInt();
+    for (int index = 0; index < checkpointCount; index++) {
+      final int position = input.readInt();
+      if(position < 0 || position > actionCount)
+        throw new IOException("Checkpoint after action "+position+" of "+actionCount);
+      final int stackSize = input.readUnsignedByte();
+      final long discardedCards = input.readLong();
+      final int firstAttackerSeat = readSeat(input, seatCount);
+      final boolean initialAttack = input.readBoolean();
+      final long[] hands = new long[seatCount];
+      final long[] knownCards = new long[seatCount];
+      final boolean[] finished = new boolean[seatCount];
+      for (int seat = 0; seat < seatCount; seat++) {
+        hands[seat] = input.readLong();
+        knownCards[seat] = input.readLong();
+        finished[seat] = input.readBoolean();
+      }
+      record.putCheckpoint(position, new GameCheckpoint(stackSize, discardedCards,
+          firstAttackerSeat, initialAttack, hands, knownCards, finished));
+    }
+    return record;
+  }
+
+  private static GameCard readCard(DataInputStream input) throws IOException {
+    final int index = input.readUnsignedByte();
+    if(index >= GameCard.CARD_COUNT)
+      throw new IOException("Unknown card index "+index);
+    return GameCard.byIndex(index);
+  }
+
+  private static int readSeat(DataInputStream input, int seatCount) throws IOException {
+    final int seat = input.readUnsignedByte();
+    if(seat >= seatCount)
+      throw new IOException("Unknown seat "+seat);
+    return seat;
+  }
+}
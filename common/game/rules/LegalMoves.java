@@ -0,0 +1,166 @@
+package common.game.rules;
+
+import common.game.CardSet;
+import common.game.GameCard;
+import common.simon.action.FinishAction;
+
+/**
+ * All moves a player may do in the current situation of a round, filled by
+ * {@link RuleChecker#generateMoves(common.game.Player, CardSet, CardSet, CardSet, LegalMoves)}.
+ * The cards are stored as bit masks like in {@link CardSet}, so an instance can be reused
+ * for any number of generations without creating objects.
+ * <ul>
+ *   <li>An attack consists of up to {@link #getAttackLimit()} cards of
+ *   {@link #getAttackCards()}. If {@link #isSameValueRequired()} is true, all cards of the
+ *   attack must have the same value.</li>
+ *   <li>A defense beats an unbeaten card with one of the cards of
+ *   {@link #getDefenseCards(int)}.</li>
+ *   <li>The finish actions are asked by {@link #canFinish(FinishAction.FinishType)}.</li>
+ * </ul>
+ * The finish actions are stricter than the validation of
+ * {@link common.game.GameProcess#tryAction(common.simon.action.GameAction, Object)}.
+ * The process accepts {@link FinishAction.FinishType#GO_TO_NEXT_ROUND} from an attacker
+ * at any time and from the defender whenever no card is unbeaten, even on an empty table.
+ * Here it is only offered if at least one card has been played in the round and the
+ * defender may only take cards that are on the table, because finishing a round without
+ * cards would never change the game.
+ */
+public final class LegalMoves {
+  private long attackCards;
+  private int attackLimit;
+  private boolean sameValueRequired;
+
+  private int unbeatenCount;
+  private final GameCard[] unbeatenCards;
+  private final long[] defenseCards;
+
+  private boolean nextRoundAllowed;
+  private boolean takeCardsAllowed;
+
+  /* Constructors */
+
+  public LegalMoves() {
+    unbeatenCards = new GameCard[RuleChecker.MAXIMUM_TABLE_CARDS];
+    defenseCards = new long[RuleChecker.MAXIMUM_TABLE_CARDS];
+  }
+
+  /* Methods */
+
+  void clear() {
+    attackCards = 0L;
+    attackLimit = 0;
+    sameValueRequired = false;
+    unbeatenCount = 0;
+    nextRoundAllowed = false;
+    takeCardsAllowed = false;
+  }
+
+  void setAttack(long cards, int limit, boolean sameValue) {
+    attackCards = limit > 0 ? cards : 0L;
+    attackLimit = cards != 0L ? Math.max(limit, 0) : 0;
+    sameValueRequired = sameValue;
+  }
+
+  void addDefense(GameCard unbeatenCard, long cards) {
+    unbeatenCards[unbeatenCount] = unbeatenCard;
+    defenseCards[unbeatenCount] = cards;
+    unbeatenCount++;
+  }
+
+  void setFinish(boolean nextRound, boolean takeCards) {
+    nextRoundAllowed = nextRound;
+    takeCardsAllowed = takeCards;
+  }
+
+  /**
+   * Returns true, if the cards are a legal attack.
+   * @param cards Cards of the attack.
+   * @return True, if the attack is legal, else false.
+   */
+  public boolean isAttack(CardSet cards) {
+    final long mask = cards.getMask();
+    if(mask == 0L || (mask & ~attackCards) != 0L || Long.bitCount(mask) > attackLimit)
+      return false;
+    return !sameValueRequired || Integer.bitCount(cards.getValueMask()) == 1;
+  }
+
+  /**
+   * Returns true, if the defense card may beat the unbeaten card.
+   * @param defenseCard Card of the defender.
+   * @param unbeatenCard Unbeaten card on the table.
+   * @return True, if the defense is legal, else false.
+   */
+  public boolean isDefense(GameCard defenseCard, GameCard unbeatenCard) {
+    for (int index = 0; index < unbeatenCount; index++) {
+      if(unbeatenCards[index] == unbeatenCard)
+        return (defenseCards[index] & (1L << defenseCard.getIndex())) != 0L;
+    }
+    return false;
+  }
+
+  /**
+   * Returns true, if the defender can beat all unbeaten cards at once, every card with
+   * another card of the hand.
+   * @return True, if all cards can be beaten, else false.
+   */
+  public boolean canBeatAll() {
+    return canBeat(0, 0L);
+  }
+
+  /* Tries the cards for the unbeaten cards from the index on, the used cards are excluded */
+  private boolean canBeat(int index, long usedCards) {
+    if(index == unbeatenCount)
+      return true;
+
+    for (long cards = defenseCards[index] & ~usedCards; cards != 0L; cards &= cards - 1L) {
+      if(canBeat(index + 1, usedCards | Long.lowestOneBit(cards)))
+        return true;
+    }
+    return false;
+  }
+
+  public boolean canFinish(FinishAction.FinishType type) {
+    if(FinishAction.FinishType.GO_TO_NEXT_ROUND.equals(type))
+      return nextRoundAllowed;
+    return FinishAction.FinishType.TAKE_CARDS.equals(type) && takeCardsAllowed;
+  }
+
+  /* Getter and Setter */
+
+  /**
+   * Returns the cards the player may attack with as mask, see {@link CardSet#getMask()}.
+   * @return The attack cards.
+   */
+  public long getAttackCards() {
+    return attackCards;
+  }
+
+  /**
+   * Returns the maximum number of cards the player may attack with.
+   * @return The number of cards.
+   */
+  public int getAttackLimit() {
+    return attackLimit;
+  }
+
+  public boolean isSameValueRequired() {
+    return sameValueRequired;
+  }
+
+  public int getUnbeatenCount() {
+    return unbeatenCount;
+  }
+
+  public GameCard getUnbeatenCard(int index) {
+    return unbeatenCards[index];
+  }
+
+  /**
+   * Returns the cards that beat an unbeaten card as mask, see {@link CardSet#getMask()}.
+   * @param index Index of the unbeaten card, see {@link #getUnbeatenCard(int)}.
+   * @return The defense cards.
+   */
+  public long getDefenseCards(int index) {
+    return defenseCards[index];
+  }
+}
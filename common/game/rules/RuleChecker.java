@@ -1,16 +1,15 @@
 package common.game.rules;
 
+import common.game.CardSet;
 import common.game.GameCard;
 import common.game.Player;
-import common.i18n.I18nSupport;
 import common.utilities.LoggingUtility;
-import common.utilities.Miscellaneous;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import static common.i18n.BundleStrings.USER_MESSAGES;
 import static common.utilities.constants.GameCardConstants.CardColour;
 import static common.utilities.constants.GameCardConstants.CardValue;
 import static common.utilities.constants.PlayerConstants.PlayerType;
@@ -26,6 +25,13 @@ import static common.utilities.constants.PlayerConstants.PlayerType;
 public abstract class RuleChecker { //TODO RuleChecker ableiten für nur 2 Spieler, mehr als 2 Spieler, 2 gegen 2 Spieler
   private static final Logger LOGGER = LoggingUtility.getLogger(RuleChecker.class.getName());
 
+  /** Maximum number of attack cards on the table in a round. */
+  public static final int MAXIMUM_TABLE_CARDS = 6;
+  /** Maximum number of attack cards on the table in the first round of a game. */
+  public static final int FIRST_ROUND_TABLE_CARDS = 5;
+
+  private static final long COLOUR_BITS = (1L << CardSet.VALUE_COUNT) - 1L;
+
   private CardColour trumpColour;
   private Player firstAttacker;
   private Player secondAttacker;
@@ -47,8 +53,17 @@ public abstract class RuleChecker { //TODO RuleChecker ableiten für nur 2 Spiel
 
   /* Methods */
 
+  /**
+   * Lets the rule checkers log only warnings. Tools that play a lot of games in a row call
+   * it, because a hand without trump is no remark worth there.
+   */
+  public static void logWarningsOnly() {
+    LOGGER.setLevel(Level.WARNING);
+  }
+
   /**
    * Returns true or false whether the move can be done or not.
+   * This method is a wrapper of {@link #tryAttackMove(Player, List, CardSet, CardSet)}.
    * @param attacker Player, who wants to make the move.
    * @param attackerCards Card to attack with.
    * @param currentAttackCards Attack cards already on the table.
@@ -57,28 +72,17 @@ public abstract class RuleChecker { //TODO RuleChecker ableiten für nur 2 Spiel
    * move can't be done.
    */
   public void doAttackMove(Player attacker, List<GameCard> attackerCards,
-                           List<GameCard> currentAttackCards, List<GameCard> currentDefenderCards)
+                           CardSet currentAttackCards, CardSet currentDefenderCards)
       throws RuleException {
-    final StringBuilder nonExistingCards = new StringBuilder();
-
-    checkAuthentication(attacker);
-    checkAttack(attacker, attackerCards, currentAttackCards);
-
-    final List<GameCard> allCards = new ArrayList<GameCard>();
-    Miscellaneous.addAllToCollection(allCards, currentAttackCards);
-    Miscellaneous.addAllToCollection(allCards, currentDefenderCards);
-
-    if(!allCardsExist(attackerCards, allCards, nonExistingCards))
-      throw new RuleException(getCardsNotOnGamePanelMessage(nonExistingCards.toString()));
-
-    for (GameCard card : attackerCards) {
-      attacker.useCard(card);
-    }
-    initAttack = false;
+    final RuleVerdict verdict =
+        tryAttackMove(attacker, attackerCards, currentAttackCards, currentDefenderCards);
+    if(!verdict.isValid())
+      throw new RuleException(verdict);
   }
 
   /**
    * Returns true or false whether the defense move can be done or not.
+   * This method is a wrapper of {@link #tryDefenseMove(Player, boolean, GameCard, GameCard)}.
    * @param defenderCard Card to defend with.
    * @param attackerCard Card that will be defended.
    * @throws RuleException Throws this exception with the specified message, if the
@@ -87,102 +91,246 @@ public abstract class RuleChecker { //TODO RuleChecker ableiten für nur 2 Spiel
   public void doDefenseMove(Player defender, boolean attackerCardsEmpty,
                             GameCard defenderCard, GameCard attackerCard)
       throws RuleException {
-    final String notHigherText = I18nSupport.getValue(USER_MESSAGES, "value.0.lower.than.1",
-        defenderCard.getCardValue().getValueName(), attackerCard.getCardValue().getValueName());
-    final String noTrumpText = I18nSupport.getValue(USER_MESSAGES, "card.0.is.not.trump",
-        defenderCard.getColourAndValue());
-    checkAuthentication(defender);
-    if(attackerCardsEmpty)
-      throw new RuleException(I18nSupport.getValue(USER_MESSAGES, "no.cards.to.defend"));
+    final RuleVerdict verdict =
+        tryDefenseMove(defender, attackerCardsEmpty, defenderCard, attackerCard);
+    if(!verdict.isValid())
+      throw new RuleException(verdict);
+  }
+
+  /**
+   * Does the attack move, if it is valid. The attacker will then play the cards.
+   * @param attacker Player, who wants to make the move.
+   * @param attackerCards Card to attack with.
+   * @param currentAttackCards Attack cards already on the table.
+   * @param currentDefenderCards Defense cards already on the table.
+   * @return The verdict of the move, the move was done if the verdict is valid.
+   */
+  public RuleVerdict tryAttackMove(Player attacker, List<GameCard> attackerCards,
+                                   CardSet currentAttackCards, CardSet currentDefenderCards) {
+    final RuleVerdict verdict =
+        checkAttackMove(attacker, attackerCards, currentAttackCards, currentDefenderCards);
+    if(verdict.isValid()) {
+      for (GameCard card : attackerCards) {
+        attacker.useCard(card);
+      }
+      initAttack = false;
+    }
+    return verdict;
+  }
 
-    checkDefense(defenderCard, attackerCard, notHigherText, noTrumpText);
+  /**
+   * Does the defense move, if it is valid. The defender will then play the card.
+   * @param defender Player, who wants to make the move.
+   * @param attackerCardsEmpty Indicates that there are no attack cards on the table.
+   * @param defenderCard Card to defend with.
+   * @param attackerCard Card that will be defended.
+   * @return The verdict of the move, the move was done if the verdict is valid.
+   */
+  public RuleVerdict tryDefenseMove(Player defender, boolean attackerCardsEmpty,
+                                    GameCard defenderCard, GameCard attackerCard) {
+    final RuleVerdict verdict =
+        checkDefenseMove(defender, attackerCardsEmpty, defenderCard, attackerCard);
+    if(verdict.isValid())
+      defender.useCard(defenderCard);
+    return verdict;
+  }
 
-    defender.useCard(defenderCard);
+  /**
+   * Validates the attack move without doing it.
+   * @param attacker Player, who wants to make the move.
+   * @param attackerCards Card to attack with.
+   * @param currentAttackCards Attack cards already on the table.
+   * @param currentDefenderCards Defense cards already on the table.
+   * @return The verdict of the move.
+   */
+  public RuleVerdict checkAttackMove(Player attacker, List<GameCard> attackerCards,
+                                     CardSet currentAttackCards, CardSet currentDefenderCards) {
+    if(!isActivePlayer(attacker))
+      return RuleVerdict.of(RuleVerdict.Code.NOT_ACTIVE_PLAYER);
+    if(attacker.equals(secondAttacker) && currentAttackCards.isEmpty())
+      return RuleVerdict.of(RuleVerdict.Code.SECOND_ATTACKER_FIRST);
+
+    return checkAttackCards(attackerCards, currentAttackCards, currentDefenderCards,
+        defender.getCards().size(), initAttack);
+  }
+
+  /**
+   * Validates the attack cards against the cards on the table without looking at the
+   * players of this rule checker. Clients that mirror the table use this method to check
+   * a move before it is sent to the server.
+   * @param attackerCards Card to attack with.
+   * @param currentAttackCards Attack cards already on the table.
+   * @param currentDefenderCards Defense cards already on the table.
+   * @param defenderCardCount Number of cards of the defender.
+   * @param firstRound Indicates the first round of the game, that has a lower limit of
+   * attack cards.
+   * @return The verdict of the move.
+   */
+  public RuleVerdict checkAttackCards(List<GameCard> attackerCards, CardSet currentAttackCards,
+                                      CardSet currentDefenderCards, int defenderCardCount,
+                                      boolean firstRound) {
+    final RuleVerdict.Code code = checkAttack(attackerCards, currentAttackCards.size(),
+        defenderCardCount, firstRound);
+    if(code != RuleVerdict.Code.VALID)
+      return RuleVerdict.of(code);
+
+    final int tableValues =
+        currentAttackCards.getValueMask() | currentDefenderCards.getValueMask();
+    if(!allCardsExist(attackerCards, tableValues))
+      return RuleVerdict.of(RuleVerdict.Code.VALUES_NOT_ON_TABLE,
+          getNonExistingCards(attackerCards, tableValues));
+
+    return RuleVerdict.VALID;
   }
 
-  private String getCardsNotOnGamePanelMessage(String nonExistingCards) {
-    return I18nSupport.getValue(USER_MESSAGES, "move.not.valid.cards.0.not.on.field",
-        nonExistingCards);
+  /**
+   * Validates the defense move without doing it.
+   * @param defender Player, who wants to make the move.
+   * @param attackerCardsEmpty Indicates that there are no attack cards on the table.
+   * @param defenderCard Card to defend with.
+   * @param attackerCard Card that will be defended.
+   * @return The verdict of the move.
+   */
+  public RuleVerdict checkDefenseMove(Player defender, boolean attackerCardsEmpty,
+                                      GameCard defenderCard, GameCard attackerCard) {
+    if(!isActivePlayer(defender))
+      return RuleVerdict.of(RuleVerdict.Code.NOT_ACTIVE_PLAYER);
+    if(attackerCardsEmpty)
+      return RuleVerdict.of(RuleVerdict.Code.NO_CARDS_TO_DEFEND);
+
+    return checkDefenseCards(defenderCard, attackerCard);
   }
 
-  private boolean allCardsExist(List<GameCard> attackerCards, List<GameCard> currentCards,
-                                StringBuilder nonExistingCards) {
-    boolean allCardsExist = true;
+  /**
+   * Validates whether the defender card beats the attacker card with the trump colour of
+   * this rule checker, see {@link #checkAttackCards(List, CardSet, CardSet, int, boolean)}.
+   * @param defenderCard Card to defend with.
+   * @param attackerCard Card that will be defended.
+   * @return The verdict of the move.
+   */
+  public RuleVerdict checkDefenseCards(GameCard defenderCard, GameCard attackerCard) {
+    final RuleVerdict.Code code = checkDefense(defenderCard, attackerCard);
+    if(code != RuleVerdict.Code.VALID)
+      return RuleVerdict.of(code, defenderCard, attackerCard);
 
-    if(currentCards.isEmpty())
-      return true;
+    return RuleVerdict.VALID;
+  }
 
-    for (GameCard attackerCard : attackerCards) {
-      if(!cardValueExists(attackerCard.getCardValue(), currentCards)) {
-        nonExistingCards.append("<p/>").append(attackerCard.getColourAndValue()).append(',');
-        allCardsExist = false;
+  /**
+   * Generates all moves the player may do on the current table, see {@link LegalMoves}.
+   * The moves follow the same rules as {@link #checkAttackMove(Player, List, CardSet, CardSet)}
+   * and {@link #checkDefenseMove(Player, boolean, GameCard, GameCard)}. Nothing will be
+   * changed and no object will be created, the masks of the cards are computed with bit
+   * operations.
+   * @param player Player to generate the moves for.
+   * @param currentAttackCards Attack cards already on the table.
+   * @param currentDefenderCards Defense cards already on the table.
+   * @param unbeatenCards Attack cards on the table without defense card.
+   * @param moves Object to write the moves into, its old moves will be cleared.
+   */
+  public void generateMoves(Player player, CardSet currentAttackCards,
+                            CardSet currentDefenderCards, CardSet unbeatenCards,
+                            LegalMoves moves) {
+    moves.clear();
+    if(!isActivePlayer(player))
+      return;
+
+    final long hand = player.getCards().getMask();
+    final int attackCount = currentAttackCards.size();
+    if(player.equals(defender)) {
+      for (long cards = unbeatenCards.getMask(); cards != 0L; cards &= cards - 1L) {
+        final GameCard unbeatenCard = GameCard.byIndex(Long.numberOfTrailingZeros(cards));
+        moves.addDefense(unbeatenCard, hand & getBeatingCards(unbeatenCard));
+      }
+      moves.setFinish(attackCount > 0 && unbeatenCards.isEmpty(), attackCount > 0);
+    } else {
+      if(!player.equals(secondAttacker) || attackCount > 0) {
+        final int tableLimit =
+            (initAttack ? FIRST_ROUND_TABLE_CARDS : MAXIMUM_TABLE_CARDS) - attackCount;
+        final int defenderLimit = defender != null ? defender.getCards().size() : 0;
+        final int tableValues =
+            currentAttackCards.getValueMask() | currentDefenderCards.getValueMask();
+        final long cards = tableValues == 0 ? hand : hand & CardSet.getCardsOfValues(tableValues);
+        moves.setAttack(cards, Math.min(tableLimit, defenderLimit), attackCount == 0);
       }
+      moves.setFinish(attackCount > 0, false);
     }
+  }
 
-    if(nonExistingCards.length() != 0)
-      nonExistingCards.deleteCharAt(nonExistingCards.length() - 1);
-
-    return allCardsExist;
+  /* Returns the mask of the higher cards of the same colour and, if the card is not a trump,
+   * of all trumps */
+  private long getBeatingCards(GameCard card) {
+    final int colourShift = card.getCardColour().ordinal() * CardSet.VALUE_COUNT;
+    final long higherValues = (COLOUR_BITS << (card.getCardValue().ordinal() + 1)) & COLOUR_BITS;
+    long cards = higherValues << colourShift;
+    if(trumpColour != null && !card.getCardColour().equals(trumpColour))
+      cards |= COLOUR_BITS << (trumpColour.ordinal() * CardSet.VALUE_COUNT);
+    return cards;
   }
 
-  private boolean cardValueExists(CardValue value, List<GameCard> cards) {
-    if(value == null)
-      return false;
+  /* The values on the table are passed as value mask of a CardSet. If there are no cards
+   * on the table, every card can be played. */
+  private boolean allCardsExist(List<GameCard> attackerCards, int tableValues) {
+    if(tableValues == 0)
+      return true;
 
-    boolean exists = false;
-    for (GameCard card : cards) {
-      if(card != null)
-        exists = exists || value.equals(card.getCardValue());
-    }
+    int attackValues = 0;
+    for (GameCard attackerCard : attackerCards)
+      attackValues |= CardSet.valueBit(attackerCard.getCardValue());
 
-    return exists;
+    return (attackValues & ~tableValues) == 0;
   }
 
-  private void checkAttack(Player wantsToAttack, List<GameCard> attackCards,
-                           List<GameCard> currentAttackCards)
-    throws RuleException {
-    final int newAttackCardsCount = currentAttackCards.size() + attackCards.size();
-    if(wantsToAttack.equals(secondAttacker) && currentAttackCards.isEmpty())
-      throw new RuleException(I18nSupport.getValue(USER_MESSAGES,"second.attacker.not.allowed"));
-    else if(initAttack && (newAttackCardsCount > 5))
-      throw new RuleException(I18nSupport.getValue(USER_MESSAGES,"first.attack.five.card.restriction"));
-    else if(newAttackCardsCount > 6)
-      throw new RuleException(I18nSupport.getValue(USER_MESSAGES,"not.more.than.six.cards"));
-    else if(attackCards.size() > defender.getCards().size())
-      throw new RuleException(I18nSupport.getValue(USER_MESSAGES, "defender.too.few.cards"));
-    else if(currentAttackCards.isEmpty()) {
+  private List<GameCard> getNonExistingCards(List<GameCard> attackerCards, int tableValues) {
+    final List<GameCard> nonExistingCards = new ArrayList<GameCard>(attackerCards.size());
+    for (GameCard attackerCard : attackerCards) {
+      if((CardSet.valueBit(attackerCard.getCardValue()) & tableValues) == 0)
+        nonExistingCards.add(attackerCard);
+    }
+    return nonExistingCards;
+  }
+
+  private RuleVerdict.Code checkAttack(List<GameCard> attackCards, int currentAttackCount,
+                                       int defenderCardCount, boolean firstRound) {
+    final int newAttackCardsCount = currentAttackCount + attackCards.size();
+    if(firstRound && (newAttackCardsCount > FIRST_ROUND_TABLE_CARDS))
+      return RuleVerdict.Code.FIRST_ATTACK_LIMIT;
+    else if(newAttackCardsCount > MAXIMUM_TABLE_CARDS)
+      return RuleVerdict.Code.ATTACK_LIMIT;
+    else if(attackCards.size() > defenderCardCount)
+      return RuleVerdict.Code.DEFENDER_TOO_FEW_CARDS;
+    else if(currentAttackCount == 0) {
       final CardValue currentValue = attackCards.get(0).getCardValue();
       for (GameCard attackCard : attackCards) {
         if (!currentValue.equals(attackCard.getCardValue()))
-          throw new RuleException(I18nSupport.getValue(USER_MESSAGES, "cards.not.same.value"));
+          return RuleVerdict.Code.DIFFERENT_VALUES;
       }
     }
+    return RuleVerdict.Code.VALID;
   }
 
-  private void checkAuthentication(Player player) throws RuleException {
-    if(!player.equals(firstAttacker) && !player.equals(secondAttacker) && !player.equals(defender))
-      throw new RuleException(I18nSupport.getValue(USER_MESSAGES,"only.attacker.and.defender.allowed"));
+  private boolean isActivePlayer(Player player) {
+    return player.equals(firstAttacker) || player.equals(secondAttacker) ||
+        player.equals(defender);
   }
 
-  private void checkDefense(GameCard defenderCard, GameCard attackerCard,
-                            String notHigherText, String noTrumpText) throws RuleException {
+  private RuleVerdict.Code checkDefense(GameCard defenderCard, GameCard attackerCard) {
     if(defenderCard.getCardColour().equals(trumpColour)) {
       if (attackerCard.getCardColour().equals(trumpColour) && defenderCard.getCardValue().compareTo(attackerCard.getCardValue()) <= 0)
-        throw new RuleException(notHigherText);
+        return RuleVerdict.Code.VALUE_TOO_LOW;
     } else {
       if(attackerCard.getCardColour().equals(trumpColour))
-        throw new RuleException(noTrumpText);
+        return RuleVerdict.Code.NOT_TRUMP;
       else {
         if(defenderCard.getCardColour().equals(attackerCard.getCardColour())) {
           if(defenderCard.getCardValue().compareTo(attackerCard.getCardValue()) <= 0)
-            throw new RuleException(notHigherText);
+            return RuleVerdict.Code.VALUE_TOO_LOW;
         } else {
-          throw new RuleException(I18nSupport.getValue(USER_MESSAGES,
-              "card.0.neither.trump.nor.colour.1",defenderCard.getColourAndValue(),
-              attackerCard.getCardColour().getName()));
+          return RuleVerdict.Code.WRONG_COLOUR;
         }
       }
     }
+    return RuleVerdict.Code.VALID;
   }
 
   /**
@@ -218,7 +366,9 @@ public abstract class RuleChecker { //TODO RuleChecker ableiten für nur 2 Spiel
    * the second attacker. If {@code nextPlayer}s player type is
    * {@link common.utilities.constants.PlayerConstants.PlayerType#NOT_LOSER}
    * the next player who has not this type will be chosen as first attacker.
-   * The method returns the player who became the first attacker.
+   * The method returns the player who became the first attacker. The players that were
+   * active before and are not active anymore get the type
+   * {@link common.utilities.constants.PlayerConstants.PlayerType#DEFAULT}.
    * @param nextPlayer The player who should be the first attacker
    * @return Returns the player who became the first attacker. If no
    * attacker could be found, null will be returned.
@@ -230,6 +380,9 @@ public abstract class RuleChecker { //TODO RuleChecker ableiten für nur 2 Spiel
       final Player defender = firstAttacker.getLeftPlayer();
       final Player secondAttacker = defender.getLeftPlayer();
 
+      resetPlayerType(this.firstAttacker);
+      resetPlayerType(this.secondAttacker);
+      resetPlayerType(this.defender);
       setFirstAttacker(firstAttacker);
       if(!secondAttacker.equals(firstAttacker))
         setSecondAttacker(secondAttacker);
@@ -240,6 +393,11 @@ public abstract class RuleChecker { //TODO RuleChecker ableiten für nur 2 Spiel
     return firstAttacker;
   }
 
+  private void resetPlayerType(Player player) {
+    if(player != null && !PlayerType.NOT_LOSER.equals(player.getType()))
+      player.setType(PlayerType.DEFAULT);
+  }
+
   private Player determineFirstAttacker(Player player) {
     Player firstAttacker = player;
     if(player.isAlone())
@@ -305,5 +463,18 @@ public abstract class RuleChecker { //TODO RuleChecker ableiten für nur 2 Spiel
     this.trumpColour = trumpColour;
   }
 
+  /**
+   * Returns true, if no attack has been made in the game yet. The first attack of a game
+   * may have less cards.
+   * @return True, if the next attack is the first of the game.
+   */
+  public boolean isInitialAttack() {
+    return initAttack;
+  }
+
+  public void setInitialAttack(boolean initialAttack) {
+    this.initAttack = initialAttack;
+  }
+
   /* Inner Classes */
 }
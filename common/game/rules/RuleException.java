@@ -9,8 +9,26 @@ package common.game.rules;
  * been set to inform the client why the rule was broken.
  */
 public class RuleException extends Exception {
+  private final RuleVerdict verdict;
+
   /* Constructors */
   public RuleException(String message) {
     super(message);
+    verdict = null;
+  }
+
+  public RuleException(RuleVerdict verdict) {
+    super(verdict.getMessage());
+    this.verdict = verdict;
+  }
+
+  /* Getter and Setter */
+
+  /**
+   * Returns the verdict that caused this exception.
+   * @return The verdict or null, if the exception was created with a message.
+   */
+  public RuleVerdict getVerdict() {
+    return verdict;
   }
 }
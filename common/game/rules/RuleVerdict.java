@@ -0,0 +1,149 @@
+package common.game.rules;
+
+import common.game.GameCard;
+import common.i18n.I18nSupport;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static common.i18n.BundleStrings.USER_MESSAGES;
+
+/**
+ * Result of a rule validation. A verdict consists of a code and the cards that broke the
+ * rule, the message for the client will only be formatted if {@link #getMessage()} is
+ * called. Verdicts without cards are shared, so a valid move does not create any object.
+ */
+public final class RuleVerdict {
+  public enum Code {
+    VALID(null),
+    NOT_ACTIVE_PLAYER("only.attacker.and.defender.allowed"),
+    SECOND_ATTACKER_FIRST("second.attacker.not.allowed"),
+    FIRST_ATTACK_LIMIT("first.attack.five.card.restriction"),
+    ATTACK_LIMIT("not.more.than.six.cards"),
+    DEFENDER_TOO_FEW_CARDS("defender.too.few.cards"),
+    DIFFERENT_VALUES("cards.not.same.value"),
+    VALUES_NOT_ON_TABLE("move.not.valid.cards.0.not.on.field"),
+    NO_CARDS_TO_DEFEND("no.cards.to.defend"),
+    VALUE_TOO_LOW("value.0.lower.than.1"),
+    NOT_TRUMP("card.0.is.not.trump"),
+    WRONG_COLOUR("card.0.neither.trump.nor.colour.1"),
+    CARDS_TO_BEAT("cards.to.beat");
+
+    private final String messageKey;
+
+    Code(String messageKey) {
+      this.messageKey = messageKey;
+    }
+
+    public String getMessageKey() {
+      return messageKey;
+    }
+  }
+
+  private static final Map<Code, RuleVerdict> SHARED_VERDICTS =
+      new EnumMap<Code, RuleVerdict>(Code.class);
+
+  static {
+    for (Code code : Code.values())
+      SHARED_VERDICTS.put(code, new RuleVerdict(code, null, null, null));
+  }
+
+  public static final RuleVerdict VALID = SHARED_VERDICTS.get(Code.VALID);
+
+  private final Code code;
+  private final GameCard card;
+  private final GameCard otherCard;
+  private final List<GameCard> cards;
+
+  /* Constructors */
+
+  private RuleVerdict(Code code, GameCard card, GameCard otherCard, List<GameCard> cards) {
+    this.code = code;
+    this.card = card;
+    this.otherCard = otherCard;
+    this.cards = cards;
+  }
+
+  /* Methods */
+
+  /**
+   * Returns the shared verdict of the code.
+   * @param code Code of the verdict.
+   * @return Verdict without cards.
+   */
+  public static RuleVerdict of(Code code) {
+    return SHARED_VERDICTS.get(code);
+  }
+
+  /**
+   * Returns a verdict for a defense that broke a rule.
+   * @param code Code of the verdict.
+   * @param defenderCard Card that should defend.
+   * @param attackerCard Card that should be defended.
+   * @return The verdict.
+   */
+  public static RuleVerdict of(Code code, GameCard defenderCard, GameCard attackerCard) {
+    return new RuleVerdict(code, defenderCard, attackerCard, null);
+  }
+
+  /**
+   * Returns a verdict for an attack with cards that broke a rule.
+   * @param code Code of the verdict.
+   * @param cards Cards that broke the rule.
+   * @return The verdict.
+   */
+  public static RuleVerdict of(Code code, List<GameCard> cards) {
+    return new RuleVerdict(code, null, null, cards);
+  }
+
+  public boolean isValid() {
+    return Code.VALID.equals(code);
+  }
+
+  /**
+   * Formats the message for the client that explains which rule was broken.
+   * @return The localised message or null, if the verdict is valid.
+   */
+  public String getMessage() {
+    if(Code.VALID.equals(code))
+      return null;
+
+    final String key = code.getMessageKey();
+    if(Code.VALUES_NOT_ON_TABLE.equals(code)) {
+      return I18nSupport.getValue(USER_MESSAGES, key, getCardsText());
+    } else if(Code.VALUE_TOO_LOW.equals(code)) {
+      return I18nSupport.getValue(USER_MESSAGES, key, card.getCardValue().getValueName(),
+          otherCard.getCardValue().getValueName());
+    } else if(Code.NOT_TRUMP.equals(code)) {
+      return I18nSupport.getValue(USER_MESSAGES, key, card.getColourAndValue());
+    } else if(Code.WRONG_COLOUR.equals(code)) {
+      return I18nSupport.getValue(USER_MESSAGES, key, card.getColourAndValue(),
+          otherCard.getCardColour().getName());
+    } else return I18nSupport.getValue(USER_MESSAGES, key);
+  }
+
+  private String getCardsText() {
+    final StringBuilder text = new StringBuilder();
+    if(cards != null) {
+      for (GameCard gameCard : cards)
+        text.append("<p/>").append(gameCard.getColourAndValue()).append(',');
+    }
+
+    if(text.length() != 0)
+      text.deleteCharAt(text.length() - 1);
+
+    return text.toString();
+  }
+
+  @SuppressWarnings("ALL")
+  public String toString() {
+    return "RuleVerdict = {code=" + code + '}';
+  }
+
+  /* Getter and Setter */
+
+  public Code getCode() {
+    return code;
+  }
+}
@@ -0,0 +1,103 @@
+package common.game.simulation;
+
+import common.dto.DTOCard;
+import common.dto.DTOClient;
+import common.game.CardSet;
+import common.game.GameCard;
+import common.game.GameProcess;
+import common.game.rules.LegalMoves;
+import common.simon.action.CardAction;
+import common.simon.action.FinishAction;
+import common.simon.action.GameAction;
+import common.utilities.Converter;
+import common.utilities.constants.PlayerConstants;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static common.utilities.constants.GameCardConstants.CardColour;
+
+/**
+ * Base class of the strategies that play one card per action. The subclasses only choose
+ * the card, this class asks the process for the legal moves and creates the action.
+ */
+public abstract class CardStrategy implements MoveStrategy {
+  /* Methods */
+
+  public GameAction chooseAction(GameProcess<Integer> process, Integer playerID,
+                                 DTOClient executor, Random random) {
+    final CardColour trumpColour = process.getStack().getTrumpCard().getCardColour();
+    final LegalMoves moves = new LegalMoves();
+    process.generateMoves(playerID, moves);
+
+    if(PlayerConstants.PlayerType.DEFENDER.equals(process.getPlayerType(playerID))) {
+      if(moves.getUnbeatenCount() == 0)
+        return null;
+      final GameCard attackerCard = getFirstUnbeatenCard(process, moves);
+      final int index = indexOf(moves, attackerCard);
+      final GameCard card = chooseDefenseCard(new CardSet(moves.getDefenseCards(index)),
+          attackerCard, trumpColour, random);
+      return card != null ? createAction(CardAction.CardActionType.DEFENSE,
+          attackerCard, card, executor) : null;
+    } else {
+      final GameCard card = chooseAttackCard(new CardSet(moves.getAttackCards()),
+          moves.canFinish(FinishAction.FinishType.GO_TO_NEXT_ROUND), trumpColour, random);
+      return card != null ? createAction(CardAction.CardActionType.ATTACK,
+          card, null, executor) : null;
+    }
+  }
+
+  /**
+   * Chooses a card to attack with.
+   * @param playableCards Cards of the attacker that may be played.
+   * @param mayPass True, if the attacker may pass instead of playing a card.
+   * @param trumpColour Trump colour of the game.
+   * @param random Random generator of the game.
+   * @return The card or null, if the attacker passes.
+   */
+  protected abstract GameCard chooseAttackCard(CardSet playableCards, boolean mayPass,
+                                               CardColour trumpColour, Random random);
+
+  /**
+   * Chooses a card to beat the attacker card with.
+   * @param beatingCards Cards of the defender that beat the attacker card.
+   * @param attackerCard Card to beat.
+   * @param trumpColour Trump colour of the game.
+   * @param random Random generator of the game.
+   * @return The card or null, if the defender takes the cards.
+   */
+  protected abstract GameCard chooseDefenseCard(CardSet beatingCards, GameCard attackerCard,
+                                                CardColour trumpColour, Random random);
+
+  /* The defender beats the cards in the order they were played */
+  private static GameCard getFirstUnbeatenCard(GameProcess<Integer> process,
+                                               LegalMoves moves) {
+    final List<GameCard> attackCards = process.getAttackCards();
+    final List<GameCard> defenseCards = process.getDefenseCards();
+    for (int index = 0; index < attackCards.size(); index++) {
+      if(defenseCards.get(index) == null)
+        return attackCards.get(index);
+    }
+    return moves.getUnbeatenCard(0);
+  }
+
+  private static int indexOf(LegalMoves moves, GameCard unbeatenCard) {
+    for (int index = 0; index < moves.getUnbeatenCount(); index++) {
+      if(moves.getUnbeatenCard(index) == unbeatenCard)
+        return index;
+    }
+    return 0;
+  }
+
+  private static GameAction createAction(CardAction.CardActionType type, GameCard attackerCard,
+                                         GameCard defenderCard, DTOClient executor) {
+    final List<DTOCard> attackCards = new ArrayList<DTOCard>(1);
+    final List<DTOCard> defenderCards = new ArrayList<DTOCard>(1);
+    attackCards.add(Converter.toDTO(attackerCard));
+    if(defenderCard != null)
+      defenderCards.add(Converter.toDTO(defenderCard));
+    return new CardAction(type, attackCards, defenderCards, executor,
+        GameAction.ActionType.CARD_ACTION);
+  }
+}
@@ -0,0 +1,44 @@
+package common.game.simulation;
+
+import common.game.CardSet;
+import common.game.GameCard;
+
+import java.util.Random;
+
+import static common.utilities.constants.GameCardConstants.CardColour;
+
+/**
+ * Always plays the playable card with the lowest value and saves the trumps as long as
+ * possible. It takes the cards only if it can not beat them.
+ */
+public class LowestCardStrategy extends CardStrategy {
+  /* Methods */
+
+  protected GameCard chooseAttackCard(CardSet playableCards, boolean mayPass,
+                                      CardColour trumpColour, Random random) {
+    return getLowestCard(playableCards, trumpColour);
+  }
+
+  protected GameCard chooseDefenseCard(CardSet beatingCards, GameCard attackerCard,
+                                       CardColour trumpColour, Random random) {
+    return getLowestCard(beatingCards, trumpColour);
+  }
+
+  /* Returns the card with the lowest value, where every trump is higher than the other cards */
+  private GameCard getLowestCard(CardSet cards, CardColour trumpColour) {
+    GameCard lowest = null;
+    for (GameCard card : cards) {
+      if(lowest == null || isLower(card, lowest, trumpColour))
+        lowest = card;
+    }
+    return lowest;
+  }
+
+  private boolean isLower(GameCard card, GameCard other, CardColour trumpColour) {
+    final boolean trump = card.getCardColour().equals(trumpColour);
+    final boolean otherTrump = other.getCardColour().equals(trumpColour);
+    if(trump != otherTrump)
+      return otherTrump;
+    return card.getCardValue().compareTo(other.getCardValue()) < 0;
+  }
+}
@@ -0,0 +1,28 @@
+package common.game.simulation;
+
+import common.dto.DTOClient;
+import common.game.GameProcess;
+import common.simon.action.GameAction;
+
+import java.util.Random;
+
+/**
+ * Chooses the moves of a player in a simulated game. A strategy will be used by several
+ * games at the same time, so implementations must not keep a state of a game. Every
+ * random decision has to be made with the surpassed random generator, otherwise the
+ * simulated games can not be reproduced.
+ */
+public interface MoveStrategy {
+  /**
+   * Chooses the next action of an active player. If the action breaks a rule, the
+   * simulator handles it like a returned null value.
+   * @param process Process of the simulated game.
+   * @param playerID Identifier of the player in the process.
+   * @param executor Client object of the player to create the action with.
+   * @param random Random generator of the game.
+   * @return The action of the player or null, if the player passes. An attacker will then
+   * be ready for the next round and a defender will take the cards.
+   */
+  GameAction chooseAction(GameProcess<Integer> process, Integer playerID, DTOClient executor,
+                          Random random);
+}
@@ -0,0 +1,36 @@
+package common.game.simulation;
+
+import common.game.CardSet;
+import common.game.GameCard;
+
+import java.util.List;
+import java.util.Random;
+
+import static common.utilities.constants.GameCardConstants.CardColour;
+
+/**
+ * Plays a random playable card. Passing is chosen as often as each of the playable cards,
+ * but an attacker never passes on an empty table.
+ */
+public class RandomStrategy extends CardStrategy {
+  /* Methods */
+
+  protected GameCard chooseAttackCard(CardSet playableCards, boolean mayPass,
+                                      CardColour trumpColour, Random random) {
+    return choose(playableCards.toList(), mayPass, random);
+  }
+
+  protected GameCard chooseDefenseCard(CardSet beatingCards, GameCard attackerCard,
+                                       CardColour trumpColour, Random random) {
+    return choose(beatingCards.toList(), true, random);
+  }
+
+  private GameCard choose(List<GameCard> cards, boolean mayPass, Random random) {
+    final int choices = cards.size() + (mayPass ? 1 : 0);
+    if(choices == 0)
+      return null;
+
+    final int choice = random.nextInt(choices);
+    return choice < cards.size() ? cards.get(choice) : null;
+  }
+}
@@ -0,0 +1,100 @@
+package common.game.simulation;
+
+/**
+ * Aggregated outcome of simulated games. The results of parallel simulations can be
+ * merged, so every task of a simulation collects its own result.
+ */
+public class SimulationResult {
+  private final long[] losses;
+  private long games;
+  private long abortedGames;
+  private long rounds;
+  private long elapsedNanos;
+
+  /* Constructors */
+
+  public SimulationResult(int seats) {
+    losses = new long[seats];
+  }
+
+  /* Methods */
+
+  void addGame(int loserSeat, int gameRounds) {
+    games++;
+    rounds += gameRounds;
+    if(loserSeat >= 0)
+      losses[loserSeat]++;
+  }
+
+  void addAbortedGame(int gameRounds) {
+    games++;
+    abortedGames++;
+    rounds += gameRounds;
+  }
+
+  void merge(SimulationResult result) {
+    games += result.games;
+    abortedGames += result.abortedGames;
+    rounds += result.rounds;
+    for (int seat = 0; seat < losses.length; seat++)
+      losses[seat] += result.losses[seat];
+  }
+
+  public double getGamesPerSecond() {
+    if(elapsedNanos == 0L)
+      return 0.0;
+    return games * 1e9 / elapsedNanos;
+  }
+
+  public double getAverageRounds() {
+    if(games == 0L)
+      return 0.0;
+    return (double) rounds / games;
+  }
+
+  /**
+   * Returns the share of the finished games the player of a seat lost.
+   * @param seat Seat of the player.
+   * @return Rate between 0 and 1.
+   */
+  public double getLossRate(int seat) {
+    final long finishedGames = games - abortedGames;
+    if(finishedGames == 0L)
+      return 0.0;
+    return (double) losses[seat] / finishedGames;
+  }
+
+  @SuppressWarnings("ALL")
+  public String toString() {
+    final StringBuilder builder = new StringBuilder();
+    builder.append(String.format("%d games in %.2f s, %.0f games/s, %.1f rounds per game, " +
+        "%d aborted%n", games, elapsedNanos / 1e9, getGamesPerSecond(), getAverageRounds(),
+        abortedGames));
+    for (int seat = 0; seat < losses.length; seat++)
+      builder.append(String.format("seat %d lost %d games (%.1f%%)%n", seat, losses[seat],
+          getLossRate(seat) * 100.0));
+    return builder.toString();
+  }
+
+  /* Getter and Setter */
+
+  public long getGames() {
+    return games;
+  }
+
+  public long getAbortedGames() {
+    return abortedGames;
+  }
+
+  public long getLosses(int seat) {
+    return losses[seat];
+  }
+
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  void setElapsedNanos(long elapsedNanos) {
+    this.elapsedNanos = elapsedNanos;
+  }
+}
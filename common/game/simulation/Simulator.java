@@ -0,0 +1,235 @@
+package common.game.simulation;
+
+import common.dto.DTOClient;
+import common.game.GameProcess;
+import common.game.rules.RuleChecker;
+import common.simon.action.FinishAction;
+import common.simon.action.GameAction;
+import common.utilities.LoggingUtility;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.logging.Logger;
+
+import static common.utilities.constants.PlayerConstants.PlayerType;
+
+/**
+ * Plays complete games without server, clients or gui. Every seat of the table is played
+ * by a {@link MoveStrategy}. The games are spread over the cores by a fork join pool.
+ * Each game has its own random generator, which is seeded from the seed of the simulator
+ * and the number of the game. Hence a simulation has always the same outcome, no matter
+ * how the games are distributed over the threads.
+ */
+public class Simulator {
+  private static final Logger LOGGER = LoggingUtility.getLogger(Simulator.class.getName());
+
+  /** A game that takes more rounds will be aborted. */
+  private static final int MAXIMUM_ROUNDS = 1000;
+  /** A round that takes more actions will abort the game. */
+  private static final int MAXIMUM_ROUND_ACTIONS = 200;
+  private static final int GAMES_PER_TASK = 256;
+  private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+
+  private static final CardStrategy FALLBACK_STRATEGY = new LowestCardStrategy();
+  private static final PlayerType[] ATTACKER_TYPES =
+      {PlayerType.FIRST_ATTACKER, PlayerType.SECOND_ATTACKER};
+
+  private final List<MoveStrategy> strategies;
+  private final int cardsPerColour;
+  private final long seed;
+
+  /* Constructors */
+
+  /**
+   * Creates a simulator for games with a player for each strategy.
+   * @param strategies Strategy of each seat, the list must contain at least two strategies.
+   * @param cardsPerColour Number of cards per colour of the stack.
+   * @param seed Seed of the simulation.
+   */
+  public Simulator(List<MoveStrategy> strategies, int cardsPerColour, long seed) {
+    if(strategies.size() < 2)
+      throw new IllegalArgumentException("A game needs at least two players!");
+    this.strategies = new ArrayList<MoveStrategy>(strategies);
+    this.cardsPerColour = cardsPerColour;
+    this.seed = seed;
+  }
+
+  /* Methods */
+
+  /**
+   * Runs the simulation with the number of the available processors as parallelism.
+   * Usage: {@code Simulator [games [players [cardsPerColour [seed]]]]}. The first seat
+   * plays with the {@link LowestCardStrategy}, the other seats with the
+   * {@link RandomStrategy}.
+   * @param args Command line arguments.
+   */
+  public static void main(String[] args) {
+    final int games = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+    final int players = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+    final int cardsPerColour = args.length > 2 ? Integer.parseInt(args[2]) : 9;
+    final long seed = args.length > 3 ? Long.parseLong(args[3]) : 0L;
+
+    RuleChecker.logWarningsOnly();
+
+    final List<MoveStrategy> strategies = new ArrayList<MoveStrategy>(players);
+    strategies.add(new LowestCardStrategy());
+    for (int seat = 1; seat < players; seat++)
+      strategies.add(new RandomStrategy());
+
+    final SimulationResult result = new Simulator(strategies, cardsPerColour, seed)
+        .simulate(games, Runtime.getRuntime().availableProcessors());
+    System.out.print(result);
+  }
+
+  /**
+   * Plays the games in a pool with the specified parallelism.
+   * @param games Number of games.
+   * @param parallelism Number of threads.
+   * @return The outcome of all games.
+   */
+  public SimulationResult simulate(int games, int parallelism) {
+    final ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      final long start = System.nanoTime();
+      final SimulationResult result = pool.invoke(new SimulationTask(0, games));
+      result.setElapsedNanos(System.nanoTime() - start);
+      LOGGER.info("Simulated "+games+" games with "+parallelism+" threads");
+      return result;
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Plays a single game. The course of the game only depends on the seed of the
+   * simulator and the number of the game.
+   * @param gameIndex Number of the game.
+   * @param result Result to add the outcome of the game to.
+   */
+  void playGame(int gameIndex, SimulationResult result) {
+    final Random random = new Random(seed + gameIndex * SEED_INCREMENT);
+    final GameProcess<Integer> process = new GameProcess<Integer>();
+    final DTOClient[] executors = new DTOClient[strategies.size()];
+    for (int seat = 0; seat < strategies.size(); seat++) {
+      process.setPlayer(seat);
+      executors[seat] = new DTOClient("seat " + seat); //NON-NLS
+    }
+
+    process.initialiseNewGame(cardsPerColour, random);
+    int rounds = 0;
+    while(process.isGameInProcess() && rounds < MAXIMUM_ROUNDS) {
+      if(!playRound(process, executors, random))
+        break;
+      process.goToNextRound();
+      rounds++;
+    }
+
+    if(process.isGameInProcess())
+      result.addAbortedGame(rounds);
+    else result.addGame(findPlayer(process, PlayerType.LOSER), rounds);
+  }
+
+  /**
+   * Lets the attackers and the defender act until the round is finished. Every pass
+   * either plays a card or makes a player finish, so the round ends after some passes.
+   * Returns false, if the round could not be finished.
+   */
+  private boolean playRound(GameProcess<Integer> process, DTOClient[] executors,
+                            Random random) {
+    final boolean[] finishedSeats = new boolean[strategies.size()];
+    int actions = 0;
+    while(!process.readyForNextRound()) {
+      if(++actions > MAXIMUM_ROUND_ACTIONS)
+        return false;
+
+      for (PlayerType type : ATTACKER_TYPES) {
+        final int seat = findPlayer(process, type);
+        if(seat >= 0 && !finishedSeats[seat]) {
+          if(!doAction(process, seat, executors[seat], random)) {
+            if(process.getAttackCards().isEmpty() && PlayerType.FIRST_ATTACKER.equals(type))
+              attackWithFirstCard(process, seat, executors[seat]);
+            else {
+              finish(process, seat, executors[seat], FinishAction.FinishType.GO_TO_NEXT_ROUND);
+              finishedSeats[seat] = true;
+            }
+          }
+        }
+      }
+
+      final int defender = findPlayer(process, PlayerType.DEFENDER);
+      if(process.getDefenseCards().contains(null)) {
+        if(!doAction(process, defender, executors[defender], random))
+          finish(process, defender, executors[defender], FinishAction.FinishType.TAKE_CARDS);
+      } else if(process.attackersReady()) {
+        finish(process, defender, executors[defender], FinishAction.FinishType.GO_TO_NEXT_ROUND);
+      }
+    }
+    return true;
+  }
+
+  /* Returns true, if the strategy chose a valid action */
+  private boolean doAction(GameProcess<Integer> process, int seat, DTOClient executor,
+                           Random random) {
+    executor.playerType = process.getPlayerType(seat);
+    final GameAction action =
+        strategies.get(seat).chooseAction(process, seat, executor, random);
+    return action != null && process.tryAction(action, seat).isValid();
+  }
+
+  /* The first attacker must not pass on an empty table */
+  private void attackWithFirstCard(GameProcess<Integer> process, int seat,
+                                   DTOClient executor) {
+    executor.playerType = process.getPlayerType(seat);
+    final GameAction action = FALLBACK_STRATEGY.chooseAction(process, seat, executor, null);
+    if(action != null)
+      process.tryAction(action, seat);
+  }
+
+  private void finish(GameProcess<Integer> process, int seat, DTOClient executor,
+                      FinishAction.FinishType finishType) {
+    executor.playerType = process.getPlayerType(seat);
+    process.tryAction(new FinishAction(finishType, executor,
+        GameAction.ActionType.ROUND_REQUEST), seat);
+  }
+
+  /* Returns the seat of the player with the type or -1, if there is no such player */
+  private int findPlayer(GameProcess<Integer> process, PlayerType type) {
+    for (int seat = 0; seat < strategies.size(); seat++) {
+      if(type.equals(process.getPlayerType(seat)))
+        return seat;
+    }
+    return -1;
+  }
+
+  /* Inner Classes */
+
+  private class SimulationTask extends RecursiveTask<SimulationResult> {
+    private final int fromGame;
+    private final int toGame;
+
+    private SimulationTask(int fromGame, int toGame) {
+      this.fromGame = fromGame;
+      this.toGame = toGame;
+    }
+
+    protected SimulationResult compute() {
+      if(toGame - fromGame <= GAMES_PER_TASK) {
+        final SimulationResult result = new SimulationResult(strategies.size());
+        for (int gameIndex = fromGame; gameIndex < toGame; gameIndex++)
+          playGame(gameIndex, result);
+        return result;
+      }
+
+      final int middle = (fromGame + toGame) >>> 1;
+      final SimulationTask left = new SimulationTask(fromGame, middle);
+      left.fork();
+      final SimulationResult right = new SimulationTask(middle, toGame).compute();
+      final SimulationResult result = left.join();
+      result.merge(right);
+      return result;
+    }
+  }
+}
@@ -0,0 +1,213 @@
+package common.resources;
+
+import common.utilities.LoggingUtility;
+import common.utilities.constants.GameCardConstants;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Holds the sprites of the cards. The sprites are read from the {@link CardSpritePack}s
+ * that the {@link CardSpriteBuilder} made, a pack is read the first time a sprite of its
+ * height is requested and a sprite is decoded the first time it is requested. The packs of
+ * the common sizes can be decoded in the background at the start, see {@link #preload()}.
+ * Scaled variants of the sprites are kept for every requested size, so a repaint with an
+ * unchanged size does neither decode nor scale. They are scaled from the smallest pack
+ * that is not smaller than the requested size. The scaled variants are soft referenced and
+ * the least recently used ones are dropped if there are more than
+ * {@link #MAXIMUM_SCALED_SPRITES}.
+ */
+public class CardAtlas {
+  private static final Logger LOGGER = LoggingUtility.getLogger(CardAtlas.class.getName());
+
+  public static final int MAXIMUM_SCALED_SPRITES = 160;
+  /** Packs up to this height are decoded by {@link #preload()}. */
+  private static final int PRELOAD_MAXIMUM_HEIGHT = 200;
+
+  private static final CardAtlas ATLAS = new CardAtlas();
+
+  /** The packs, indexed like {@link CardSpritePack#HEIGHTS}. */
+  private final CardSpritePack[] packs;
+  /** Decoded sprites of the packs, indexed like the packs and by the card index. */
+  private final BufferedImage[][] sprites;
+  private final Map<SpriteKey, SoftReference<BufferedImage>> scaledSprites;
+
+  /* Constructors */
+
+  private CardAtlas() {
+    packs = new CardSpritePack[CardSpritePack.HEIGHTS.length];
+    sprites = new BufferedImage[CardSpritePack.HEIGHTS.length][];
+    scaledSprites = new LinkedHashMap<SpriteKey, SoftReference<BufferedImage>>(
+        MAXIMUM_SCALED_SPRITES, 0.75f, true) {
+      protected boolean removeEldestEntry(
+          Map.Entry<SpriteKey, SoftReference<BufferedImage>> eldest) {
+        return size() > MAXIMUM_SCALED_SPRITES;
+      }
+    };
+  }
+
+  public static CardAtlas getAtlas() {
+    return ATLAS;
+  }
+
+  /* Methods */
+
+  /**
+   * Decodes the sprites of the packs of the common sizes in a background thread, so the
+   * first cards can be shown without waiting for the decoding. The method does not wait.
+   */
+  public void preload() {
+    final Thread thread = new Thread(new Runnable() {
+      public void run() {
+        for (int pack = 0; pack < packs.length; pack++) {
+          if(CardSpritePack.HEIGHTS[pack] > PRELOAD_MAXIMUM_HEIGHT)
+            continue;
+          for (int cardIndex = 0; cardIndex < CardSpritePack.CARD_COUNT; cardIndex++)
+            getPackSprite(pack, cardIndex);
+        }
+        LOGGER.info("Preloaded the card sprites");
+      }
+    }, "CardAtlas-Preload"); //NON-NLS
+    thread.setDaemon(true);
+    thread.setPriority(Thread.MIN_PRIORITY);
+    thread.start();
+  }
+
+  /**
+   * Returns the sprite of a card in the largest size. The image must not be changed.
+   * @param colour Colour of the card.
+   * @param value Value of the card.
+   * @return The sprite or null, if the sprite could not be loaded.
+   */
+  public BufferedImage getSprite(GameCardConstants.CardColour colour,
+                                 GameCardConstants.CardValue value) {
+    return getPackSprite(packs.length - 1, CardSpritePack.getCardIndex(colour, value));
+  }
+
+  /**
+   * Returns the sprite of a card scaled to the specified size. The image must not be
+   * changed.
+   * @param colour Colour of the card.
+   * @param value Value of the card.
+   * @param width Width of the sprite, must be greater than 0.
+   * @param height Height of the sprite, must be greater than 0.
+   * @return The scaled sprite or null, if the sprite could not be loaded.
+   */
+  public BufferedImage getScaledSprite(GameCardConstants.CardColour colour,
+      GameCardConstants.CardValue value, int width, int height) {
+    final SpriteKey key = new SpriteKey(colour, value, width, height);
+    synchronized (scaledSprites) {
+      final SoftReference<BufferedImage> reference = scaledSprites.get(key);
+      if(reference != null && reference.get() != null)
+        return reference.get();
+    }
+
+    final BufferedImage sprite = getPackSprite(getPackIndex(height),
+        CardSpritePack.getCardIndex(colour, value));
+    if(sprite == null)
+      return null;
+
+    final BufferedImage scaled;
+    if(sprite.getWidth() == width && sprite.getHeight() == height)
+      scaled = sprite;
+    else scaled = scale(sprite, width, height);
+    synchronized (scaledSprites) {
+      scaledSprites.put(key, new SoftReference<BufferedImage>(scaled));
+    }
+    return scaled;
+  }
+
+  /* Returns the smallest pack that is not smaller than the height or the largest pack */
+  private int getPackIndex(int height) {
+    for (int pack = 0; pack < CardSpritePack.HEIGHTS.length; pack++) {
+      if(CardSpritePack.HEIGHTS[pack] >= height)
+        return pack;
+    }
+    return CardSpritePack.HEIGHTS.length - 1;
+  }
+
+  private synchronized BufferedImage getPackSprite(int pack, int cardIndex) {
+    if(sprites[pack] == null) {
+      packs[pack] = readPack(CardSpritePack.HEIGHTS[pack]);
+      sprites[pack] = new BufferedImage[CardSpritePack.CARD_COUNT];
+    }
+    if(sprites[pack][cardIndex] == null && packs[pack] != null) {
+      try {
+        sprites[pack][cardIndex] = packs[pack].decode(cardIndex);
+      } catch (IOException e) {
+        LOGGER.warning("Could not decode card sprite "+cardIndex+": "+e.getMessage());
+      }
+    }
+    return sprites[pack][cardIndex];
+  }
+
+  private CardSpritePack readPack(int height) {
+    final String name = CardSpritePack.getResourceName(height);
+    final InputStream stream = CardAtlas.class.getResourceAsStream(name);
+    if(stream == null) {
+      LOGGER.warning("Could not find the card sprite pack "+name);
+      return null;
+    }
+
+    try {
+      return CardSpritePack.read(new BufferedInputStream(stream));
+    } catch (IOException e) {
+      LOGGER.warning("Could not read the card sprite pack "+name+": "+e.getMessage());
+      return null;
+    } finally {
+      try {
+        stream.close();
+      } catch (IOException e) {
+        LOGGER.warning("Could not close the card sprite pack "+name);
+      }
+    }
+  }
+
+  private BufferedImage scale(BufferedImage sprite, int width, int height) {
+    final BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+    final Graphics2D g2D = scaled.createGraphics();
+    g2D.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+        RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+    g2D.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+    g2D.drawImage(sprite, 0, 0, width, height, null);
+    g2D.dispose();
+    return scaled;
+  }
+
+  /* Inner Classes */
+
+  private static final class SpriteKey {
+    private final GameCardConstants.CardColour colour;
+    private final GameCardConstants.CardValue value;
+    private final int width;
+    private final int height;
+
+    private SpriteKey(GameCardConstants.CardColour colour, GameCardConstants.CardValue value,
+                      int width, int height) {
+      this.colour = colour;
+      this.value = value;
+      this.width = width;
+      this.height = height;
+    }
+
+    public boolean equals(Object o) {
+      if(this == o) return true;
+      if(!(o instanceof SpriteKey)) return false;
+
+      final SpriteKey that = (SpriteKey) o;
+      return colour == that.colour && value == that.value
+          && width == that.width && height == that.height;
+    }
+
+    public int hashCode() {
+      return 31 * (31 * (31 * colour.ordinal() + value.ordinal()) + width) + height;
+    }
+  }
+}
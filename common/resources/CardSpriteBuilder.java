@@ -0,0 +1,117 @@
+package common.resources;
+
+import common.i18n.I18nSupport;
+import common.utilities.constants.GameCardConstants;
+import common.utilities.constants.GameConfigurationConstants;
+
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static common.i18n.BundleStrings.RESOURCES_IMAGES;
+
+/**
+ * Resource build step that slices the colour stripes into the sprites of the cards and
+ * writes a {@link CardSpritePack} for every height of {@link CardSpritePack#HEIGHTS}.
+ * The client only reads the packs, so it neither decodes the stripes nor crops them.
+ * Usage: {@code CardSpriteBuilder resourceDirectory}, e.g. {@code common/resources}. It has
+ * to be run again whenever a stripe changes.
+ */
+public class CardSpriteBuilder {
+  private static final String CARDS_ROOT = "icons/cards/"; //NON-NLS
+
+  private static final int CARD_STRIPE_X_AXIS_GAP = 1;
+  private static final int MAGIC_X_AXIS_GAP_CONSTANT = 2;
+
+  /* Constructors */
+
+  private CardSpriteBuilder() {}
+
+  /* Methods */
+
+  public static void main(String[] args) throws IOException {
+    if(args.length != 1) {
+      System.out.println("Usage: CardSpriteBuilder resourceDirectory");
+      return;
+    }
+
+    final File resourceDirectory = new File(args[0]);
+    final BufferedImage[] sprites = new BufferedImage[CardSpritePack.CARD_COUNT];
+    for (GameCardConstants.CardColour colour : GameCardConstants.CardColour.values()) {
+      final File stripe = new File(resourceDirectory, CARDS_ROOT
+          +I18nSupport.getValue(RESOURCES_IMAGES, getStripeKey(colour))+".png"); //NON-NLS
+      final BufferedImage[] colourSprites = sliceStripe(ImageIO.read(stripe));
+      for (GameCardConstants.CardValue value : GameCardConstants.CardValue.values()) {
+        sprites[CardSpritePack.getCardIndex(colour, value)] =
+            colourSprites[value.getValue()];
+      }
+    }
+
+    final File packDirectory = new File(resourceDirectory, CardSpritePack.PACK_ROOT);
+    if(!packDirectory.isDirectory() && !packDirectory.mkdirs())
+      throw new IOException("Could not create directory "+packDirectory);
+    for (int height : CardSpritePack.HEIGHTS) {
+      final File file = new File(resourceDirectory, CardSpritePack.getResourceName(height));
+      final OutputStream output = new BufferedOutputStream(new FileOutputStream(file));
+      try {
+        CardSpritePack.write(scale(sprites, height), output);
+      } finally {
+        output.close();
+      }
+      System.out.println("Wrote "+file+" ("+file.length()+" bytes)");
+    }
+  }
+
+  private static String getStripeKey(GameCardConstants.CardColour colour) {
+    if(GameCardConstants.CardColour.CLUBS.equals(colour))
+      return "card.colour.clubs"; //NON-NLS
+    else if(GameCardConstants.CardColour.DIAMONDS.equals(colour))
+      return "card.colour.diamonds"; //NON-NLS
+    else if(GameCardConstants.CardColour.HEARTS.equals(colour))
+      return "card.colour.hearts"; //NON-NLS
+    else
+      return "card.colour.spades"; //NON-NLS
+  }
+
+  private static BufferedImage[] sliceStripe(BufferedImage stripe) {
+    final int maxColours = GameConfigurationConstants.MAXIMUM_COLOUR_CARD_COUNT;
+    final int cardWidth = stripe.getWidth() / maxColours - CARD_STRIPE_X_AXIS_GAP;
+    final BufferedImage stripeImage = new BufferedImage(stripe.getWidth(),
+        stripe.getHeight(), BufferedImage.TYPE_INT_ARGB);
+    final Graphics2D g2D = stripeImage.createGraphics();
+    g2D.drawImage(stripe, 0, 0, null);
+    g2D.dispose();
+
+    final BufferedImage[] cards = new BufferedImage[maxColours];
+    for (int cardNumber = 0; cardNumber < maxColours; cardNumber++) {
+      final int xPos = (cardWidth + CARD_STRIPE_X_AXIS_GAP) * cardNumber
+          + MAGIC_X_AXIS_GAP_CONSTANT;
+      cards[cardNumber] = stripeImage.getSubimage(xPos, 0, cardWidth, stripeImage.getHeight());
+    }
+    return cards;
+  }
+
+  /* Scales the sprites with area averaging, the time does not matter at build time. The */
+  /* icon waits until the scaled image is produced */
+  private static BufferedImage[] scale(BufferedImage[] sprites, int height) {
+    final BufferedImage[] scaled = new BufferedImage[sprites.length];
+    for (int index = 0; index < sprites.length; index++) {
+      final BufferedImage sprite = sprites[index];
+      final int width = Math.round((float) height * sprite.getWidth() / sprite.getHeight());
+      scaled[index] = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+      final Graphics2D g2D = scaled[index].createGraphics();
+      if(height == sprite.getHeight())
+        g2D.drawImage(sprite, 0, 0, null);
+      else g2D.drawImage(new ImageIcon(sprite.getScaledInstance(width, height,
+          Image.SCALE_AREA_AVERAGING)).getImage(), 0, 0, null);
+      g2D.dispose();
+    }
+    return scaled;
+  }
+}
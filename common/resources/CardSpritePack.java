@@ -0,0 +1,156 @@
+package common.resources;
+
+import common.utilities.constants.GameCardConstants;
+import common.utilities.constants.GameConfigurationConstants;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The sprites of all cards in one height, packed into one resource file by the
+ * {@link CardSpriteBuilder}. A pack starts with a magic number, the version and the size of
+ * the sprites, followed by an index with the colour, the value and the length of every
+ * sprite. The sprites follow the index as png data in the order of the index. A pack is read
+ * at once, but a sprite is only decoded when it is requested.
+ */
+public class CardSpritePack {
+  /** Heights of the packs that are built, in ascending order. */
+  static final int[] HEIGHTS = {120, 200, 300};
+  static final String PACK_ROOT = "icons/cards/sprites/"; //NON-NLS
+  static final String FILE_EXTENSION = ".pack"; //NON-NLS
+
+  static final int CARD_COUNT = GameCardConstants.CardColour.values().length
+      * GameConfigurationConstants.MAXIMUM_COLOUR_CARD_COUNT;
+
+  private static final int MAGIC = 0x44435350;
+  private static final int VERSION = 1;
+
+  private final int width;
+  private final int height;
+  private final byte[] data;
+  /** Offset of the png data of every card in {@link #data}, indexed by the card index. */
+  private final int[] offsets;
+  private final int[] lengths;
+
+  /* Constructors */
+
+  private CardSpritePack(int width, int height, byte[] data, int[] offsets, int[] lengths) {
+    this.width = width;
+    this.height = height;
+    this.data = data;
+    this.offsets = offsets;
+    this.lengths = lengths;
+  }
+
+  /* Methods */
+
+  static String getResourceName(int height) {
+    return PACK_ROOT + "cards-" + height + FILE_EXTENSION; //NON-NLS
+  }
+
+  /**
+   * Returns the index of a card in a pack.
+   * @param colour Colour of the card.
+   * @param value Value of the card.
+   * @return The index.
+   */
+  static int getCardIndex(GameCardConstants.CardColour colour,
+                          GameCardConstants.CardValue value) {
+    return colour.ordinal() * GameConfigurationConstants.MAXIMUM_COLOUR_CARD_COUNT
+        + value.getValue();
+  }
+
+  /**
+   * Writes the sprites as pack. All sprites must have the same size.
+   * @param sprites Sprites indexed by {@link #getCardIndex(GameCardConstants.CardColour,
+   *                GameCardConstants.CardValue)}.
+   * @param stream Stream to write to, it will not be closed.
+   * @throws IOException The stream could not be written.
+   */
+  static void write(BufferedImage[] sprites, OutputStream stream) throws IOException {
+    final byte[][] images = new byte[sprites.length][];
+    for (int index = 0; index < sprites.length; index++) {
+      final ByteArrayOutputStream image = new ByteArrayOutputStream();
+      ImageIO.write(sprites[index], "png", image); //NON-NLS
+      images[index] = image.toByteArray();
+    }
+
+    final DataOutputStream output = new DataOutputStream(stream);
+    output.writeInt(MAGIC);
+    output.writeByte(VERSION);
+    output.writeShort(sprites[0].getWidth());
+    output.writeShort(sprites[0].getHeight());
+    output.writeByte(sprites.length);
+    for (byte[] image : images)
+      output.writeInt(image.length);
+    for (byte[] image : images)
+      output.write(image);
+    output.flush();
+  }
+
+  /**
+   * Reads a pack that was written by {@link #write(BufferedImage[], OutputStream)}. The
+   * sprites are not decoded. The stream will not be closed.
+   * @param stream Stream to read from.
+   * @return The pack.
+   * @throws IOException The stream could not be read or does not contain a pack.
+   */
+  static CardSpritePack read(InputStream stream) throws IOException {
+    final DataInputStream input = new DataInputStream(stream);
+    if(input.readInt() != MAGIC)
+      throw new IOException("Not a card sprite pack");
+    final int version = input.readUnsignedByte();
+    if(version != VERSION)
+      throw new IOException("Unsupported card sprite pack version "+version);
+
+    final int width = input.readUnsignedShort();
+    final int height = input.readUnsignedShort();
+    final int count = input.readUnsignedByte();
+    if(count != CARD_COUNT)
+      throw new IOException("Card sprite pack with "+count+" cards");
+
+    final int[] offsets = new int[count];
+    final int[] lengths = new int[count];
+    int size = 0;
+    for (int index = 0; index < count; index++) {
+      offsets[index] = size;
+      lengths[index] = input.readInt();
+      size += lengths[index];
+    }
+    final byte[] data = new byte[size];
+    input.readFully(data);
+    return new CardSpritePack(width, height, data, offsets, lengths);
+  }
+
+  /**
+   * Decodes the sprite of a card.
+   * @param cardIndex Index of the card, see {@link #getCardIndex(GameCardConstants.CardColour,
+   *                  GameCardConstants.CardValue)}.
+   * @return The sprite.
+   * @throws IOException The sprite could not be decoded.
+   */
+  BufferedImage decode(int cardIndex) throws IOException {
+    final BufferedImage sprite = ImageIO.read(
+        new ByteArrayInputStream(data, offsets[cardIndex], lengths[cardIndex]));
+    if(sprite == null)
+      throw new IOException("Card sprite "+cardIndex+" is not an image");
+    return sprite;
+  }
+
+  /* Getter and Setter */
+
+  public int getWidth() {
+    return width;
+  }
+
+  public int getHeight() {
+    return height;
+  }
+}
@@ -3,7 +3,6 @@ package common.resources;
 import common.i18n.I18nSupport;
 import common.utilities.LoggingUtility;
 import common.utilities.constants.GameCardConstants;
-import common.utilities.constants.GameConfigurationConstants;
 import common.utilities.constants.PlayerConstants;
 import common.utilities.gui.Compute;
 
@@ -33,20 +32,9 @@ public class ResourceGetter {
   private static final String GENERAL_ROOT = PICTURES_ROOT + "general/"; //NON-NLS
 
   private static final String PNG = "png"; //NON-NLS
-  private static final ImageIcon STRIPE_CLUBS =
-      getImage(CARDS_ROOT + I18nSupport.getValue(RESOURCES_IMAGES, "card.colour.clubs"), PNG);
-  private static final ImageIcon STRIPE_DIAMONDS =
-      getImage(CARDS_ROOT + I18nSupport.getValue(RESOURCES_IMAGES, "card.colour.diamonds"), PNG);
-  private static final ImageIcon STRIPE_HEARTS =
-      getImage(CARDS_ROOT + I18nSupport.getValue(RESOURCES_IMAGES, "card.colour.hearts"), PNG);
-  private static final ImageIcon STRIPE_SPADES =
-      getImage(CARDS_ROOT + I18nSupport.getValue(RESOURCES_IMAGES, "card.colour.spades"), PNG);
 
   private static final Logger LOGGER = LoggingUtility.getLogger(ResourceGetter.class.getName());
 
-  private static final int CARD_STRIPE_X_AXIS_GAP = 1;
-  private static final int MAGIC_X_AXIS_GAP_CONSTANT = 2;
-
   /* Loads an image from the specified path and adds the */
   /* surpassed extension if it is not null */
   private static ImageIcon getImage(String imageName, String extension) {
@@ -119,31 +107,23 @@ public class ResourceGetter {
 
   public static ImageIcon getCardImage(GameCardConstants.CardColour colour,
                                        GameCardConstants.CardValue cardValue) {
-
-    return getCardFromStripe(getStripe(colour), cardValue.getValue());
-  }
-
-  private static ImageIcon getStripe(GameCardConstants.CardColour colour) {
-    if(GameCardConstants.CardColour.CLUBS.equals(colour))
-      return STRIPE_CLUBS;
-    else if(GameCardConstants.CardColour.DIAMONDS.equals(colour))
-      return STRIPE_DIAMONDS;
-    else if(GameCardConstants.CardColour.HEARTS.equals(colour))
-      return STRIPE_HEARTS;
-    else
-      return STRIPE_SPADES;
+    final BufferedImage sprite = CardAtlas.getAtlas().getSprite(colour, cardValue);
+    return sprite != null ? new ImageIcon(sprite) : new ImageIcon();
   }
 
-  private static ImageIcon getCardFromStripe(ImageIcon imageIcon, Integer cardNumber) {
-    final int maxColours = GameConfigurationConstants.MAXIMUM_COLOUR_CARD_COUNT;
-    final Integer cardWidth = imageIcon.getIconWidth()/ maxColours - CARD_STRIPE_X_AXIS_GAP;
-    final Integer xPos = cardWidth*cardNumber + CARD_STRIPE_X_AXIS_GAP*cardNumber + MAGIC_X_AXIS_GAP_CONSTANT;
-    final BufferedImage imagePart;
-    final BufferedImage bufferedImage = new BufferedImage(imageIcon.getIconWidth(),imageIcon.getIconHeight(), BufferedImage.TYPE_INT_ARGB);
-    bufferedImage.getGraphics().drawImage(imageIcon.getImage(), 0, 0, imageIcon.getImageObserver());
-    imagePart = bufferedImage.getSubimage(xPos,0,cardWidth,bufferedImage.getHeight());
-
-    return new ImageIcon(imagePart);
+  /**
+   * Returns the image of a card in the specified size, see {@link CardAtlas}. The image is
+   * shared and must not be changed.
+   * @param colour Colour of the card.
+   * @param cardValue Value of the card.
+   * @param width Width of the image, must be greater than 0.
+   * @param height Height of the image, must be greater than 0.
+   * @return The image or null, if it could not be loaded.
+   */
+  public static BufferedImage getCardImage(GameCardConstants.CardColour colour,
+                                           GameCardConstants.CardValue cardValue,
+                                           int width, int height) {
+    return CardAtlas.getAtlas().getScaledSprite(colour, cardValue, width, height);
   }
 
   public static ImageIcon getToolbarIcon(String toolbarBundleKey, Object... params) {
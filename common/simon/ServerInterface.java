@@ -3,6 +3,8 @@ package common.simon;
 import common.dto.DTOClient;
 import common.simon.action.GameAction;
 
+import java.util.List;
+
 /**
  * User: Timm Herrmann
  * Date: 06.01.13
@@ -18,12 +20,54 @@ public interface ServerInterface {
    */
   public boolean login(Callable callable, DTOClient client, String password);
 
+  /**
+   * Logs the specified client to the server like {@link #login(Callable, DTOClient, String)}
+   * and negotiates the codec for the messages. The server sends encoded messages of the
+   * returned version, see {@link common.simon.codec.WireCodec}.
+   * @param callable Remote object that should be a valid SIMON implementation.
+   * @param client Client information.
+   * @param password Server password.
+   * @param codecVersion Highest codec version that the client supports.
+   * @return Returns the negotiated codec version or
+   * {@link common.simon.codec.WireCodec#LOGIN_REFUSED}, if the client was not logged in.
+   */
+  public int loginWithCodec(Callable callable, DTOClient client, String password,
+                            int codecVersion);
+
+  /**
+   * Resumes the session of a client whose connection dropped during a game. The client
+   * takes its held seat again and gets the state of the game in one frame. The token is
+   * sent to the client at the login as {@link common.dto.message.MessageType#RESUME_TOKEN}.
+   * @param callable New remote object of the client.
+   * @param token Resume token of the session.
+   * @param codecVersion Highest codec version that the client supports.
+   * @return Returns the negotiated codec version or
+   * {@link common.simon.codec.WireCodec#LOGIN_REFUSED}, if no seat is held for the token.
+   * The client has to log in then.
+   */
+  public int resumeSession(Callable callable, String token, int codecVersion);
+
   /**
    * Logs the specified client off the server.
    * @param callable Remote object that should be an implemented SIMON object.
    */
   public void logoff(Callable callable);
 
+  /**
+   * Moves the specified client from its current table to the table with the specified name.
+   * If no table with this name exists, the server creates it.
+   * @param callable Remote object that should be an implemented SIMON object.
+   * @param tableName Name of the table to join.
+   * @return Returns true, if the client is seated at the table, else false.
+   */
+  public boolean joinTable(Callable callable, String tableName);
+
+  /**
+   * Returns the names of all tables that are currently open on the server.
+   * @return A sorted list of table names.
+   */
+  public List<String> getTableNames();
+
   /**
    * Sends a message to all other clients.
    * @param callable Remote object that sends the message. Should be a valid SIMON implementation.
@@ -39,6 +83,24 @@ public interface ServerInterface {
    */
   public boolean doAction(Callable callable, GameAction action);
 
+  /**
+   * Executes an action that was encoded with
+   * {@link common.simon.codec.WireCodec#encodeAction(GameAction)}.
+   * @param callable Remote object that should be an implemented SIMON object.
+   * @param action Encoded action.
+   * @return True, action was made, else false.
+   */
+  public boolean doEncodedAction(Callable callable, byte[] action);
+
+  /**
+   * Returns the action that the server would choose for the specified client. In an
+   * endgame with two players the action is searched until the game is solved or the time
+   * budget of the server bots is reached.
+   * @param callable Remote object that should be an implemented SIMON object.
+   * @return The proposed action or null, if the client does not have to act.
+   */
+  public GameAction getHint(Callable callable);
+
   /**
    * Updates the client information in the server.
    * @param callable Remote object that should be an implemented SIMON object.
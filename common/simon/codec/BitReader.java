@@ -0,0 +1,75 @@
+package common.simon.codec;
+
+/**
+ * Reads the values of a byte array that was written by a {@link BitWriter}.
+ */
+class BitReader {
+  private final byte[] bytes;
+  private int position;
+
+  /* Constructors */
+
+  BitReader(byte[] bytes) {
+    this.bytes = bytes;
+    this.position = 0;
+  }
+
+  /* Methods */
+
+  /**
+   * Reads the next {@code bits} bits as an unsigned value.
+   * @param bits Number of bits, at most 64.
+   * @return The value.
+   * @throws WireCodecException Thrown if there are not enough bits left.
+   */
+  long read(int bits) throws WireCodecException {
+    if(position + bits > bytes.length * 8)
+      throw new WireCodecException("Unexpected end of data at bit "+position);
+
+    long value = 0L;
+    while (bits > 0) {
+      final int available = 8 - (position & 7);
+      final int count = Math.min(available, bits);
+      final int chunk = (bytes[position >>> 3] >>> (available - count)) & ((1 << count) - 1);
+      value = (value << count) | chunk;
+      position += count;
+      bits -= count;
+    }
+    return value;
+  }
+
+  int readInt(int bits) throws WireCodecException {
+    return (int) read(bits);
+  }
+
+  boolean readBoolean() throws WireCodecException {
+    return read(1) == 1L;
+  }
+
+  int readVarInt() throws WireCodecException {
+    int value = 0;
+    int shift = 0;
+    int group;
+    do {
+      if(shift > 28)
+        throw new WireCodecException("Variable length integer is too long");
+      group = readInt(8);
+      value |= (group & 0x7F) << shift;
+      shift += 7;
+    } while ((group & 0x80) != 0);
+    return value;
+  }
+
+  String readString() throws WireCodecException {
+    if(!readBoolean())
+      return null;
+
+    final int length = readVarInt();
+    if(length > (bytes.length * 8 - position) / 8)
+      throw new WireCodecException("String length "+length+" exceeds the data");
+    final byte[] data = new byte[length];
+    for (int index = 0; index < data.length; index++)
+      data[index] = (byte) readInt(8);
+    return new String(data, BitWriter.UTF8);
+  }
+}
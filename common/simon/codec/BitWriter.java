@@ -0,0 +1,90 @@
+package common.simon.codec;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Writes values with an arbitrary number of bits into a growing byte array.
+ * The bits are written from the most significant to the least significant bit.
+ */
+class BitWriter {
+  static final Charset UTF8 = Charset.forName("UTF-8"); //NON-NLS
+
+  private byte[] bytes;
+  private int bitCount;
+
+  /* Constructors */
+
+  BitWriter(int initialCapacity) {
+    bytes = new byte[Math.max(initialCapacity, 1)];
+    bitCount = 0;
+  }
+
+  /* Methods */
+
+  /**
+   * Writes the value with the specified number of bits.
+   * @param value Value to write, it must fit into the bits. With 64 bits every value fits.
+   * @param bits Number of bits, at most 64.
+   * @throws IllegalArgumentException The value is wider than the bits.
+   */
+  void write(long value, int bits) {
+    if(bits < 0 || bits > 64 || (bits < 64 && (value >>> bits) != 0L))
+      throw new IllegalArgumentException("Value "+value+" does not fit into "+bits+" bits");
+    ensureCapacity(bitCount + bits);
+    while (bits > 0) {
+      final int free = 8 - (bitCount & 7);
+      final int count = Math.min(free, bits);
+      final int chunk = (int) ((value >>> (bits - count)) & ((1 << count) - 1));
+      bytes[bitCount >>> 3] |= chunk << (free - count);
+      bitCount += count;
+      bits -= count;
+    }
+  }
+
+  void writeBoolean(boolean value) {
+    write(value ? 1 : 0, 1);
+  }
+
+  /**
+   * Writes a non negative value in groups of seven bits. Each group is preceded by a bit
+   * that indicates if another group follows.
+   * @param value Value to write.
+   */
+  void writeVarInt(int value) {
+    if(value < 0)
+      throw new IllegalArgumentException("Negative value "+value);
+    while (value >= 0x80) {
+      write(0x80 | (value & 0x7F), 8);
+      value >>>= 7;
+    }
+    write(value, 8);
+  }
+
+  /**
+   * Writes a presence bit and, if the string is not null, the length and the UTF-8 bytes.
+   * @param string String to write, may be null.
+   */
+  void writeString(String string) {
+    writeBoolean(string != null);
+    if(string == null)
+      return;
+
+    final byte[] data = string.getBytes(UTF8);
+    writeVarInt(data.length);
+    for (byte b : data)
+      write(b & 0xFF, 8);
+  }
+
+  private void ensureCapacity(int bits) {
+    final int needed = (bits + 7) >>> 3;
+    if(needed > bytes.length)
+      bytes = Arrays.copyOf(bytes, Math.max(needed, bytes.length * 2));
+  }
+
+  /* Getter and Setter */
+
+  byte[] toByteArray() {
+    return Arrays.copyOf(bytes, (bitCount + 7) >>> 3);
+  }
+}
@@ -0,0 +1,597 @@
+package common.simon.codec;
+
+import common.dto.DTOCard;
+import common.dto.DTOCardStack;
+import common.dto.DTOClient;
+import common.dto.DTOStackSummary;
+import common.dto.message.*;
+import common.simon.action.CardAction;
+import common.simon.action.FinishAction;
+import common.simon.action.GameAction;
+import common.utilities.constants.GameCardConstants.CardColour;
+import common.utilities.constants.GameCardConstants.CardValue;
+import common.utilities.constants.PlayerConstants.PlayerType;
+
+import java.util.*;
+
+/**
+ * This class encodes the messages of the server and the actions of the clients in a compact
+ * binary format. Cards are encoded as 6 bit indices, flags as single bits and the names
+ * of the clients are sent only once per connection, afterwards only their index in a
+ * dictionary will be sent. Hence an instance of this class must be used for exactly one
+ * connection and the messages have to be decoded in the order they were encoded. The names
+ * of an encoded message enter the dictionary when the sender confirms the delivery, see
+ * {@link #commitNames()}, the names of a decoded message when the whole message could be
+ * decoded. A new name is sent with its index, so a message that was delivered although
+ * the sender rolled it back does not shift the indices of the receiver.
+ * <p/>
+ * Every encoded message and action starts with the version of the format. The version will
+ * be negotiated at the login, see {@link #negotiate(int)}.
+ */
+@SuppressWarnings("unchecked")
+public class WireCodec {
+  /** Version of the format that this class writes. */
+  public static final int VERSION = 1;
+  /** Version that means that no codec will be used, i.e. Java serialization. */
+  public static final int NO_CODEC = 0;
+  /** Will be returned by the login if the server refused the client. */
+  public static final int LOGIN_REFUSED = -1;
+
+  private static final int VERSION_BITS = 8;
+  private static final int CATEGORY_BITS = 2;
+  private static final int ORDINAL_BITS = 5;
+  private static final int CARD_BITS = 6;
+  private static final int NULL_CARD = (1 << CARD_BITS) - 1;
+  private static final int COUNT_BITS = 6;
+  private static final int PLAYER_TYPE_BITS = 3;
+  private static final int NULL_PLAYER_TYPE = (1 << PLAYER_TYPE_BITS) - 1;
+
+  private static final int CATEGORY_BROADCAST = 0;
+  private static final int CATEGORY_GAME_UPDATE = 1;
+  private static final int CATEGORY_MESSAGE = 2;
+
+  private static final CardColour[] COLOURS = CardColour.values();
+  private static final CardValue[] VALUES = CardValue.values();
+
+  /* dictionaries of the client names of this connection */
+  private final Map<String, Integer> encodingNames;
+  private final List<String> decodingNames;
+  /* new names of the last encoded message, they are not in the dictionary until committed */
+  private final Map<String, Integer> pendingNames;
+  /* new names of the message that is decoded, mapped by their indices */
+  private final Map<Integer, String> pendingDecodedNames;
+
+  /* Constructors */
+
+  public WireCodec() {
+    encodingNames = new HashMap<String, Integer>();
+    decodingNames = new ArrayList<String>();
+    pendingNames = new HashMap<String, Integer>();
+    pendingDecodedNames = new LinkedHashMap<Integer, String>();
+  }
+
+  /* Methods */
+
+  /**
+   * Returns the version that will be used for a connection if the other side supports at
+   * most the specified version.
+   * @param requestedVersion Highest version of the other side.
+   * @return The version to use or {@link #NO_CODEC}.
+   */
+  public static int negotiate(int requestedVersion) {
+    return Math.max(NO_CODEC, Math.min(requestedVersion, VERSION));
+  }
+
+  /**
+   * Encodes the message. The new names of the message will be added to the dictionary by
+   * {@link #commitNames()} after the message was delivered, names of a message that was
+   * not committed will be sent again. If the message could not be encoded, the dictionary
+   * stays unchanged and the message can be sent with Java serialization instead.
+   * @param message Message to encode.
+   * @return The encoded message.
+   * @throws WireCodecException Thrown if the type or the sending object of the message is
+   * not supported.
+   */
+  public synchronized byte[] encodeMessage(MessageObject message) throws WireCodecException {
+    if(message == null)
+      throw new WireCodecException("No message to encode");
+
+    final BitWriter writer = new BitWriter(32);
+    pendingNames.clear();
+    try {
+      writer.write(VERSION, VERSION_BITS);
+      writeMessage(writer, message);
+    } catch (RuntimeException e) {
+      rollbackNames();
+      throw new WireCodecException("Could not encode "+message.getType()+": "+e);
+    } catch (WireCodecException e) {
+      rollbackNames();
+      throw e;
+    }
+    return writer.toByteArray();
+  }
+
+  /**
+   * Decodes a message that was encoded by {@link #encodeMessage(MessageObject)}.
+   * @param data Encoded message.
+   * @return The message.
+   * @throws WireCodecException Thrown if the data is not a valid message.
+   */
+  public synchronized MessageObject decodeMessage(byte[] data) throws WireCodecException {
+    final BitReader reader = new BitReader(data);
+    pendingDecodedNames.clear();
+    readVersion(reader);
+    final MessageObject message = readMessage(reader);
+    for (Map.Entry<Integer, String> entry : pendingDecodedNames.entrySet()) {
+      if(entry.getKey() < decodingNames.size())
+        decodingNames.set(entry.getKey(), entry.getValue());
+      else decodingNames.add(entry.getValue());
+    }
+    pendingDecodedNames.clear();
+    return message;
+  }
+
+  /**
+   * Adds the new names of the last encoded message to the dictionary. Has to be called
+   * after the message was delivered.
+   */
+  public synchronized void commitNames() {
+    encodingNames.putAll(pendingNames);
+    pendingNames.clear();
+  }
+
+  /**
+   * Discards the new names of the last encoded message, e.g. if it could not be delivered.
+   * They will be sent again with the next message that contains them.
+   */
+  public synchronized void rollbackNames() {
+    pendingNames.clear();
+  }
+
+  /**
+   * Encodes a card action or a finish action. Actions do not use the dictionary, so this
+   * method does not depend on a connection.
+   * @param action Action to encode.
+   * @return The encoded action.
+   * @throws WireCodecException Thrown if the action is not supported.
+   */
+  public static byte[] encodeAction(GameAction action) throws WireCodecException {
+    final BitWriter writer = new BitWriter(16);
+    try {
+      writer.write(VERSION, VERSION_BITS);
+      writer.writeBoolean(action instanceof FinishAction);
+      writer.write(action.getActionType().ordinal(), 1);
+      writeClient(writer, action.getExecutor(), null);
+      if(action instanceof FinishAction) {
+        writer.write(((FinishAction) action).getFinishType().ordinal(), 2);
+      } else if(action instanceof CardAction) {
+        final CardAction cardAction = (CardAction) action;
+        writer.write(cardAction.getCardActionType().ordinal(), 1);
+        writeCards(writer, cardAction.getAttackCards());
+        writeCards(writer, cardAction.getDefenderCards());
+      } else throw new WireCodecException("Unsupported action "+action.getClass().getName());
+    } catch (RuntimeException e) {
+      throw new WireCodecException("Could not encode action "+action+": "+e);
+    }
+    return writer.toByteArray();
+  }
+
+  /**
+   * Decodes an action that was encoded by {@link #encodeAction(GameAction)}.
+   * @param data Encoded action.
+   * @return The action.
+   * @throws WireCodecException Thrown if the data is not a valid action.
+   */
+  public static GameAction decodeAction(byte[] data) throws WireCodecException {
+    final BitReader reader = new BitReader(data);
+    readVersion(reader);
+    final boolean finishAction = reader.readBoolean();
+    final GameAction.ActionType type =
+        readEnum(GameAction.ActionType.values(), reader.readInt(1));
+    final DTOClient executor = readClient(reader, null);
+    if(finishAction) {
+      return new FinishAction(readEnum(FinishAction.FinishType.values(), reader.readInt(2)),
+          executor, type);
+    } else {
+      final CardAction.CardActionType cardActionType =
+          readEnum(CardAction.CardActionType.values(), reader.readInt(1));
+      final List<DTOCard> attackCards = readCards(reader);
+      final List<DTOCard> defenderCards = readCards(reader);
+      return new CardAction(cardActionType, attackCards, defenderCards, executor, type);
+    }
+  }
+
+  private static void readVersion(BitReader reader) throws WireCodecException {
+    final int version = reader.readInt(VERSION_BITS);
+    if(version <= NO_CODEC || version > VERSION)
+      throw new WireCodecException("Unsupported codec version "+version);
+  }
+
+  /* Messages */
+
+  private void writeMessage(BitWriter writer, MessageObject message)
+      throws WireCodecException {
+    final Enum<?> type = message.getType();
+    final Object object = message.getSendingObject();
+    if(type instanceof BroadcastType) {
+      writeType(writer, CATEGORY_BROADCAST, type);
+      writeBroadcastPayload(writer, (BroadcastType) type, object);
+    } else if(type instanceof GameUpdateType) {
+      writeType(writer, CATEGORY_GAME_UPDATE, type);
+      writeGameUpdatePayload(writer, (GameUpdateType) type, object);
+    } else if(type instanceof MessageType) {
+      writeType(writer, CATEGORY_MESSAGE, type);
+      writeMessagePayload(writer, (MessageType) type, object);
+    } else throw new WireCodecException("Unsupported message type "+type);
+  }
+
+  private MessageObject readMessage(BitReader reader) throws WireCodecException {
+    final int category = reader.readInt(CATEGORY_BITS);
+    final int ordinal = reader.readInt(ORDINAL_BITS);
+    if(category == CATEGORY_BROADCAST) {
+      final BroadcastType type = readEnum(BroadcastType.values(), ordinal);
+      return new MessageObject(type, readBroadcastPayload(reader, type));
+    } else if(category == CATEGORY_GAME_UPDATE) {
+      final GameUpdateType type = readEnum(GameUpdateType.values(), ordinal);
+      return new MessageObject(type, readGameUpdatePayload(reader, type));
+    } else if(category == CATEGORY_MESSAGE) {
+      final MessageType type = readEnum(MessageType.values(), ordinal);
+      return new MessageObject(type, readMessagePayload(reader, type));
+    } else throw new WireCodecException("Unknown message category "+category);
+  }
+
+  private void writeType(BitWriter writer, int category, Enum<?> type) {
+    writer.write(category, CATEGORY_BITS);
+    writer.write(type.ordinal(), ORDINAL_BITS);
+  }
+
+  private void writeBroadcastPayload(BitWriter writer, BroadcastType type, Object object)
+      throws WireCodecException {
+    if(BroadcastType.CHAT_MESSAGE.equals(type)) {
+      writeChatMessage(writer, (ChatMessage) object);
+    } else if(BroadcastType.LOGIN_LIST.equals(type)) {
+      writeClients(writer, (List<DTOClient>) object);
+    } else writeNothing(type, object);
+  }
+
+  private Object readBroadcastPayload(BitReader reader, BroadcastType type)
+      throws WireCodecException {
+    if(BroadcastType.CHAT_MESSAGE.equals(type)) {
+      return readChatMessage(reader);
+    } else if(BroadcastType.LOGIN_LIST.equals(type)) {
+      return readClients(reader);
+    } else return null;
+  }
+
+  private void writeGameUpdatePayload(BitWriter writer, GameUpdateType type, Object object)
+      throws WireCodecException {
+    if(GameUpdateType.CLIENT_CARDS.equals(type)) {
+      writeCards(writer, (List<DTOCard>) object);
+    } else if(GameUpdateType.GAME_CANCELED.equals(type)) {
+      writer.writeString((String) object);
+    } else if(GameUpdateType.IN_GAME_CARDS.equals(type)) {
+      writeCardLists(writer, (List<List<DTOCard>>) object);
+    } else if(GameUpdateType.INITIALISE_PLAYERS.equals(type) ||
+              GameUpdateType.PLAYERS_UPDATE.equals(type)) {
+      writeClients(writer, (List<DTOClient>) object);
+    } else if(GameUpdateType.NEXT_ROUND_INFO.equals(type)) {
+      writeFlags(writer, (List<Boolean>) object);
+    } else if(GameUpdateType.ROUND_FRAME.equals(type)) {
+      writeMessages(writer, (List<MessageObject>) object);
+    } else if(GameUpdateType.STACK_SUMMARY.equals(type)) {
+      writeStackSummary(writer, (DTOStackSummary) object);
+    } else if(GameUpdateType.STACK_UPDATE.equals(type)) {
+      writeCardStack(writer, (DTOCardStack) object);
+    } else writeNothing(type, object);
+  }
+
+  private Object readGameUpdatePayload(BitReader reader, GameUpdateType type)
+      throws WireCodecException {
+    if(GameUpdateType.CLIENT_CARDS.equals(type)) {
+      return readCards(reader);
+    } else if(GameUpdateType.GAME_CANCELED.equals(type)) {
+      return reader.readString();
+    } else if(GameUpdateType.IN_GAME_CARDS.equals(type)) {
+      return readCardLists(reader);
+    } else if(GameUpdateType.INITIALISE_PLAYERS.equals(type) ||
+              GameUpdateType.PLAYERS_UPDATE.equals(type)) {
+      return readClients(reader);
+    } else if(GameUpdateType.NEXT_ROUND_INFO.equals(type)) {
+      return readFlags(reader);
+    } else if(GameUpdateType.ROUND_FRAME.equals(type)) {
+      return readMessages(reader);
+    } else if(GameUpdateType.STACK_SUMMARY.equals(type)) {
+      return readStackSummary(reader);
+    } else if(GameUpdateType.STACK_UPDATE.equals(type)) {
+      return readCardStack(reader);
+    } else return null;
+  }
+
+  private void writeMessagePayload(BitWriter writer, MessageType type, Object object)
+      throws WireCodecException {
+    if(MessageType.OWN_CLIENT_INFO.equals(type)) {
+      writer.writeBoolean(object != null);
+      if(object != null)
+        writeClient(writer, (DTOClient) object, this);
+    } else if(MessageType.RULE_MESSAGE.equals(type) ||
+              MessageType.STATUS_MESSAGE.equals(type) ||
+              MessageType.RESUME_TOKEN.equals(type)) {
+      writer.writeString((String) object);
+    } else writeNothing(type, object);
+  }
+
+  private Object readMessagePayload(BitReader reader, MessageType type)
+      throws WireCodecException {
+    if(MessageType.OWN_CLIENT_INFO.equals(type)) {
+      return reader.readBoolean() ? readClient(reader, this) : null;
+    } else if(MessageType.RULE_MESSAGE.equals(type) ||
+              MessageType.STATUS_MESSAGE.equals(type) ||
+              MessageType.RESUME_TOKEN.equals(type)) {
+      return reader.readString();
+    } else return null;
+  }
+
+  private void writeNothing(Enum<?> type, Object object) throws WireCodecException {
+    if(object != null)
+      throw new WireCodecException("Message "+type+" has an unsupported sending object");
+  }
+
+  private void writeMessages(BitWriter writer, List<MessageObject> messages)
+      throws WireCodecException {
+    writer.writeBoolean(messages != null);
+    if(messages == null)
+      return;
+
+    writer.writeVarInt(messages.size());
+    for (MessageObject message : messages)
+      writeMessage(writer, message);
+  }
+
+  private List<MessageObject> readMessages(BitReader reader) throws WireCodecException {
+    if(!reader.readBoolean())
+      return null;
+
+    final int size = reader.readVarInt();
+    final List<MessageObject> messages = new ArrayList<MessageObject>(Math.min(size, 16));
+    for (int index = 0; index < size; index++)
+      messages.add(readMessage(reader));
+    return messages;
+  }
+
+  /* Payload objects */
+
+  private void writeChatMessage(BitWriter writer, ChatMessage message) {
+    writer.writeBoolean(message != null);
+    if(message == null)
+      return;
+
+    writer.writeBoolean(message.getSendingTime() != null);
+    if(message.getSendingTime() != null)
+      writer.write(message.getSendingTime(), 64);
+    writer.writeBoolean(message.getSender() != null);
+    if(message.getSender() != null)
+      writeClient(writer, message.getSender(), this);
+    writer.writeString(message.getMessage());
+  }
+
+  private ChatMessage readChatMessage(BitReader reader) throws WireCodecException {
+    if(!reader.readBoolean())
+      return null;
+
+    final Long sendingTime = reader.readBoolean() ? reader.read(64) : null;
+    final DTOClient sender = reader.readBoolean() ? readClient(reader, this) : null;
+    return new ChatMessage(sendingTime, sender, reader.readString());
+  }
+
+  private void writeClients(BitWriter writer, List<DTOClient> clients) {
+    writer.writeBoolean(clients != null);
+    if(clients == null)
+      return;
+
+    writer.writeVarInt(clients.size());
+    for (DTOClient client : clients)
+      writeClient(writer, client, this);
+  }
+
+  private List<DTOClient> readClients(BitReader reader) throws WireCodecException {
+    if(!reader.readBoolean())
+      return null;
+
+    final int size = reader.readVarInt();
+    final List<DTOClient> clients = new ArrayList<DTOClient>(Math.min(size, 16));
+    for (int index = 0; index < size; index++)
+      clients.add(readClient(reader, this));
+    return clients;
+  }
+
+  /* The name of the client will be written to the dictionary of the codec. If the codec
+   * is null, the name will be written as it is. */
+  private static void writeClient(BitWriter writer, DTOClient client, WireCodec codec) {
+    if(codec != null)
+      codec.writeName(writer, client.name);
+    else writer.writeString(client.name);
+    writer.write(client.cardCount, COUNT_BITS);
+    writer.writeBoolean(client.spectating);
+    writer.write(client.playerType != null ?
+        client.playerType.ordinal() : NULL_PLAYER_TYPE, PLAYER_TYPE_BITS);
+  }
+
+  private static DTOClient readClient(BitReader reader, WireCodec codec)
+      throws WireCodecException {
+    final DTOClient client = new DTOClient(
+        codec != null ? codec.readName(reader) : reader.readString());
+    client.cardCount = reader.readInt(COUNT_BITS);
+    client.spectating = reader.readBoolean();
+    final int playerType = reader.readInt(PLAYER_TYPE_BITS);
+    client.playerType = playerType != NULL_PLAYER_TYPE ?
+        readEnum(PlayerType.values(), playerType) : null;
+    return client;
+  }
+
+  /* A new name is written with its index and the name, a known name with its index only */
+  private void writeName(BitWriter writer, String name) {
+    Integer index = encodingNames.get(name);
+    if(index == null)
+      index = pendingNames.get(name);
+    writer.writeBoolean(index == null);
+    if(index == null) {
+      index = encodingNames.size() + pendingNames.size();
+      pendingNames.put(name, index);
+      writer.writeVarInt(index);
+      writer.writeString(name);
+    } else writer.writeVarInt(index);
+  }
+
+  private String readName(BitReader reader) throws WireCodecException {
+    final boolean newName = reader.readBoolean();
+    final int index = reader.readVarInt();
+    if(newName) {
+      if(index > decodingNames.size() + pendingDecodedNames.size())
+        throw new WireCodecException("Unexpected name index "+index);
+      final String name = reader.readString();
+      pendingDecodedNames.put(index, name);
+      return name;
+    }
+
+    if(pendingDecodedNames.containsKey(index))
+      return pendingDecodedNames.get(index);
+    if(index >= decodingNames.size())
+      throw new WireCodecException("Unknown name index "+index);
+    return decodingNames.get(index);
+  }
+
+  private void writeFlags(BitWriter writer, List<Boolean> flags) {
+    writer.writeBoolean(flags != null);
+    if(flags == null)
+      return;
+
+    writer.write(flags.size(), COUNT_BITS);
+    for (Boolean flag : flags)
+      writer.writeBoolean(flag);
+  }
+
+  private List<Boolean> readFlags(BitReader reader) throws WireCodecException {
+    if(!reader.readBoolean())
+      return null;
+
+    final int size = reader.readInt(COUNT_BITS);
+    final List<Boolean> flags = new ArrayList<Boolean>(size);
+    for (int index = 0; index < size; index++)
+      flags.add(reader.readBoolean());
+    return flags;
+  }
+
+  private void writeStackSummary(BitWriter writer, DTOStackSummary summary) {
+    writer.writeBoolean(summary != null);
+    if(summary == null)
+      return;
+
+    writer.write(summary.cardCount, COUNT_BITS);
+    writeCard(writer, summary.trumpCard);
+  }
+
+  private DTOStackSummary readStackSummary(BitReader reader) throws WireCodecException {
+    if(!reader.readBoolean())
+      return null;
+
+    final DTOStackSummary summary = new DTOStackSummary();
+    summary.cardCount = reader.readInt(COUNT_BITS);
+    summary.trumpCard = readCard(reader);
+    return summary;
+  }
+
+  private void writeCardStack(BitWriter writer, DTOCardStack stack) {
+    writer.writeBoolean(stack != null);
+    if(stack == null)
+      return;
+
+    writeCards(writer, stack.cardStack != null ? new ArrayList<DTOCard>(stack.cardStack) : null);
+    writeCard(writer, stack.trumpCard);
+  }
+
+  private DTOCardStack readCardStack(BitReader reader) throws WireCodecException {
+    if(!reader.readBoolean())
+      return null;
+
+    final DTOCardStack stack = new DTOCardStack();
+    final List<DTOCard> cards = readCards(reader);
+    stack.cardStack = cards != null ? new ArrayDeque<DTOCard>(cards) : null;
+    stack.trumpCard = readCard(reader);
+    return stack;
+  }
+
+  /* Cards */
+
+  private void writeCardLists(BitWriter writer, List<List<DTOCard>> cardLists) {
+    writer.writeBoolean(cardLists != null);
+    if(cardLists == null)
+      return;
+
+    writer.writeVarInt(cardLists.size());
+    for (List<DTOCard> cards : cardLists)
+      writeCards(writer, cards);
+  }
+
+  private List<List<DTOCard>> readCardLists(BitReader reader) throws WireCodecException {
+    if(!reader.readBoolean())
+      return null;
+
+    final int size = reader.readVarInt();
+    final List<List<DTOCard>> cardLists = new ArrayList<List<DTOCard>>(Math.min(size, 4));
+    for (int index = 0; index < size; index++)
+      cardLists.add(readCards(reader));
+    return cardLists;
+  }
+
+  private static void writeCards(BitWriter writer, List<DTOCard> cards) {
+    writer.writeBoolean(cards != null);
+    if(cards == null)
+      return;
+
+    if(cards.size() >= (1 << COUNT_BITS))
+      throw new IllegalArgumentException("Too many cards: "+cards.size());
+    writer.write(cards.size(), COUNT_BITS);
+    for (DTOCard card : cards)
+      writeCard(writer, card);
+  }
+
+  private static List<DTOCard> readCards(BitReader reader) throws WireCodecException {
+    if(!reader.readBoolean())
+      return null;
+
+    final int size = reader.readInt(COUNT_BITS);
+    final List<DTOCard> cards = new ArrayList<DTOCard>(size);
+    for (int index = 0; index < size; index++)
+      cards.add(readCard(reader));
+    return cards;
+  }
+
+  /* A card will be written as index colour*values+value, a null card as NULL_CARD */
+  private static void writeCard(BitWriter writer, DTOCard card) {
+    if(card == null || card.cardColour == null || card.cardValue == null)
+      writer.write(NULL_CARD, CARD_BITS);
+    else writer.write(card.cardColour.ordinal()*VALUES.length+card.cardValue.ordinal(),
+        CARD_BITS);
+  }
+
+  private static DTOCard readCard(BitReader reader) throws WireCodecException {
+    final int index = reader.readInt(CARD_BITS);
+    if(index == NULL_CARD)
+      return null;
+    if(index >= COLOURS.length*VALUES.length)
+      throw new WireCodecException("Invalid card index "+index);
+
+    final DTOCard card = new DTOCard();
+    card.cardColour = COLOURS[index / VALUES.length];
+    card.cardValue = VALUES[index % VALUES.length];
+    return card;
+  }
+
+  private static <E extends Enum<E>> E readEnum(E[] values, int ordinal)
+      throws WireCodecException {
+    if(ordinal < 0 || ordinal >= values.length)
+      throw new WireCodecException("Invalid ordinal "+ordinal+" for "
+          +values.getClass().getComponentType().getSimpleName());
+    return values[ordinal];
+  }
+}
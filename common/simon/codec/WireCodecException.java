@@ -0,0 +1,12 @@
+package common.simon.codec;
+
+/**
+ * This exception will be thrown, if a message or an action could not be encoded or decoded
+ * by the {@link WireCodec}.
+ */
+public class WireCodecException extends Exception {
+  /* Constructors */
+  public WireCodecException(String message) {
+    super(message);
+  }
+}
@@ -4,6 +4,7 @@ package common.utilities;
 import common.dto.DTOCard;
 import common.dto.DTOCardStack;
 import common.dto.DTOClient;
+import common.dto.DTOStackSummary;
 import common.game.GameCard;
 import common.game.GameCardStack;
 import common.game.Player;
@@ -43,7 +44,7 @@ public class Converter {
     if(dto == null)
       return null;
 
-    return new GameCard(dto.cardValue, dto.cardColour);
+    return GameCard.of(dto.cardValue, dto.cardColour);
   }
 
   public static List<DTOCard> toDTO(List<GameCard> cards) {
@@ -84,6 +85,34 @@ public class Converter {
     return dto;
   }
 
+  /**
+   * Creates a summary of the stack that contains only the number of remaining cards
+   * and the trump card. The order of the remaining cards is not part of the summary.
+   * @param stack Card stack to summarise.
+   * @return The summary or null, if the stack is null.
+   */
+  public static DTOStackSummary toSummaryDTO(GameCardStack stack) {
+    if(stack == null)
+      return null;
+
+    final DTOStackSummary dto = new DTOStackSummary();
+    dto.cardCount = stack.getStackSize();
+    dto.trumpCard = toDTO(stack.getTrumpCard());
+
+    return dto;
+  }
+
+  public static DTOStackSummary toSummaryDTO(DTOCardStack stack) {
+    if(stack == null)
+      return null;
+
+    final DTOStackSummary dto = new DTOStackSummary();
+    dto.cardCount = stack.cardStack == null ? 0 : stack.cardStack.size();
+    dto.trumpCard = stack.trumpCard;
+
+    return dto;
+  }
+
   public static GameCardStack fromDTO(DTOCardStack dto) {
     if(dto == null)
       return null;
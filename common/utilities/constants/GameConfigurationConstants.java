@@ -9,8 +9,12 @@ public interface GameConfigurationConstants {
   Integer MAXIMUM_COLOUR_CARD_COUNT = 13;
   Integer DEFAULT_COLOUR_CARD_COUNT = 9;
   Integer INITIAL_CARD_COUNT = 6;
+  Integer MINIMUM_PLAYER_COUNT = 2;
 
   String REGISTRY_NAME_SERVER = "durakserver"; //NON-NLS
   String DEFAULT_IP_ADDRESS = "127.0.0.1";
   Integer DEFAULT_PORT = 10000;
+  String DEFAULT_TABLE_NAME = "default"; //NON-NLS
+  /** Seconds the seat of a player whose connection dropped is held for the player. */
+  Integer SESSION_GRACE_SECONDS = 60;
 }
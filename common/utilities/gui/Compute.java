@@ -82,6 +82,40 @@ public class Compute {
     return new ImageIcon(resizedImg);
   }
 
+  /**
+   * Returns a translucent image with the specified size to paint a layer of a component
+   * into. The old layer will be returned, if it has already the size.
+   * @param component Component that draws the layer, its graphics configuration is used.
+   * @param layer The old layer of the component, may be null.
+   * @param width Width of the layer.
+   * @param height Height of the layer.
+   * @return The layer.
+   */
+  public static BufferedImage getLayer(Component component, BufferedImage layer,
+                                       int width, int height) {
+    if(layer != null && layer.getWidth() == width && layer.getHeight() == height)
+      return layer;
+
+    final GraphicsConfiguration configuration = component.getGraphicsConfiguration();
+    if(configuration != null)
+      return configuration.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    else return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+  }
+
+  /**
+   * Clears the specified layer and returns a graphics object to paint it again.
+   * The caller has to dispose the graphics object.
+   * @param layer Layer to clear, see {@link #getLayer(Component, BufferedImage, int, int)}.
+   * @return The graphics object of the cleared layer.
+   */
+  public static Graphics2D clearLayer(BufferedImage layer) {
+    final Graphics2D g2D = layer.createGraphics();
+    g2D.setComposite(AlphaComposite.Clear);
+    g2D.fillRect(0, 0, layer.getWidth(), layer.getHeight());
+    g2D.setComposite(AlphaComposite.SrcOver);
+    return g2D;
+  }
+
   public static Rectangle getFramelessBounds(JFrame frame) {
     return new Rectangle(frame.getX()+frame.getWidth()-frame.getContentPane().getWidth(),
         frame.getY()+frame.getHeight()-frame.getContentPane().getHeight(),
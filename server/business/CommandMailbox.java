@@ -0,0 +1,223 @@
+package server.business;
+
+import common.dto.message.MessageObject;
+import common.simon.Callable;
+import common.utilities.LoggingUtility;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+/**
+ * The mailbox of a table. The threads of the clients do not change the table themselves,
+ * they put commands into the mailbox and the commands are applied one after another by a
+ * single thread at a time. So the state of a table has one writer and needs no lock, while
+ * different tables still run in parallel on the threads of the executor.
+ * The messages that the commands send are collected and sent when a batch of commands is
+ * done. A message that describes a state is left out, if a newer message of the same type
+ * for the same client follows in the batch. The caller of a command gets its result after
+ * the messages are handed to the outbound queues, so a client never sees the answer of an
+ * action before the update it caused.
+ * After every command the mailbox runs a hook of the owner, e.g. to publish the new state.
+ */
+class CommandMailbox implements Runnable {
+  private static final Logger LOGGER = LoggingUtility.getLogger(CommandMailbox.class.getName());
+
+  /** Maximum number of commands that are applied before the messages are sent. */
+  private static final int MAXIMUM_BATCH = 32;
+
+  private final GameServer server;
+  private final Executor executor;
+  /** Runs after every command that was put into the mailbox. */
+  private final Runnable afterCommand;
+  private final Queue<Command<?>> commands;
+  private final AtomicBoolean scheduled;
+  /** Messages of the current batch, only used by the applying thread. */
+  private final Map<Callable, List<MessageObject>> outbox;
+  private volatile Thread applyingThread;
+
+  /* Constructors */
+
+  CommandMailbox(GameServer server, Executor executor, Runnable afterCommand) {
+    this.server = server;
+    this.executor = executor;
+    this.afterCommand = afterCommand;
+    this.commands = new ConcurrentLinkedQueue<Command<?>>();
+    this.scheduled = new AtomicBoolean(false);
+    this.outbox = new LinkedHashMap<Callable, List<MessageObject>>();
+  }
+
+  /* Methods */
+
+  /**
+   * Puts the command into the mailbox and waits until it is applied. A command that
+   * calls this method from the applying thread is applied at once.
+   * @param command Command to apply.
+   * @param <T> Type of the result.
+   * @return Result of the command.
+   */
+  <T> T call(Command<T> command) {
+    if(Thread.currentThread() == applyingThread)
+      return command.execute();
+
+    enqueue(command);
+    return command.awaitResult();
+  }
+
+  /**
+   * Puts the command into the mailbox and returns without waiting.
+   * @param command Command to apply.
+   */
+  void post(Command<?> command) {
+    if(Thread.currentThread() == applyingThread)
+      command.execute();
+    else enqueue(command);
+  }
+
+  /**
+   * Sends a message to a client. Messages of a command are collected until the batch is
+   * done, messages of other threads are sent at once.
+   * @param callable Client remote reference.
+   * @param message Message to send.
+   */
+  void sendMessage(Callable callable, MessageObject message) {
+    if(Thread.currentThread() != applyingThread) {
+      server.sendMessage(callable, message);
+      return;
+    }
+
+    List<MessageObject> messages = outbox.get(callable);
+    if(messages == null) {
+      messages = new ArrayList<MessageObject>();
+      outbox.put(callable, messages);
+    }
+    messages.add(message);
+  }
+
+  private void enqueue(Command<?> command) {
+    commands.offer(command);
+    schedule();
+  }
+
+  private void schedule() {
+    if(scheduled.compareAndSet(false, true))
+      executor.execute(this);
+  }
+
+  public void run() {
+    final List<Command<?>> batch = new ArrayList<Command<?>>(MAXIMUM_BATCH);
+    applyingThread = Thread.currentThread();
+    try {
+      for (Command<?> command = commands.poll(); command != null; command = commands.poll()) {
+        /* the command is completed below, whatever happens after it is polled */
+        batch.add(command);
+        command.apply();
+        runAfterCommand();
+        if(batch.size() == MAXIMUM_BATCH)
+          break;
+      }
+    } finally {
+      try {
+        flush();
+      } finally {
+        applyingThread = null;
+        for (Command<?> command : batch)
+          command.complete();
+        scheduled.set(false);
+        /* commands that arrived while the flag was still set would wait forever */
+        if(!commands.isEmpty())
+          schedule();
+      }
+    }
+  }
+
+  /* A failing hook must not keep the batch from being sent and completed */
+  private void runAfterCommand() {
+    try {
+      afterCommand.run();
+    } catch (RuntimeException e) {
+      LOGGER.severe("Hook after command failed: "+e);
+    }
+  }
+
+  /* Sends the collected messages, outdated state messages are left out */
+  private void flush() {
+    try {
+      for (Map.Entry<Callable, List<MessageObject>> entry : outbox.entrySet()) {
+        final List<MessageObject> messages = entry.getValue();
+        for (int index = 0; index < messages.size(); index++) {
+          final MessageObject message = messages.get(index);
+          if(!isSuperseded(message, messages, index))
+            server.sendMessage(entry.getKey(), message);
+        }
+      }
+    } finally {
+      outbox.clear();
+    }
+  }
+
+  private boolean isSuperseded(MessageObject message, List<MessageObject> messages, int index) {
+    if(!OutboundQueue.isSupersedable(message.getType()))
+      return false;
+
+    for (int later = index + 1; later < messages.size(); later++) {
+      if(message.getType().equals(messages.get(later).getType()))
+        return true;
+    }
+    return false;
+  }
+
+  /* Inner Classes */
+
+  /**
+   * A command that changes or reads the state of a table.
+   * @param <T> Type of the result.
+   */
+  abstract static class Command<T> {
+    private final CountDownLatch done = new CountDownLatch(1);
+    private T result;
+    private RuntimeException failure;
+
+    /**
+     * Applies the command, it is called by the applying thread of the mailbox.
+     * @return The result of the command.
+     */
+    abstract T execute();
+
+    private void apply() {
+      try {
+        result = execute();
+      } catch (RuntimeException e) {
+        LOGGER.severe("Command failed: "+e);
+        failure = e;
+      }
+    }
+
+    private void complete() {
+      done.countDown();
+    }
+
+    private T awaitResult() {
+      boolean interrupted = false;
+      while (done.getCount() > 0L) {
+        try {
+          done.await();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if(interrupted)
+        Thread.currentThread().interrupt();
+      if(failure != null)
+        throw failure;
+      return result;
+    }
+  }
+}
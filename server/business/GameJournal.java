@@ -0,0 +1,363 @@
+package server.business;
+
+import common.dto.DTOClient;
+import common.simon.action.GameAction;
+import common.simon.codec.WireCodec;
+import common.simon.codec.WireCodecException;
+import common.utilities.LoggingUtility;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * The journal of the game of a table. When a game starts, the journal is
+ * emptied and records the seed of the stack, the stack size, the seats and the first
+ * attacker. Afterwards every accepted action is appended with the seat of its player.
+ * A finished or canceled game gets an end record. A journal without end record belongs to
+ * a game that was running when the server stopped, it can be replayed with
+ * {@link #read(java.io.File)}.
+ * Every record is written as its length, its CRC32 checksum and its content. A record that
+ * was not written completely is detected by its checksum and the journal ends before it.
+ * The records are written behind the game by the {@link JournalWriter} of the server, an
+ * action is applied and acknowledged before its record is on the disk. After a crash the
+ * game is therefore recovered at the last action that reached the disk. The journal itself
+ * is only used by the commands of its table.
+ */
+class GameJournal {
+  private static final Logger LOGGER = LoggingUtility.getLogger(GameJournal.class.getName());
+
+  private static final String FILE_EXTENSION = ".journal"; //NON-NLS
+  private static final Charset UTF_8 = Charset.forName("UTF-8"); //NON-NLS
+  private static final int RECORD_HEADER_SIZE = 8;
+
+  private static final byte START_RECORD = 1;
+  private static final byte ACTION_RECORD = 2;
+  private static final byte END_RECORD = 3;
+
+  private final JournalWriter writer;
+  private final File file;
+  private final String tableName;
+  private FileChannel channel;
+  private boolean gameOpen;
+
+  /* Constructors */
+
+  GameJournal(JournalWriter writer, File directory, String tableName) {
+    this.writer = writer;
+    this.file = getFile(directory, tableName);
+    this.tableName = tableName;
+    this.gameOpen = false;
+  }
+
+  /* Methods */
+
+  /**
+   * Returns the journal file of a table. The name of the file is the hexadecimal form of
+   * the table name, so every table name gives a valid file name.
+   * @param directory Directory of the journals.
+   * @param tableName Name of the table.
+   * @return The file.
+   */
+  static File getFile(File directory, String tableName) {
+    return new File(directory, toFileName(tableName)+FILE_EXTENSION);
+  }
+
+  /**
+   * Returns the hexadecimal form of the table name that is used as name of the files of
+   * the table.
+   * @param tableName Name of the table.
+   * @return The file name without extension.
+   */
+  static String toFileName(String tableName) {
+    final StringBuilder builder = new StringBuilder();
+    for (byte value : tableName.getBytes(UTF_8))
+      builder.append(String.format("%02x", value & 0xFF)); //NON-NLS
+    return builder.toString();
+  }
+
+  /**
+   * Returns all journal files of the directory.
+   * @param directory Directory of the journals.
+   * @return The files, an empty array if the directory does not exist.
+   */
+  static File[] listFiles(File directory) {
+    final File[] files = directory.listFiles();
+    if(files == null)
+      return new File[0];
+
+    final List<File> journals = new ArrayList<File>();
+    for (File file : files) {
+      if(file.isFile() && file.getName().endsWith(FILE_EXTENSION))
+        journals.add(file);
+    }
+    return journals.toArray(new File[journals.size()]);
+  }
+
+  /**
+   * Empties the journal and records the start of a game.
+   * @param seed Seed of the random generator that shuffled the stack.
+   * @param stackSize Size of the stack.
+   * @param firstAttackerSeat Seat of the first attacker.
+   * @param seats Players in the order of their seats.
+   * @param bots For every seat true, if the player is a bot.
+   */
+  void startGame(long seed, int stackSize, int firstAttackerSeat, List<DTOClient> seats,
+                 List<Boolean> bots) {
+    /* the writer empties the file, so the records of the last game are written before */
+    if(!open())
+      return;
+
+    final byte[] name = tableName.getBytes(UTF_8);
+    int size = 1 + 2 + name.length + 8 + 4 + 1 + 1;
+    final List<byte[]> names = new ArrayList<byte[]>(seats.size());
+    for (DTOClient seat : seats) {
+      names.add(seat.name.getBytes(UTF_8));
+      size += 1 + 2 + names.get(names.size() - 1).length;
+    }
+
+    final ByteBuffer record = allocateRecord(size);
+    record.put(START_RECORD);
+    putBytes(record, name);
+    record.putLong(seed);
+    record.putInt(stackSize);
+    record.put((byte) firstAttackerSeat);
+    record.put((byte) seats.size());
+    for (int seat = 0; seat < seats.size(); seat++) {
+      record.put((byte) (bots.get(seat) ? 1 : 0));
+      putBytes(record, names.get(seat));
+    }
+    writer.write(channel, finishRecord(record), true);
+    gameOpen = true;
+  }
+
+  /**
+   * Appends an accepted action of the game.
+   * @param seat Seat of the player who did the action.
+   * @param action The action.
+   */
+  void appendAction(int seat, GameAction action) {
+    if(!gameOpen)
+      return;
+
+    final byte[] data;
+    try {
+      data = WireCodec.encodeAction(action);
+    } catch (WireCodecException e) {
+      LOGGER.severe("Could not journal action "+action+": "+e.getMessage());
+      return;
+    }
+    final ByteBuffer record = allocateRecord(1 + 1 + data.length);
+    record.put(ACTION_RECORD);
+    record.put((byte) seat);
+    record.put(data);
+    writer.write(channel, finishRecord(record), false);
+  }
+
+  /**
+   * Records the end of the game. The journal will not be replayed afterwards.
+   */
+  void finishGame() {
+    if(!gameOpen)
+      return;
+
+    final ByteBuffer record = allocateRecord(1);
+    record.put(END_RECORD);
+    writer.write(channel, finishRecord(record), false);
+    close();
+  }
+
+  /**
+   * Closes the journal without an end record, so the game will be recovered at the next
+   * start of the server.
+   */
+  void close() {
+    if(channel != null)
+      writer.close(channel);
+    channel = null;
+    gameOpen = false;
+  }
+
+  /**
+   * Continues the journal of a recovered game after the replayed actions. The records
+   * after them, e.g. a record that was not written completely, will be removed.
+   * @param game The recovered game of this journal.
+   * @param replayedActions Number of actions of the game that were replayed.
+   */
+  void resume(RecoveredGame game, int replayedActions) {
+    if(!open())
+      return;
+
+    try {
+      final long length = game.getLength(replayedActions);
+      channel.truncate(length);
+      channel.position(length);
+      gameOpen = true;
+    } catch (IOException e) {
+      LOGGER.severe("Could not resume journal "+file+": "+e.getMessage());
+      close();
+    }
+  }
+
+  private boolean open() {
+    if(channel != null)
+      return true;
+
+    try {
+      file.getParentFile().mkdirs();
+      channel = new RandomAccessFile(file, "rw").getChannel(); //NON-NLS
+      return true;
+    } catch (IOException e) {
+      LOGGER.severe("Could not open journal "+file+": "+e.getMessage());
+      return false;
+    }
+  }
+
+  private static ByteBuffer allocateRecord(int size) {
+    final ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + size);
+    record.position(RECORD_HEADER_SIZE);
+    return record;
+  }
+
+  /* Writes length and checksum in front of the content */
+  private static ByteBuffer finishRecord(ByteBuffer record) {
+    final int size = record.position() - RECORD_HEADER_SIZE;
+    final CRC32 checksum = new CRC32();
+    checksum.update(record.array(), RECORD_HEADER_SIZE, size);
+    record.putInt(0, size);
+    record.putInt(4, (int) checksum.getValue());
+    record.flip();
+    return record;
+  }
+
+  private static void putBytes(ByteBuffer buffer, byte[] bytes) {
+    buffer.putShort((short) bytes.length);
+    buffer.put(bytes);
+  }
+
+  private static String getString(ByteBuffer buffer) {
+    final byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+    buffer.get(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  /**
+   * Reads a journal. The journal ends at the first record that is not complete.
+   * @param file The journal file.
+   * @return The game of the journal or null, if the journal has no start record or can
+   * not be read.
+   */
+  static RecoveredGame read(File file) {
+    final ByteBuffer buffer;
+    try {
+      final RandomAccessFile input = new RandomAccessFile(file, "r"); //NON-NLS
+      try {
+        final byte[] data = new byte[(int) input.length()];
+        input.readFully(data);
+        buffer = ByteBuffer.wrap(data);
+      } finally {
+        input.close();
+      }
+    } catch (IOException e) {
+      LOGGER.severe("Could not read journal "+file+": "+e.getMessage());
+      return null;
+    }
+
+    RecoveredGame game = null;
+    while (buffer.remaining() >= RECORD_HEADER_SIZE) {
+      final int start = buffer.position();
+      final int size = buffer.getInt();
+      final int storedChecksum = buffer.getInt();
+      if(size <= 0 || size > buffer.remaining())
+        break;
+      final CRC32 checksum = new CRC32();
+      checksum.update(buffer.array(), buffer.position(), size);
+      if((int) checksum.getValue() != storedChecksum)
+        break;
+
+      final ByteBuffer record = ByteBuffer.wrap(buffer.array(), buffer.position(), size).slice();
+      buffer.position(buffer.position() + size);
+      final byte type = record.get();
+      if(type == START_RECORD && game == null) {
+        game = new RecoveredGame(getString(record), record.getLong(), record.getInt(),
+            record.get());
+        final int seatCount = record.get();
+        for (int seat = 0; seat < seatCount; seat++) {
+          game.bots.add(record.get() != 0);
+          game.seatNames.add(getString(record));
+        }
+      } else if(type == ACTION_RECORD && game != null) {
+        game.actionSeats.add((int) record.get());
+        final byte[] data = new byte[record.remaining()];
+        record.get(data);
+        game.actions.add(data);
+        game.actionLengths.add((long) buffer.position());
+      } else if(type == END_RECORD && game != null) {
+        game.finished = true;
+      } else {
+        buffer.position(start);
+        break;
+      }
+      if(game != null && game.startLength == 0L)
+        game.startLength = buffer.position();
+    }
+    return game;
+  }
+
+  /* Getter and Setter */
+
+  boolean isGameOpen() {
+    return gameOpen;
+  }
+
+  /* Inner Classes */
+
+  /**
+   * The content of a journal, see {@link GameJournal#read(java.io.File)}.
+   */
+  static class RecoveredGame {
+    final String tableName;
+    final long seed;
+    final int stackSize;
+    final int firstAttackerSeat;
+    final List<String> seatNames;
+    final List<Boolean> bots;
+    /** Seats of the players of the actions. */
+    final List<Integer> actionSeats;
+    /** Encoded actions, see {@link WireCodec#decodeAction(byte[])}. */
+    final List<byte[]> actions;
+    /** Length of the journal up to the end of each action. */
+    final List<Long> actionLengths;
+    /** Length of the journal up to the end of the start record. */
+    long startLength;
+    boolean finished;
+
+    private RecoveredGame(String tableName, long seed, int stackSize, int firstAttackerSeat) {
+      this.tableName = tableName;
+      this.seed = seed;
+      this.stackSize = stackSize;
+      this.firstAttackerSeat = firstAttackerSeat;
+      this.seatNames = new ArrayList<String>();
+      this.bots = new ArrayList<Boolean>();
+      this.actionSeats = new ArrayList<Integer>();
+      this.actions = new ArrayList<byte[]>();
+      this.actionLengths = new ArrayList<Long>();
+    }
+
+    /**
+     * Returns the length of the journal up to the end of an action.
+     * @param actionCount Number of actions from the start of the game.
+     * @return The length.
+     */
+    long getLength(int actionCount) {
+      return actionCount > 0 ? actionLengths.get(actionCount - 1) : startLength;
+    }
+  }
+}
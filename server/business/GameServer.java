@@ -2,18 +2,19 @@ package server.business;
 
 import common.dto.DTOClient;
 import common.dto.message.*;
-import common.game.GameProcess;
-import common.game.rules.RuleException;
+import common.game.bot.MonteCarloBot;
+import common.game.replay.GameRecord;
+import common.game.replay.ReplayFormat;
+import common.game.rules.RuleVerdict;
 import common.i18n.I18nSupport;
 import common.simon.Callable;
 import common.simon.ServerInterface;
 import common.simon.action.GameAction;
-import common.utilities.Converter;
+import common.simon.codec.WireCodec;
+import common.simon.codec.WireCodecException;
 import common.utilities.LoggingUtility;
 import common.utilities.Miscellaneous;
-import common.utilities.constants.GameCardConstants;
 import common.utilities.constants.GameConfigurationConstants;
-import common.utilities.constants.PlayerConstants;
 import de.root1.simon.ClosedListener;
 import de.root1.simon.Lookup;
 import de.root1.simon.Registry;
@@ -21,30 +22,85 @@ import de.root1.simon.Simon;
 import de.root1.simon.annotation.SimonRemote;
 import de.root1.simon.exceptions.NameBindingException;
 
+import java.io.File;
 import java.io.IOException;
+import java.math.BigInteger;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
+import java.security.SecureRandom;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
+import static common.i18n.BundleStrings.GENERAL_PLAYER;
 import static common.i18n.BundleStrings.USER_MESSAGES;
 
 /**
  * User: Timm Herrmann
  * Date: 03.10.12
  * Time: 21:57
+ *
+ * The game server hosts any number of tables. A client that logs in enters the lobby and
+ * will be seated at the default table. Afterwards it can create or join any other table
+ * by its name. Each table has its own game process and its own clients.
  */
 public class GameServer extends Observable implements ClosedListener {
   private static Logger LOGGER = LoggingUtility.getLogger(GameServer.class.getName());
 
+  private static final int RESUME_TOKEN_BITS = 128;
+
   private static GameServer gameServer;
 
   private Integer port;
 
   private DurakServices durakServices;
-  private GameUpdate gameUpdate;
   private Registry registry;
 
+  /** All open tables of the server, mapped by their names. */
+  private final Map<String, GameTable> tables;
+  /** The lobby, maps each logged in client to the table it is seated at. */
+  private final Map<Callable, GameTable> clientTables;
+  /** Every logged in client has its own queue for the messages it will be sent. */
+  private final Map<Callable, OutboundQueue> outboundQueues;
+  /** Handles overflowing outbound queues outside of the threads that send messages. */
+  private final ExecutorService overflowHandler;
+  /** Applies the commands of the tables, see {@link CommandMailbox}. */
+  private final ExecutorService tableCommands;
+  /** Notifies the observers, so that no command of a table waits for the gui. */
+  private final ExecutorService observerNotifier;
+  private OverflowPolicy overflowPolicy;
+  private int outboundCapacity;
+  /** Runs the searches of all bots, half of the cores are left for the client requests. */
+  private final ForkJoinPool botPool;
+  /** Plays the turns of the bots, so that no client request waits for a bot. */
+  private final ExecutorService botTurns;
+  private final MonteCarloBot bot;
+  /** If true, tables with too few players get bots when the games are started. */
+  private volatile boolean fillTablesWithBots;
+  /** Grows with every new snapshot of a table and with every opened or closed table. */
+  private final AtomicLong snapshotVersion;
+  /** Writes the journals of the games of all tables. */
+  private final JournalWriter journalWriter;
+  private final File journalDirectory;
+  /** Writes the replays of the finished games, so that no table waits for the disk. */
+  private final ExecutorService replayWriter;
+  private final File replayDirectory;
+  /** Names of the clients mapped by the tokens that resume their sessions. */
+  private final Map<String, String> resumeTokens;
+  /** The resume token of each logged in client. */
+  private final Map<Callable, String> clientTokens;
+  /** Names of the dropped players mapped by the tasks that give up their seats. */
+  private final Map<String, ScheduledFuture<?>> heldSeats;
+  private final ScheduledExecutorService sessionTimer;
+  private final SecureRandom tokenRandom;
+
   /* Constructors */
   public static GameServer getServerInstance() {
     if(gameServer == null) {
@@ -64,7 +120,36 @@ public class GameServer extends Observable implements ClosedListener {
 
   private GameServer() {
     port = GameConfigurationConstants.DEFAULT_PORT;
-    this.gameUpdate = new GameUpdate();
+    tables = new ConcurrentHashMap<String, GameTable>();
+    clientTables = new ConcurrentHashMap<Callable, GameTable>();
+    outboundQueues = new ConcurrentHashMap<Callable, OutboundQueue>();
+    overflowHandler = Executors.newSingleThreadExecutor();
+    tableCommands = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    observerNotifier = Executors.newSingleThreadExecutor();
+    overflowPolicy = OverflowPolicy.DROP_SUPERSEDED;
+    outboundCapacity = OutboundQueue.DEFAULT_CAPACITY;
+    botPool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    botTurns = Executors.newFixedThreadPool(botPool.getParallelism());
+    bot = new MonteCarloBot(botPool, MonteCarloBot.DEFAULT_BUDGET_MILLIS);
+    fillTablesWithBots = false;
+    snapshotVersion = new AtomicLong(0L);
+    journalWriter = new JournalWriter();
+    journalWriter.start();
+    /* the writer thread is a daemon, the waiting records must be written before the exit */
+    Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+      public void run() {
+        journalWriter.stop();
+      }
+    }, "JournalWriter-Stop")); //NON-NLS
+    journalDirectory = new File(System.getProperty("user.dir"), "journal"); //NON-NLS
+    replayWriter = Executors.newSingleThreadExecutor();
+    replayDirectory = new File(System.getProperty("user.dir"), "replays"); //NON-NLS
+    resumeTokens = new ConcurrentHashMap<String, String>();
+    clientTokens = new ConcurrentHashMap<Callable, String>();
+    heldSeats = new ConcurrentHashMap<String, ScheduledFuture<?>>();
+    sessionTimer = Executors.newSingleThreadScheduledExecutor();
+    tokenRandom = new SecureRandom();
+    getOrCreateTable(GameConfigurationConstants.DEFAULT_TABLE_NAME);
     Simon.setDefaultKeepAliveInterval(5);
     Simon.setDefaultKeepAliveTimeout(5);
   }
@@ -80,7 +165,8 @@ public class GameServer extends Observable implements ClosedListener {
   public void startServer(String password) throws GameServerException {
     if(!isServerRunning()) {
       final String name = GameConfigurationConstants.REGISTRY_NAME_SERVER;
-      durakServices = new DurakServices(password);
+      durakServices = new DurakServices(this, password);
+      recoverGames();
 
       try {
         registry = Simon.createRegistry(port);
@@ -99,6 +185,19 @@ public class GameServer extends Observable implements ClosedListener {
     }
   }
 
+  /**
+   * Recovers the games of the journals that were running when the server stopped. The
+   * players of these games take their seats by logging in with their names.
+   */
+  private void recoverGames() {
+    for (File file : GameJournal.listFiles(journalDirectory)) {
+      final GameJournal.RecoveredGame game = GameJournal.read(file);
+      if(game != null && !game.finished &&
+          file.equals(GameJournal.getFile(journalDirectory, game.tableName)))
+        getOrCreateTable(game.tableName).recoverGame(game);
+    }
+  }
+
   /**
    * Removes all client references out of the list and shuts the server down.
    */
@@ -106,36 +205,55 @@ public class GameServer extends Observable implements ClosedListener {
     if(isServerRunning()) {
       broadcastMessage(BroadcastType.SERVER_SHUTDOWN);
       removeAllClients();
+      journalWriter.flush();
       registry.unbind(GameConfigurationConstants.REGISTRY_NAME_SERVER);
       registry.stop();
       LOGGER.info(LoggingUtility.STARS+" Server shut down "+LoggingUtility.STARS);
     }
   }
 
+  /**
+   * Starts a game at every table that has no running game and enough players. If the
+   * tables are filled with bots, a table with too few players gets bots first, see
+   * {@link #setFillTablesWithBots(boolean)}.
+   * @param stackSize Stack size for the games.
+   * @return True, if at least one game was started, else false.
+   */
   public boolean startGame(Integer stackSize) {
-    if(gameUpdate.invokeGame(stackSize)) {
-      LOGGER.info(LoggingUtility.STARS+" Game started "+LoggingUtility.STARS);
-      return true;
-    } else LOGGER.info("Not enough player for a game");
-    return false;
+    boolean started = false;
+    for (GameTable table : tables.values()) {
+      if(fillTablesWithBots)
+        fillWithBots(table);
+      started = table.startGame(stackSize) || started;
+    }
+    return started;
+  }
+
+  /* Seats bots at the table until it has enough players for a game */
+  private void fillWithBots(GameTable table) {
+    for (int missing = table.getMissingPlayerCount(); missing > 0; missing--) {
+      if(!table.addBot(createBotName()))
+        return;
+    }
+  }
+
+  private String createBotName() {
+    int number = 1;
+    String name;
+    do {
+      name = I18nSupport.getValue(GENERAL_PLAYER, "bot.0", number++);
+    } while (clientNameExists(name));
+    return name;
   }
 
   /**
-   * Stops the game. The boolean parameter specifies, if the game was canceled or properly
-   * finished. Anyway, if the game is running and the method is called, the clients will be
-   * notified that the game was canceled.
+   * Stops the games of all tables. See {@link GameTable#stopGame(boolean, String)}.
    * @param canceled If true, every client will be notified that it was canceled, else just finished.
    * @param reason String that will be send to the client if the game was canceled.
    */
   public void stopGame(boolean canceled, String reason) {
-    boolean wasRunning = gameUpdate.stopGame(false);
-
-    if(wasRunning)
-      broadcastMessage(GameUpdateType.GAME_CANCELED, reason);
-    else if(!canceled)
-      broadcastMessage(GameUpdateType.GAME_FINISHED);
-    setChangedAndNotify(GUIObserverType.GAME_FINISHED);
-    LOGGER.info(LoggingUtility.STARS+" Game stopped "+LoggingUtility.STARS);
+    for (GameTable table : tables.values())
+      table.stopGame(canceled, reason);
   }
 
   /**
@@ -149,27 +267,31 @@ public class GameServer extends Observable implements ClosedListener {
 
   /**
    * Notifies all java.util.Observer objects that are added to the server.
-   * It sends a MessageObject object as update parameter to all observers.
+   * It sends a MessageObject object as update parameter to all observers. The observers
+   * are notified in order on a thread of their own, because they might read the tables.
    * @param type Type that defines the MessageObject.
    * @param sendingObject Object that is corresponding to the type.
    */
-  void setChangedAndNotify(Enum<?> type, Object sendingObject) {
-    setChanged();
-    notifyObservers(new MessageObject(type, sendingObject));
+  void setChangedAndNotify(final Enum<?> type, final Object sendingObject) {
+    observerNotifier.execute(new Runnable() {
+      public void run() {
+        setChanged();
+        notifyObservers(new MessageObject(type, sendingObject));
+      }
+    });
   }
 
   /**
-   * Sends the same message to every client.
+   * Sends the same message to every client of every table.
    * @param type Type that indicates the message type.
    * @param sendingObject Sending object to send.
    */
   public void broadcastMessage(Enum<?> type, Object sendingObject) {
-    List<Callable> callableList = gameUpdate.getRemoteReferences();
-    broadcastMessage(type, callableList, sendingObject);
+    broadcastMessage(type, new ArrayList<Callable>(clientTables.keySet()), sendingObject);
   }
 
   /**
-   * Sends the same message to every client.
+   * Sends the same message to every client of every table.
    * @param type Type that indicates the message type.
    */
   public void broadcastMessage(Enum<?> type) {
@@ -189,33 +311,67 @@ public class GameServer extends Observable implements ClosedListener {
     }
   }
 
-  /* sends to each client a list with all the other logged in clients */
-  void broadcastOtherClients(Enum<?> type) {
-    broadcastOtherClients(type, gameUpdate.getRemoteReferences());
+  /**
+   * Sends a message to a client. If the client is logged in, the message will be appended
+   * to its outbound queue and this method returns immediately. Otherwise, e.g. if the
+   * login was refused, the message will be sent directly.
+   * @param callable Client remote reference.
+   * @param messageObject Message to send.
+   */
+  public void sendMessage(Callable callable, MessageObject messageObject) {
+    final OutboundQueue queue = outboundQueues.get(callable);
+    if(queue != null)
+      queue.offer(messageObject);
+    else callable.callback(messageObject);
   }
 
-  void broadcastOtherClients(Enum<?> type, Collection<Callable> callables) {
-    final List<DTOClient> clients = new ArrayList<DTOClient>();
-    final List<Callable> callableList = new ArrayList<Callable>();
-    DTOClient currentClient;
-
-    /* iterate the clients so that the original sequence is not changed */
-    Miscellaneous.addAllToCollection(clients, gameUpdate.getClients(callables));
-    Miscellaneous.addAllToCollection(callableList, callables);
-    for (Callable callable : callableList) {
-      currentClient = gameUpdate.getClient(callable);
-      final int index = Miscellaneous.findIndex(clients,currentClient,
-          Miscellaneous.CLIENT_COMPARATOR);
-      /* remove the client, send the rest of the list to all clients and add the current
-       * client back to the list */
-      clients.remove(index);
-      sendMessage(callable, new MessageObject(type, clients));
-      clients.add(index,currentClient);
-    }
+  /**
+   * Applies the overflow policy for a client whose outbound queue is full. The policy will
+   * be applied asynchronously, because the calling thread might be sending messages.
+   * @param callable Client remote reference.
+   * @param policy Policy to apply.
+   */
+  void handleOverflow(final Callable callable, final OverflowPolicy policy) {
+    overflowHandler.execute(new Runnable() {
+      public void run() {
+        if(OverflowPolicy.DEMOTE_TO_SPECTATOR.equals(policy)) {
+          final GameTable table = getTable(callable);
+          if(table != null)
+            table.demoteClient(callable);
+        } else if(OverflowPolicy.DISCONNECT.equals(policy)) {
+          removeClient(callable);
+        }
+      }
+    });
   }
 
-  public void sendMessage(Callable callable, MessageObject messageObject) {
-    callable.callback(messageObject);
+  /**
+   * Sends a client whose outbound queue overflowed the current state of its table. The
+   * state will be sent asynchronously, because the calling thread might be sending messages.
+   * @param callable Client remote reference.
+   */
+  void resyncClient(final Callable callable) {
+    overflowHandler.execute(new Runnable() {
+      public void run() {
+        final GameTable table = getTable(callable);
+        if(table != null)
+          table.resyncClient(callable);
+      }
+    });
+  }
+
+  private void openOutboundQueue(Callable callable, int codecVersion) {
+    final WireCodec codec = codecVersion > WireCodec.NO_CODEC ? new WireCodec() : null;
+    final OutboundQueue queue =
+        new OutboundQueue(this, callable, codec, overflowPolicy, outboundCapacity);
+    outboundQueues.put(callable, queue);
+    queue.start();
+  }
+
+  private void closeOutboundQueue(Callable callable, boolean drain) {
+    final OutboundQueue queue = outboundQueues.remove(callable);
+    if(queue != null)
+      queue.close(drain);
   }
 
   /**
@@ -242,15 +398,30 @@ public class GameServer extends Observable implements ClosedListener {
   }
 
   /**
-   * Adds the client to the server list and notifies the gui and all clients.
+   * Adds the client to the lobby and seats it at the default table. A player of a recovered
+   * game will be seated at the table of the game.
    * @param callable Client remote reference.
    * @param client The client.
+   * @param codecVersion Version of the {@link WireCodec} for the messages to the client,
+   *                     {@link WireCodec#NO_CODEC} for Java serialization.
    * @return Returns true if client was added, else false.
    */
-  boolean addClient(Callable callable, DTOClient client) {
-    if(gameUpdate.addClient(callable, client)) {
-      notifyClientLists(callable);
-    } else return false;
+  boolean addClient(Callable callable, DTOClient client, int codecVersion) {
+    if(clientTables.containsKey(callable))
+      return false;
+
+    openOutboundQueue(callable, codecVersion);
+    GameTable table;
+    synchronized (tables) {
+      table = getVacantSeatTable(client.name);
+      if(table == null)
+        table = getOrCreateTable(GameConfigurationConstants.DEFAULT_TABLE_NAME);
+      table.pin();
+    }
+    if(!seatClient(table, callable, client)) {
+      closeOutboundQueue(callable, false);
+      return false;
+    }
 
     getClientLookup(callable).addClosedListener(callable, this);
     LOGGER.info("Added client: "+client);
@@ -258,585 +429,581 @@ public class GameServer extends Observable implements ClosedListener {
     return true;
   }
 
-  private Lookup getClientLookup(Callable callable) {
-    final InetSocketAddress address = Simon.getRemoteInetSocketAddress(callable);
-    return Simon.createNameLookup(address.getAddress(), address.getPort());
-  }
-
   /**
-   * Stops the game session and with it all remote references and registered listeners will be
-   * removed.
+   * Creates a resume token for a client that logged in and sends it to the client. With
+   * the token the client can take its seat again, if its connection drops during a game.
+   * @param callable Client remote reference.
+   * @param name Name of the client.
    */
-  private void removeAllClients() {
-    final List<Callable> callables = gameUpdate.getRemoteReferences();
-    for (Callable callable : callables)
-      getClientLookup(callable).removeClosedListener(callable, this);
-    gameUpdate.stopSession();
-    setChangedAndNotify(GUIObserverType.CLIENT_LIST);
+  void startSession(Callable callable, String name) {
+    final String token = new BigInteger(RESUME_TOKEN_BITS, tokenRandom).toString(16);
+    resumeTokens.put(token, name);
+    clientTokens.put(callable, token);
+    sendMessage(callable, new MessageObject(MessageType.RESUME_TOKEN, token));
   }
-  
+
   /**
-   * Removes a client from the server and notifies the gui and all clients.
-   * @param callable Client remote reference.
-   * @return Returns true if the client was removed, else false.
+   * Seats a client at the seat that is held for the session of the token. The client gets
+   * the state of the game in one frame instead of the whole initialisation.
+   * @param callable New remote reference of the client.
+   * @param token Resume token of the session.
+   * @param codecVersion Version of the {@link WireCodec} for the messages to the client.
+   * @return True, if the session was resumed, else false.
    */
-  boolean removeClient(Callable callable) {
-    final DTOClient client = getClient(callable);
-    if(gameUpdate.removeClient(callable)) {
-      if(!client.spectating) {
-        stopGame(true,
-            I18nSupport.getValue(USER_MESSAGES, "game.canceled.player.0.logged.off", client.name));
+  boolean resumeSession(Callable callable, String token, int codecVersion) {
+    final String name = token != null ? resumeTokens.get(token) : null;
+    if(name == null)
+      return false;
+    /* the old connection may have dropped without a closed event so far, only the table */
+    /* of the player has to be refreshed */
+    if(!heldSeats.containsKey(name)) {
+      final GameTable oldTable = getTableOfClient(name);
+      if(oldTable != null) {
+        oldTable.refreshClients();
+        refreshLobby(oldTable);
+        setChangedAndNotify(GUIObserverType.CLIENT_LIST);
       }
-      notifyClientLists(null);
-    } else return false;
+    }
 
-    getClientLookup(callable).removeClosedListener(callable, this);
-    LOGGER.info("Removed client: "+client);
+    final GameTable table = getVacantSeatTable(name);
+    final ScheduledFuture<?> release = heldSeats.remove(name);
+    if(table == null || release == null)
+      return false;
+    release.cancel(false);
+
+    if(!addClient(callable, new DTOClient(name), codecVersion)) {
+      holdSeat(table, name);
+      return false;
+    }
+    clientTokens.put(callable, token);
+    table.broadcastMessage(MessageType.STATUS_MESSAGE,
+        I18nSupport.getValue(USER_MESSAGES, "status.player.0.returned", name));
+    LOGGER.info("Resumed session of "+name+" at table "+table.getName());
     return true;
   }
 
   /**
-   * Notifies the server gui and all clients which clients are currently in the list.
-   * The first parameter is the remote object of the client that was added.
-   * If this parameter is null, all clients and the server gui will
-   * be notified. The second parameter will then be ignored.
+   * Holds the seat of a player whose connection dropped during a game. If the player does
+   * not resume its session within {@link GameConfigurationConstants#SESSION_GRACE_SECONDS},
+   * the seat will be released and the game of the table will be canceled.
+   * Called by the tables.
+   * @param table Table of the player.
+   * @param name Name of the player.
    */
-  private void notifyClientLists(Callable addedCallable) {
-    setChangedAndNotify(GUIObserverType.CLIENT_LIST);
-    if(addedCallable != null) {
-      DTOClient client = gameUpdate.getClient(addedCallable);
-      sendMessage(addedCallable, new MessageObject(MessageType.OWN_CLIENT_INFO, client));
-    }
-    broadcastOtherClients(BroadcastType.LOGIN_LIST);
+  void holdSeat(final GameTable table, final String name) {
+    final ScheduledFuture<?> release = sessionTimer.schedule(new Runnable() {
+      public void run() {
+        if(heldSeats.remove(name) != null) {
+          resumeTokens.values().remove(name);
+          table.releaseSeat(name);
+          closeTableIfEmpty(table);
+          setChangedAndNotify(GUIObserverType.CLIENT_LIST);
+        }
+      }
+    }, GameConfigurationConstants.SESSION_GRACE_SECONDS, TimeUnit.SECONDS);
+    final ScheduledFuture<?> previous = heldSeats.put(name, release);
+    if(previous != null)
+      previous.cancel(false);
   }
 
   /**
-   * Validates an action by calling the game updater.
-   * @param callable Client remote reference.
-   * @param action Attached GameAction object.
-   * @throws RuleException Will be thrown if the client broke a game rule.
+   * Returns true, if the seat of a dropped player with this name is held for the player.
+   * @param name Name of the player.
+   * @return True, if the seat is held, else false.
    */
-  void validateAction(Callable callable, GameAction action) throws RuleException {
-    boolean nextRound = gameUpdate.getProcess().validateAction(
-        action, gameUpdate.getPlayerID(callable));
-    if(gameUpdate.updateMove(nextRound))
-      stopGame(false, "");
+  boolean isSeatHeld(String name) {
+    return heldSeats.containsKey(name) && getVacantSeatTable(name) != null;
   }
 
   /**
-   * Updates the client and and all the lists if necessary.
-   * @param callable Client remote reference
-   * @param client Client information object.
+   * Moves a client from its current table to the table with the specified name. If no
+   * table with this name exists, it will be created. A table that becomes empty will be
+   * closed, unless it is the default table. If the client can not be seated at the new
+   * table, it stays at its current table.
+   * @param callable Client remote reference.
+   * @param tableName Name of the table to join.
+   * @return Returns true if the client is now seated at the table, else false.
    */
-  public void updateClient(Callable callable, DTOClient client) {
-    final DTOClient oldClient = gameUpdate.updateClientInformation(callable, client);
-    notifyClientLists(null);
-    LOGGER.info("Updated client from "+oldClient+" to "+client);
-  }
+  boolean joinTable(Callable callable, String tableName) {
+    final GameTable oldTable = clientTables.get(callable);
+    if(oldTable == null || tableName == null || tableName.trim().isEmpty())
+      return false;
+    if(oldTable.getName().equals(tableName))
+      return true;
 
-  public boolean clientNameExists(String name) {
-    boolean exists = false;
-    for (DTOClient client : gameUpdate.getClients()) {
-      exists = exists || client.name.equals(name);
+    final DTOClient client = oldTable.getClient(callable);
+    final GameTable newTable;
+    synchronized (tables) {
+      newTable = getOrCreateTable(tableName);
+      newTable.pin();
+    }
+    if(!seatClient(newTable, callable, client)) {
+      LOGGER.warning("Could not seat client "+client+" at table "+tableName);
+      return false;
     }
-    return exists;
+    oldTable.removeClient(callable);
+    closeTableIfEmpty(oldTable);
+    sendMessage(callable, new MessageObject(MessageType.STATUS_MESSAGE,
+        I18nSupport.getValue(USER_MESSAGES, "status.joined.table.0", tableName)));
+
+    return true;
   }
 
   /**
-   * Called when a client connection was improperly closed.
+   * Seats a bot at the table with the specified name. Bots can only be seated if the game
+   * of the table is not running.
+   * @param tableName Name of the table.
+   * @param botName Name of the bot, it must not be used by any client.
+   * @return True, if the bot was seated, else false.
    */
-  public void closed() {
-    /* refresh the clients */
-    gameUpdate.refreshClients();
-    setChangedAndNotify(GUIObserverType.CLIENT_LIST);
+  public boolean addBot(String tableName, String botName) {
+    final GameTable table = tables.get(tableName);
+    return table != null && !clientNameExists(botName) && table.addBot(botName);
   }
 
-  public void setPassword(String password) {
-    durakServices.setPassword(password);
+  /**
+   * Removes a bot from the table with the specified name. If the bot was playing, the game
+   * of the table will be canceled.
+   * @param tableName Name of the table.
+   * @param botName Name of the bot.
+   * @return True, if the bot was removed, else false.
+   */
+  public boolean removeBot(String tableName, String botName) {
+    final GameTable table = tables.get(tableName);
+    return table != null && table.removeBot(botName);
   }
 
-  /* Getter and Setter */
-
-  public void setPort(int port) {
-    if(!isServerRunning())
-      this.port = port;
+  /**
+   * Lets the bot play its turn in one of the bot threads.
+   * @param table Table of the bot.
+   * @param playerID Player id of the bot.
+   */
+  void playBotTurn(final GameTable table, final Integer playerID) {
+    botTurns.execute(new Runnable() {
+      public void run() {
+        table.playBotTurn(playerID);
+      }
+    });
   }
 
-  @SuppressWarnings("UnusedDeclaration")
-  public Integer getPort() {
-    return port;
+  /**
+   * Writes the record of a game of a table into a replay file. The file is named after
+   * the table and the time the game ended, see {@link ReplayFormat}.
+   * @param tableName Name of the table.
+   * @param record Record of the game.
+   */
+  void saveReplay(final String tableName, final GameRecord record) {
+    replayWriter.execute(new Runnable() {
+      public void run() {
+        final File file = new File(replayDirectory, GameJournal.toFileName(tableName)
+            +"-"+System.currentTimeMillis()+ReplayFormat.FILE_EXTENSION);
+        if(!replayDirectory.isDirectory() && !replayDirectory.mkdirs()) {
+          LOGGER.warning("Could not create replay directory "+replayDirectory);
+          return;
+        }
+        try {
+          ReplayFormat.write(record, file);
+          LOGGER.info("Saved replay of table "+tableName+" to "+file);
+        } catch (IOException e) {
+          LOGGER.warning("Could not save replay of table "+tableName+": "+e.getMessage());
+        }
+      }
+    });
+  }
+
+  private GameTable getOrCreateTable(String tableName) {
+    GameTable table = tables.get(tableName);
+    if(table == null) {
+      synchronized (tables) {
+        table = tables.get(tableName);
+        if(table == null) {
+          table = new GameTable(this, tableName, tableCommands, journalWriter,
+              journalDirectory);
+          tables.put(tableName, table);
+          snapshotVersion.incrementAndGet();
+          LOGGER.info("Opened table "+tableName);
+        }
+      }
+    }
+    return table;
   }
 
-  public boolean isServerRunning() {
-    return registry != null && registry.isRunning();
+  /* Seats the client at a table that was pinned while the lock of the tables was held. The */
+  /* seating waits for the mailbox of the table, so it runs without the lock and the other */
+  /* tables are not blocked. A table that stays empty is closed afterwards */
+  private boolean seatClient(GameTable table, Callable callable, DTOClient client) {
+    boolean seated = false;
+    try {
+      seated = table.addClient(callable, client);
+      if(seated)
+        clientTables.put(callable, table);
+    } finally {
+      table.unpin();
+      if(!seated)
+        closeTableIfEmpty(table);
+    }
+    return seated;
+  }
+
+  /* Holds the lock of the tables, so that no client is seated at the table while it is */
+  /* closed. A pinned table is not closed, see seatClient */
+  private void closeTableIfEmpty(GameTable table) {
+    synchronized (tables) {
+      if(GameConfigurationConstants.DEFAULT_TABLE_NAME.equals(table.getName())
+          || table.isPinned() || !table.isEmpty() || holdsSeats(table)
+          || tables.get(table.getName()) != table)
+        return;
+      tables.remove(table.getName());
+      snapshotVersion.incrementAndGet();
+    }
+    table.close();
+    LOGGER.info("Closed table "+table.getName());
   }
 
-  public List<DTOClient> getClients() {
-    return gameUpdate.getClients();
+  private boolean holdsSeats(GameTable table) {
+    for (String name : heldSeats.keySet()) {
+      if(table.clientNameExists(name))
+        return true;
+    }
+    return false;
   }
 
-  public DTOClient getClient(Callable callable) {
-    return gameUpdate.getClient(callable);
+  private Lookup getClientLookup(Callable callable) {
+    final InetSocketAddress address = Simon.getRemoteInetSocketAddress(callable);
+    return Simon.createNameLookup(address.getAddress(), address.getPort());
   }
-}
 
-/******************************************/
-/********** Simon Implementation **********/
-/******************************************/
-@SimonRemote(value={ServerInterface.class})
-class DurakServices implements ServerInterface {
-  private static final Logger LOGGER = LoggingUtility.getLogger(DurakServices.class.getName());
-
-  private String password;
-
-  DurakServices(String password) {
-    this.password = password;
+  /**
+   * Stops the game sessions of all tables and with it all remote references and
+   * registered listeners will be removed.
+   */
+  private void removeAllClients() {
+    for (Callable callable : clientTables.keySet())
+      getClientLookup(callable).removeClosedListener(callable, this);
+    for (ScheduledFuture<?> release : heldSeats.values())
+      release.cancel(false);
+    heldSeats.clear();
+    resumeTokens.clear();
+    clientTokens.clear();
+    for (GameTable table : tables.values())
+      table.removeAllClients();
+    clientTables.clear();
+    for (Callable callable : new ArrayList<Callable>(outboundQueues.keySet()))
+      closeOutboundQueue(callable, true);
+    setChangedAndNotify(GUIObserverType.CLIENT_LIST);
   }
 
-  public boolean login(Callable callable, DTOClient client, String password) {
-    boolean result = false;
-    final GameServer server = GameServer.getServerInstance();
+  /**
+   * Removes a client from the server and notifies the gui and all clients of its table.
+   * @param callable Client remote reference.
+   * @return Returns true if the client was removed, else false.
+   */
+  boolean removeClient(Callable callable) {
+    final GameTable table = clientTables.remove(callable);
+    if(table == null)
+      return false;
 
-    if(this.password.equals(password)) {
-      if(!server.clientNameExists(client.name))
-        result = server.addClient(callable, client);
-      else server.sendMessage(callable, new MessageObject(MessageType.STATUS_MESSAGE,
-          I18nSupport.getValue(USER_MESSAGES, "status.name.0.already.exists", client.name)));
-    } else {
-      server.sendMessage(callable, new MessageObject(MessageType.STATUS_MESSAGE,
-          I18nSupport.getValue(USER_MESSAGES,"status.permission.denied")));
-    }
+    final DTOClient client = table.getClient(callable);
+    final String token = clientTokens.remove(callable);
+    if(token != null)
+      resumeTokens.remove(token);
+    table.removeClient(callable);
+    closeTableIfEmpty(table);
+    closeOutboundQueue(callable, true);
 
-    return result;
+    getClientLookup(callable).removeClosedListener(callable, this);
+    LOGGER.info("Removed client: "+client);
+    return true;
   }
 
-  public void logoff(Callable callable) {
-    GameServer.getServerInstance().removeClient(callable);
+  public boolean clientNameExists(String name) {
+    for (GameTable table : tables.values()) {
+      if(table.clientNameExists(name))
+        return true;
+    }
+    return false;
   }
 
-  public void sendChatMessage(Callable callable, String message) {
-    final DTOClient client = GameServer.getServerInstance().getClient(callable);
-    if(client != null) {
-      ChatMessage chatMessage = new ChatMessage(System.currentTimeMillis(), client, message);
-      GameServer.getServerInstance().broadcastMessage(BroadcastType.CHAT_MESSAGE, chatMessage);
+  /**
+   * Returns the table of the recovered game that has a vacant seat for the player.
+   * @param name Name of the player.
+   * @return The table or null, if there is no vacant seat for this name.
+   */
+  GameTable getVacantSeatTable(String name) {
+    for (GameTable table : tables.values()) {
+      if(table.clientNameExists(name) && table.hasVacantSeat(name))
+        return table;
     }
+    return null;
   }
 
-  public boolean doAction(Callable callable, GameAction action) {
-    boolean actionDone = false;
-    final GameServer server = GameServer.getServerInstance();
-    try {
-      server.validateAction(callable, action);
-      actionDone = true;
-    } catch (RuleException e) {
-      LOGGER.info("User \'" + action.getExecutor().name
-          + "\' breaks the rules with action " + action);
-      server.sendMessage(callable,
-          new MessageObject(MessageType.RULE_MESSAGE, e.getMessage()));
+  /* Returns the table where a client or a vacant seat has the name or null */
+  private GameTable getTableOfClient(String name) {
+    for (GameTable table : tables.values()) {
+      if(table.clientNameExists(name))
+        return table;
     }
-
-    return actionDone;
+    return null;
   }
 
-  public void updateClient(Callable callable, DTOClient client) {
-    GameServer.getServerInstance().updateClient(callable, client);
+  /**
+   * Called when a client connection was improperly closed.
+   */
+  public void closed() {
+    /* refresh the clients of every table and the lobby */
+    for (GameTable table : tables.values())
+      table.refreshClients();
+    refreshLobby(null);
+    setChangedAndNotify(GUIObserverType.CLIENT_LIST);
   }
 
-  /* Getter and Setter */
+  /* Removes the lobby entries that are not seated at their table anymore. Only the */
+  /* entries of the table are checked, all entries if the table is null */
+  private void refreshLobby(GameTable table) {
+    for (Map.Entry<Callable, GameTable> entry : clientTables.entrySet()) {
+      if(table != null && entry.getValue() != table)
+        continue;
+      try {
+        if(!entry.getValue().containsClient(entry.getKey())) {
+          clientTables.remove(entry.getKey());
+          /* a dropped player keeps its token as long as its seat is held */
+          final String token = clientTokens.remove(entry.getKey());
+          final String name = token != null ? resumeTokens.get(token) : null;
+          if(name != null && !heldSeats.containsKey(name))
+            resumeTokens.remove(token);
+          closeOutboundQueue(entry.getKey(), false);
+          closeTableIfEmpty(entry.getValue());
+        }
+      } catch (Exception e) {
+        LOGGER.warning("Could not access to a key in the lobby");
+      }
+    }
+  }
 
   public void setPassword(String password) {
-    this.password = password;
+    durakServices.setPassword(password);
   }
 
-  @SuppressWarnings("UnusedDeclaration")
-  public String getPassword() {
-    return password;
+  /* Called by a table that published a snapshot with a new version */
+  void snapshotPublished() {
+    snapshotVersion.incrementAndGet();
   }
-}
 
-@SuppressWarnings("unchecked")
-class GameUpdate {
-  private Logger LOGGER = LoggingUtility.getLogger(GameUpdate.class.getName());
-  private GameProcess<Integer> process;
-  private GameServer server = null;
-  private IngameSpectatorHolder<Callable,DTOClient> clientHolder;
-
-  public GameUpdate() {
-    this.clientHolder = new IngameSpectatorHolder<Callable, DTOClient>();
-    this.process = new GameProcess<Integer>();
-  }
+  /* Getter and Setter */
 
-  /**
-   * Gets the player's ID for the surpassed client. The hashCode method of this object
-   * should work like it should work for the use of a HashMap.
-   * @param client Surpassed client.
-   * @return Should return a unique integer for this object.
-   */
-  private int getPlayerID(DTOClient client) {
-    return client.hashCode();
+  public void setPort(int port) {
+    if(!isServerRunning())
+      this.port = port;
   }
 
-  /**
-   * Gets the player's ID for the surpassed callable calling
-   * {@link #getPlayerID(common.dto.DTOClient)}.
-   * @param callable Surpassed client remote reference.
-   * @return Should return a unique integer for this object.
-   */
-  public Integer getPlayerID(Callable callable) {
-    return getPlayerID(getClient(callable));
+  @SuppressWarnings("UnusedDeclaration")
+  public Integer getPort() {
+    return port;
   }
 
-  /**
-   * Invokes a game if it is not running already and if there are
-   * enough players.
-   * @param stackSize Stack size for the game.
-   * @return Returns true, if the game was invoked, else false.
-   */
-  public boolean invokeGame(Integer stackSize) {
-    boolean invoked = false;
-    Integer cardsPerColour = stackSize / GameCardConstants.CardColour.values().length;
-    if (!process.isGameInProcess() && process.getPlayerCount() > 1) {
-      process.initialiseNewGame(cardsPerColour);
-      server = GameServer.getServerInstance();
-      sendClientInit();
-      invoked = true;
-    }
-    return invoked;
+  MonteCarloBot getBot() {
+    return bot;
   }
 
   /**
-   * Stops the game and removes all clients and their references.
+   * Sets if the tables that have too few players for a game get bots, when the games are
+   * started by {@link #startGame(Integer)}. Only tables with at least one player get bots.
+   * @param fillTablesWithBots True, if the tables will be filled with bots.
    */
-  public void stopSession() {
-    stopGame(true);
-    clientHolder.clear();
+  public void setFillTablesWithBots(boolean fillTablesWithBots) {
+    this.fillTablesWithBots = fillTablesWithBots;
   }
 
-  /**
-   * Stops the game process. All settings will be reset. Depending on the parameter all
-   * already registered players will be either deleted from the list or not. (This means the
-   * process will be totally reset to the initial state.)
-   * @param deletePlayers If true, players will be deleted.
-   * @return True, game was running, else false.
-   */
-  public boolean stopGame(boolean deletePlayers) {
-    boolean stopped = process.isGameInProcess();
-
-    if(deletePlayers)
-      process.reInitialise();
-    else process.stopProcess();
-
-    return stopped;
+  @SuppressWarnings("UnusedDeclaration")
+  public boolean isFillTablesWithBots() {
+    return fillTablesWithBots;
   }
 
   /**
-   * Adds the client to the list if it dow not already exists.
-   * @param callable Client remote reference.
-   * @param client The client.
-   * @return True if the client was added, else false.
+   * Sets the policy that will be applied if the outbound queue of a client is full.
+   * The policy affects only clients that log in afterwards.
+   * @param overflowPolicy Policy for full outbound queues.
    */
-  boolean addClient(Callable callable, DTOClient client) {
-    if(clientHolder.containsKey(callable))
-      return false;
-
-    /* Create a local reference of the DTOClient object on the server */
-    final DTOClient localClient = new DTOClient("");
-    localClient.setClientInfo(client);
-
-    if(process.isGameInProcess() || localClient.spectating) {
-      localClient.spectating = true;
-      clientHolder.addSpectator(callable, localClient);
-    } else {
-      clientHolder.addInGameValue(callable,localClient);
-      process.setPlayer(getPlayerID(localClient));
-    }
-
-    return true;
+  @SuppressWarnings("UnusedDeclaration")
+  public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+    if(overflowPolicy != null)
+      this.overflowPolicy = overflowPolicy;
   }
 
-  /**
-   * Removes a client from the list if it exists and cancels the game if necessary.
-   * @param callable Remote reference of the client.
-   * @return True if the client was removed, else false.
-   */
-  boolean removeClient(Callable callable) {
-    /* Client's player reference has also to be removed and if it was a player */
-    /* In every case delete afterwards the client remote reference */
-    process.removePlayer(getPlayerID(callable));
-    return clientHolder.removeKey(callable);
-  }
-
-  /**
-   * Changes the client information depending on the remote reference and returns the old
-   * information. The lists will also be updated if necessary.
-   * @param callable Remote reference of the client.
-   * @param client The new client information.
-   * @return Returns the old information.
-   */
-  public DTOClient updateClientInformation(Callable callable, DTOClient client) {
-    DTOClient oldClient = getClient(callable);
-    removeClient(callable);
-    addClient(callable, client);
-    return oldClient;
-  }
-
-  private void sendClientInit() {
-    gameUpdateClients();
-    server.broadcastMessage(GameUpdateType.STACK_UPDATE, Converter.toDTO(process.getStack()));
-    informIngamePlayers();
-    informSpectators();
-  }
-
-  /* Returns true, if there is a client that has changed. */
-  private boolean gameUpdateClients() {
-    boolean changed = false;
-    for (DTOClient client : clientHolder.getInGameValues()) {
-      final int cardCount = process.getPlayerCards(getPlayerID(client)).size();
-      final PlayerConstants.PlayerType type = process.getPlayerType(getPlayerID(client));
-      changed = changed || (cardCount != client.cardCount)  || (type != client.playerType);
-      client.cardCount = cardCount;
-      client.playerType = type;
-    }
-    return changed;
+  @SuppressWarnings("UnusedDeclaration")
+  public OverflowPolicy getOverflowPolicy() {
+    return overflowPolicy;
   }
 
   /**
-   * Updates all players and spectators with the necessary data.
-   * @param nextRound True, the process will go to the next round. False, the process updates
-   *                  the current round.
-   * @return True, the game has finished, else false.
+   * Sets the maximum number of messages that can be queued for a client. The capacity
+   * affects only clients that log in afterwards.
+   * @param outboundCapacity Capacity of the outbound queues, must be positive.
    */
-  public boolean updateMove(boolean nextRound) {
-    if(nextRound) {
-      if(!process.goToNextRound()) {
-        LOGGER.warning("Couldn't go to next round! GameProcess#readyForNextRound: "
-            + process.readyForNextRound());
-      } else updateNextRound();
-    } else updateCurrentRound();
-
-    return process.gameHasFinished();
-  }
-
-  private void updateNextRound() {
-    if(gameUpdateClients()) {
-      informIngamePlayers();
-      /* update player list */
-      server.broadcastMessage(GameUpdateType.PLAYERS_UPDATE,
-          Collections.list(Collections.enumeration(clientHolder.getInGameValues())));
-    }
-    informSpectators();
-    server.broadcastMessage(GameUpdateType.STACK_UPDATE, Converter.toDTO(process.getStack()));
-    sendNextRoundInfo(true, process.defenderTookCards(), false);
+  @SuppressWarnings("UnusedDeclaration")
+  public void setOutboundCapacity(int outboundCapacity) {
+    if(outboundCapacity > 0)
+      this.outboundCapacity = outboundCapacity;
   }
 
-  private void updateCurrentRound() {
-    /* update player list */
-    if(gameUpdateClients()) {
-      server.broadcastMessage(GameUpdateType.PLAYERS_UPDATE,
-          Collections.list(Collections.enumeration(clientHolder.getInGameValues())));
-    }
-
-    /* update ingame cards */
-    if(process.cardsHaveChanged())
-      server.broadcastMessage(GameUpdateType.IN_GAME_CARDS,
-          Converter.toDTO(process.getAttackCards(), process.getDefenseCards()));
-
-    sendNextRoundInfo(false, false, process.attackersReady());
+  public boolean isServerRunning() {
+    return registry != null && registry.isRunning();
   }
 
-  private void sendNextRoundInfo(boolean nextRound, boolean defenderTookCards,
-                                 boolean attackersFinished) {
-    final List<Boolean> roundInfo = new ArrayList<Boolean>(3);
-    roundInfo.add(nextRound);
-    roundInfo.add(defenderTookCards);
-    roundInfo.add(attackersFinished);
-    server.broadcastMessage(GameUpdateType.NEXT_ROUND_INFO, roundInfo);
-  }
   /**
-   * Sends each inGame client his player info and all opponent's info
-   * (number of cards, name, etc...)
+   * Returns the version of the snapshots of all tables, see {@link TableSnapshot}. If the
+   * version did not change, the clients and games of the server did not change either.
+   * @return The version.
    */
-  private void informIngamePlayers() {
-    for (Callable callable : clientHolder.getInGameKeys()) {
-      final DTOClient client = clientHolder.getInGameValue(callable);
-      server.sendMessage(callable, new MessageObject(GameUpdateType.CLIENT_CARDS,
-          process.getPlayerCards(getPlayerID(client))));
-      server.sendMessage(callable, new MessageObject(MessageType.OWN_CLIENT_INFO, client));
-    }
-    /* inform ingame clients about opponents */
-    server.broadcastOtherClients(GameUpdateType.INITIALISE_PLAYERS, clientHolder.getInGameKeys());
+  public long getSnapshotVersion() {
+    return snapshotVersion.get();
   }
 
   /**
-   * Sends each spectator the inGame player's info (number of cards, name, etc...)
+   * Returns the clients of all tables, taken from the latest snapshots of the tables.
+   * @return A list of all logged in clients.
    */
-  private void informSpectators() {
+  public List<DTOClient> getClients() {
     final List<DTOClient> clients = new ArrayList<DTOClient>();
-    for (DTOClient client : clientHolder.getInGameValues()) {
-      clients.add(client);
-    }
-    server.broadcastMessage(GameUpdateType.INITIALISE_PLAYERS, clientHolder.getSpectatorKeys(),
-        clients);
-  }
-
-  /**
-   * Refreshes the client list and eventually cancels the game.
-   */
-  public void refreshClients() {
-    if(clientHolder.refresh()) {
-      /* If somehow a client lost connection to the server, */
-      /* the players in the process should be restored */
-      if(clientHolder.getInGameKeys().size() != process.getPlayerCount()) {
-        stopGame(true);
-        /* add the deleted players back to the list */
-        for (DTOClient client : clientHolder.getInGameValues())
-          process.setPlayer(getPlayerID(client));
-      }
-    }
+    for (GameTable table : tables.values())
+      Miscellaneous.addAllToCollection(clients, table.getClients());
+    return clients;
   }
 
   public DTOClient getClient(Callable callable) {
-    return clientHolder.getValue(callable);
+    final GameTable table = clientTables.get(callable);
+    return table != null ? table.getClient(callable) : null;
   }
 
-  public List<DTOClient> getClients() {
-    return clientHolder.getAllValues();
-  }
-
-  public List<Callable> getRemoteReferences() {
-    return clientHolder.getAllKeys();
-  }
-
-  public GameProcess<Integer> getProcess() {
-    return process;
+  /**
+   * Returns the table the client is seated at.
+   * @param callable Client remote reference.
+   * @return The table of the client or null, if the client is not logged in.
+   */
+  public GameTable getTable(Callable callable) {
+    return clientTables.get(callable);
   }
 
-  public List<DTOClient> getClients(Collection<Callable> callables) {
-    final List<DTOClient> clients = new ArrayList<DTOClient>(callables.size());
-    for (Callable callable : callables) {
-      clients.add(clientHolder.getValue(callable));
-    }
-    return clients;
+  public List<String> getTableNames() {
+    final List<String> names = new ArrayList<String>(tables.keySet());
+    Collections.sort(names);
+    return names;
   }
 }
 
-class IngameSpectatorHolder<K,V> {
-  private static final Logger LOGGER = LoggingUtility.getLogger(IngameSpectatorHolder.class.getName());
-  private Map<K,V> ingameMap;
-  private Map<K,V> spectatorMap;
-
-  /* Constructors */
-
-  IngameSpectatorHolder() {
-    ingameMap = new HashMap<K,V>(6);
-    spectatorMap = new HashMap<K,V>(6);
-  }
+/******************************************/
+/********** Simon Implementation **********/
+/******************************************/
+@SimonRemote(value={ServerInterface.class})
+class DurakServices implements ServerInterface {
+  private static final Logger LOGGER = LoggingUtility.getLogger(DurakServices.class.getName());
 
-  /* Methods */
+  private final GameServer server;
+  private String password;
 
-  public void addInGameValue(K key, V value) {
-    spectatorMap.remove(key);
-    ingameMap.put(key, value);
+  DurakServices(GameServer server, String password) {
+    this.server = server;
+    this.password = password;
   }
 
-  public void addSpectator(K key, V value) {
-    ingameMap.remove(key);
-    spectatorMap.put(key, value);
+  public boolean login(Callable callable, DTOClient client, String password) {
+    return loginWithCodec(callable, client, password, WireCodec.NO_CODEC)
+        != WireCodec.LOGIN_REFUSED;
   }
 
-  public boolean removeKey(K key) {
-    return  (ingameMap.remove(key) != null) || (spectatorMap.remove(key) != null);
-  }
+  public int loginWithCodec(Callable callable, DTOClient client, String password,
+                            int codecVersion) {
+    int result = WireCodec.LOGIN_REFUSED;
 
-  /* Getter and Setter */
+    if(this.password.equals(password)) {
+      final int version = WireCodec.negotiate(codecVersion);
+      if(!server.clientNameExists(client.name) ||
+          (server.getVacantSeatTable(client.name) != null
+              && !server.isSeatHeld(client.name))) {
+        if(server.addClient(callable, client, version)) {
+          server.startSession(callable, client.name);
+          result = version;
+        }
+      } else server.sendMessage(callable, new MessageObject(MessageType.STATUS_MESSAGE,
+          I18nSupport.getValue(USER_MESSAGES, "status.name.0.already.exists", client.name)));
+    } else {
+      server.sendMessage(callable, new MessageObject(MessageType.STATUS_MESSAGE,
+          I18nSupport.getValue(USER_MESSAGES,"status.permission.denied")));
+    }
 
-  /* Returns a copy of all values as one list */
-  public List<V> getAllValues() {
-    final List<V> values = new ArrayList<V>(ingameMap.size()+spectatorMap.size());
-    Miscellaneous.addAllToCollection(values, ingameMap.values());
-    Miscellaneous.addAllToCollection(values, spectatorMap.values());
-    return values;
+    return result;
   }
 
-  /* Returns a copy of all keys as one list */
-  public List<K> getAllKeys() {
-    final List<K> keys = new ArrayList<K>(ingameMap.size()+spectatorMap.size());
-    Miscellaneous.addAllToCollection(keys, ingameMap.keySet());
-    Miscellaneous.addAllToCollection(keys, spectatorMap.keySet());
-    return keys;
+  public int resumeSession(Callable callable, String token, int codecVersion) {
+    final int version = WireCodec.negotiate(codecVersion);
+    return server.resumeSession(callable, token, version) ? version : WireCodec.LOGIN_REFUSED;
   }
 
-  public V getInGameValue(K key) {
-    return ingameMap.get(key);
+  public void logoff(Callable callable) {
+    server.removeClient(callable);
   }
 
-  @SuppressWarnings("UnusedDeclaration")
-  public V getSpectatorValue(K key) {
-    return spectatorMap.get(key);
+  public boolean joinTable(Callable callable, String tableName) {
+    return server.joinTable(callable, tableName);
   }
 
-  public V getValue(K key) {
-    if(ingameMap.containsKey(key))
-      return ingameMap.get(key);
-    else if(spectatorMap.containsKey(key))
-      return spectatorMap.get(key);
-    else return null;
+  public List<String> getTableNames() {
+    return server.getTableNames();
   }
 
-  public Collection<K> getInGameKeys() {
-    return ingameMap.keySet();
+  public void sendChatMessage(Callable callable, String message) {
+    final GameTable table = server.getTable(callable);
+    final DTOClient client = table != null ? table.getClient(callable) : null;
+    if(client != null) {
+      ChatMessage chatMessage = new ChatMessage(System.currentTimeMillis(), client, message);
+      table.broadcastMessage(BroadcastType.CHAT_MESSAGE, chatMessage);
+    }
   }
 
-  public Collection<K> getSpectatorKeys() {
-    return spectatorMap.keySet();
-  }
+  public boolean doAction(Callable callable, GameAction action) {
+    final GameTable table = server.getTable(callable);
+    if(table == null)
+      return false;
 
-  public Collection<V> getInGameValues() {
-    return ingameMap.values();
+    final RuleVerdict verdict = table.validateAction(callable, action);
+    if(!verdict.isValid()) {
+      LOGGER.info("User \'" + action.getExecutor().name
+          + "\' breaks the rules with action " + action);
+      server.sendMessage(callable,
+          new MessageObject(MessageType.RULE_MESSAGE, verdict.getMessage()));
+    }
+
+    return verdict.isValid();
   }
 
-  @SuppressWarnings("UnusedDeclaration")
-  public Collection<V> getSpectatorValues() {
-    return spectatorMap.values();
+  public boolean doEncodedAction(Callable callable, byte[] action) {
+    try {
+      return doAction(callable, WireCodec.decodeAction(action));
+    } catch (WireCodecException e) {
+      LOGGER.warning("Could not decode action: "+e.getMessage());
+      return false;
+    }
   }
 
-  public boolean containsKey(K key) {
-    return ingameMap.containsKey(key) || spectatorMap.containsKey(key);
+  public GameAction getHint(Callable callable) {
+    final GameTable table = server.getTable(callable);
+    return table != null ? table.getHint(callable) : null;
   }
 
-  public void clear() {
-    ingameMap.clear();
-    spectatorMap.clear();
+  public void updateClient(Callable callable, DTOClient client) {
+    final GameTable table = server.getTable(callable);
+    if(table != null)
+      table.updateClient(callable, client);
   }
 
-  /**
-   * Returns true if something was changed. Otherwise false.
-   */
-  public boolean refresh() {
-    boolean changed = false;
-    Map<K,V> refreshedMap = getRefreshedMap(ingameMap, "ingameMap"); //NON-NLS
-    if(refreshedMap.size() != ingameMap.size()) {
-      ingameMap = refreshedMap;
-      changed = true;
-    }
+  /* Getter and Setter */
 
-    refreshedMap = getRefreshedMap(spectatorMap, "spectatorMap"); //NON-NLS
-    if(refreshedMap.size() != spectatorMap.size()) {
-      spectatorMap = refreshedMap;
-      changed = true;
-    }
-    return changed;
+  public void setPassword(String password) {
+    this.password = password;
   }
 
-  private Map<K,V> getRefreshedMap(Map<K,V> map, String fieldName) {
-    final Map<K,V> refreshedMap = new HashMap<K, V>(map.size());
-    for (K k : map.keySet()) {
-      try {
-        refreshedMap.put(k,map.get(k));
-      } catch (Exception e) {
-        LOGGER.warning("Could not access to a key in "+fieldName);
-      }
-    }
-    return refreshedMap;
+  @SuppressWarnings("UnusedDeclaration")
+  public String getPassword() {
+    return password;
   }
-}
\ No newline at end of file
+}
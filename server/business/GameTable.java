@@ -0,0 +1,757 @@
+package server.business;
+
+import common.dto.DTOClient;
+import common.dto.message.BroadcastType;
+import common.dto.message.GameUpdateType;
+import common.dto.message.MessageObject;
+import common.dto.message.MessageType;
+import common.game.GameProcess;
+import common.game.PlayerView;
+import common.game.bot.MonteCarloBot;
+import common.game.rules.RuleVerdict;
+import common.i18n.I18nSupport;
+import common.simon.Callable;
+import common.simon.action.GameAction;
+import common.utilities.LoggingUtility;
+import common.utilities.Miscellaneous;
+import common.utilities.constants.GameConfigurationConstants;
+import server.business.CommandMailbox.Command;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import static common.i18n.BundleStrings.USER_MESSAGES;
+
+/**
+ * This class represents a single table of the server. Every table has its own game process
+ * and its own clients, so the tables of a server run independently of each other. The
+ * state of a table is only read and changed by the commands of its {@link CommandMailbox},
+ * the methods of the table put their work into the mailbox and wait for the result. Hence
+ * the state needs no lock and clients of different tables never wait for each other.
+ * Bots decide their actions outside of the mailbox, see {@link #playBotTurn(Integer)}.
+ * After every command the table publishes a {@link TableSnapshot}, the methods that only
+ * read the clients of the table use the latest snapshot and never wait for the mailbox.
+ * The game of a table is written to a {@link GameJournal}, so that it can be recovered
+ * after the server stopped. A finished game is saved as replay, see
+ * {@link common.game.replay.ReplayFormat}.
+ */
+public class GameTable {
+  private static final Logger LOGGER = LoggingUtility.getLogger(GameTable.class.getName());
+
+  private final String name;
+  private final GameServer server;
+  private final GameUpdate gameUpdate;
+  private final CommandMailbox mailbox;
+  /** Bots whose turn is scheduled or who are deciding. */
+  private final Set<Integer> scheduledBots;
+  /** Changes with every change of the game, so that a bot can detect an outdated decision. */
+  private long gameVersion;
+  private volatile TableSnapshot snapshot;
+  /** Notifications for the gui, they are sent after the snapshot of the command. */
+  private final Set<GUIObserverType> pendingNotifications;
+  private final GameJournal journal;
+  /** The last hint of every client, see {@link #getHint(Callable)}. */
+  private final Map<Callable, Hint> hints;
+  /** Number of clients that are being seated, the server does not close a pinned table. */
+  private final AtomicInteger pins;
+
+  /* Constructors */
+
+  GameTable(GameServer server, String name, Executor executor, JournalWriter journalWriter,
+            File journalDirectory) {
+    this.server = server;
+    this.name = name;
+    this.gameUpdate = new GameUpdate(this);
+    this.journal = new GameJournal(journalWriter, journalDirectory, name);
+    this.mailbox = new CommandMailbox(server, executor, new Runnable() {
+      public void run() {
+        if(journal.isGameOpen() && !gameUpdate.getProcess().isGameInProcess())
+          journal.finishGame();
+        if(gameUpdate.isRecording() && !gameUpdate.getProcess().isGameInProcess())
+          server.saveReplay(name, gameUpdate.stopRecording());
+        publishSnapshot();
+        for (GUIObserverType type : pendingNotifications)
+          server.setChangedAndNotify(type);
+        pendingNotifications.clear();
+      }
+    });
+    this.pendingNotifications = new LinkedHashSet<GUIObserverType>();
+    this.scheduledBots = new HashSet<Integer>();
+    this.gameVersion = 0L;
+    this.hints = new HashMap<Callable, Hint>();
+    this.pins = new AtomicInteger(0);
+    publishSnapshot();
+  }
+
+  /* Methods */
+
+  public boolean startGame(final Integer stackSize) {
+    return mailbox.call(new Command<Boolean>() {
+      Boolean execute() {
+        final long seed = new Random().nextLong();
+        if(gameUpdate.invokeGame(stackSize, seed)) {
+          LOGGER.info(LoggingUtility.STARS+" Game started at table "+name+" "
+              +LoggingUtility.STARS);
+          startJournal(stackSize, seed);
+          gameVersion++;
+          scheduleBotTurns();
+          return true;
+        } else LOGGER.info("Not enough player for a game at table "+name);
+        return false;
+      }
+    });
+  }
+
+  /* Records the start of the game, the seats are the players in the order of the process */
+  private void startJournal(Integer stackSize, long seed) {
+    final GameProcess<Integer> process = gameUpdate.getProcess();
+    final List<DTOClient> seats = gameUpdate.getSeats();
+    final List<Boolean> bots = new ArrayList<Boolean>(seats.size());
+    for (DTOClient seat : seats)
+      bots.add(gameUpdate.isBot(seat));
+    journal.startGame(seed, stackSize, process.getPlayerIDs().indexOf(process.getFirstAttackerID()),
+        seats, bots);
+  }
+
+  /**
+   * Rebuilds the game of a journal at this table. The players of the game can take their
+   * seats again by logging in with their names.
+   * @param game The recovered game, see {@link GameJournal#read(java.io.File)}.
+   */
+  void recoverGame(final GameJournal.RecoveredGame game) {
+    mailbox.call(new Command<Void>() {
+      Void execute() {
+        final int replayed = gameUpdate.recoverGame(game);
+        if(gameUpdate.getProcess().isGameInProcess()) {
+          /* the journal continues after the last action that could be replayed */
+          journal.resume(game, replayed);
+          gameVersion++;
+          scheduleBotTurns();
+          LOGGER.info("Recovered game at table "+name+" with "+replayed+" actions");
+        } else LOGGER.warning("Could not recover game at table "+name);
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Stops the game of this table. The boolean parameter specifies, if the game was canceled
+   * or properly finished. Anyway, if the game is running and the method is called, the clients
+   * of this table will be notified that the game was canceled.
+   * @param canceled If true, every client will be notified that it was canceled, else just finished.
+   * @param reason String that will be send to the client if the game was canceled.
+   */
+  public void stopGame(final boolean canceled, final String reason) {
+    mailbox.call(new Command<Void>() {
+      Void execute() {
+        boolean wasRunning = gameUpdate.stopGame(false);
+        gameVersion++;
+
+        if(wasRunning)
+          broadcastMessage(GameUpdateType.GAME_CANCELED, reason);
+        else if(!canceled)
+          broadcastMessage(GameUpdateType.GAME_FINISHED);
+        pendingNotifications.add(GUIObserverType.GAME_FINISHED);
+        LOGGER.info(LoggingUtility.STARS+" Game stopped at table "+name+" "
+            +LoggingUtility.STARS);
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Sends the same message to every client of this table. The method does not wait until
+   * the message is sent.
+   * @param type Type that indicates the message type.
+   * @param sendingObject Sending object to send.
+   */
+  public void broadcastMessage(final Enum<?> type, final Object sendingObject) {
+    mailbox.post(new Command<Void>() {
+      Void execute() {
+        broadcastMessage(type, gameUpdate.getRemoteReferences(), sendingObject);
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Sends the same message to every client of this table.
+   * @param type Type that indicates the message type.
+   */
+  public void broadcastMessage(Enum<?> type) {
+    broadcastMessage(type, null);
+  }
+
+  /**
+   * Sends the same message to every client remote reference in the list.
+   * @param type Type that indicates the message type.
+   * @param callables Remote references to send the message to.
+   * @param sendingObject Sending object to send.
+   */
+  void broadcastMessage(Enum<?> type, Collection<Callable> callables, Object sendingObject) {
+    for (Callable callable : callables)
+      sendMessage(callable, new MessageObject(type, sendingObject));
+  }
+
+  /* the messages of a command are sent when its batch is done */
+  void sendMessage(Callable callable, MessageObject messageObject) {
+    mailbox.sendMessage(callable, messageObject);
+  }
+
+  /* sends to each client a list with all the other clients of this table */
+  void broadcastOtherClients(Enum<?> type) {
+    broadcastOtherClients(type, gameUpdate.getRemoteReferences());
+  }
+
+  void broadcastOtherClients(Enum<?> type, Collection<Callable> callables) {
+    final List<DTOClient> clients = new ArrayList<DTOClient>();
+    final List<Callable> callableList = new ArrayList<Callable>();
+
+    Miscellaneous.addAllToCollection(clients,
+        GameUpdate.copyClients(gameUpdate.getClients(callables)));
+    Miscellaneous.addAllToCollection(callableList, callables);
+    for (Callable callable : callableList) {
+      /* every client gets a list of its own, the message is sent after the command and */
+      /* a queued list must not change any more */
+      final List<DTOClient> others = new ArrayList<DTOClient>(clients);
+      final int index = Miscellaneous.findIndex(others, gameUpdate.getClient(callable),
+          Miscellaneous.CLIENT_COMPARATOR);
+      if(index >= 0)
+        others.remove(index);
+      sendMessage(callable, new MessageObject(type, others));
+    }
+  }
+
+  /**
+   * Seats the client at this table and notifies the gui and all clients of the table.
+   * @param callable Client remote reference.
+   * @param client The client.
+   * @return Returns true if client was added, else false.
+   */
+  boolean addClient(final Callable callable, final DTOClient client) {
+    return mailbox.call(new Command<Boolean>() {
+      Boolean execute() {
+        if(gameUpdate.addClient(callable, client)) {
+          notifyClientLists(callable);
+        } else return false;
+
+        LOGGER.info("Added client "+client+" to table "+name);
+        return true;
+      }
+    });
+  }
+
+  /**
+   * Removes a client from this table and notifies the gui and all clients of the table.
+   * If the client was playing, the game of this table will be canceled.
+   * @param callable Client remote reference.
+   * @return Returns true if the client was removed, else false.
+   */
+  boolean removeClient(final Callable callable) {
+    return mailbox.call(new Command<Boolean>() {
+      Boolean execute() {
+        final DTOClient client = gameUpdate.getClient(callable);
+        removeHint(callable);
+        if(gameUpdate.removeClient(callable)) {
+          if(!client.spectating) {
+            stopGame(true, I18nSupport.getValue(USER_MESSAGES,
+                "game.canceled.player.0.logged.off", client.name));
+          }
+          notifyClientLists(null);
+        } else return false;
+
+        LOGGER.info("Removed client "+client+" from table "+name);
+        return true;
+      }
+    });
+  }
+
+  /**
+   * Seats a bot at this table and notifies the gui and all clients of the table.
+   * @param botName Name of the bot.
+   * @return Returns true if the bot was added, else false.
+   */
+  boolean addBot(final String botName) {
+    return mailbox.call(new Command<Boolean>() {
+      Boolean execute() {
+        if(clientNameExists(botName) || !gameUpdate.addBot(new DTOClient(botName)))
+          return false;
+
+        notifyClientLists(null);
+        LOGGER.info("Added bot "+botName+" to table "+name);
+        return true;
+      }
+    });
+  }
+
+  /**
+   * Removes a bot from this table and notifies the gui and all clients of the table.
+   * If a game is running, it will be canceled.
+   * @param botName Name of the bot.
+   * @return Returns true if the bot was removed, else false.
+   */
+  boolean removeBot(final String botName) {
+    return mailbox.call(new Command<Boolean>() {
+      Boolean execute() {
+        if(!gameUpdate.hasBot(botName))
+          return false;
+
+        if(gameUpdate.getProcess().isGameInProcess()) {
+          stopGame(true, I18nSupport.getValue(USER_MESSAGES,
+              "game.canceled.player.0.logged.off", botName));
+        }
+        gameUpdate.removeBot(botName);
+        notifyClientLists(null);
+        LOGGER.info("Removed bot "+botName+" from table "+name);
+        return true;
+      }
+    });
+  }
+
+  /**
+   * Returns how many players this table needs for a game. A table that has no player who
+   * is a client or has a running game needs none.
+   * @return The number of missing players.
+   */
+  int getMissingPlayerCount() {
+    return mailbox.call(new Command<Integer>() {
+      Integer execute() {
+        if(gameUpdate.getProcess().isGameInProcess() || gameUpdate.getClientPlayerCount() == 0)
+          return 0;
+        return Math.max(0, GameConfigurationConstants.MINIMUM_PLAYER_COUNT
+            - gameUpdate.getProcess().getPlayerCount());
+      }
+    });
+  }
+
+  /**
+   * Makes the client a spectator of this table. If the client was playing, the game of
+   * this table will be canceled.
+   * @param callable Client remote reference.
+   */
+  void demoteClient(final Callable callable) {
+    mailbox.call(new Command<Void>() {
+      Void execute() {
+        final DTOClient client = gameUpdate.getClient(callable);
+        if(client == null || client.spectating)
+          return null;
+
+        final DTOClient spectator = new DTOClient("");
+        spectator.setClientInfo(client);
+        spectator.spectating = true;
+        removeClient(callable);
+        addClient(callable, spectator);
+        LOGGER.info("Demoted client "+client+" to spectator");
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Sends a client the current state of this table, i.e. its own information, the other
+   * clients and the running game. Called when the client lagged behind and messages that
+   * describe the state were dropped from its outbound queue.
+   * @param callable Client remote reference.
+   */
+  void resyncClient(final Callable callable) {
+    mailbox.post(new Command<Void>() {
+      Void execute() {
+        final DTOClient client = gameUpdate.getClient(callable);
+        if(client == null)
+          return null;
+
+        final List<DTOClient> others = gameUpdate.getClients(gameUpdate.getRemoteReferences());
+        others.remove(client);
+        sendMessage(callable, new MessageObject(MessageType.OWN_CLIENT_INFO,
+            GameUpdate.copyClient(client)));
+        sendMessage(callable, new MessageObject(BroadcastType.LOGIN_LIST,
+            GameUpdate.copyClients(others)));
+        gameUpdate.sendGameState(callable);
+        sendMessage(callable, new MessageObject(MessageType.STATUS_MESSAGE,
+            I18nSupport.getValue(USER_MESSAGES, "status.table.resynced")));
+        LOGGER.info("Resynced client "+client+" at table "+name);
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Stops the game of this table and removes all clients from it. The journal of a running
+   * game stays open, so the game will be recovered at the next start of the server.
+   */
+  void removeAllClients() {
+    mailbox.call(new Command<Void>() {
+      Void execute() {
+        journal.close();
+        synchronized (hints) {
+          hints.clear();
+        }
+        /* the game is recorded again when it is recovered */
+        gameUpdate.stopRecording();
+        gameUpdate.stopSession();
+        gameVersion++;
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Closes the journal of this table after the table was removed from the server. The
+   * method does not wait.
+   */
+  void close() {
+    mailbox.post(new Command<Void>() {
+      Void execute() {
+        journal.close();
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Notifies the server gui and all clients of this table which clients are currently in
+   * the list. The parameter is the remote object of the client that was added. If this
+   * parameter is null, all clients and the server gui will be notified.
+   */
+  private void notifyClientLists(Callable addedCallable) {
+    pendingNotifications.add(GUIObserverType.CLIENT_LIST);
+    if(addedCallable != null) {
+      DTOClient client = gameUpdate.getClient(addedCallable);
+      sendMessage(addedCallable, new MessageObject(MessageType.OWN_CLIENT_INFO,
+          GameUpdate.copyClient(client)));
+    }
+    broadcastOtherClients(BroadcastType.LOGIN_LIST);
+  }
+
+  /**
+   * Validates an action by calling the game updater of this table. The clients will only
+   * be updated, if the action was valid.
+   * @param callable Client remote reference.
+   * @param action Attached GameAction object.
+   * @return The verdict of the action, it is not valid if the client broke a game rule.
+   */
+  RuleVerdict validateAction(final Callable callable, final GameAction action) {
+    return mailbox.call(new Command<RuleVerdict>() {
+      RuleVerdict execute() {
+        return doAction(gameUpdate.getPlayerID(callable), action);
+      }
+    });
+  }
+
+  private RuleVerdict doAction(Integer playerID, GameAction action) {
+    final GameProcess<Integer> process = gameUpdate.getProcess();
+    final RuleVerdict verdict = process.tryAction(action, playerID);
+    if(verdict.isValid()) {
+      journal.appendAction(process.getPlayerIDs().indexOf(playerID), action);
+      gameVersion++;
+      final boolean finished = gameUpdate.updateMove(process.readyForNextRound());
+      gameUpdate.recordAction(playerID, action);
+      if(finished)
+        stopGame(false, "");
+      else scheduleBotTurns();
+    }
+    return verdict;
+  }
+
+  /**
+   * Returns the action the bots of the server would choose for the client. The action is
+   * chosen outside of the mailbox of this table. A client gets the same hint as long as
+   * the game does not change and only one search per client runs at a time, so repeated
+   * requests do not start new searches.
+   * @param callable Remote reference of the client.
+   * @return The action or null, if the client is not a player or does not have to act.
+   */
+  GameAction getHint(final Callable callable) {
+    final Turn turn = mailbox.call(new Command<Turn>() {
+      Turn execute() {
+        if(!gameUpdate.getProcess().isGameInProcess() || !gameUpdate.isPlayer(callable))
+          return null;
+        return new Turn(gameUpdate.getProcess().getPlayerView(gameUpdate.getPlayerID(callable)),
+            gameUpdate.getClient(callable), gameVersion);
+      }
+    });
+
+    if(turn == null || !MonteCarloBot.isDecisionDue(turn.view))
+      return null;
+
+    Hint hint;
+    boolean search = false;
+    synchronized (hints) {
+      hint = hints.get(callable);
+      if(hint == null || hint.version != turn.version) {
+        hint = new Hint(turn, server.getBot());
+        hints.put(callable, hint);
+        search = true;
+      }
+    }
+    if(search)
+      hint.search.run();
+    return hint.getAction();
+  }
+
+  private void removeHint(Callable callable) {
+    synchronized (hints) {
+      hints.remove(callable);
+    }
+  }
+
+  /* Schedules a turn for every bot that has to decide and has no scheduled turn */
+  private void scheduleBotTurns() {
+    final GameProcess<Integer> process = gameUpdate.getProcess();
+    if(!process.isGameInProcess())
+      return;
+
+    for (Integer botID : gameUpdate.getBotIDs()) {
+      if(!scheduledBots.contains(botID) &&
+          MonteCarloBot.isDecisionDue(process.getPlayerView(botID))) {
+        scheduledBots.add(botID);
+        server.playBotTurn(this, botID);
+      }
+    }
+  }
+
+  /**
+   * Lets a bot decide its action and does it. The bot decides outside of the mailbox of
+   * this table, so the clients are not blocked while the bot thinks. If the game has
+   * changed in the meantime, the decision will be dropped and the bot decides again.
+   * Should be called by the bot threads of the server.
+   * @param botID Player id of the bot.
+   */
+  void playBotTurn(final Integer botID) {
+    final Turn turn = mailbox.call(new Command<Turn>() {
+      Turn execute() {
+        final DTOClient bot = gameUpdate.getBot(botID);
+        if(bot == null || !gameUpdate.getProcess().isGameInProcess()) {
+          scheduledBots.remove(botID);
+          return null;
+        }
+        return new Turn(gameUpdate.getProcess().getPlayerView(botID), bot, gameVersion);
+      }
+    });
+    if(turn == null)
+      return;
+
+    final GameAction action = server.getBot().chooseAction(turn.view, turn.client);
+
+    mailbox.post(new Command<Void>() {
+      Void execute() {
+        scheduledBots.remove(botID);
+        if(turn.version == gameVersion) {
+          final RuleVerdict verdict = doAction(botID, action);
+          if(!verdict.isValid()) {
+            LOGGER.warning("Bot "+turn.client.name+" breaks the rules with action "+action);
+            doAction(botID, MonteCarloBot.createFallbackAction(turn.view, turn.client));
+          }
+        }
+        scheduleBotTurns();
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Updates the client and all the lists of this table if necessary.
+   * @param callable Client remote reference
+   * @param client Client information object.
+   */
+  void updateClient(final Callable callable, final DTOClient client) {
+    mailbox.call(new Command<Void>() {
+      Void execute() {
+        final DTOClient oldClient = gameUpdate.updateClientInformation(callable, client);
+        notifyClientLists(null);
+        LOGGER.info("Updated client from "+oldClient+" to "+client);
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Refreshes the client list of this table and eventually cancels the game. The seats of
+   * players who dropped during the game are held by the server, see
+   * {@link GameServer#holdSeat(GameTable, String)}.
+   * Should be called when a client connection was improperly closed.
+   */
+  void refreshClients() {
+    mailbox.call(new Command<Void>() {
+      Void execute() {
+        for (DTOClient player : gameUpdate.refreshClients()) {
+          server.holdSeat(GameTable.this, player.name);
+          broadcastMessage(MessageType.STATUS_MESSAGE, I18nSupport.getValue(USER_MESSAGES,
+              "status.player.0.lost.connection.1", player.name,
+              GameConfigurationConstants.SESSION_GRACE_SECONDS));
+          LOGGER.info("Holding the seat of "+player.name+" at table "+name);
+        }
+        return null;
+      }
+    });
+  }
+
+  /**
+   * Gives up the seat of a player who did not return in time. If the seat is still vacant,
+   * the game of this table will be canceled.
+   * @param playerName Name of the player.
+   */
+  void releaseSeat(final String playerName) {
+    mailbox.call(new Command<Void>() {
+      Void execute() {
+        if(gameUpdate.hasVacantSeat(playerName)) {
+          stopGame(true, I18nSupport.getValue(USER_MESSAGES,
+              "game.canceled.player.0.did.not.return", playerName));
+          notifyClientLists(null);
+          LOGGER.info("Released the seat of "+playerName+" at table "+name);
+        }
+        return null;
+      }
+    });
+  }
+
+  /* Publishes a snapshot of the table, if the table has changed since the last snapshot */
+  private void publishSnapshot() {
+    final GameProcess<Integer> process = gameUpdate.getProcess();
+    final List<Callable> references = gameUpdate.getRemoteReferences();
+    final List<DTOClient> clients = gameUpdate.getClients(references);
+    for (Integer botID : gameUpdate.getBotIDs())
+      clients.add(gameUpdate.getBot(botID));
+    clients.addAll(gameUpdate.getVacantSeats());
+    final TableSnapshot current = snapshot;
+    final TableSnapshot next = new TableSnapshot(name, current != null ? current.getVersion() : 0L,
+        references, clients, process.isGameInProcess(),
+        process.getStack() != null ? process.getStack().getStackSize() : 0,
+        process.getAttackCards(), process.getDefenseCards());
+    if(current == null) {
+      snapshot = next;
+    } else if(!next.hasSameContent(current)) {
+      snapshot = next.withVersion(current.getVersion() + 1L);
+      server.snapshotPublished();
+    }
+  }
+
+  public boolean clientNameExists(String name) {
+    return snapshot.containsClientName(name);
+  }
+
+  /**
+   * Returns true, if a player of a recovered game or a dropped player with this name has not
+   * taken its seat yet.
+   * @param name Name of the player.
+   * @return True, if the seat is vacant, else false.
+   */
+  boolean hasVacantSeat(final String name) {
+    return mailbox.call(new Command<Boolean>() {
+      Boolean execute() {
+        return gameUpdate.hasVacantSeat(name);
+      }
+    });
+  }
+
+  /* Getter and Setter */
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the latest snapshot of this table. It shows the table after the last command
+   * of the mailbox that has finished.
+   * @return The snapshot.
+   */
+  public TableSnapshot getSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * Pins the table while a client is seated, so the server does not close it before the
+   * client sits at it. Every pin has to be released by {@link #unpin()}.
+   */
+  void pin() {
+    pins.incrementAndGet();
+  }
+
+  void unpin() {
+    pins.decrementAndGet();
+  }
+
+  boolean isPinned() {
+    return pins.get() > 0;
+  }
+
+  public boolean isEmpty() {
+    return snapshot.isEmpty();
+  }
+
+  public boolean containsClient(Callable callable) {
+    return snapshot.getClient(callable) != null;
+  }
+
+  /**
+   * Returns the clients of the latest snapshot, see {@link TableSnapshot#getClients()}.
+   * @return An unmodifiable list of the clients and bots.
+   */
+  public List<DTOClient> getClients() {
+    return snapshot.getClients();
+  }
+
+  public List<Callable> getRemoteReferences() {
+    return snapshot.getRemoteReferences();
+  }
+
+  public DTOClient getClient(Callable callable) {
+    return snapshot.getClient(callable);
+  }
+
+  /* Inner Classes */
+
+  /** The search for the hint of a client at a version of the game. */
+  private static class Hint {
+    private final long version;
+    private final FutureTask<GameAction> search;
+
+    private Hint(final Turn turn, final MonteCarloBot bot) {
+      this.version = turn.version;
+      this.search = new FutureTask<GameAction>(new java.util.concurrent.Callable<GameAction>() {
+        public GameAction call() {
+          return bot.chooseAction(turn.view, turn.client);
+        }
+      });
+    }
+
+    /* Waits until the search is done */
+    private GameAction getAction() {
+      try {
+        return search.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return null;
+      } catch (ExecutionException e) {
+        LOGGER.warning("Could not search a hint: "+e.getCause());
+        return null;
+      }
+    }
+  }
+
+  /** What a player sees when it has to decide, taken at a version of the game. */
+  private static class Turn {
+    private final PlayerView view;
+    private final DTOClient client;
+    private final long version;
+
+    private Turn(PlayerView view, DTOClient client, long version) {
+      this.view = view;
+      this.client = client;
+      this.version = version;
+    }
+  }
+}
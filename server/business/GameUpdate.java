@@ -0,0 +1,564 @@
+package server.business;
+
+import common.dto.DTOClient;
+import common.dto.message.*;
+import common.game.GameProcess;
+import common.game.replay.GameRecord;
+import common.game.replay.GameRecorder;
+import common.game.rules.RuleVerdict;
+import common.simon.Callable;
+import common.simon.action.GameAction;
+import common.simon.codec.WireCodec;
+import common.simon.codec.WireCodecException;
+import common.utilities.Converter;
+import common.utilities.LoggingUtility;
+import common.utilities.constants.GameCardConstants;
+import common.utilities.constants.PlayerConstants;
+
+import java.util.*;
+import java.util.logging.Logger;
+
+@SuppressWarnings("unchecked")
+class GameUpdate {
+  private Logger LOGGER = LoggingUtility.getLogger(GameUpdate.class.getName());
+  private GameProcess<Integer> process;
+  private final GameTable table;
+  private IngameSpectatorHolder<Callable,DTOClient> clientHolder;
+  /** Players without remote reference, mapped by their player ids. */
+  private final Map<Integer, DTOClient> bots;
+  /**
+   * Players of a recovered game that did not log in again and players whose connection
+   * dropped during the game, mapped by their names.
+   */
+  private final Map<String, DTOClient> vacantSeats;
+  /** Records the running game, null if no game is recorded. */
+  private GameRecorder recorder;
+
+  public GameUpdate(GameTable table) {
+    this.table = table;
+    this.clientHolder = new IngameSpectatorHolder<Callable, DTOClient>();
+    this.bots = new LinkedHashMap<Integer, DTOClient>();
+    this.vacantSeats = new LinkedHashMap<String, DTOClient>();
+    this.process = new GameProcess<Integer>();
+  }
+
+  /**
+   * Gets the player's ID for the surpassed client. The hashCode method of this object
+   * should work like it should work for the use of a HashMap.
+   * @param client Surpassed client.
+   * @return Should return a unique integer for this object.
+   */
+  private int getPlayerID(DTOClient client) {
+    return client.hashCode();
+  }
+
+  /**
+   * Gets the player's ID for the surpassed callable calling
+   * {@link #getPlayerID(common.dto.DTOClient)}.
+   * @param callable Surpassed client remote reference.
+   * @return Should return a unique integer for this object.
+   */
+  public Integer getPlayerID(Callable callable) {
+    return getPlayerID(getClient(callable));
+  }
+
+  /**
+   * Invokes a game if it is not running already and if there are
+   * enough players.
+   * @param stackSize Stack size for the game.
+   * @param seed Seed of the random generator that shuffles the stack.
+   * @return Returns true, if the game was invoked, else false.
+   */
+  public boolean invokeGame(Integer stackSize, long seed) {
+    boolean invoked = false;
+    Integer cardsPerColour = stackSize / GameCardConstants.CardColour.values().length;
+    if (!process.isGameInProcess() && process.getPlayerCount() > 1) {
+      process.initialiseNewGame(cardsPerColour, new Random(seed));
+      recorder = new GameRecorder(process, getSeatNames());
+      sendClientInit();
+      invoked = true;
+    }
+    return invoked;
+  }
+
+  /**
+   * Rebuilds a game of a journal. The players of the game get vacant seats, until they log
+   * in again, the bots are seated at once. The actions of the journal are replayed until
+   * the first action that is not valid.
+   * @param game The recovered game.
+   * @return The number of actions that were replayed.
+   */
+  int recoverGame(GameJournal.RecoveredGame game) {
+    process.reInitialise();
+    clientHolder.clear();
+    bots.clear();
+    vacantSeats.clear();
+    recorder = null;
+
+    final List<Integer> playerIDs = new ArrayList<Integer>(game.seatNames.size());
+    for (int seat = 0; seat < game.seatNames.size(); seat++) {
+      final DTOClient client = new DTOClient(game.seatNames.get(seat));
+      client.spectating = false;
+      if(game.bots.get(seat))
+        bots.put(getPlayerID(client), client);
+      else vacantSeats.put(client.name, client);
+      playerIDs.add(getPlayerID(client));
+      process.setPlayer(getPlayerID(client));
+    }
+    if(playerIDs.size() < 2)
+      return 0;
+
+    process.initialiseNewGame(game.stackSize / GameCardConstants.CardColour.values().length,
+        new Random(game.seed), playerIDs.get(game.firstAttackerSeat));
+    recorder = new GameRecorder(process, game.seatNames);
+    int replayed = 0;
+    for (; replayed < game.actions.size(); replayed++) {
+      final GameAction action;
+      final RuleVerdict verdict;
+      try {
+        action = WireCodec.decodeAction(game.actions.get(replayed));
+        verdict = process.tryAction(action, playerIDs.get(game.actionSeats.get(replayed)));
+      } catch (WireCodecException e) {
+        LOGGER.warning("Could not decode journaled action: "+e.getMessage());
+        break;
+      }
+      if(!verdict.isValid()) {
+        LOGGER.warning("Journaled action is not valid: "+verdict.getMessage());
+        break;
+      }
+      if(process.readyForNextRound())
+        process.goToNextRound();
+      recorder.recordAction(game.actionSeats.get(replayed), action);
+    }
+    gameUpdateClients();
+    return replayed;
+  }
+
+  /**
+   * Adds a valid action to the record of the game. The action has to be done and the
+   * process has to be in the next round, if the action finished the round.
+   * @param playerID Player id of the player who did the action.
+   * @param action The action.
+   */
+  public void recordAction(Integer playerID, GameAction action) {
+    if(recorder != null)
+      recorder.recordAction(process.getPlayerIDs().indexOf(playerID), action);
+  }
+
+  /**
+   * Ends the recording of the game.
+   * @return The record of the game or null, if no game was recorded.
+   */
+  public GameRecord stopRecording() {
+    final GameRecord record = recorder != null ? recorder.getRecord() : null;
+    recorder = null;
+    return record;
+  }
+
+  public boolean isRecording() {
+    return recorder != null;
+  }
+
+  /**
+   * Stops the game and removes all clients and their references.
+   */
+  public void stopSession() {
+    stopGame(true);
+    clientHolder.clear();
+    bots.clear();
+  }
+
+  /**
+   * Stops the game process. All settings will be reset. Depending on the parameter all
+   * already registered players will be either deleted from the list or not. (This means the
+   * process will be totally reset to the initial state.)
+   * @param deletePlayers If true, players will be deleted.
+   * @return True, game was running, else false.
+   */
+  public boolean stopGame(boolean deletePlayers) {
+    boolean stopped = process.isGameInProcess();
+
+    if(deletePlayers)
+      process.reInitialise();
+    else process.stopProcess();
+
+    /* the players of vacant seats can not join the next game */
+    for (DTOClient client : vacantSeats.values())
+      process.removePlayer(getPlayerID(client));
+    vacantSeats.clear();
+
+    return stopped;
+  }
+
+  /**
+   * Adds the client to the list if it dow not already exists.
+   * @param callable Client remote reference.
+   * @param client The client.
+   * @return True if the client was added, else false.
+   */
+  boolean addClient(Callable callable, DTOClient client) {
+    if(clientHolder.containsKey(callable))
+      return false;
+
+    /* Create a local reference of the DTOClient object on the server */
+    final DTOClient localClient = new DTOClient("");
+    localClient.setClientInfo(client);
+
+    final DTOClient seat = vacantSeats.remove(localClient.name);
+    if(seat != null) {
+      /* the player of a recovered game or a dropped player takes its seat again */
+      clientHolder.addInGameValue(callable, seat);
+      sendGameState(callable);
+    } else if(process.isGameInProcess() || localClient.spectating) {
+      localClient.spectating = true;
+      clientHolder.addSpectator(callable, localClient);
+    } else {
+      clientHolder.addInGameValue(callable,localClient);
+      process.setPlayer(getPlayerID(localClient));
+    }
+
+    return true;
+  }
+
+  /**
+   * Adds a bot as player. A bot can not be added while the game is running.
+   * @param client Client information of the bot.
+   * @return True if the bot was added, else false.
+   */
+  boolean addBot(DTOClient client) {
+    if(process.isGameInProcess())
+      return false;
+
+    final DTOClient localClient = new DTOClient("");
+    localClient.setClientInfo(client);
+    localClient.spectating = false;
+    bots.put(getPlayerID(localClient), localClient);
+    process.setPlayer(getPlayerID(localClient));
+    return true;
+  }
+
+  public boolean hasBot(String name) {
+    for (DTOClient bot : bots.values()) {
+      if(bot.name.equals(name))
+        return true;
+    }
+    return false;
+  }
+
+  /**
+   * Removes the bot with the specified name.
+   * @param name Name of the bot.
+   * @return The removed bot or null, if there is no bot with this name.
+   */
+  DTOClient removeBot(String name) {
+    for (Map.Entry<Integer, DTOClient> entry : bots.entrySet()) {
+      if(entry.getValue().name.equals(name)) {
+        process.removePlayer(entry.getKey());
+        bots.remove(entry.getKey());
+        return entry.getValue();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Removes a client from the list if it exists and cancels the game if necessary.
+   * @param callable Remote reference of the client.
+   * @return True if the client was removed, else false.
+   */
+  boolean removeClient(Callable callable) {
+    /* Client's player reference has also to be removed and if it was a player */
+    /* In every case delete afterwards the client remote reference */
+    process.removePlayer(getPlayerID(callable));
+    return clientHolder.removeKey(callable);
+  }
+
+  /**
+   * Changes the client information depending on the remote reference and returns the old
+   * information. The lists will also be updated if necessary.
+   * @param callable Remote reference of the client.
+   * @param client The new client information.
+   * @return Returns the old information.
+   */
+  public DTOClient updateClientInformation(Callable callable, DTOClient client) {
+    DTOClient oldClient = getClient(callable);
+    removeClient(callable);
+    addClient(callable, client);
+    return oldClient;
+  }
+
+  /**
+   * Sends a client everything it needs to show the running game in one frame, e.g. a player
+   * who took its seat during the game. Nothing will be sent if no game is running.
+   * @param callable Client remote reference.
+   */
+  void sendGameState(Callable callable) {
+    if(!process.isGameInProcess())
+      return;
+
+    final List<MessageObject> frame = new ArrayList<MessageObject>(6);
+    final DTOClient player = clientHolder.getInGameValue(callable);
+    if(player != null) {
+      frame.add(new MessageObject(GameUpdateType.CLIENT_CARDS,
+          process.getPlayerCards(getPlayerID(player))));
+      frame.add(new MessageObject(MessageType.OWN_CLIENT_INFO, copyClient(player)));
+    }
+    frame.add(new MessageObject(GameUpdateType.PLAYERS_UPDATE, copyClients(getPlayers())));
+    frame.add(new MessageObject(GameUpdateType.IN_GAME_CARDS,
+        Converter.toDTO(process.getAttackCards(), process.getDefenseCards())));
+    sendRoundFrame(callable, frame, new MessageObject(GameUpdateType.STACK_SUMMARY,
+        Converter.toSummaryDTO(process.getStack())), new MessageObject(
+        GameUpdateType.NEXT_ROUND_INFO, createRoundInfo(false, false, process.attackersReady())));
+  }
+
+  private void sendClientInit() {
+    gameUpdateClients();
+    sendRoundFrames(true, null);
+  }
+
+  /* Returns true, if there is a client that has changed. */
+  private boolean gameUpdateClients() {
+    boolean changed = false;
+    for (DTOClient client : getPlayers()) {
+      final int cardCount = process.getPlayerCards(getPlayerID(client)).size();
+      final PlayerConstants.PlayerType type = process.getPlayerType(getPlayerID(client));
+      changed = changed || (cardCount != client.cardCount)  || (type != client.playerType);
+      client.cardCount = cardCount;
+      client.playerType = type;
+    }
+    return changed;
+  }
+
+  /**
+   * Updates all players and spectators with the necessary data.
+   * @param nextRound True, the process will go to the next round. False, the process updates
+   *                  the current round.
+   * @return True, the game has finished, else false.
+   */
+  public boolean updateMove(boolean nextRound) {
+    if(nextRound) {
+      if(!process.goToNextRound()) {
+        LOGGER.warning("Couldn't go to next round! GameProcess#readyForNextRound: "
+            + process.readyForNextRound());
+      } else updateNextRound();
+    } else updateCurrentRound();
+
+    return process.gameHasFinished();
+  }
+
+  private void updateNextRound() {
+    sendRoundFrames(gameUpdateClients(),
+        createRoundInfo(true, process.defenderTookCards(), false));
+  }
+
+  private void updateCurrentRound() {
+    /* update player list */
+    if(gameUpdateClients()) {
+      table.broadcastMessage(GameUpdateType.PLAYERS_UPDATE, copyClients(getPlayers()));
+    }
+
+    /* update ingame cards */
+    if(process.cardsHaveChanged())
+      table.broadcastMessage(GameUpdateType.IN_GAME_CARDS,
+          Converter.toDTO(process.getAttackCards(), process.getDefenseCards()));
+
+    sendNextRoundInfo(false, false, process.attackersReady());
+  }
+
+  private void sendNextRoundInfo(boolean nextRound, boolean defenderTookCards,
+                                 boolean attackersFinished) {
+    table.broadcastMessage(GameUpdateType.NEXT_ROUND_INFO,
+        createRoundInfo(nextRound, defenderTookCards, attackersFinished));
+  }
+
+  private List<Boolean> createRoundInfo(boolean nextRound, boolean defenderTookCards,
+                                        boolean attackersFinished) {
+    final List<Boolean> roundInfo = new ArrayList<Boolean>(3);
+    roundInfo.add(nextRound);
+    roundInfo.add(defenderTookCards);
+    roundInfo.add(attackersFinished);
+    return roundInfo;
+  }
+
+  /**
+   * Sends each client one {@link GameUpdateType#ROUND_FRAME} message that contains all
+   * messages the client needs for the round transition. Instead of a burst of single
+   * callbacks every client gets only one.
+   * @param playersChanged True, if the cards or types of the players have changed. The
+   *                       players will then get their cards and information.
+   * @param roundInfo Information about the round, will be ignored if it is null.
+   */
+  private void sendRoundFrames(boolean playersChanged, List<Boolean> roundInfo) {
+    final MessageObject playersMessage =
+        new MessageObject(GameUpdateType.PLAYERS_UPDATE, copyClients(getPlayers()));
+    final MessageObject stackMessage = new MessageObject(GameUpdateType.STACK_SUMMARY,
+        Converter.toSummaryDTO(process.getStack()));
+    final MessageObject roundMessage = roundInfo != null ?
+        new MessageObject(GameUpdateType.NEXT_ROUND_INFO, roundInfo) : null;
+
+    for (Callable callable : clientHolder.getInGameKeys()) {
+      final List<MessageObject> frame = new ArrayList<MessageObject>(5);
+      if(playersChanged) {
+        final DTOClient client = clientHolder.getInGameValue(callable);
+        frame.add(new MessageObject(GameUpdateType.CLIENT_CARDS,
+            process.getPlayerCards(getPlayerID(client))));
+        frame.add(new MessageObject(MessageType.OWN_CLIENT_INFO, copyClient(client)));
+        frame.add(playersMessage);
+      }
+      sendRoundFrame(callable, frame, stackMessage, roundMessage);
+    }
+
+    /* spectators always get the player list */
+    for (Callable callable : clientHolder.getSpectatorKeys()) {
+      final List<MessageObject> frame = new ArrayList<MessageObject>(3);
+      frame.add(playersMessage);
+      sendRoundFrame(callable, frame, stackMessage, roundMessage);
+    }
+  }
+
+  private void sendRoundFrame(Callable callable, List<MessageObject> frame,
+                              MessageObject stackMessage, MessageObject roundMessage) {
+    frame.add(stackMessage);
+    if(roundMessage != null)
+      frame.add(roundMessage);
+    table.sendMessage(callable, new MessageObject(GameUpdateType.ROUND_FRAME, frame));
+
+  }
+  /**
+   * Refreshes the client list. The players whose connection dropped during the game keep
+   * their seats as vacant seats, so the game goes on. If a player dropped while no game
+   * runs, the game is canceled.
+   * @return The players whose seats became vacant.
+   */
+  public List<DTOClient> refreshClients() {
+    final List<DTOClient> dropped = new ArrayList<DTOClient>(clientHolder.getInGameValues());
+    if(!clientHolder.refresh()) {
+      dropped.clear();
+    } else if(process.isGameInProcess()) {
+      dropped.removeAll(clientHolder.getInGameValues());
+      for (DTOClient player : dropped)
+        vacantSeats.put(player.name, player);
+    } else {
+      dropped.clear();
+      /* If somehow a client lost connection to the server, */
+      /* the players in the process should be restored */
+      if(clientHolder.getInGameKeys().size() + bots.size() + vacantSeats.size()
+          != process.getPlayerCount()) {
+        stopGame(true);
+        /* add the deleted players back to the list */
+        for (DTOClient client : getPlayers())
+          process.setPlayer(getPlayerID(client));
+      }
+    }
+    return dropped;
+  }
+
+  public boolean hasVacantSeat(String name) {
+    return vacantSeats.containsKey(name);
+  }
+
+  public boolean isPlayer(Callable callable) {
+    return clientHolder.getInGameValue(callable) != null;
+  }
+
+  /* Returns the number of players that are clients, i.e. not bots and no vacant seats */
+  public int getClientPlayerCount() {
+    return clientHolder.getInGameValues().size();
+  }
+
+  public DTOClient getClient(Callable callable) {
+    return clientHolder.getValue(callable);
+  }
+
+  public List<DTOClient> getClients() {
+    final List<DTOClient> clients = clientHolder.getAllValues();
+    clients.addAll(bots.values());
+    return clients;
+  }
+
+  /* Returns the clients and bots that play in the game */
+  private List<DTOClient> getPlayers() {
+    final List<DTOClient> players = new ArrayList<DTOClient>(clientHolder.getInGameValues());
+    players.addAll(bots.values());
+    players.addAll(vacantSeats.values());
+    return players;
+  }
+
+  /**
+   * Returns a copy of the client for a message. The messages of a table are sent after its
+   * command, so they must not carry the clients that the next commands change.
+   * @param client The client.
+   * @return The copy.
+   */
+  static DTOClient copyClient(DTOClient client) {
+    final DTOClient copy = new DTOClient("");
+    copy.setClientInfo(client);
+    return copy;
+  }
+
+  /**
+   * Returns copies of the clients for a message, see {@link #copyClient(DTOClient)}.
+   * @param clients The clients.
+   * @return A new list with the copies.
+   */
+  static List<DTOClient> copyClients(Collection<DTOClient> clients) {
+    final List<DTOClient> copies = new ArrayList<DTOClient>(clients.size());
+    for (DTOClient client : clients)
+      copies.add(copyClient(client));
+    return copies;
+  }
+
+  /**
+   * Returns the players in the order of their seats.
+   * @return The players, an empty list if no game is running.
+   */
+  public List<DTOClient> getSeats() {
+    final Map<Integer, DTOClient> players = new HashMap<Integer, DTOClient>();
+    for (DTOClient player : getPlayers())
+      players.put(getPlayerID(player), player);
+
+    final List<DTOClient> seats = new ArrayList<DTOClient>();
+    for (Integer playerID : process.getPlayerIDs())
+      seats.add(players.get(playerID));
+    return seats;
+  }
+
+  private List<String> getSeatNames() {
+    final List<String> names = new ArrayList<String>();
+    for (DTOClient seat : getSeats())
+      names.add(seat.name);
+    return names;
+  }
+
+  public Collection<DTOClient> getVacantSeats() {
+    return new ArrayList<DTOClient>(vacantSeats.values());
+  }
+
+  public boolean isBot(DTOClient client) {
+    return bots.containsKey(getPlayerID(client));
+  }
+
+  public Collection<Integer> getBotIDs() {
+    return new ArrayList<Integer>(bots.keySet());
+  }
+
+  public DTOClient getBot(Integer playerID) {
+    return bots.get(playerID);
+  }
+
+  public List<Callable> getRemoteReferences() {
+    return clientHolder.getAllKeys();
+  }
+
+  public GameProcess<Integer> getProcess() {
+    return process;
+  }
+
+  public List<DTOClient> getClients(Collection<Callable> callables) {
+    final List<DTOClient> clients = new ArrayList<DTOClient>(callables.size());
+    for (Callable callable : callables) {
+      clients.add(clientHolder.getValue(callable));
+    }
+    return clients;
+  }
+}
@@ -0,0 +1,128 @@
+package server.business;
+
+import common.utilities.LoggingUtility;
+import common.utilities.Miscellaneous;
+
+import java.util.*;
+import java.util.logging.Logger;
+
+class IngameSpectatorHolder<K,V> {
+  private static final Logger LOGGER = LoggingUtility.getLogger(IngameSpectatorHolder.class.getName());
+  private Map<K,V> ingameMap;
+  private Map<K,V> spectatorMap;
+
+  /* Constructors */
+
+  IngameSpectatorHolder() {
+    ingameMap = new HashMap<K,V>(6);
+    spectatorMap = new HashMap<K,V>(6);
+  }
+
+  /* Methods */
+
+  public void addInGameValue(K key, V value) {
+    spectatorMap.remove(key);
+    ingameMap.put(key, value);
+  }
+
+  public void addSpectator(K key, V value) {
+    ingameMap.remove(key);
+    spectatorMap.put(key, value);
+  }
+
+  public boolean removeKey(K key) {
+    return  (ingameMap.remove(key) != null) || (spectatorMap.remove(key) != null);
+  }
+
+  /* Getter and Setter */
+
+  /* Returns a copy of all values as one list */
+  public List<V> getAllValues() {
+    final List<V> values = new ArrayList<V>(ingameMap.size()+spectatorMap.size());
+    Miscellaneous.addAllToCollection(values, ingameMap.values());
+    Miscellaneous.addAllToCollection(values, spectatorMap.values());
+    return values;
+  }
+
+  /* Returns a copy of all keys as one list */
+  public List<K> getAllKeys() {
+    final List<K> keys = new ArrayList<K>(ingameMap.size()+spectatorMap.size());
+    Miscellaneous.addAllToCollection(keys, ingameMap.keySet());
+    Miscellaneous.addAllToCollection(keys, spectatorMap.keySet());
+    return keys;
+  }
+
+  public V getInGameValue(K key) {
+    return ingameMap.get(key);
+  }
+
+  @SuppressWarnings("UnusedDeclaration")
+  public V getSpectatorValue(K key) {
+    return spectatorMap.get(key);
+  }
+
+  public V getValue(K key) {
+    if(ingameMap.containsKey(key))
+      return ingameMap.get(key);
+    else if(spectatorMap.containsKey(key))
+      return spectatorMap.get(key);
+    else return null;
+  }
+
+  public Collection<K> getInGameKeys() {
+    return ingameMap.keySet();
+  }
+
+  public Collection<K> getSpectatorKeys() {
+    return spectatorMap.keySet();
+  }
+
+  public Collection<V> getInGameValues() {
+    return ingameMap.values();
+  }
+
+  @SuppressWarnings("UnusedDeclaration")
+  public Collection<V> getSpectatorValues() {
+    return spectatorMap.values();
+  }
+
+  public boolean containsKey(K key) {
+    return ingameMap.containsKey(key) || spectatorMap.containsKey(key);
+  }
+
+  public void clear() {
+    ingameMap.clear();
+    spectatorMap.clear();
+  }
+
+  /**
+   * Returns true if something was changed. Otherwise false.
+   */
+  public boolean refresh() {
+    boolean changed = false;
+    Map<K,V> refreshedMap = getRefreshedMap(ingameMap, "ingameMap"); //NON-NLS
+    if(refreshedMap.size() != ingameMap.size()) {
+      ingameMap = refreshedMap;
+      changed = true;
+    }
+
+    refreshedMap = getRefreshedMap(spectatorMap, "spectatorMap"); //NON-NLS
+    if(refreshedMap.size() != spectatorMap.size()) {
+      spectatorMap = refreshedMap;
+      changed = true;
+    }
+    return changed;
+  }
+
+  private Map<K,V> getRefreshedMap(Map<K,V> map, String fieldName) {
+    final Map<K,V> refreshedMap = new HashMap<K, V>(map.size());
+    for (K k : map.keySet()) {
+      try {
+        refreshedMap.put(k,map.get(k));
+      } catch (Exception e) {
+        LOGGER.warning("Could not access to a key in "+fieldName);
+      }
+    }
+    return refreshedMap;
+  }
+}
@@ -0,0 +1,193 @@
+package server.business;
+
+import common.utilities.LoggingUtility;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Writes the records of all journals of the server behind the tables on a thread of its
+ * own. The records that are waiting when the thread wakes up are written as one batch and
+ * every journal of the batch is forced to the disk once, so many actions share one
+ * expensive force call. A table only puts the record into the queue, it never waits for
+ * the disk, and the action of a record is acknowledged to the clients before the record
+ * is forced. A crash can therefore lose the last acknowledged actions of a game, but never
+ * a record in the middle of a journal. {@link #flush()} waits until the records are on
+ * the disk and {@link #stop()} writes the waiting records and closes all journals.
+ */
+class JournalWriter implements Runnable {
+  private static final Logger LOGGER = LoggingUtility.getLogger(JournalWriter.class.getName());
+
+  /** Maximum number of records of one batch. */
+  private static final int MAXIMUM_BATCH = 256;
+  /** Maximum time to wait for {@link #flush()} and {@link #stop()}. */
+  private static final long WAIT_SECONDS = 10L;
+
+  private final BlockingQueue<Entry> entries;
+
+  /* Constructors */
+
+  JournalWriter() {
+    this.entries = new LinkedBlockingQueue<Entry>();
+  }
+
+  /* Methods */
+
+  /**
+   * Starts the writer thread.
+   */
+  void start() {
+    final Thread thread = new Thread(this, "JournalWriter"); //NON-NLS
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Appends the record to the channel.
+   * @param channel Channel of the journal.
+   * @param record The record, from its position to its limit.
+   * @param truncate If true, the channel will be emptied before the record is written.
+   */
+  void write(FileChannel channel, ByteBuffer record, boolean truncate) {
+    entries.offer(new Entry(channel, record, truncate, false, null));
+  }
+
+  /**
+   * Closes the channel after the records before have been written.
+   * @param channel Channel of the journal.
+   */
+  void close(FileChannel channel) {
+    entries.offer(new Entry(channel, null, false, true, null));
+  }
+
+  /**
+   * Waits until the records before have been written and forced to the disk.
+   */
+  void flush() {
+    final CountDownLatch done = new CountDownLatch(1);
+    entries.offer(new Entry(null, null, false, false, done));
+    await(done);
+  }
+
+  /**
+   * Writes the records before, closes all journals and stops the writer thread. The
+   * journals of running games get no end record, so the games will be recovered.
+   */
+  void stop() {
+    final CountDownLatch done = new CountDownLatch(1);
+    entries.offer(new Entry(null, null, false, true, done));
+    await(done);
+  }
+
+  private void await(CountDownLatch done) {
+    try {
+      if(!done.await(WAIT_SECONDS, TimeUnit.SECONDS))
+        LOGGER.warning("Journal writer did not finish in time");
+    } catch (InterruptedException e) {
+      LOGGER.warning("Waiting for the journal writer interrupted: "+e.getMessage());
+    }
+  }
+
+  public void run() {
+    final List<Entry> batch = new ArrayList<Entry>(MAXIMUM_BATCH);
+    final Set<FileChannel> written = new LinkedHashSet<FileChannel>();
+    /* channels that were written and not closed yet, they are closed when it stops */
+    final Set<FileChannel> open = new LinkedHashSet<FileChannel>();
+    final List<Entry> waiting = new ArrayList<Entry>();
+    boolean stopped = false;
+    while (!stopped) {
+      try {
+        batch.add(entries.take());
+      } catch (InterruptedException e) {
+        LOGGER.warning("Journal writer interrupted: "+e.getMessage());
+        return;
+      }
+      entries.drainTo(batch, MAXIMUM_BATCH - 1);
+
+      for (Entry entry : batch) {
+        try {
+          if(entry.done != null) {
+            waiting.add(entry);
+          } else if(entry.close) {
+            force(entry.channel, written);
+            open.remove(entry.channel);
+            entry.channel.close();
+          } else {
+            if(entry.truncate)
+              entry.channel.truncate(0L);
+            while (entry.record.hasRemaining())
+              entry.channel.write(entry.record);
+            written.add(entry.channel);
+            open.add(entry.channel);
+          }
+        } catch (IOException e) {
+          LOGGER.severe("Could not write journal: "+e.getMessage());
+        }
+      }
+      for (FileChannel channel : written) {
+        try {
+          channel.force(false);
+        } catch (IOException e) {
+          LOGGER.severe("Could not force journal: "+e.getMessage());
+        }
+      }
+      written.clear();
+      batch.clear();
+
+      for (Entry entry : waiting) {
+        if(entry.close) {
+          close(open);
+          stopped = true;
+        }
+        entry.done.countDown();
+      }
+      waiting.clear();
+    }
+  }
+
+  private void close(Set<FileChannel> channels) {
+    for (FileChannel channel : channels) {
+      try {
+        channel.close();
+      } catch (IOException e) {
+        LOGGER.severe("Could not close journal: "+e.getMessage());
+      }
+    }
+    channels.clear();
+  }
+
+  private void force(FileChannel channel, Set<FileChannel> written) throws IOException {
+    if(written.remove(channel))
+      channel.force(false);
+  }
+
+  /* Inner Classes */
+
+  private static class Entry {
+    private final FileChannel channel;
+    private final ByteBuffer record;
+    private final boolean truncate;
+    private final boolean close;
+    /** Counted down when the entries before are on the disk, null for a record. */
+    private final CountDownLatch done;
+
+    private Entry(FileChannel channel, ByteBuffer record, boolean truncate, boolean close,
+                  CountDownLatch done) {
+      this.channel = channel;
+      this.record = record;
+      this.truncate = truncate;
+      this.close = close;
+      this.done = done;
+    }
+  }
+}
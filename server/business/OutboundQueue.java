@@ -0,0 +1,215 @@
+package server.business;
+
+import common.dto.message.BroadcastType;
+import common.dto.message.GameUpdateType;
+import common.dto.message.MessageObject;
+import common.dto.message.MessageType;
+import common.simon.Callable;
+import common.simon.codec.WireCodec;
+import common.simon.codec.WireCodecException;
+import common.utilities.LoggingUtility;
+
+import java.util.*;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * This class queues the messages for one client and sends them in order on a dedicated
+ * thread. A slow or half-dead client therefore never blocks the thread that produces the
+ * messages, e.g. the thread that handles the action of another player. The capacity of the
+ * queue is bounded, see {@link OverflowPolicy} for what happens if the queue is full.
+ */
+class OutboundQueue implements Runnable {
+  private static final Logger LOGGER = LoggingUtility.getLogger(OutboundQueue.class.getName());
+
+  static final int DEFAULT_CAPACITY = 64;
+  private static final long POLL_TIMEOUT_MILLIS = 500L;
+
+  /** Types of messages that describe a state. A newer message of such a type makes an
+   *  older one obsolete. */
+  private static final Set<Enum<?>> SUPERSEDABLE_TYPES = new HashSet<Enum<?>>(Arrays.asList(
+      GameUpdateType.CLIENT_CARDS, GameUpdateType.IN_GAME_CARDS,
+      GameUpdateType.INITIALISE_PLAYERS, GameUpdateType.PLAYERS_UPDATE,
+      GameUpdateType.STACK_SUMMARY, GameUpdateType.STACK_UPDATE,
+      BroadcastType.LOGIN_LIST, MessageType.OWN_CLIENT_INFO));
+  /** Types of messages that are replaced by a resync of the client, see
+   *  {@link GameServer#resyncClient(Callable)}. */
+  private static final Set<Enum<?>> RESYNCED_TYPES = new HashSet<Enum<?>>(SUPERSEDABLE_TYPES);
+  static {
+    RESYNCED_TYPES.add(GameUpdateType.ROUND_FRAME);
+    RESYNCED_TYPES.add(GameUpdateType.NEXT_ROUND_INFO);
+  }
+
+  private final GameServer server;
+  private final Callable callable;
+  private final WireCodec codec;
+  private final OverflowPolicy policy;
+  private final BlockingDeque<MessageObject> queue;
+  private volatile boolean closed;
+  /** True from a resync of the client until the queue was empty for the first time. */
+  private volatile boolean resyncPending;
+
+  /* Constructors */
+
+  OutboundQueue(GameServer server, Callable callable, WireCodec codec, OverflowPolicy policy,
+                int capacity) {
+    this.server = server;
+    this.callable = callable;
+    this.codec = codec;
+    this.policy = policy;
+    this.queue = new LinkedBlockingDeque<MessageObject>(capacity);
+    this.closed = false;
+    this.resyncPending = false;
+  }
+
+  /* Methods */
+
+  /**
+   * Starts the sender thread of this queue.
+   */
+  void start() {
+    final Thread sender = new Thread(this, "OutboundQueue-"+callable.hashCode()); //NON-NLS
+    sender.setDaemon(true);
+    sender.start();
+  }
+
+  /**
+   * Closes the queue. No more messages will be accepted afterwards.
+   * @param drain If true, the messages in the queue will be sent before the sender thread
+   *              stops, else they will be discarded.
+   */
+  void close(boolean drain) {
+    closed = true;
+    if(!drain)
+      queue.clear();
+  }
+
+  /**
+   * Appends the message to the queue. This method never blocks. If the queue is full the
+   * {@link OverflowPolicy} of this queue will be applied.
+   * @param message Message to send.
+   * @return True, if the message was enqueued, else false.
+   */
+  synchronized boolean offer(MessageObject message) {
+    if(closed)
+      return false;
+    if(queue.offerLast(message))
+      return true;
+
+    LOGGER.warning("Outbound queue of a client is full, applying policy "+policy);
+    if(OverflowPolicy.DROP_SUPERSEDED.equals(policy)) {
+      return dropSuperseded(message);
+    } else if(OverflowPolicy.DEMOTE_TO_SPECTATOR.equals(policy)) {
+      queue.clear();
+      server.handleOverflow(callable, policy);
+      return queue.offerLast(message);
+    } else {
+      close(false);
+      server.handleOverflow(callable, policy);
+      return false;
+    }
+  }
+
+  /* Makes room for the message by removing the queued message of the same type, the new
+   * message supersedes it. If there is none, the client lags behind and will be resynced. */
+  private boolean dropSuperseded(MessageObject message) {
+    if(removeNewestOfType(message.getType()))
+      return queue.offerLast(message);
+    return resync(message);
+  }
+
+  /* Removes the messages that describe the state of the game, the server sends the client
+   * the current state instead. All other messages, e.g. chat messages, stay in the queue.
+   * A client that lags behind again before it received the resync will be disconnected. */
+  private boolean resync(MessageObject message) {
+    if(!resyncPending) {
+      removeResyncedMessages();
+      resyncPending = true;
+      LOGGER.warning("Resyncing a client that lags behind");
+      server.resyncClient(callable);
+      /* the resync contains the state of the message */
+      if(RESYNCED_TYPES.contains(message.getType()) || queue.offerLast(message))
+        return true;
+    }
+
+    LOGGER.warning("Disconnecting a client that lags behind, could not queue message "
+        +message.getType());
+    close(false);
+    server.handleOverflow(callable, OverflowPolicy.DISCONNECT);
+    return false;
+  }
+
+  /**
+   * Returns true, if a message of the type describes a state, so that a newer message of
+   * the same type makes it obsolete.
+   * @param type Type of a message.
+   * @return True, if the message can be superseded, else false.
+   */
+  static boolean isSupersedable(Enum<?> type) {
+    return SUPERSEDABLE_TYPES.contains(type);
+  }
+
+  private boolean removeNewestOfType(Enum<?> type) {
+    if(!SUPERSEDABLE_TYPES.contains(type))
+      return false;
+
+    final Iterator<MessageObject> iterator = queue.descendingIterator();
+    while (iterator.hasNext()) {
+      if(type.equals(iterator.next().getType())) {
+        iterator.remove();
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void removeResyncedMessages() {
+    final Iterator<MessageObject> iterator = queue.iterator();
+    while (iterator.hasNext()) {
+      if(RESYNCED_TYPES.contains(iterator.next().getType()))
+        iterator.remove();
+    }
+  }
+
+  public void run() {
+    while (!(closed && queue.isEmpty())) {
+      try {
+        final MessageObject message = queue.pollFirst(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        if(message != null)
+          deliver(message);
+        if(queue.isEmpty())
+          resyncPending = false;
+      } catch (InterruptedException e) {
+        LOGGER.warning("Sender thread interrupted: "+e.getMessage());
+        return;
+      }
+    }
+  }
+
+  /* Sends the message encoded if the client negotiated a codec. A message that can not be
+   * encoded will be sent with Java serialization. The new names of the message only enter
+   * the dictionary of the codec, if the message was delivered. */
+  private void deliver(MessageObject message) {
+    try {
+      if(codec != null) {
+        callable.callback(encode(message));
+        codec.commitNames();
+      } else callable.callback(message);
+    } catch (Exception e) {
+      if(codec != null)
+        codec.rollbackNames();
+      LOGGER.warning("Could not send message "+message.getType()+": "+e.getMessage());
+    }
+  }
+
+  private Object encode(MessageObject message) {
+    try {
+      return codec.encodeMessage(message);
+    } catch (WireCodecException e) {
+      LOGGER.fine("Sending message unencoded: "+e.getMessage());
+      return message;
+    }
+  }
+}
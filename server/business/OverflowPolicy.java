@@ -0,0 +1,17 @@
+package server.business;
+
+/**
+ * This enumeration defines what the server does, if the outbound queue of a client is full,
+ * i.e. the client does not receive its messages as fast as the server produces them.
+ */
+public enum OverflowPolicy {
+  /** An older state message of the client's queue will be dropped if a newer one of the
+   *  same type is queued. If nothing is superseded, the state messages will be replaced by
+   *  a resync of the client. A client that lags behind again before the resync arrived will
+   *  be logged off the server. */
+  DROP_SUPERSEDED,
+  /** The client's queue will be emptied and the client becomes a spectator of its table */
+  DEMOTE_TO_SPECTATOR,
+  /** The client will be logged off the server */
+  DISCONNECT
+}
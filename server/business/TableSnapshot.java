@@ -0,0 +1,169 @@
+package server.business;
+
+import common.dto.DTOClient;
+import common.game.GameCard;
+import common.simon.Callable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable picture of the clients and the game of a table. A table publishes a new
+ * snapshot after every command of its mailbox that changed something, see
+ * {@link GameTable#getSnapshot()}. Readers like the gui take the latest snapshot without
+ * waiting for the table and without copying. If the version of a snapshot is the same as
+ * the version of a snapshot they read before, nothing has changed.
+ * The clients of a snapshot are copies that are shared by all readers, they must not be
+ * changed.
+ */
+public final class TableSnapshot {
+  private final String tableName;
+  private final long version;
+  private final List<Callable> remoteReferences;
+  private final List<DTOClient> clients;
+  private final Map<Callable, DTOClient> clientMap;
+  private final Set<String> clientNames;
+  private final boolean gameRunning;
+  private final int stackSize;
+  private final List<GameCard> attackCards;
+  private final List<GameCard> defenseCards;
+
+  /* Constructors */
+
+  /**
+   * Creates a snapshot. The lists are copied, the clients are copied as well.
+   * @param tableName Name of the table.
+   * @param version Version of the snapshot.
+   * @param remoteReferences Remote references of the clients of the table.
+   * @param clients Clients in the order of the remote references, followed by the bots and
+   *                the players of vacant seats.
+   * @param gameRunning True, if a game is running at the table.
+   * @param stackSize Number of cards on the stack.
+   * @param attackCards Attack cards on the table.
+   * @param defenseCards Defense cards on the table, null for an unbeaten card.
+   */
+  TableSnapshot(String tableName, long version, List<Callable> remoteReferences,
+                List<DTOClient> clients, boolean gameRunning, int stackSize,
+                List<GameCard> attackCards, List<GameCard> defenseCards) {
+    this.tableName = tableName;
+    this.version = version;
+    this.remoteReferences =
+        Collections.unmodifiableList(new ArrayList<Callable>(remoteReferences));
+
+    final List<DTOClient> clientCopies = new ArrayList<DTOClient>(clients.size());
+    final Map<Callable, DTOClient> map = new HashMap<Callable, DTOClient>(clients.size() * 2);
+    final Set<String> names = new HashSet<String>(clients.size() * 2);
+    for (int index = 0; index < clients.size(); index++) {
+      final DTOClient copy = new DTOClient("");
+      copy.setClientInfo(clients.get(index));
+      clientCopies.add(copy);
+      names.add(copy.name);
+      if(index < remoteReferences.size())
+        map.put(remoteReferences.get(index), copy);
+    }
+    this.clients = Collections.unmodifiableList(clientCopies);
+    this.clientMap = map;
+    this.clientNames = names;
+
+    this.gameRunning = gameRunning;
+    this.stackSize = stackSize;
+    this.attackCards = Collections.unmodifiableList(new ArrayList<GameCard>(attackCards));
+    this.defenseCards = Collections.unmodifiableList(new ArrayList<GameCard>(defenseCards));
+  }
+
+  /* Methods */
+
+  /**
+   * Returns a snapshot with the same content and the specified version.
+   * @param version New version.
+   * @return The snapshot.
+   */
+  TableSnapshot withVersion(long version) {
+    return new TableSnapshot(tableName, version, remoteReferences, clients, gameRunning,
+        stackSize, attackCards, defenseCards);
+  }
+
+  /**
+   * Returns true, if the other snapshot shows the same clients and the same game.
+   * The versions are not compared.
+   * @param other Other snapshot, may be null.
+   * @return True, if the content is the same, else false.
+   */
+  boolean hasSameContent(TableSnapshot other) {
+    if(other == null || gameRunning != other.gameRunning || stackSize != other.stackSize ||
+        !remoteReferences.equals(other.remoteReferences) ||
+        !attackCards.equals(other.attackCards) || !defenseCards.equals(other.defenseCards) ||
+        clients.size() != other.clients.size())
+      return false;
+
+    for (int index = 0; index < clients.size(); index++) {
+      final DTOClient client = clients.get(index);
+      final DTOClient otherClient = other.clients.get(index);
+      if(!client.name.equals(otherClient.name) || client.cardCount != otherClient.cardCount ||
+          client.spectating != otherClient.spectating ||
+          client.playerType != otherClient.playerType)
+        return false;
+    }
+    return true;
+  }
+
+  /* Getter and Setter */
+
+  public String getTableName() {
+    return tableName;
+  }
+
+  /**
+   * Returns the version of this snapshot. The version of a table grows with every
+   * snapshot that has another content.
+   * @return The version.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  public List<Callable> getRemoteReferences() {
+    return remoteReferences;
+  }
+
+  /**
+   * Returns the clients and bots of the table.
+   * @return An unmodifiable list of the clients.
+   */
+  public List<DTOClient> getClients() {
+    return clients;
+  }
+
+  public DTOClient getClient(Callable callable) {
+    return clientMap.get(callable);
+  }
+
+  public boolean containsClientName(String name) {
+    return clientNames.contains(name);
+  }
+
+  public boolean isEmpty() {
+    return remoteReferences.isEmpty();
+  }
+
+  public boolean isGameRunning() {
+    return gameRunning;
+  }
+
+  public int getStackSize() {
+    return stackSize;
+  }
+
+  public List<GameCard> getAttackCards() {
+    return attackCards;
+  }
+
+  public List<GameCard> getDefenseCards() {
+    return defenseCards;
+  }
+}
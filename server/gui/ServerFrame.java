@@ -16,6 +16,7 @@ import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
@@ -45,7 +46,10 @@ public class ServerFrame extends JFrame implements Observer {
 
   private DefaultListModel<DTOClient> listModel;
   private JComboBox<Integer> comboStackSize;
+  private JCheckBox checkboxBots;
   private JButton buttonGame;
+  /** Snapshot version of the server when the client list was refreshed the last time. */
+  private long shownSnapshotVersion = -1L;
 
   /* Constructors */
   public ServerFrame() {
@@ -105,6 +109,11 @@ public class ServerFrame extends JFrame implements Observer {
 
   private void handleUpdate(MessageObject object) {
     if (GUIObserverType.CLIENT_LIST.equals(object.getType())) {
+      /* the list is only rebuilt, if a table has changed since the last refresh */
+      final long version = GameServer.getServerInstance().getSnapshotVersion();
+      if(version == shownSnapshotVersion)
+        return;
+      shownSnapshotVersion = version;
       final List<DTOClient> clients = GameServer.getServerInstance().getClients();
       if(clients.size() == 0)
         refreshClientList(null);
@@ -234,12 +243,21 @@ public class ServerFrame extends JFrame implements Observer {
     comboStackSize = new JComboBox<Integer>(new Integer[]{36,40,44,48,52});
     comboStackSize.setEditable(false);
     comboStackSize.setToolTipText(I18nSupport.getValue(GUI_COMPONENT, "tooltip.card.number"));
+    checkboxBots = new JCheckBox(I18nSupport.getValue(GUI_COMPONENT, "text.enabled"));
+    checkboxBots.setToolTipText(I18nSupport.getValue(GUI_COMPONENT, "tooltip.bots"));
+    checkboxBots.addActionListener(new ActionListener() {
+      public void actionPerformed(ActionEvent e) {
+        GameServer.getServerInstance().setFillTablesWithBots(checkboxBots.isSelected());
+      }
+    });
 
     panel.setLayout(new BoxLayout(panel, BoxLayout.PAGE_AXIS));
     panel.setBorder(BorderFactory.createTitledBorder(
         I18nSupport.getValue(GUI_TITLE, "game")));
     panel.add(getGridLinePanel(
         new JLabel(I18nSupport.getValue(GUI_COMPONENT, "text.card.number")), comboStackSize));
+    panel.add(getGridLinePanel(
+        new JLabel(I18nSupport.getValue(GUI_COMPONENT, "text.bots")), checkboxBots));
     panel.setMaximumSize(new Dimension(Integer.MAX_VALUE, panel.getPreferredSize().height));
 
     return panel;